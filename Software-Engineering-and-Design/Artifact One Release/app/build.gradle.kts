@@ -29,13 +29,39 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests {
+            // Robolectric needs merged resources to inflate layouts
+            isIncludeAndroidResources = true
+            // Forward -Dworkload.* (seed, sizes, zipf) to WorkloadBenchmarkTest
+            all { test ->
+                System.getProperties().stringPropertyNames()
+                    .filter { it.startsWith("workload.") }
+                    .forEach { test.systemProperty(it, System.getProperty(it)) }
+                // *Benchmark classes only time things and report (see BenchmarkReport); run them with -Pbenchmarks
+                if (!project.hasProperty("benchmarks")) {
+                    test.exclude("**/*Benchmark.class")
+                }
+            }
+        }
+    }
 }
 
 dependencies {
 
     implementation(libs.appcompat)
     implementation(libs.material)
+    implementation(libs.recyclerview)
+    implementation(libs.sqlite)
+    implementation(libs.sqlcipher.android) {
+        artifact { type = "aar" }
+    }
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.test.core)
+    // Local tests open inventory.db with the platform's SQLite; SQLCipher's native library is device-only
+    testImplementation(libs.sqlite.framework)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.sqlite.framework)
 }
\ No newline at end of file
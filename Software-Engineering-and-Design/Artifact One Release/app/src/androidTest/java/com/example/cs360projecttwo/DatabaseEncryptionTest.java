@@ -0,0 +1,221 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import net.zetetic.database.sqlcipher.SupportOpenHelperFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.*;
+
+/**
+ * Device tests for inventory.db's page-level encryption: the one-time
+ * migration of a plaintext file, that nothing without the key can read
+ * the result, and the page cache every SQLCipher connection is given.
+ * They need SQLCipher's native library and the AndroidKeyStore, so they
+ * only run on a device; local tests use the platform's plain SQLite.
+ *
+ * Each test works on its own scratch file and key, never inventory.db.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseEncryptionTest {
+
+    private static final String NAME = "encryption-test.db";
+    private static final String COPY = "encryption-test-copy.db";
+    private static final int VERSION = 7;
+
+    private Context context;
+    private File database;
+    private File keyFile;
+    private DatabaseEncryption encryption;
+
+    @Before
+    public void setUp() {
+        System.loadLibrary("sqlcipher");
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = context.getDatabasePath(NAME);
+        keyFile = new File(context.getNoBackupFilesDir(), "encryption-test-key.bin");
+        tearDown();
+        database.getParentFile().mkdirs();
+        encryption = new DatabaseEncryption(context, keyFile, BackupCipher.deviceKeyWrapper());
+    }
+
+    @After
+    public void tearDown() {
+        for (String name : new String[]{NAME, COPY}) {
+            context.deleteDatabase(name);
+        }
+        keyFile.delete();
+    }
+
+    @Test
+    public void plaintextFile_isEncryptedInPlaceWithItsData() throws Exception {
+        try (SQLiteDatabase plain = SQLiteDatabase.openOrCreateDatabase(database, null)) {
+            plain.enableWriteAheadLogging(); // left in WAL mode, as the old helper did
+            plain.execSQL("CREATE TABLE users (username TEXT PRIMARY KEY, password_hash TEXT NOT NULL)");
+            plain.execSQL("INSERT INTO users VALUES ('admin', 'hash-of-admin123')");
+            plain.setVersion(VERSION);
+        }
+        assertTrue(DatabaseEncryption.isPlaintext(database));
+
+        SupportSQLiteOpenHelper helper = open(encryption.factoryFor(database), NAME);
+        try {
+            SupportSQLiteDatabase db = helper.getReadableDatabase();
+            assertEquals(VERSION, db.getVersion());
+            try (Cursor cursor = db.query("SELECT password_hash FROM users WHERE username = 'admin'")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals("hash-of-admin123", cursor.getString(0));
+            }
+        } finally {
+            helper.close();
+        }
+
+        assertFalse(DatabaseEncryption.isPlaintext(database));
+        assertFalse(new File(database.getPath() + ".encrypting").exists());
+        String onDisk = new String(Files.readAllBytes(database.toPath()), StandardCharsets.ISO_8859_1);
+        assertFalse(onDisk.contains("hash-of-admin123"));
+
+        // Already encrypted: a second open goes straight to SQLCipher
+        byte[] before = Files.readAllBytes(database.toPath());
+        encryption.factoryFor(database);
+        assertArrayEquals(before, Files.readAllBytes(database.toPath()));
+    }
+
+    @Test
+    public void encryptedFile_isUnreadableWithoutTheKey() throws Exception {
+        createEncrypted();
+        File copy = context.getDatabasePath(COPY);
+
+        // On copies: both error handlers may delete a file they take to be corrupt
+        Files.copy(database.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertThrows(RuntimeException.class, () -> {
+            try (SQLiteDatabase plain = SQLiteDatabase.openDatabase(copy.getPath(), null,
+                    SQLiteDatabase.OPEN_READONLY, db -> { })) {
+                plain.getVersion();
+            }
+        });
+
+        Files.copy(database.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        byte[] wrongKey = "x'0000000000000000000000000000000000000000000000000000000000000000'"
+                .getBytes(StandardCharsets.US_ASCII);
+        SupportSQLiteOpenHelper wrong = open(new SupportOpenHelperFactory(wrongKey), COPY);
+        try {
+            assertThrows(RuntimeException.class, () -> wrong.getReadableDatabase().getVersion());
+        } finally {
+            wrong.close();
+        }
+    }
+
+    @Test
+    public void everyConnection_getsTheTunedPageCache() throws Exception {
+        createEncrypted();
+        SupportSQLiteOpenHelper helper = open(encryption.factoryFor(database), NAME);
+        try {
+            SupportSQLiteDatabase db = helper.getWritableDatabase();
+            // Outside a transaction a read-only statement goes to a pooled reader...
+            assertEquals(-DatabaseEncryption.CACHE_KIB, longPragma(db, "cache_size"));
+            // ...inside one it runs on the primary connection
+            db.beginTransaction();
+            try {
+                assertEquals(-DatabaseEncryption.CACHE_KIB, longPragma(db, "cache_size"));
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            helper.close();
+        }
+    }
+
+    /**
+     * The cache is sized so the inventory table and its indexes stay
+     * decrypted in memory: checked by page count, not by timing, at the
+     * size the class doc promises.
+     */
+    @Test
+    public void cache_holdsTheInventoryAtTensOfThousandsOfItems() throws Exception {
+        int items = 50_000;
+        SupportSQLiteOpenHelper helper = open(encryption.factoryFor(database), NAME);
+        try {
+            SupportSQLiteDatabase db = helper.getWritableDatabase();
+            // The inventory table's columns and indexes as DatabaseHelper builds them
+            db.execSQL("CREATE TABLE inventory (item_id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + " item_name TEXT NOT NULL, item_quantity INTEGER NOT NULL,"
+                    + " consumption_rate REAL NOT NULL DEFAULT 0, rate_updated_at INTEGER NOT NULL DEFAULT 0,"
+                    + " stockout_at INTEGER NOT NULL DEFAULT 0, low_stock_threshold INTEGER NOT NULL DEFAULT 0,"
+                    + " version INTEGER NOT NULL DEFAULT 0, unit_cost_minor INTEGER NOT NULL DEFAULT 0,"
+                    + " category_id INTEGER)");
+            db.execSQL("CREATE INDEX idx_inventory_category ON inventory (category_id)");
+            db.execSQL("CREATE INDEX idx_inventory_stockout ON inventory (stockout_at)");
+            db.beginTransaction();
+            try (SqlStatement insert = SqlStatement.compile(db, "INSERT INTO inventory"
+                    + " (item_name, item_quantity, stockout_at, unit_cost_minor, category_id)"
+                    + " VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= items; i++) {
+                    insert.bindString(1, "Item " + i + " bin " + (i % 500));
+                    insert.bindLong(2, i % 1_000);
+                    insert.bindLong(3, 1_700_000_000_000L + i * 60_000L);
+                    insert.bindLong(4, i % 10_000);
+                    insert.bindLong(5, i % 40);
+                    insert.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            long bytes = longPragma(db, "page_count") * longPragma(db, "page_size");
+            assertTrue("inventory takes " + bytes / 1024 + " KiB", bytes <= DatabaseEncryption.CACHE_KIB * 1024L);
+        } finally {
+            helper.close();
+        }
+    }
+
+    // ----------- Helpers -----------
+
+    private void createEncrypted() throws Exception {
+        SupportSQLiteOpenHelper helper = open(encryption.factoryFor(database), NAME);
+        try {
+            helper.getWritableDatabase().execSQL("CREATE TABLE users (username TEXT PRIMARY KEY)");
+        } finally {
+            helper.close();
+        }
+    }
+
+    private SupportSQLiteOpenHelper open(SupportSQLiteOpenHelper.Factory factory, String name) {
+        SupportSQLiteOpenHelper helper = factory.create(SupportSQLiteOpenHelper.Configuration.builder(context)
+                .name(name)
+                .callback(new SupportSQLiteOpenHelper.Callback(VERSION) {
+                    @Override
+                    public void onCreate(SupportSQLiteDatabase db) {
+                    }
+
+                    @Override
+                    public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                    }
+                })
+                .build());
+        helper.setWriteAheadLoggingEnabled(true);
+        return helper;
+    }
+
+    private static long longPragma(SupportSQLiteDatabase db, String pragma) {
+        try (SqlStatement statement = SqlStatement.compile(db, "PRAGMA " + pragma)) {
+            return statement.simpleQueryForLong();
+        }
+    }
+}
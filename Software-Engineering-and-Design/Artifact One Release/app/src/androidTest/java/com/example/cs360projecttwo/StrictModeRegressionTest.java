@@ -0,0 +1,94 @@
+package com.example.cs360projecttwo;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.click;
+import static androidx.test.espresso.action.ViewActions.closeSoftKeyboard;
+import static androidx.test.espresso.action.ViewActions.typeText;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static org.junit.Assert.*;
+
+/**
+ * Walks login and the inventory grid on a device with StrictMode enabled and
+ * fails if any violation shows up that isn't in assets/strictmode-baseline.txt,
+ * or if a violation listed there no longer shows up (delete its line).
+ *
+ * Run with instrumentation argument strictmode.record=true to print the
+ * current violations in baseline format instead of asserting.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StrictModeRegressionTest {
+
+    private static final String TAG = "StrictModeBaseline";
+
+    @Before
+    public void setUp() {
+        StrictModeGuard.clear();
+    }
+
+    @After
+    public void tearDown() {
+        StrictModeGuard.clear();
+    }
+
+    @Test
+    public void loginAndGrid_addNoNewViolations() throws Exception {
+        try (ActivityScenario<MainActivity> ignored = ActivityScenario.launch(MainActivity.class)) {
+            onView(withId(R.id.usernameField)).perform(typeText("admin"));
+            onView(withId(R.id.passwordField)).perform(typeText("admin123"), closeSoftKeyboard());
+            onView(withId(R.id.loginButton)).perform(click());
+
+            onView(withId(R.id.itemNameInput)).perform(typeText("StrictMode item"));
+            onView(withId(R.id.itemQuantityInput)).perform(typeText("3"), closeSoftKeyboard());
+            onView(withId(R.id.addItemButton)).perform(click());
+            onView(withId(R.id.sortButton)).perform(click());
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        }
+
+        // Leaked cursors and closeables are reported when they are finalized
+        for (int i = 0; i < 3; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+        }
+
+        Map<String, StrictModeGuard.Record> records = StrictModeGuard.getRecords();
+        Bundle args = InstrumentationRegistry.getArguments();
+        if (Boolean.parseBoolean(args.getString("strictmode.record"))) {
+            Log.i(TAG, "\n" + StrictModeBaseline.format(records.keySet()));
+            return;
+        }
+
+        StrictModeBaseline baseline;
+        try (InputStreamReader reader = new InputStreamReader(
+                InstrumentationRegistry.getInstrumentation().getContext().getAssets()
+                        .open("strictmode-baseline.txt"), StandardCharsets.UTF_8)) {
+            baseline = StrictModeBaseline.parse(reader);
+        }
+
+        Set<String> added = baseline.newViolations(records.keySet());
+        StringBuilder message = new StringBuilder("New StrictMode violations (fix them; the baseline must not grow):");
+        for (String key : added) {
+            message.append("\n\n").append(key).append('\n').append(records.get(key).stackTrace);
+        }
+        assertTrue(message.toString(), added.isEmpty());
+
+        Set<String> resolved = baseline.resolved(records.keySet());
+        assertTrue("No longer seen; delete from strictmode-baseline.txt: " + resolved, resolved.isEmpty());
+    }
+}
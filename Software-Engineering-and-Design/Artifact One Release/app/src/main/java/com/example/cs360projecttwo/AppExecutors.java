@@ -0,0 +1,53 @@
+package com.example.cs360projecttwo;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AppExecutors
+ *
+ * Shared thread pools for the app so that disk work (SQLite, backups,
+ * file copies) never runs on the UI thread.
+ */
+public final class AppExecutors {
+
+    private static volatile AppExecutors instance;
+
+    private final ExecutorService diskIO;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        diskIO = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "inventory-disk-io");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+    }
+
+    public static AppExecutors get() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Single background thread for database and file work. */
+    public ExecutorService diskIO() {
+        return diskIO;
+    }
+
+    /** Posts work back onto the UI thread. */
+    public Executor mainThread() {
+        return mainThread;
+    }
+}
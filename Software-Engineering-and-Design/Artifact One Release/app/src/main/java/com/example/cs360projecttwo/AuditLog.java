@@ -0,0 +1,302 @@
+package com.example.cs360projecttwo;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * AuditLog
+ *
+ * Who changed which quantity and when, and who signed in. Recording an
+ * event only writes it into an {@link AuditRingBuffer}; a background thread
+ * later appends everything buffered to the audit_log table in one
+ * transaction. The write that caused the event therefore never waits on
+ * the audit insert.
+ *
+ * Loss is bounded: if the process dies, at most {@link #FLUSH_DELAY_MS} of
+ * events are lost. If the buffer ever fills, newer events are dropped and an
+ * {@link #EVENTS_DROPPED} row records how many. Rows are append-only
+ * (enforced by triggers) and are pruned a whole day at a time once they
+ * pass {@link #RETENTION_MS}.
+ */
+public class AuditLog {
+
+    private static final String TAG = "AuditLog";
+
+    // Event codes stored in audit_log.event; never renumber
+    public static final int LOGIN = 1;
+    public static final int LOGIN_FAILED = 2;
+    public static final int LOGOUT = 3;
+    public static final int ITEM_ADDED = 10;
+    public static final int QUANTITY_CHANGED = 11;
+    public static final int ITEM_DELETED = 12;
+    public static final int THRESHOLD_CHANGED = 13;
+    public static final int UNIT_COST_CHANGED = 14;
+    public static final int ITEM_RENAMED = 15;
+    /** after = the new category id, 0 for none. */
+    public static final int CATEGORY_CHANGED = 16;
+    /** after = the tag id. */
+    public static final int TAG_ADDED = 17;
+    /** before = the tag id. */
+    public static final int TAG_REMOVED = 18;
+    public static final int EVENTS_DROPPED = 99;
+
+    static final String TABLE_AUDIT_LOG = "audit_log";
+    /** Rows younger than this can't be deleted (see DatabaseHelper's audit triggers). */
+    static final long RETENTION_MS = 90 * QuantityHistoryStore.DAY_MS;
+    static final long FLUSH_DELAY_MS = 250;
+    static final int CAPACITY = 1 << 14;
+    // Flush straight away once the buffer is this full, without waiting for the delay
+    private static final int HIGH_WATER = CAPACITY / 2;
+    // Rows per transaction, so a large backlog doesn't hold the writer for long
+    private static final int MAX_BATCH = 2_048;
+    private static final String SYSTEM_ACTOR = "system";
+
+    /** One stored audit row. */
+    public static final class Event {
+        public final long at;
+        public final int event;
+        public final String actor;
+        public final long itemId;
+        public final long before;
+        public final long after;
+
+        public Event(long at, int event, String actor, long itemId, long before, long after) {
+            this.at = at;
+            this.event = event;
+            this.actor = actor;
+            this.itemId = itemId;
+            this.before = before;
+            this.after = after;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final AuditRingBuffer buffer = new AuditRingBuffer(CAPACITY);
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean flushNow = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    // User signed in on this device; writes made on its behalf are attributed to it
+    private volatile String sessionActor;
+    // Overrides the session user for writes made on behalf of another app (see InventoryProvider)
+    private final ThreadLocal<String> callerActor = new ThreadLocal<>();
+
+    public AuditLog(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-audit");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    // ----------- Actors -----------
+
+    /** Sets (or clears, with null) the signed-in user. */
+    public void setSessionActor(String username) {
+        sessionActor = username;
+    }
+
+    /** Who a write made on this thread right now should be attributed to. */
+    public String currentActor() {
+        String caller = callerActor.get();
+        if (caller != null) {
+            return caller;
+        }
+        String session = sessionActor;
+        return session != null ? session : SYSTEM_ACTOR;
+    }
+
+    /** Runs {@code work} with every event it records attributed to {@code actor}. */
+    public <T> T runAs(String actor, Supplier<T> work) {
+        String previous = callerActor.get();
+        callerActor.set(actor);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                callerActor.set(previous);
+            } else {
+                callerActor.remove();
+            }
+        }
+    }
+
+    // ----------- Recording (hot path) -----------
+
+    /** Records an inventory event by the current actor. Never blocks or touches the database. */
+    public void record(int event, long itemId, long before, long after) {
+        recordAt(System.currentTimeMillis(), event, currentActor(), itemId, before, after);
+    }
+
+    /** Records a sign-in related event for {@code username}. */
+    public void recordAuth(int event, String username) {
+        recordAt(System.currentTimeMillis(), event, username, 0, 0, 0);
+    }
+
+    /** Records events that were captured earlier, e.g. held back until their transaction committed. */
+    public void recordAll(Collection<Event> events) {
+        for (Event e : events) {
+            record(e);
+        }
+    }
+
+    void record(Event e) {
+        recordAt(e.at, e.event, e.actor, e.itemId, e.before, e.after);
+    }
+
+    void recordAt(long at, int event, String actor, long itemId, long before, long after) {
+        if (!buffer.offer(at, event, actor, itemId, before, after)) {
+            return; // counted; the next flush writes an EVENTS_DROPPED row
+        }
+        if (!flushScheduled.get() && flushScheduled.compareAndSet(false, true)) {
+            scheduleFlush(FLUSH_DELAY_MS);
+        } else if (buffer.size() >= HIGH_WATER && !flushNow.get() && flushNow.compareAndSet(false, true)) {
+            scheduleFlush(0);
+        }
+    }
+
+    private void scheduleFlush(long delayMs) {
+        try {
+            flusher.schedule(this::flushQuietly, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed; close() already wrote what was buffered
+        }
+    }
+
+    // ----------- Flushing -----------
+
+    /**
+     * Appends everything buffered so far to audit_log and returns how many
+     * rows were written. Normally runs on the audit thread; call it directly
+     * to make sure nothing is pending, e.g. before a backup.
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            // Cleared first: anything recorded from here on schedules another flush
+            flushScheduled.set(false);
+            flushNow.set(false);
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            int written = 0;
+            while (true) {
+                int batch = 0;
+                db.beginTransaction();
+                try (SqlStatement insert = SqlStatement.compile(db, InventoryQueries.AUDIT_INSERT.sql)) {
+                    long dropped = buffer.takeDropped();
+                    if (dropped > 0) {
+                        Log.w(TAG, "Audit buffer overflowed; " + dropped + " events dropped");
+                        insertRow(insert, System.currentTimeMillis(), EVENTS_DROPPED, SYSTEM_ACTOR, 0, 0, dropped);
+                    }
+                    batch = buffer.drain((at, event, actor, itemId, before, after) ->
+                            insertRow(insert, at, event, actor, itemId, before, after), MAX_BATCH);
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+                written += batch;
+                if (batch < MAX_BATCH) {
+                    return written;
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes what is buffered, then runs {@code work} with flushing held
+     * off, so the audit thread never writes to a file that is being swapped
+     * out. Events recorded meanwhile stay buffered for the next flush.
+     */
+    void pauseWhile(DatabaseHelper.FileWork work) throws IOException {
+        synchronized (flushLock) {
+            flush();
+            work.run();
+        }
+    }
+
+    /**
+     * Test hook: returns once a flush scheduled by an event recorded before
+     * the call has run. The audit thread runs tasks due at the same time in
+     * the order they were scheduled.
+     */
+    void awaitScheduledFlushForTesting() throws Exception {
+        flusher.schedule(() -> { }, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS).get();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Rows drained into the failed transaction are lost; later events still get written
+            Log.e(TAG, "Audit flush failed", e);
+        }
+    }
+
+    private static void insertRow(SqlStatement insert, long at, int event, String actor,
+                                  long itemId, long before, long after) {
+        insert.bindLong(1, at);
+        insert.bindLong(2, event);
+        if (actor != null) {
+            insert.bindString(3, actor);
+        } else {
+            insert.bindNull(3);
+        }
+        insert.bindLong(4, itemId);
+        insert.bindLong(5, before);
+        insert.bindLong(6, after);
+        insert.executeInsert();
+    }
+
+    /** Flushes what is buffered and stops the audit thread. */
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    // ----------- Rotation & reads -----------
+
+    /**
+     * Deletes whole days of rows older than {@link #RETENTION_MS}. Runs from
+     * the daily idle job; returns how many rows were removed.
+     */
+    public int prune(long now) {
+        long cutoff = ((now - RETENTION_MS) / QuantityHistoryStore.DAY_MS) * QuantityHistoryStore.DAY_MS;
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        try (SqlStatement delete = SqlStatement.compile(db, InventoryQueries.AUDIT_PRUNE.sql)) {
+            delete.bindLong(1, cutoff);
+            return delete.executeUpdateDelete();
+        }
+    }
+
+    /** Up to {@code limit} rows recorded at or after {@code fromMs}, newest first. */
+    public List<Event> getEvents(long fromMs, int limit) {
+        List<Event> events = new ArrayList<>();
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.AUDIT_SINCE.sql,
+                new String[]{String.valueOf(fromMs), String.valueOf(limit)})) {
+            while (cursor.moveToNext()) {
+                events.add(new Event(cursor.getLong(0), cursor.getInt(1), cursor.getString(2),
+                        cursor.getLong(3), cursor.getLong(4), cursor.getLong(5)));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.cs360projecttwo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AuditRingBuffer
+ *
+ * Fixed-size, lock-free queue of audit events: many threads offer, one
+ * thread drains. Each slot carries a sequence number, so a producer claims
+ * a slot with a single compare-and-set on the tail and publishes it with an
+ * ordered write of the slot's sequence; nothing blocks and nothing is
+ * allocated per event.
+ *
+ * When the buffer is full, {@link #offer} gives up immediately and the
+ * event is counted as dropped rather than stalling the caller. The drainer
+ * reports the count so the loss shows up in the log itself.
+ */
+final class AuditRingBuffer {
+
+    /** Receives drained events in the order they were published. */
+    interface Sink {
+        void accept(long at, int event, String actor, long itemId, long before, long after);
+    }
+
+    private final int capacity;
+    private final int mask;
+    // sequence[i] == position: slot free for that position; == position + 1: published
+    private final AtomicLongArray sequence;
+    private final long[] at;
+    private final int[] event;
+    private final String[] actor;
+    private final long[] itemId;
+    private final long[] before;
+    private final long[] after;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // Written by the single drainer only; volatile so size() can read it from producers
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequence.set(i, i);
+        }
+        at = new long[capacity];
+        event = new int[capacity];
+        actor = new String[capacity];
+        itemId = new long[capacity];
+        before = new long[capacity];
+        after = new long[capacity];
+    }
+
+    /** Appends one event; returns false (and counts a drop) if the buffer is full. */
+    boolean offer(long at, int event, String actor, long itemId, long before, long after) {
+        long position = tail.get();
+        int slot;
+        while (true) {
+            slot = (int) position & mask;
+            long diff = sequence.get(slot) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get(); // another producer took it
+            } else if (diff < 0) {
+                dropped.incrementAndGet(); // drainer hasn't freed this slot yet
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        this.at[slot] = at;
+        this.event[slot] = event;
+        this.actor[slot] = actor;
+        this.itemId[slot] = itemId;
+        this.before[slot] = before;
+        this.after[slot] = after;
+        sequence.lazySet(slot, position + 1); // publish
+        return true;
+    }
+
+    /**
+     * Drains up to {@code max} published events into {@code sink}. Single
+     * drainer thread only. If the sink throws, the event it was given stays
+     * at the head and is offered again on the next drain.
+     */
+    int drain(Sink sink, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) position & mask;
+            if (sequence.get(slot) != position + 1) {
+                break; // empty, or the producer is still writing this slot
+            }
+            sink.accept(at[slot], event[slot], actor[slot], itemId[slot], before[slot], after[slot]);
+            actor[slot] = null;
+            sequence.lazySet(slot, position + capacity); // free for the next lap
+            head = ++position;
+            drained++;
+        }
+        return drained;
+    }
+
+    /** Events claimed but not yet drained (approximate while producers are active). */
+    int size() {
+        return (int) (tail.get() - head);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /** Returns and resets the number of events dropped because the buffer was full. */
+    long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+}
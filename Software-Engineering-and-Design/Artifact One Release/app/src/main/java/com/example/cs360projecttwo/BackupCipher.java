@@ -0,0 +1,483 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.security.keystore.StrongBoxUnavailableException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * BackupCipher
+ *
+ * Encrypts backup files so a copy taken off the device is unreadable. The
+ * same sealing covers the other files that copy inventory.db's contents
+ * out of the encrypted database: valuation reports and the catalog
+ * snapshot.
+ *
+ * Files are sealed with a random data key: AES-256 in CTR mode, then an
+ * HMAC-SHA256 over the header and ciphertext appended as a trailer
+ * (encrypt-then-MAC). Both run in-process at stream speed. The data key
+ * itself is only stored wrapped by a non-exportable Android Keystore key
+ * (StrongBox when the device has one), in no-backup storage, so it never
+ * leaves the device and never appears on disk in the clear. Pushing every
+ * byte through the Keystore instead would cost a binder call per buffer.
+ *
+ * Decryption checks the trailer when the stream reaches its end and throws
+ * if the file was altered; callers must treat anything read before that
+ * as unverified (restore writes it to a staging file first). A file read
+ * in small pieces (the catalog snapshot) is mapped instead: {@link #map}
+ * checks the trailer over the mapping up front, and CTR lets any range be
+ * decrypted on its own afterwards.
+ *
+ * A lost Keystore key (app data cleared, device reset) makes old backups
+ * unreadable by design. The same Keystore key wraps the database key (see
+ * {@link DatabaseEncryption}).
+ */
+public class BackupCipher {
+
+    private static final String KEY_FILE = "backup-key.bin";
+    private static final String KEYSTORE_ALIAS = "inventory-backup-kek";
+    private static final byte[] MAGIC = {'I', 'N', 'V', 'E'};
+    private static final int FORMAT_VERSION = 1;
+    private static final int IV_BYTES = 16;
+    private static final int HEADER_BYTES = MAGIC.length + 1 + IV_BYTES;
+    private static final int TAG_BYTES = 32;
+    // AES-256 key followed by the HMAC-SHA256 key
+    private static final int DATA_KEY_BYTES = 64;
+
+    /** Seals and opens the data key; the Keystore on devices, a plain key in local tests. */
+    interface KeyWrapper {
+        byte[] wrap(byte[] key) throws GeneralSecurityException;
+
+        byte[] unwrap(byte[] wrapped) throws GeneralSecurityException;
+    }
+
+    // Set by local tests, which have no AndroidKeyStore
+    private static volatile KeyWrapper wrapperForTesting;
+
+    private final File keyFile;
+    private final KeyWrapper wrapper;
+    private final SecureRandom random = new SecureRandom();
+    // Unwrapped on first use; guarded by this
+    private SecretKeySpec encryptionKey;
+    private SecretKeySpec macKey;
+
+    BackupCipher(File keyFile, KeyWrapper wrapper) {
+        this.keyFile = keyFile;
+        this.wrapper = wrapper;
+    }
+
+    /** The device's cipher: data key in no-backup storage, wrapped by the Android Keystore. */
+    public static BackupCipher forDevice(Context context) {
+        return new BackupCipher(new File(context.getNoBackupFilesDir(), KEY_FILE), deviceKeyWrapper());
+    }
+
+    /** The Keystore wrapper, or the stand-in set by {@link #useKeyWrapperForTesting}. */
+    static KeyWrapper deviceKeyWrapper() {
+        KeyWrapper wrapper = wrapperForTesting;
+        return wrapper != null ? wrapper : new KeystoreWrapper();
+    }
+
+    /** Test hook: every device key is wrapped with {@code wrapper} instead; null restores the Keystore. */
+    static void useKeyWrapperForTesting(KeyWrapper wrapper) {
+        wrapperForTesting = wrapper;
+    }
+
+    // ----------- Streams -----------
+
+    /** Writes the header now; everything written after is encrypted, and closing appends the trailer. */
+    public OutputStream encrypt(OutputStream out) throws IOException {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Mac mac = newMac();
+            byte[] header = header(iv);
+            out.write(header);
+            mac.update(header);
+            return new CipherOutputStream(new MacTrailerOutputStream(out, mac), newCipher(Cipher.ENCRYPT_MODE, iv));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not start encryption", e);
+        }
+    }
+
+    /** Reads the header now; the returned stream throws at its end if the trailer doesn't match. */
+    public InputStream decrypt(InputStream in) throws IOException {
+        byte[] header = new byte[HEADER_BYTES];
+        try {
+            new DataInputStream(in).readFully(header);
+        } catch (EOFException e) {
+            throw new IOException("Not an encrypted backup", e);
+        }
+        if (!Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC) || header[MAGIC.length] != FORMAT_VERSION) {
+            throw new IOException("Not an encrypted backup");
+        }
+        byte[] iv = Arrays.copyOfRange(header, MAGIC.length + 1, HEADER_BYTES);
+        try {
+            Mac mac = newMac();
+            mac.update(header);
+            return new CipherInputStream(new MacTrailerInputStream(in, mac), newCipher(Cipher.DECRYPT_MODE, iv));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not start decryption", e);
+        }
+    }
+
+    /**
+     * Maps a sealed file and checks its header and trailer, so nothing read
+     * from the result is unverified. Throws if the file isn't sealed with
+     * this key or was altered.
+     */
+    public Mapped map(File file) throws IOException {
+        MappedByteBuffer sealed;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES + TAG_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not an encrypted file");
+            }
+            sealed = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        byte[] header = new byte[HEADER_BYTES];
+        sealed.get(header);
+        if (!Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC) || header[MAGIC.length] != FORMAT_VERSION) {
+            throw new IOException("Not an encrypted file");
+        }
+        int macEnd = sealed.capacity() - TAG_BYTES;
+        byte[] trailer = new byte[TAG_BYTES];
+        ByteBuffer tail = sealed.duplicate();
+        tail.position(macEnd);
+        tail.get(trailer);
+        try {
+            Mac mac = newMac();
+            ByteBuffer covered = sealed.duplicate();
+            covered.position(0).limit(macEnd);
+            mac.update(covered);
+            if (!MessageDigest.isEqual(mac.doFinal(), trailer)) {
+                throw new IOException("File failed authentication; it is damaged or was altered");
+            }
+            Cipher blocks = Cipher.getInstance("AES/ECB/NoPadding");
+            blocks.init(Cipher.ENCRYPT_MODE, encryptionKey());
+            return new Mapped(sealed, macEnd - HEADER_BYTES, header, blocks);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not start decryption", e);
+        }
+    }
+
+    /**
+     * A sealed file mapped by {@link #map}, decrypted a range at a time.
+     * The keystream for a byte is AES of the IV plus its block number, so a
+     * read encrypts only the counter blocks it covers, into buffers the
+     * reader reuses: nothing is allocated per read. Not thread-safe; read
+     * from one thread at a time.
+     */
+    public static final class Mapped {
+        private static final int BLOCK = 16;
+
+        private final ByteBuffer sealed;
+        private final int length;
+        private final long ivHigh;
+        private final long ivLow;
+        private final Cipher blocks;
+        private final byte[] counter = new byte[BLOCK];
+        private final ByteBuffer counterView = ByteBuffer.wrap(counter);
+        private final byte[] keystream = new byte[BLOCK];
+
+        Mapped(ByteBuffer sealed, int length, byte[] header, Cipher blocks) {
+            this.sealed = sealed;
+            this.length = length;
+            ByteBuffer iv = ByteBuffer.wrap(header, MAGIC.length + 1, IV_BYTES);
+            this.ivHigh = iv.getLong();
+            this.ivLow = iv.getLong();
+            this.blocks = blocks;
+        }
+
+        /** Plaintext length in bytes. */
+        public int length() {
+            return length;
+        }
+
+        /** Decrypts {@code count} bytes starting at plaintext offset {@code position} into {@code dest}. */
+        public void read(int position, byte[] dest, int offset, int count) {
+            if (position < 0 || count < 0 || position > length - count) {
+                throw new IndexOutOfBoundsException(position + "+" + count + " of " + length);
+            }
+            int done = 0;
+            while (done < count) {
+                int at = position + done;
+                int skip = at % BLOCK;
+                keystream(at / BLOCK);
+                int n = Math.min(BLOCK - skip, count - done);
+                for (int i = 0; i < n; i++) {
+                    dest[offset + done + i] = (byte) (sealed.get(HEADER_BYTES + at + i) ^ keystream[skip + i]);
+                }
+                done += n;
+            }
+        }
+
+        // AES of the counter for block {@code index}: the IV as a 128-bit big-endian number, plus the index
+        private void keystream(long index) {
+            long low = ivLow + index;
+            long high = Long.compareUnsigned(low, ivLow) < 0 ? ivHigh + 1 : ivHigh;
+            counterView.putLong(0, high).putLong(8, low);
+            try {
+                blocks.update(counter, 0, BLOCK, keystream, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES unavailable", e);
+            }
+        }
+    }
+
+    private static byte[] header(byte[] iv) {
+        byte[] header = new byte[HEADER_BYTES];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = FORMAT_VERSION;
+        System.arraycopy(iv, 0, header, MAGIC.length + 1, IV_BYTES);
+        return header;
+    }
+
+    private Cipher newCipher(int mode, byte[] iv) throws GeneralSecurityException, IOException {
+        Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+        cipher.init(mode, encryptionKey(), new IvParameterSpec(iv));
+        return cipher;
+    }
+
+    private Mac newMac() throws GeneralSecurityException, IOException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(macKey());
+        return mac;
+    }
+
+    // ----------- Data key -----------
+
+    private synchronized SecretKeySpec encryptionKey() throws GeneralSecurityException, IOException {
+        loadKeys();
+        return encryptionKey;
+    }
+
+    private synchronized SecretKeySpec macKey() throws GeneralSecurityException, IOException {
+        loadKeys();
+        return macKey;
+    }
+
+    private void loadKeys() throws GeneralSecurityException, IOException {
+        if (encryptionKey != null) {
+            return;
+        }
+        byte[] key = loadOrCreateKey(keyFile, wrapper, DATA_KEY_BYTES, random);
+        encryptionKey = new SecretKeySpec(key, 0, 32, "AES");
+        macKey = new SecretKeySpec(key, 32, 32, "HmacSHA256");
+        Arrays.fill(key, (byte) 0);
+    }
+
+    /**
+     * Unwraps the key stored in {@code keyFile}, or makes a random one of
+     * {@code length} bytes and stores it wrapped (via ".part" and a rename,
+     * so a crash never leaves half a key). The caller should clear the result.
+     */
+    static byte[] loadOrCreateKey(File keyFile, KeyWrapper wrapper, int length, SecureRandom random)
+            throws GeneralSecurityException, IOException {
+        if (keyFile.exists()) {
+            return wrapper.unwrap(Files.readAllBytes(keyFile.toPath()));
+        }
+        byte[] key = new byte[length];
+        random.nextBytes(key);
+        File partial = new File(keyFile.getPath() + ".part");
+        Files.write(partial.toPath(), wrapper.wrap(key));
+        Files.move(partial.toPath(), keyFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return key;
+    }
+
+    /** AES-256-GCM key in the Android Keystore; the wrapped form is IV followed by ciphertext. */
+    static final class KeystoreWrapper implements KeyWrapper {
+        private static final int GCM_IV_BYTES = 12;
+        private static final int GCM_TAG_BITS = 128;
+
+        @Override
+        public byte[] wrap(byte[] key) throws GeneralSecurityException {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keystoreKey()); // the Keystore picks the IV
+            byte[] iv = cipher.getIV();
+            byte[] sealed = cipher.doFinal(key);
+            byte[] wrapped = Arrays.copyOf(iv, iv.length + sealed.length);
+            System.arraycopy(sealed, 0, wrapped, iv.length, sealed.length);
+            return wrapped;
+        }
+
+        @Override
+        public byte[] unwrap(byte[] wrapped) throws GeneralSecurityException {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, keystoreKey(),
+                    new GCMParameterSpec(GCM_TAG_BITS, wrapped, 0, GCM_IV_BYTES));
+            return cipher.doFinal(wrapped, GCM_IV_BYTES, wrapped.length - GCM_IV_BYTES);
+        }
+
+        private static SecretKey keystoreKey() throws GeneralSecurityException {
+            KeyStore keyStore = KeyStore.getInstance("AndroidKeyStore");
+            try {
+                keyStore.load(null);
+            } catch (IOException e) {
+                throw new GeneralSecurityException("Keystore unavailable", e);
+            }
+            KeyStore.Entry entry = keyStore.getEntry(KEYSTORE_ALIAS, null);
+            if (entry instanceof KeyStore.SecretKeyEntry) {
+                return ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+            }
+            try {
+                return generate(true);
+            } catch (StrongBoxUnavailableException e) {
+                return generate(false);
+            }
+        }
+
+        private static SecretKey generate(boolean strongBox) throws GeneralSecurityException {
+            KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, "AndroidKeyStore");
+            generator.init(new KeyGenParameterSpec.Builder(KEYSTORE_ALIAS,
+                    KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                    .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                    .setKeySize(256)
+                    .setIsStrongBoxBacked(strongBox)
+                    .build());
+            return generator.generateKey();
+        }
+    }
+
+    // ----------- Trailer -----------
+
+    /** Passes bytes through, feeding them to the MAC; closing writes the MAC as a trailer. */
+    private static final class MacTrailerOutputStream extends FilterOutputStream {
+        private final Mac mac;
+        private boolean closed;
+
+        MacTrailerOutputStream(OutputStream out, Mac mac) {
+            super(out);
+            this.mac = mac;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            mac.update((byte) b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            mac.update(b, off, len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                out.write(mac.doFinal());
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Holds back the last {@link #TAG_BYTES} bytes read, feeding everything
+     * before them to the MAC; at the end of the stream the held-back bytes
+     * must equal the MAC or the read throws.
+     */
+    private static final class MacTrailerInputStream extends FilterInputStream {
+        private final Mac mac;
+        // Held-back tail: the last bytes read so far, which may turn out to be the trailer
+        private final byte[] tail = new byte[TAG_BYTES];
+        private int tailLength;
+        private boolean verified;
+
+        MacTrailerInputStream(InputStream in, Mac mac) {
+            super(in);
+            this.mac = mac;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int n = in.read(b, off, len);
+                if (n == -1) {
+                    verify();
+                    return -1;
+                }
+                // tail + new bytes; everything but the last TAG_BYTES can be released
+                int total = tailLength + n;
+                int release = Math.max(0, total - TAG_BYTES);
+                if (release == 0) {
+                    System.arraycopy(b, off, tail, tailLength, n);
+                    tailLength += n;
+                    continue;
+                }
+                byte[] joined = new byte[total];
+                System.arraycopy(tail, 0, joined, 0, tailLength);
+                System.arraycopy(b, off, joined, tailLength, n);
+                System.arraycopy(joined, 0, b, off, release);
+                tailLength = total - release;
+                System.arraycopy(joined, release, tail, 0, tailLength);
+                mac.update(b, off, release);
+                return release;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            throw new IOException("skip not supported");
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void verify() throws IOException {
+            if (verified) {
+                return;
+            }
+            if (tailLength != TAG_BYTES || !MessageDigest.isEqual(mac.doFinal(), tail)) {
+                throw new IOException("Backup failed authentication; it is damaged or was altered");
+            }
+            verified = true;
+        }
+    }
+}
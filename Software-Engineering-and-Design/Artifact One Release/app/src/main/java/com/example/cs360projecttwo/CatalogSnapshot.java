@@ -0,0 +1,261 @@
+package com.example.cs360projecttwo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * CatalogSnapshot
+ *
+ * Read-only binary copy of the inventory grid, memory-mapped at start-up
+ * so the first screen can be drawn before SQLite is even open.
+ *
+ * Layout (little-endian):
+ *
+ *   header   32 bytes: magic, format version, row count, record size,
+ *            string table offset, string table length (chars), written-at
+ *   records  RECORD_BYTES each: item_id, quantity, low-stock threshold,
+ *            stockout_at, version, name offset and length
+ *   strings  every name back to back as UTF-16 code units
+ *
+ * The file holds every item name and quantity, so it is sealed with
+ * {@link BackupCipher} like the database it copies. Opening maps it and
+ * checks its trailer over the mapping (see {@link BackupCipher#map}), then
+ * the header. Rows are decrypted from the mapping only when they are bound:
+ * a record into one buffer the snapshot reuses, a name in small chunks into
+ * the char array the row view owns. So there is still no per-row parsing,
+ * copy of the file on the heap, or object; only the rows on screen are
+ * ever decrypted. Reads share those buffers, so bind from one thread.
+ *
+ * Files are written to a temp file, forced to disk and renamed over the
+ * old one, so a reader sees either the previous snapshot or the new one.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x494E5643; // "INVC"
+    /** Bump when the layout changes; older files are then ignored and rewritten. */
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 40;
+    // Name bytes decrypted per step; a name longer than this takes several
+    private static final int NAME_CHUNK_BYTES = 128;
+
+    // Record field offsets
+    private static final int ID = 0;
+    private static final int QUANTITY = 8;
+    private static final int THRESHOLD = 12;
+    private static final int STOCKOUT_AT = 16;
+    private static final int VERSION = 24;
+    private static final int NAME_OFFSET = 32;
+    private static final int NAME_LENGTH = 36;
+
+    /** Plaintext bytes of a snapshot file, read a range at a time. */
+    interface Source {
+        void read(int position, byte[] dest, int offset, int count);
+    }
+
+    private final Source source;
+    private final int size;
+    private final int stringsOffset;
+    private final long writtenAt;
+    // The last record read, reused for every row; boundRow is -1 until one is read
+    private final byte[] record = new byte[RECORD_BYTES];
+    private final ByteBuffer recordView = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+    private int boundRow = -1;
+    private final byte[] nameChunk = new byte[NAME_CHUNK_BYTES];
+
+    private CatalogSnapshot(Source source, int size, int stringsOffset, long writtenAt) {
+        this.source = source;
+        this.size = size;
+        this.stringsOffset = stringsOffset;
+        this.writtenAt = writtenAt;
+    }
+
+    // ----------- Reading -----------
+
+    /**
+     * Maps {@code file}; null if it doesn't exist or isn't a snapshot this
+     * version can read. Throws if it isn't sealed with {@code cipher} or
+     * fails authentication.
+     */
+    public static CatalogSnapshot open(File file, BackupCipher cipher) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        BackupCipher.Mapped mapped = cipher.map(file);
+        return read(mapped::read, mapped.length());
+    }
+
+    /** Reads a plaintext snapshot from {@code buffer}; null if the header doesn't describe it. */
+    static CatalogSnapshot wrap(ByteBuffer buffer) {
+        ByteBuffer plain = buffer.duplicate();
+        return read((position, dest, offset, count) -> {
+            for (int i = 0; i < count; i++) {
+                dest[offset + i] = plain.get(position + i);
+            }
+        }, plain.capacity());
+    }
+
+    private static CatalogSnapshot read(Source source, int length) {
+        if (length < HEADER_BYTES) {
+            return null;
+        }
+        byte[] bytes = new byte[HEADER_BYTES];
+        source.read(0, bytes, 0, HEADER_BYTES);
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != MAGIC
+                || header.getInt(4) != FORMAT_VERSION
+                || header.getInt(12) != RECORD_BYTES) {
+            return null;
+        }
+        int size = header.getInt(8);
+        int stringsOffset = header.getInt(16);
+        int stringsChars = header.getInt(20);
+        if (size < 0 || stringsChars < 0
+                || stringsOffset != HEADER_BYTES + (long) size * RECORD_BYTES
+                || stringsOffset + 2L * stringsChars != length) {
+            return null; // truncated or padded: not a file we wrote
+        }
+        return new CatalogSnapshot(source, size, stringsOffset, header.getLong(24));
+    }
+
+    // The row's record, decrypted into the shared buffer unless it is already there
+    private ByteBuffer record(int row) {
+        if (row != boundRow) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("row " + row + " of " + size);
+            }
+            source.read(HEADER_BYTES + row * RECORD_BYTES, record, 0, RECORD_BYTES);
+            boundRow = row;
+        }
+        return recordView;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** When the snapshot was written (ms since epoch). */
+    public long writtenAt() {
+        return writtenAt;
+    }
+
+    public long itemId(int row) {
+        return record(row).getLong(ID);
+    }
+
+    public int quantity(int row) {
+        return record(row).getInt(QUANTITY);
+    }
+
+    public int lowStockThreshold(int row) {
+        return record(row).getInt(THRESHOLD);
+    }
+
+    public long stockoutAt(int row) {
+        return record(row).getLong(STOCKOUT_AT);
+    }
+
+    public long version(int row) {
+        return record(row).getLong(VERSION);
+    }
+
+    /** Same rule as {@link InventoryItem#isLowStock()}. */
+    public boolean isLowStock(int row) {
+        int threshold = lowStockThreshold(row);
+        return threshold > 0 && quantity(row) <= threshold;
+    }
+
+    /** Length of the row's name in chars; what {@link #getName} needs room for. */
+    public int nameLength(int row) {
+        return record(row).getInt(NAME_LENGTH);
+    }
+
+    /**
+     * Decrypts the row's name into the start of {@code dest}, which must hold
+     * {@link #nameLength} chars, and returns its length. Goes through a
+     * small reused buffer, so nothing is allocated.
+     */
+    public int getName(int row, char[] dest) {
+        int position = stringsOffset + 2 * record(row).getInt(NAME_OFFSET);
+        int length = nameLength(row);
+        int copied = 0;
+        while (copied < length) {
+            int chars = Math.min(NAME_CHUNK_BYTES / 2, length - copied);
+            source.read(position + 2 * copied, nameChunk, 0, 2 * chars);
+            for (int i = 0; i < chars; i++) {
+                dest[copied + i] = (char) ((nameChunk[2 * i] & 0xff) | (nameChunk[2 * i + 1] & 0xff) << 8);
+            }
+            copied += chars;
+        }
+        return length;
+    }
+
+    /** The row's name as a new String; allocates, so binding uses {@link #getName} instead. */
+    public String name(int row) {
+        char[] name = new char[nameLength(row)];
+        return new String(name, 0, getName(row, name));
+    }
+
+    // ----------- Writing -----------
+
+    /** Writes {@code items} (in display order) to {@code file}, sealed with {@code cipher}, replacing it atomically. */
+    public static void write(File file, List<InventoryItem> items, long writtenAt, BackupCipher cipher)
+            throws IOException {
+        int stringsChars = 0;
+        for (InventoryItem item : items) {
+            stringsChars += item.getName().length();
+        }
+        int stringsOffset = HEADER_BYTES + items.size() * RECORD_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(stringsOffset + 2 * stringsChars).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(items.size())
+                .putInt(RECORD_BYTES)
+                .putInt(stringsOffset)
+                .putInt(stringsChars)
+                .putLong(writtenAt);
+
+        CharBuffer names = slice(buffer, stringsOffset, buffer.capacity()).asCharBuffer();
+        int nameOffset = 0;
+        for (InventoryItem item : items) {
+            String name = item.getName();
+            buffer.putLong(item.getId())
+                    .putInt(item.getQuantity())
+                    .putInt(item.getLowStockThreshold())
+                    .putLong(item.getStockoutAt())
+                    .putLong(item.getVersion())
+                    .putInt(nameOffset)
+                    .putInt(name.length());
+            names.put(name);
+            nameOffset += name.length();
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = cipher.encrypt(new FileOutputStream(tmp))) {
+            out.write(buffer.array());
+        }
+        // Closing wrote the trailer; force all of it to disk before the rename makes it current
+        try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+        ByteBuffer copy = buffer.duplicate();
+        copy.position(from).limit(to);
+        return copy.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
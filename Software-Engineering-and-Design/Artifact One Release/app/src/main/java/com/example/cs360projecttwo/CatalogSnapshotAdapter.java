@@ -0,0 +1,91 @@
+package com.example.cs360projecttwo;
+
+import android.graphics.Color;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * CatalogSnapshotAdapter
+ *
+ * Shows a {@link CatalogSnapshot} with the grid's row layout until the live
+ * query has loaded. Rows are read straight from the snapshot's buffer as
+ * they are bound, so only the visible ones are ever touched. The preview is
+ * read-only: its buttons are disabled and it has no forecast line.
+ */
+public class CatalogSnapshotAdapter extends RecyclerView.Adapter<CatalogSnapshotAdapter.RowHolder> {
+
+    private final CatalogSnapshot snapshot;
+    private final ThumbnailLoader thumbnails;
+    private final int thumbnailSize;
+
+    public CatalogSnapshotAdapter(CatalogSnapshot snapshot, ThumbnailLoader thumbnails, int thumbnailSize) {
+        this.snapshot = snapshot;
+        this.thumbnails = thumbnails;
+        this.thumbnailSize = thumbnailSize;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public int getItemCount() {
+        return snapshot.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return snapshot.itemId(position);
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_inventory_row, parent, false);
+        return new RowHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        thumbnails.load(holder.thumbnail, snapshot.itemId(position), thumbnailSize);
+        int length = snapshot.nameLength(position);
+        if (holder.nameChars.length < length) {
+            holder.nameChars = new char[Math.max(length, 2 * holder.nameChars.length)];
+        }
+        // TextView keeps wrapping the same array, so a bind allocates nothing once it is big enough
+        holder.name.setText(holder.nameChars, 0, snapshot.getName(position, holder.nameChars));
+        holder.quantity.setText(String.valueOf(snapshot.quantity(position)));
+        holder.quantity.setTextColor(snapshot.isLowStock(position) ? InventoryAdapter.LOW_STOCK_COLOR : Color.WHITE);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RowHolder holder) {
+        thumbnails.cancel(holder.thumbnail);
+        super.onViewRecycled(holder);
+    }
+
+    static final class RowHolder extends RecyclerView.ViewHolder {
+        final ImageView thumbnail;
+        final TextView name;
+        final TextView quantity;
+        // This row's name, copied out of the snapshot; grows to the longest name bound here
+        char[] nameChars = new char[32];
+
+        RowHolder(@NonNull View itemView) {
+            super(itemView);
+            thumbnail = itemView.findViewById(R.id.itemThumbnail);
+            name = itemView.findViewById(R.id.itemName);
+            quantity = itemView.findViewById(R.id.itemQuantity);
+            // Nothing can be edited until the live rows replace these
+            for (int id : new int[]{R.id.updateButton, R.id.deleteButton}) {
+                View button = itemView.findViewById(id);
+                button.setEnabled(false);
+                button.setAlpha(0.4f);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CatalogSnapshotStore
+ *
+ * Owns files/catalog.snapshot. At process start {@link #preload()} reads it
+ * on a background thread and posts it as the grid's preview, so the first
+ * rows can be drawn while SQLite is still opening and running its first
+ * query. Once the live query delivers, the grid stops using the preview.
+ *
+ * The repository's invalidation tracker tells the store about every commit
+ * that touches the inventory table, whichever path made it (the grid, the
+ * provider, a background batch). Writes are debounced, so a burst of edits
+ * rewrites the file once, from the rows as they are when the write runs.
+ *
+ * The first change after a write also creates files/catalog.snapshot.stale,
+ * on the committing thread, and a successful write removes it. If the
+ * process dies inside the debounce window the marker survives: the next
+ * start shows no preview rather than an out-of-date one, and rewrites the
+ * snapshot as soon as the repository is up. Leaving the screen writes any
+ * pending change at once, since a background process is the likely one to
+ * be killed.
+ */
+public class CatalogSnapshotStore {
+
+    private static final String TAG = "CatalogSnapshotStore";
+    static final String FILE_NAME = "catalog.snapshot";
+    static final long WRITE_DELAY_MS = 1_000;
+    private static final String STALE_SUFFIX = ".stale";
+
+    private static volatile CatalogSnapshotStore instance;
+
+    private final File file;
+    private final File staleMarker;
+    private final BackupCipher cipher;
+    private final ScheduledExecutorService executor;
+    private final MutableLiveData<CatalogSnapshot> preview = new MutableLiveData<>();
+    private final AtomicBoolean preloaded = new AtomicBoolean();
+    private final Object pendingLock = new Object();
+    // Where a write reads the rows from; set once the repository exists
+    private volatile Callable<List<InventoryItem>> source;
+    // Guarded by pendingLock: a change not yet written, and the write that will pick it up
+    private boolean dirty;
+    private ScheduledFuture<?> pendingWrite;
+    private final InvalidationTracker.Observer onCommit = tables -> {
+        if (Arrays.asList(tables).contains(InventoryRepository.TABLE_INVENTORY)) {
+            scheduleWrite();
+        }
+    };
+
+    public static CatalogSnapshotStore get(Context context) {
+        if (instance == null) {
+            synchronized (CatalogSnapshotStore.class) {
+                if (instance == null) {
+                    instance = new CatalogSnapshotStore(
+                            new File(context.getApplicationContext().getFilesDir(), FILE_NAME),
+                            BackupCipher.forDevice(context));
+                    CatalogSnapshotStore store = instance;
+                    MemoryTrimRegistry.get().register("catalog snapshot", MemoryTrimRegistry.TIER_UI_HIDDEN,
+                            tier -> {
+                                store.writeNow();
+                                return 0; // frees nothing; saves the last change before a likely kill
+                            });
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Test hook: drops the singleton and its thread. */
+    static void resetForTesting() {
+        synchronized (CatalogSnapshotStore.class) {
+            if (instance != null) {
+                instance.executor.shutdownNow();
+                instance = null;
+            }
+        }
+    }
+
+    CatalogSnapshotStore(File file, BackupCipher cipher) {
+        this.file = file;
+        this.staleMarker = new File(file.getPath() + STALE_SUFFIX);
+        this.cipher = cipher;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-snapshot");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Keeps the snapshot in step with {@code repository}'s commits from now
+     * on, and rewrites it straight away if the last run left it stale.
+     */
+    public void attach(InventoryRepository repository) {
+        source = repository::getAllItems;
+        repository.getInvalidationTracker().addObserver(onCommit);
+        executor.execute(() -> { // looking for the marker is disk I/O; attach may run on the UI thread
+            synchronized (pendingLock) {
+                if (staleMarker.exists() && pendingWrite == null) {
+                    dirty = true;
+                    pendingWrite = executor.schedule(this::writePending, 0, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    // ----------- Reading -----------
+
+    /** Reads the snapshot in the background, once per process; the result arrives via {@link #getPreview()}. */
+    public void preload() {
+        if (preloaded.compareAndSet(false, true)) {
+            executor.execute(() -> preview.postValue(read()));
+        }
+    }
+
+    /** The snapshot from the last run, or null if there is none; only meant for the first frame. */
+    public LiveData<CatalogSnapshot> getPreview() {
+        return preview;
+    }
+
+    /** Reads the snapshot file now (call off the UI thread); null if missing, unreadable, altered or stale. */
+    CatalogSnapshot read() {
+        if (staleMarker.exists()) {
+            return null; // the last run changed rows it never wrote out
+        }
+        try {
+            return CatalogSnapshot.open(file, cipher);
+        } catch (IOException e) {
+            Log.w(TAG, "Ignoring unreadable snapshot", e);
+            return null;
+        }
+    }
+
+    // ----------- Writing -----------
+
+    /**
+     * Marks the snapshot stale and writes it a little later, folding any
+     * further changes into the same write. Called on the committing thread.
+     */
+    void scheduleWrite() {
+        synchronized (pendingLock) {
+            if (!dirty) {
+                dirty = true;
+                markStale();
+            }
+            if (pendingWrite == null) {
+                pendingWrite = executor.schedule(this::writePending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Writes a pending change now instead of after the delay, e.g. when the app leaves the screen. */
+    void writeNow() {
+        synchronized (pendingLock) {
+            if (pendingWrite == null || !pendingWrite.cancel(false)) {
+                return; // nothing pending, or the write is already running
+            }
+            pendingWrite = executor.schedule(this::writePending, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writePending() {
+        Callable<List<InventoryItem>> rows;
+        synchronized (pendingLock) {
+            pendingWrite = null;
+            if (!dirty) {
+                return;
+            }
+            // Changes committed from here on are not in the rows read below; they mark it again
+            dirty = false;
+            rows = source;
+        }
+        if (rows == null) {
+            return;
+        }
+        try {
+            CatalogSnapshot.write(file, rows.call(), System.currentTimeMillis(), cipher);
+        } catch (Exception e) {
+            // The previous snapshot (if any) is still intact and still marked stale; the next change retries
+            Log.w(TAG, "Could not write catalog snapshot", e);
+            return;
+        }
+        synchronized (pendingLock) {
+            if (!dirty && !staleMarker.delete() && staleMarker.exists()) {
+                Log.w(TAG, "Could not clear " + staleMarker);
+            }
+        }
+    }
+
+    // Caller holds pendingLock. A single create, only on the first change after a write.
+    private void markStale() {
+        try {
+            if (!staleMarker.createNewFile() && !staleMarker.exists()) {
+                Log.w(TAG, "Could not create " + staleMarker);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not mark the snapshot stale", e);
+        }
+    }
+
+    /** Test hook: writes whatever is pending right away. */
+    void flush() throws InterruptedException {
+        synchronized (pendingLock) {
+            if (pendingWrite != null) {
+                pendingWrite.cancel(false);
+                pendingWrite = null;
+            }
+        }
+        try {
+            executor.submit(this::writePending).get();
+        } catch (ExecutionException e) {
+            Log.w(TAG, "Snapshot flush failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.cs360projecttwo;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * ColumnarInventory
+ *
+ * In-memory copy of the inventory columns that bulk questions need ("how
+ * many items are below 10", "units per category"), kept as parallel
+ * primitive arrays sorted by item_id: no Cursor, no row objects and no
+ * boxing on the scan path. Categories are dictionary-encoded to small ints
+ * so per-category totals are plain array increments.
+ *
+ * The repository reports which rows each committed write touched; those
+ * ids are only queued here. The next query re-reads just those rows (a
+ * primary-key lookup each) and patches the arrays, or reloads everything
+ * if most of the table changed or the database was replaced. Scans over
+ * {@link #PARALLEL_MIN_ROWS} rows are split across the common fork-join pool.
+ *
+ * It is optional: nothing is loaded or tracked until someone asks the
+ * repository for it.
+ */
+public class ColumnarInventory {
+
+    /** Below this many rows a scan is faster on the calling thread than split up. */
+    static final int PARALLEL_MIN_ROWS = 100_000;
+    // Rows per parallel task
+    private static final int CHUNK_ROWS = 32 * 1024;
+    // Past this many changed rows (and an eighth of the table) one full read beats row lookups
+    private static final int MAX_ROW_RELOADS = 1_000;
+    // Category code for items without one
+    private static final int NO_CATEGORY = 0;
+    // id + quantity + threshold + category code
+    private static final int BYTES_PER_ROW = 8 + 4 + 4 + 4;
+
+    /** Units and item counts per category; index i describes categoryIds[i] (0 = uncategorised). */
+    public static final class CategoryTotals {
+        public final long[] categoryIds;
+        public final long[] units;
+        public final int[] items;
+
+        CategoryTotals(long[] categoryIds, long[] units, int[] items) {
+            this.categoryIds = categoryIds;
+            this.units = units;
+            this.items = items;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    // Guarded by this; sorted by id, first `size` entries in use
+    private long[] ids = new long[0];
+    private int[] quantities = new int[0];
+    private int[] thresholds = new int[0];
+    private int[] categoryCodes = new int[0];
+    private int size;
+    // Category dictionary: code -> category_id and back; codes are never reused until a full reload
+    private long[] categoryIds = new long[]{0};
+    private final Map<Long, Integer> categoryCodeById = new HashMap<>();
+
+    // Guarded by pendingLock; written by the repository after each commit
+    private final Object pendingLock = new Object();
+    private long[] changedIds = new long[16];
+    private int changedCount;
+    private boolean reloadAll = true;
+
+    private int fullLoads;
+    private int rowReloads;
+    // Size of the arrays, readable without the lock (for memory trims)
+    private volatile long retainedBytes;
+
+    public ColumnarInventory(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // ----------- Change events (called by the repository once a write has committed) -----------
+
+    /** Queues rows that were inserted, updated or deleted. */
+    void markChanged(Collection<Long> itemIds) {
+        synchronized (pendingLock) {
+            if (reloadAll) {
+                return; // everything is re-read anyway
+            }
+            if (changedCount + itemIds.size() > changedIds.length) {
+                changedIds = Arrays.copyOf(changedIds, Math.max(changedIds.length * 2, changedCount + itemIds.size()));
+            }
+            for (long itemId : itemIds) {
+                changedIds[changedCount++] = itemId;
+            }
+        }
+    }
+
+    /** Queues a full reload, e.g. after a restore or a rolled-back batch. */
+    void markAllChanged() {
+        synchronized (pendingLock) {
+            reloadAll = true;
+            changedCount = 0;
+        }
+    }
+
+    // ----------- Memory pressure -----------
+
+    /** Bytes held by the arrays right now; cheap, for callers that must not wait on a scan. */
+    long retainedBytes() {
+        return retainedBytes;
+    }
+
+    /** Drops the arrays; the next query reads the table again. Returns the bytes freed. */
+    synchronized long release() {
+        long freed = retainedBytes;
+        ids = new long[0];
+        quantities = new int[0];
+        thresholds = new int[0];
+        categoryCodes = new int[0];
+        size = 0;
+        categoryIds = new long[]{0};
+        categoryCodeById.clear();
+        retainedBytes = 0;
+        markAllChanged();
+        return freed;
+    }
+
+    // ----------- Queries (call off the UI thread) -----------
+
+    public synchronized int size() {
+        refresh();
+        return size;
+    }
+
+    /** Items with a quantity strictly below {@code quantity}. */
+    public synchronized int countBelow(int quantity) {
+        refresh();
+        int[] q = quantities;
+        if (size < PARALLEL_MIN_ROWS) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (q[i] < quantity) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        return (int) IntStream.range(0, size).parallel().filter(i -> q[i] < quantity).count();
+    }
+
+    /** Items at or below their own low-stock threshold (same rule as {@link InventoryItem#isLowStock()}). */
+    public synchronized int countLowStock() {
+        refresh();
+        int[] q = quantities;
+        int[] t = thresholds;
+        if (size < PARALLEL_MIN_ROWS) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (t[i] > 0 && q[i] <= t[i]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        return (int) IntStream.range(0, size).parallel().filter(i -> t[i] > 0 && q[i] <= t[i]).count();
+    }
+
+    /** Ids of the items {@link #countLowStock()} counts, ascending. */
+    public synchronized long[] lowStockIds() {
+        refresh();
+        long[] result = new long[16];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (thresholds[i] > 0 && quantities[i] <= thresholds[i]) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /** Sum of every item's quantity. */
+    public synchronized long totalUnits() {
+        refresh();
+        int[] q = quantities;
+        if (size < PARALLEL_MIN_ROWS) {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += q[i];
+            }
+            return total;
+        }
+        return IntStream.range(0, size).parallel().mapToLong(i -> q[i]).sum();
+    }
+
+    /** Units and item counts per category, for categories that have at least one item. */
+    public synchronized CategoryTotals unitsByCategory() {
+        refresh();
+        int codes = categoryIds.length;
+        long[] units;
+        int[] items;
+        if (size < PARALLEL_MIN_ROWS) {
+            units = new long[codes];
+            items = new int[codes];
+            accumulate(0, size, units, items);
+        } else {
+            // Each chunk sums into its own array; merging them is one pass per chunk over the codes
+            int rows = size;
+            int[] q = quantities;
+            int[] rowCodes = categoryCodes;
+            int chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            long[][] partial = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+                long[] chunk = new long[2 * codes]; // units, then item counts
+                int to = Math.min(rows, (c + 1) * CHUNK_ROWS);
+                for (int i = c * CHUNK_ROWS; i < to; i++) {
+                    chunk[rowCodes[i]] += q[i];
+                    chunk[codes + rowCodes[i]]++;
+                }
+                return chunk;
+            }).toArray(long[][]::new);
+            units = new long[codes];
+            items = new int[codes];
+            for (long[] chunk : partial) {
+                for (int code = 0; code < codes; code++) {
+                    units[code] += chunk[code];
+                    items[code] += (int) chunk[codes + code];
+                }
+            }
+        }
+
+        int present = 0;
+        for (int code = 0; code < codes; code++) {
+            if (items[code] > 0) {
+                present++;
+            }
+        }
+        long[] resultIds = new long[present];
+        long[] resultUnits = new long[present];
+        int[] resultItems = new int[present];
+        int at = 0;
+        for (int code = 0; code < codes; code++) {
+            if (items[code] > 0) {
+                resultIds[at] = categoryIds[code];
+                resultUnits[at] = units[code];
+                resultItems[at] = items[code];
+                at++;
+            }
+        }
+        return new CategoryTotals(resultIds, resultUnits, resultItems);
+    }
+
+    private void accumulate(int from, int to, long[] units, int[] items) {
+        for (int i = from; i < to; i++) {
+            int code = categoryCodes[i];
+            units[code] += quantities[i];
+            items[code]++;
+        }
+    }
+
+    /** Full reads so far; for tests. */
+    synchronized int fullLoads() {
+        return fullLoads;
+    }
+
+    /** Single-row re-reads so far; for tests. */
+    synchronized int rowReloads() {
+        return rowReloads;
+    }
+
+    // ----------- Refresh (holds this) -----------
+
+    private void refresh() {
+        long[] changed;
+        boolean all;
+        synchronized (pendingLock) {
+            all = reloadAll;
+            changed = Arrays.copyOf(changedIds, changedCount);
+            reloadAll = false;
+            changedCount = 0;
+        }
+        if (all) {
+            loadAll();
+            return;
+        }
+        if (changed.length == 0) {
+            return;
+        }
+
+        Arrays.sort(changed);
+        int unique = 0;
+        for (int i = 0; i < changed.length; i++) {
+            if (i == 0 || changed[i] != changed[i - 1]) {
+                changed[unique++] = changed[i];
+            }
+        }
+        if (unique > MAX_ROW_RELOADS && unique > size / 8) {
+            loadAll();
+        } else {
+            reloadRows(changed, unique);
+        }
+    }
+
+    private void loadAll() {
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        int capacity;
+        try (SqlStatement count = SqlStatement.compile(db, InventoryQueries.COLUMNS_COUNT.sql)) {
+            capacity = (int) count.simpleQueryForLong();
+        }
+        long[] newIds = new long[capacity];
+        int[] newQuantities = new int[capacity];
+        int[] newThresholds = new int[capacity];
+        int[] newCodes = new int[capacity];
+        categoryIds = new long[]{0};
+        categoryCodeById.clear();
+
+        int count = 0;
+        try (Cursor cursor = db.query(InventoryQueries.COLUMNS_ALL.sql)) {
+            while (cursor.moveToNext()) {
+                if (count == newIds.length) {
+                    // Rows added between the count and the read
+                    int grown = Math.max(16, count * 2);
+                    newIds = Arrays.copyOf(newIds, grown);
+                    newQuantities = Arrays.copyOf(newQuantities, grown);
+                    newThresholds = Arrays.copyOf(newThresholds, grown);
+                    newCodes = Arrays.copyOf(newCodes, grown);
+                }
+                newIds[count] = cursor.getLong(0);
+                newQuantities[count] = cursor.getInt(1);
+                newThresholds[count] = cursor.getInt(2);
+                newCodes[count] = categoryCode(cursor.getLong(3));
+                count++;
+            }
+        }
+        ids = newIds;
+        quantities = newQuantities;
+        thresholds = newThresholds;
+        categoryCodes = newCodes;
+        size = count;
+        retainedBytes = (long) newIds.length * BYTES_PER_ROW;
+        fullLoads++;
+    }
+
+    // changed[0..count) is sorted and distinct
+    private void reloadRows(long[] changed, int count) {
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        long[] addIds = new long[count];
+        int[] addQuantities = new int[count];
+        int[] addThresholds = new int[count];
+        int[] addCodes = new int[count];
+        int adds = 0;
+        boolean[] removed = null;
+
+        String[] args = new String[1];
+        for (int c = 0; c < count; c++) {
+            long itemId = changed[c];
+            int at = Arrays.binarySearch(ids, 0, size, itemId);
+            args[0] = String.valueOf(itemId);
+            try (Cursor cursor = db.query(InventoryQueries.COLUMNS_ROW.sql, args)) {
+                if (cursor.moveToFirst()) {
+                    int quantity = cursor.getInt(0);
+                    int threshold = cursor.getInt(1);
+                    int code = categoryCode(cursor.getLong(2));
+                    if (at >= 0) {
+                        quantities[at] = quantity;
+                        thresholds[at] = threshold;
+                        categoryCodes[at] = code;
+                    } else {
+                        addIds[adds] = itemId;
+                        addQuantities[adds] = quantity;
+                        addThresholds[adds] = threshold;
+                        addCodes[adds] = code;
+                        adds++;
+                    }
+                } else if (at >= 0) {
+                    if (removed == null) {
+                        removed = new boolean[size];
+                    }
+                    removed[at] = true;
+                }
+            }
+            rowReloads++;
+        }
+        if (adds > 0 || removed != null) {
+            merge(removed, addIds, addQuantities, addThresholds, addCodes, adds);
+        }
+    }
+
+    // One pass that drops removed rows and slots the (sorted) new ones in by id
+    private void merge(boolean[] removed, long[] addIds, int[] addQuantities, int[] addThresholds,
+                       int[] addCodes, int adds) {
+        int capacity = size + adds;
+        if (adds > 0 && capacity > ids.length) {
+            capacity = Math.max(capacity, ids.length + ids.length / 2); // room for the next few inserts
+        } else {
+            capacity = ids.length;
+        }
+        long[] newIds = new long[capacity];
+        int[] newQuantities = new int[capacity];
+        int[] newThresholds = new int[capacity];
+        int[] newCodes = new int[capacity];
+
+        int out = 0;
+        int a = 0;
+        for (int i = 0; i <= size; i++) {
+            long next = i < size ? ids[i] : Long.MAX_VALUE;
+            while (a < adds && addIds[a] < next) {
+                newIds[out] = addIds[a];
+                newQuantities[out] = addQuantities[a];
+                newThresholds[out] = addThresholds[a];
+                newCodes[out] = addCodes[a];
+                out++;
+                a++;
+            }
+            if (i < size && (removed == null || !removed[i])) {
+                newIds[out] = ids[i];
+                newQuantities[out] = quantities[i];
+                newThresholds[out] = thresholds[i];
+                newCodes[out] = categoryCodes[i];
+                out++;
+            }
+        }
+        ids = newIds;
+        quantities = newQuantities;
+        thresholds = newThresholds;
+        categoryCodes = newCodes;
+        size = out;
+        retainedBytes = (long) capacity * BYTES_PER_ROW;
+    }
+
+    private int categoryCode(long categoryId) {
+        if (categoryId == 0) {
+            return NO_CATEGORY;
+        }
+        Integer code = categoryCodeById.get(categoryId);
+        if (code == null) {
+            code = categoryIds.length;
+            categoryIds = Arrays.copyOf(categoryIds, code + 1);
+            categoryIds[code] = categoryId;
+            categoryCodeById.put(categoryId, code);
+        }
+        return code;
+    }
+}
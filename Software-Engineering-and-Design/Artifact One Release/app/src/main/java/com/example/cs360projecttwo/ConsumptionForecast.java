@@ -0,0 +1,68 @@
+package com.example.cs360projecttwo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConsumptionForecast
+ *
+ * Per-item consumption rate as a time-weighted exponential moving average,
+ * updated in O(1) from the previous rate and the time since the last
+ * decrement. No history is read.
+ *
+ * Events arrive at irregular intervals, so the smoothing weight depends on
+ * the gap: alpha = 1 - e^(-dt/tau). A long quiet period lets a new reading
+ * count for more; a burst of edits seconds apart barely moves the rate
+ * (as dt goes to 0, each decrement adds at most consumed/tau).
+ */
+public final class ConsumptionForecast {
+
+    /** Stored in stockout_at for items with no measured consumption; sorts last. */
+    public static final long NO_STOCKOUT = Long.MAX_VALUE;
+
+    static final double TAU_DAYS = 7.0;
+    static final double LEAD_TIME_DAYS = 7.0;
+    static final double COVER_DAYS = 14.0;
+
+    private static final double DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private ConsumptionForecast() {
+    }
+
+    /**
+     * New rate (units/day) after {@code consumed} units were used
+     * {@code elapsedMs} after the previous update.
+     */
+    public static double updateRate(double rate, int consumed, long elapsedMs) {
+        double x = Math.max(0, elapsedMs) / DAY_MS / TAU_DAYS;
+        double alpha = -Math.expm1(-x);
+        // alpha * (consumed / dt), rewritten so dt == 0 stays finite
+        double weightedSample = x == 0 ? consumed / TAU_DAYS : alpha * consumed / (x * TAU_DAYS);
+        return rate * (1 - alpha) + weightedSample;
+    }
+
+    /** Absolute time the item is projected to run out, or {@link #NO_STOCKOUT}. */
+    public static long projectStockout(int quantity, double rate, long now) {
+        if (rate <= 0) {
+            return NO_STOCKOUT;
+        }
+        if (quantity <= 0) {
+            return now;
+        }
+        double ms = quantity / rate * DAY_MS;
+        return ms >= NO_STOCKOUT - now ? NO_STOCKOUT : now + (long) ms;
+    }
+
+    /** Days until stockout, or {@link Double#POSITIVE_INFINITY} when none is projected. */
+    public static double daysUntilStockout(long stockoutAt, long now) {
+        if (stockoutAt == NO_STOCKOUT) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.max(0, stockoutAt - now) / DAY_MS;
+    }
+
+    /** Units to order now so stock covers the lead time plus the cover period. */
+    public static int suggestedReorder(int quantity, double rate) {
+        double needed = rate * (LEAD_TIME_DAYS + COVER_DAYS) - quantity;
+        return needed <= 0 ? 0 : (int) Math.ceil(needed);
+    }
+}
@@ -0,0 +1,687 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.PickVisualMediaRequest;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * DataGridFragment
+ *
+ * Inventory grid screen. All loaded data and in-progress UI state lives in
+ * {@link InventoryViewModel}, so a rotation or theme change re-binds the
+ * existing rows instead of querying the database again.
+ */
+public class DataGridFragment extends Fragment {
+
+    // Tags beyond this many (by item count) are left off the chip bar unless selected
+    private static final int MAX_TAG_CHIPS = 20;
+    // RecyclerView's own default for off-screen rows kept bound
+    private static final int ROW_VIEW_CACHE = 2;
+
+    private EditText itemNameInput, itemQuantityInput;
+    private Button sortButton;
+    private InventoryViewModel viewModel;
+    private RecyclerView list;
+    private InventoryAdapter adapter;
+    private DatabaseBackupManager backupManager;
+    private ValuationReport valuationReport;
+    private AlertDialog updateDialog;
+    private AlertDialog conflictDialog;
+    // Progress of a running valuation report; null once it finished or the view went away
+    private AlertDialog valuationProgress;
+    private boolean isAdmin = false; // role-based access flag
+
+    // Once the app is hidden, rows built for scrolling are dropped; they inflate again as rows scroll in
+    private final MemoryTrimRegistry.Trimmable rowViewTrim = tier -> {
+        if (list != null) {
+            // A zero-size view cache hands its rows to the pool, so clearing the pool frees both
+            list.setItemViewCacheSize(0);
+            list.getRecycledViewPool().clear();
+            list.setItemViewCacheSize(ROW_VIEW_CACHE);
+        }
+        return 0; // view memory isn't measurable from here
+    };
+
+    // Registered up front as the result API requires; the target row is kept in the ViewModel
+    private final ActivityResultLauncher<PickVisualMediaRequest> photoPicker = registerForActivityResult(
+            new ActivityResultContracts.PickVisualMedia(), uri -> viewModel.finishPhotoPick(uri));
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_data_grid, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        readUserRole(); // sets isAdmin based on saved role
+
+        viewModel = new ViewModelProvider(this).get(InventoryViewModel.class);
+        backupManager = DatabaseBackupManager.get(requireContext());
+        valuationReport = new ValuationReport(requireContext(),
+                InventoryRepository.getInstance(requireContext()));
+
+        itemNameInput = view.findViewById(R.id.itemNameInput);
+        itemQuantityInput = view.findViewById(R.id.itemQuantityInput);
+        Button addItemButton = view.findViewById(R.id.addItemButton);
+        Button logoutButton = view.findViewById(R.id.logoutButton);
+
+        addItemButton.setOnClickListener(v -> addItemToDatabase());
+        logoutButton.setOnClickListener(v -> logout());
+        setupBackupActions(view);
+        setupList(view);
+        MemoryTrimRegistry.get().register("grid row views", MemoryTrimRegistry.TIER_UI_HIDDEN, rowViewTrim);
+        setupSearchAndSort(view);
+        setupFacetBar(view);
+        setupSelectionActions(view);
+
+        // Re-binds from the ViewModel after recreation; only the first creation hits the database
+        viewModel.getVisibleItems().observe(getViewLifecycleOwner(), items -> {
+            if (list.getAdapter() != adapter) {
+                list.swapAdapter(adapter, false); // live rows take over from the snapshot preview
+            }
+            adapter.submitList(items);
+        });
+
+        if (viewModel.getPendingEdit() != null) {
+            openUpdateDialog(viewModel.getPendingEdit());
+        }
+        viewModel.getEditConflict().observe(getViewLifecycleOwner(), this::showConflict);
+        viewModel.getPhotoChanged().observe(getViewLifecycleOwner(), itemId -> {
+            if (itemId != null) {
+                adapter.refreshThumbnail(itemId);
+            }
+        });
+        viewModel.getPhotoFailed().observe(getViewLifecycleOwner(), failed -> {
+            if (Boolean.TRUE.equals(failed)) {
+                Toast.makeText(requireContext(), R.string.photo_failed, Toast.LENGTH_SHORT).show();
+                viewModel.consumePhotoFailed();
+            }
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        MemoryTrimRegistry.get().unregister(rowViewTrim);
+        // Dismiss (not cancel) so the pending edit survives in the ViewModel
+        if (updateDialog != null) {
+            updateDialog.dismiss();
+            updateDialog = null;
+        }
+        if (conflictDialog != null) {
+            conflictDialog.dismiss();
+            conflictDialog = null;
+        }
+        // The report itself carries on; only its dialog belongs to this view
+        if (valuationProgress != null) {
+            valuationProgress.dismiss();
+            valuationProgress = null;
+        }
+        super.onDestroyView();
+    }
+
+    private void readUserRole() {
+        SharedPreferences prefs = requireContext().getSharedPreferences("auth", Context.MODE_PRIVATE);
+        String role = prefs.getString("userRole", "user");
+        isAdmin = "admin".equalsIgnoreCase(role);
+    }
+
+    // ----------- List, search & sort -----------
+
+    private void setupList(View view) {
+        list = view.findViewById(R.id.inventoryList);
+        list.setLayoutManager(new LinearLayoutManager(requireContext()));
+        int thumbnailSize = getResources().getDimensionPixelSize(R.dimen.thumbnail_size);
+        adapter = new InventoryAdapter(isAdmin, viewModel.getThumbnails(), thumbnailSize, new InventoryAdapter.RowActions() {
+            @Override
+            public void onUpdate(InventoryItem item) {
+                showUpdateDialog(item);
+            }
+
+            @Override
+            public void onDelete(InventoryItem item) {
+                deleteItemFromDatabase(item.getId());
+            }
+
+            @Override
+            public void onToggleSelection(InventoryItem item) {
+                // Batch actions are admin-only, so only admins can select
+                if (isAdmin) {
+                    viewModel.toggleSelection(item.getId());
+                }
+            }
+
+            @Override
+            public void onPickImage(InventoryItem item) {
+                viewModel.startPhotoPick(item.getId());
+                photoPicker.launch(new PickVisualMediaRequest.Builder()
+                        .setMediaType(ActivityResultContracts.PickVisualMedia.ImageOnly.INSTANCE)
+                        .build());
+            }
+        });
+        list.setAdapter(adapter);
+
+        // Cold start: draw last run's rows from the snapshot until the live query delivers
+        if (!viewModel.hasSnapshot()) {
+            viewModel.getCatalogPreview().observe(getViewLifecycleOwner(), preview -> {
+                if (preview != null && preview.size() > 0 && !viewModel.hasSnapshot()
+                        && list.getAdapter() == adapter) {
+                    list.swapAdapter(new CatalogSnapshotAdapter(preview, viewModel.getThumbnails(),
+                            thumbnailSize), false);
+                }
+            });
+        }
+    }
+
+    private void setupSearchAndSort(View view) {
+        EditText searchInput = view.findViewById(R.id.searchInput);
+        searchInput.setText(viewModel.getSearchQuery());
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.setSearchQuery(s.toString());
+            }
+        });
+
+        sortButton = view.findViewById(R.id.sortButton);
+        sortButton.setOnClickListener(v -> {
+            InventoryViewModel.SortOrder[] orders = InventoryViewModel.SortOrder.values();
+            viewModel.setSortOrder(orders[(viewModel.getSortOrder().ordinal() + 1) % orders.length]);
+            updateSortLabel();
+        });
+        updateSortLabel();
+    }
+
+    private void updateSortLabel() {
+        switch (viewModel.getSortOrder()) {
+            case NAME:
+                sortButton.setText(R.string.sort_name);
+                break;
+            case QUANTITY:
+                sortButton.setText(R.string.sort_quantity);
+                break;
+            case URGENCY:
+                sortButton.setText(R.string.sort_urgency);
+                break;
+            default:
+                sortButton.setText(R.string.sort_default);
+                break;
+        }
+    }
+
+    // ----------- Category & tag chips -----------
+
+    private void setupFacetBar(View view) {
+        View bar = view.findViewById(R.id.facetBar);
+        ChipGroup chips = view.findViewById(R.id.facetChips);
+        viewModel.getFacets().observe(getViewLifecycleOwner(), facets -> {
+            chips.removeAllViews();
+            for (FacetStore.Facet facet : chipFacets(facets)) {
+                chips.addView(facetChip(facet));
+            }
+            bar.setVisibility(chips.getChildCount() == 0 ? View.GONE : View.VISIBLE);
+        });
+    }
+
+    // Every category, plus the busiest tags and whichever tag is selected
+    private List<FacetStore.Facet> chipFacets(List<FacetStore.Facet> facets) {
+        long selectedTag = viewModel.getFacetSelection().tagId;
+        List<FacetStore.Facet> tags = new ArrayList<>();
+        List<FacetStore.Facet> shown = new ArrayList<>();
+        for (FacetStore.Facet facet : facets) {
+            if (facet.type == FacetStore.TYPE_CATEGORY) {
+                shown.add(facet);
+            } else {
+                tags.add(facet);
+            }
+        }
+        if (tags.size() > MAX_TAG_CHIPS) {
+            List<FacetStore.Facet> byCount = new ArrayList<>(tags);
+            byCount.sort((a, b) -> Integer.compare(b.count, a.count));
+            int cutoff = byCount.get(MAX_TAG_CHIPS - 1).count;
+            List<FacetStore.Facet> kept = new ArrayList<>(MAX_TAG_CHIPS + 1);
+            for (FacetStore.Facet tag : tags) {
+                // Ties at the cutoff may add a few extra chips; name order is kept
+                if (tag.count >= cutoff || tag.id == selectedTag) {
+                    kept.add(tag);
+                }
+            }
+            tags = kept;
+        }
+        shown.addAll(tags);
+        return shown;
+    }
+
+    private Chip facetChip(FacetStore.Facet facet) {
+        FacetStore.Selection selection = viewModel.getFacetSelection();
+        boolean isCategory = facet.type == FacetStore.TYPE_CATEGORY;
+        Chip chip = new Chip(requireContext());
+        chip.setText(getString(isCategory ? R.string.facet_category_chip : R.string.facet_tag_chip,
+                facet.name, facet.count));
+        chip.setCheckable(true);
+        chip.setChecked(facet.id == (isCategory ? selection.categoryId : selection.tagId));
+        chip.setOnClickListener(v -> viewModel.toggleFacet(facet));
+        return chip;
+    }
+
+    // ----------- Multi-select batch actions (admin only) -----------
+
+    private void setupSelectionActions(View view) {
+        View panel = view.findViewById(R.id.selectionPanel);
+        TextView count = view.findViewById(R.id.selectionCount);
+
+        viewModel.getSelection().observe(getViewLifecycleOwner(), selected -> {
+            adapter.setSelection(selected);
+            panel.setVisibility(selected.isEmpty() ? View.GONE : View.VISIBLE);
+            count.setText(getString(R.string.selection_count, selected.size()));
+        });
+
+        view.findViewById(R.id.selectionLabel).setOnClickListener(v ->
+                promptForText(R.string.label_title, R.string.label_hint, viewModel::labelSelected));
+        view.findViewById(R.id.selectionDelete).setOnClickListener(v -> confirmDeleteSelected());
+        view.findViewById(R.id.selectionAdjust).setOnClickListener(v ->
+                promptForNumber(R.string.adjust_title, true, viewModel::adjustSelected));
+        view.findViewById(R.id.selectionThreshold).setOnClickListener(v ->
+                promptForNumber(R.string.threshold_title, false, viewModel::setThresholdForSelected));
+        view.findViewById(R.id.selectionCost).setOnClickListener(v -> promptForCost());
+        view.findViewById(R.id.selectionClear).setOnClickListener(v -> viewModel.clearSelection());
+    }
+
+    private void confirmDeleteSelected() {
+        int count = viewModel.getSelection().getValue().size();
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.delete_selected_title)
+                .setMessage(getString(R.string.delete_selected_message, count))
+                .setPositiveButton(R.string.button_delete, (dialog, which) -> viewModel.deleteSelected())
+                .setNegativeButton("Cancel", (dialog, which) -> dialog.cancel())
+                .show();
+    }
+
+    private void promptForNumber(int titleRes, boolean signed, IntConsumer onValue) {
+        final EditText input = new EditText(requireContext());
+        input.setInputType(android.text.InputType.TYPE_CLASS_NUMBER
+                | (signed ? android.text.InputType.TYPE_NUMBER_FLAG_SIGNED : 0));
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(titleRes)
+                .setView(input)
+                .setPositiveButton("Apply", (dialog, which) -> {
+                    try {
+                        int value = Integer.parseInt(input.getText().toString().trim());
+                        if (!signed && value < 0) {
+                            throw new NumberFormatException();
+                        }
+                        onValue.accept(value);
+                    } catch (NumberFormatException ex) {
+                        Toast.makeText(requireContext(), "Please enter a valid number.", Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .setNegativeButton("Cancel", (dialog, which) -> dialog.cancel())
+                .show();
+    }
+
+    private void promptForCost() {
+        final EditText input = new EditText(requireContext());
+        input.setInputType(android.text.InputType.TYPE_CLASS_NUMBER
+                | android.text.InputType.TYPE_NUMBER_FLAG_DECIMAL);
+        input.setHint(R.string.cost_hint);
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.cost_title)
+                .setView(input)
+                .setPositiveButton("Apply", (dialog, which) -> {
+                    try {
+                        long cost = MinorUnits.parse(input.getText().toString());
+                        if (cost < 0) {
+                            throw new NumberFormatException();
+                        }
+                        viewModel.setUnitCostForSelected(cost);
+                    } catch (NumberFormatException ex) {
+                        Toast.makeText(requireContext(), getString(R.string.invalid_cost), Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .setNegativeButton("Cancel", (dialog, which) -> dialog.cancel())
+                .show();
+    }
+
+    private void promptForText(int titleRes, int hintRes, Consumer<String> onValue) {
+        final EditText input = new EditText(requireContext());
+        input.setHint(hintRes);
+        input.setSingleLine(true);
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(titleRes)
+                .setView(input)
+                .setPositiveButton("Apply", (dialog, which) -> onValue.accept(input.getText().toString()))
+                .setNegativeButton("Cancel", (dialog, which) -> dialog.cancel())
+                .show();
+    }
+
+    // ----------- Add / update / delete -----------
+
+    private void addItemToDatabase() {
+        String itemName = itemNameInput.getText().toString().trim();
+        String quantityStr = itemQuantityInput.getText().toString().trim();
+
+        if (itemName.isEmpty() || quantityStr.isEmpty()) {
+            Toast.makeText(requireContext(), getString(R.string.enter_name_and_quantity), Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        int quantity;
+        try {
+            quantity = Integer.parseInt(quantityStr);
+            if (quantity <= 0) {
+                Toast.makeText(requireContext(), "Quantity must be a positive number.", Toast.LENGTH_SHORT).show();
+                return;
+            }
+        } catch (NumberFormatException ex) {
+            Toast.makeText(requireContext(), "Please enter a valid number for quantity.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        viewModel.addItem(itemName, quantity);
+
+        itemNameInput.setText("");
+        itemQuantityInput.setText("");
+    }
+
+    private void showUpdateDialog(InventoryItem item) {
+        // Hard check: block non-admins even if they somehow trigger the dialog
+        if (!isAdmin) {
+            Toast.makeText(requireContext(), "Only admin users may update inventory.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        viewModel.startEdit(item);
+        openUpdateDialog(viewModel.getPendingEdit());
+    }
+
+    private void openUpdateDialog(InventoryViewModel.PendingEdit edit) {
+        if (!isAdmin) {
+            viewModel.clearEdit();
+            return;
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
+        builder.setTitle("Update Item Quantity");
+
+        final EditText input = new EditText(requireContext());
+        input.setInputType(android.text.InputType.TYPE_CLASS_NUMBER);
+        input.setText(edit.text);
+        input.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.updatePendingText(s.toString());
+            }
+        });
+        builder.setView(input);
+
+        builder.setPositiveButton("Update", (dialog, which) -> {
+            viewModel.clearEdit();
+
+            // Extra safety check inside positive button
+            if (!isAdmin) {
+                Toast.makeText(requireContext(), "Unauthorized action.", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            String newQuantityStr = input.getText().toString().trim();
+            if (!newQuantityStr.isEmpty()) {
+                try {
+                    int newQuantity = Integer.parseInt(newQuantityStr);
+                    if (newQuantity <= 0) {
+                        Toast.makeText(requireContext(), "Quantity must be positive.", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+
+                    viewModel.updateQuantity(edit.itemId, edit.version, newQuantity);
+                } catch (NumberFormatException ex) {
+                    Toast.makeText(requireContext(), "Please enter a valid number for quantity.", Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+
+        builder.setNegativeButton("Cancel", (dialog, which) -> dialog.cancel());
+        builder.setOnCancelListener(dialog -> viewModel.clearEdit());
+        updateDialog = builder.show();
+    }
+
+    /**
+     * Someone else saved the row while the update dialog was open. Shows
+     * their value next to ours and lets the user keep theirs, overwrite it,
+     * or edit again from the fresh row.
+     */
+    private void showConflict(InventoryViewModel.EditConflict conflict) {
+        if (conflictDialog != null) {
+            conflictDialog.dismiss();
+            conflictDialog = null;
+        }
+        if (conflict == null) {
+            return;
+        }
+        if (conflict.current == null) {
+            viewModel.clearConflict();
+            Toast.makeText(requireContext(), R.string.conflict_deleted, Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        InventoryItem current = conflict.current;
+        conflictDialog = new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.conflict_title)
+                .setMessage(getString(R.string.conflict_message, current.getName(),
+                        current.getQuantity(), conflict.attemptedQuantity))
+                .setPositiveButton(getString(R.string.conflict_overwrite, conflict.attemptedQuantity),
+                        (dialog, which) -> {
+                            viewModel.clearConflict();
+                            // Still conditional: if it moved again we end up back here
+                            viewModel.updateQuantity(current.getId(), current.getVersion(),
+                                    conflict.attemptedQuantity);
+                        })
+                .setNeutralButton(R.string.conflict_edit, (dialog, which) -> {
+                    viewModel.clearConflict();
+                    showUpdateDialog(current);
+                })
+                .setNegativeButton(getString(R.string.conflict_keep, current.getQuantity()),
+                        (dialog, which) -> viewModel.clearConflict())
+                .setOnCancelListener(dialog -> viewModel.clearConflict())
+                .show();
+    }
+
+    private void deleteItemFromDatabase(long itemId) {
+        // Hard check: block non-admins from deleting
+        if (!isAdmin) {
+            Toast.makeText(requireContext(), "Only admin users may delete inventory.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        viewModel.deleteItem(itemId);
+    }
+
+    // ----------- Backup & restore (admin only) -----------
+
+    private void setupBackupActions(View view) {
+        if (!isAdmin) {
+            return;
+        }
+
+        view.findViewById(R.id.backupPanel).setVisibility(View.VISIBLE);
+        view.findViewById(R.id.backupButton).setOnClickListener(v -> backupDatabase());
+        view.findViewById(R.id.restoreButton).setOnClickListener(v -> confirmRestore());
+        view.findViewById(R.id.valuationButton).setOnClickListener(v -> runValuationReport());
+    }
+
+    private void backupDatabase() {
+        backupManager.backup(new DatabaseBackupManager.Callback() {
+            @Override
+            public void onSuccess(File file) {
+                if (isAdded()) {
+                    Toast.makeText(requireContext(),
+                            getString(R.string.backup_success, file.getName()), Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (isAdded()) {
+                    Toast.makeText(requireContext(),
+                            getString(R.string.backup_failed, e.getMessage()), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    private void confirmRestore() {
+        backupManager.findLatestBackup(latest -> {
+            if (!isAdded() || getView() == null) {
+                return;
+            }
+            if (latest == null) {
+                Toast.makeText(requireContext(), getString(R.string.no_backups), Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            new AlertDialog.Builder(requireContext())
+                    .setTitle(R.string.restore_confirm_title)
+                    .setMessage(getString(R.string.restore_confirm_message, latest.getName()))
+                    .setPositiveButton(R.string.button_restore, (dialog, which) -> restoreDatabase(latest))
+                    .setNegativeButton("Cancel", (dialog, which) -> dialog.cancel())
+                    .show();
+        });
+    }
+
+    private void restoreDatabase(File backup) {
+        backupManager.restore(backup, new DatabaseBackupManager.Callback() {
+            @Override
+            public void onSuccess(File file) {
+                if (isAdded()) {
+                    Toast.makeText(requireContext(),
+                            getString(R.string.restore_success), Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (isAdded()) {
+                    Toast.makeText(requireContext(),
+                            getString(R.string.restore_failed, e.getMessage()), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    private void runValuationReport() {
+        AlertDialog progress = new AlertDialog.Builder(requireContext())
+                .setMessage(R.string.valuation_running)
+                .setCancelable(false)
+                .create();
+        CancellationSignal signal = valuationReport.start(new ValuationReport.Callback() {
+            @Override
+            public void onSuccess(File file) {
+                dismissValuationProgress(progress);
+                if (isAdded()) {
+                    Toast.makeText(requireContext(),
+                            getString(R.string.valuation_success, file.getName()), Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                dismissValuationProgress(progress);
+                if (!isAdded()) {
+                    return;
+                }
+                String message = e instanceof OperationCanceledException
+                        ? getString(R.string.valuation_cancelled)
+                        : getString(R.string.valuation_failed, e.getMessage());
+                Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
+            }
+        });
+        // The dialog closes itself once the report thread sees the cancel
+        progress.setButton(AlertDialog.BUTTON_NEGATIVE, "Cancel", (dialog, which) -> signal.cancel());
+        progress.show();
+        valuationProgress = progress;
+    }
+
+    // Only while this view still shows it; onDestroyView already dismissed it otherwise
+    private void dismissValuationProgress(AlertDialog progress) {
+        if (valuationProgress == progress) {
+            progress.dismiss();
+            valuationProgress = null;
+        }
+    }
+
+    /**
+     * Logout: clear auth state and let the host go back to the Login tab.
+     */
+    private void logout() {
+        AuditLog auditLog = InventoryRepository.getInstance(requireContext()).getAuditLog();
+        auditLog.recordAuth(AuditLog.LOGOUT, auditLog.currentActor());
+        auditLog.setSessionActor(null);
+        // Logging out also forgets this device
+        Context app = requireContext().getApplicationContext();
+        SessionStore sessions = InventoryRepository.getInstance(app).getSessions();
+        AppExecutors.get().diskIO().execute(() -> sessions.forget(app));
+
+        requireContext().getSharedPreferences("auth", Context.MODE_PRIVATE)
+                .edit()
+                .putBoolean("isLoggedIn", false)
+                .putString("userRole", "user")
+                .remove(MainActivity.PREF_USERNAME)
+                .apply();
+
+        Toast.makeText(requireContext(), "Signed out", Toast.LENGTH_SHORT).show();
+
+        ((MainActivity) requireActivity()).onLoggedOut();
+    }
+}
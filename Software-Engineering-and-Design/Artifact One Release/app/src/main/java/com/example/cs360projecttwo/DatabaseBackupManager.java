@@ -0,0 +1,382 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * DatabaseBackupManager
+ *
+ * In-app backup and restore of inventory.db.
+ *
+ * Backup takes a consistent snapshot with VACUUM INTO on its own connection.
+ * Because the database runs in WAL mode the snapshot only holds a read
+ * transaction, so inventory writes keep going while it runs. The snapshot is
+ * then gzip-compressed and encrypted in a single streaming pass (see
+ * {@link BackupCipher}) and a SHA-256 checksum of the uncompressed bytes is
+ * written next to it.
+ *
+ * Backups taken before encryption (plain ".db.gz" files) are encrypted in
+ * place once, on the backup thread, when the manager is created.
+ *
+ * Restore decrypts and decompresses into a temp file beside inventory.db, reads
+ * the backup to its end so its trailer is checked, verifies the checksum,
+ * then swaps the file in with an atomic rename. The swap runs through
+ * {@link InventoryRepository#replaceDatabase}, which holds off writers, the
+ * audit thread and new connections until it is done and then tells every
+ * live query that all tables changed. DatabaseHelper encrypts the restored
+ * file before opening it if it is plaintext.
+ *
+ * All work happens on a dedicated background thread; results are posted back
+ * to the UI thread through {@link Callback}.
+ */
+public class DatabaseBackupManager {
+
+    private static final String TAG = "DatabaseBackupManager";
+    private static final String BACKUP_DIR = "backups";
+    private static final String BACKUP_SUFFIX = ".db.gz.enc";
+    // Unencrypted backups from older versions, migrated on first use
+    private static final String LEGACY_SUFFIX = ".db.gz";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface Callback {
+        void onSuccess(File file);
+
+        void onError(Exception e);
+    }
+
+    public interface LatestCallback {
+        /** Called on the UI thread; {@code latest} is null if no backup has been taken. */
+        void onResult(File latest);
+    }
+
+    private static volatile DatabaseBackupManager instance;
+
+    private final Context appContext;
+    private final InventoryRepository repository;
+    private final DatabaseHelper dbHelper;
+    private final BackupCipher cipher;
+    // One thread per process, so a long backup never queues in front of normal disk work
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "inventory-backup");
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** The process-wide manager; the grid asks for it on every view, so the migration is queued once. */
+    public static DatabaseBackupManager get(Context context) {
+        if (instance == null) {
+            synchronized (DatabaseBackupManager.class) {
+                if (instance == null) {
+                    instance = new DatabaseBackupManager(context, InventoryRepository.getInstance(context),
+                            BackupCipher.forDevice(context));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Test hook: drops the singleton; the backup thread is shared and stays. */
+    static void resetForTesting() {
+        synchronized (DatabaseBackupManager.class) {
+            instance = null;
+        }
+    }
+
+    DatabaseBackupManager(Context context, InventoryRepository repository, BackupCipher cipher) {
+        this.appContext = context.getApplicationContext();
+        this.repository = repository;
+        this.dbHelper = repository.getDatabaseHelper();
+        this.cipher = cipher;
+        // Queued first, so no backup or restore can see a half-migrated directory
+        EXECUTOR.execute(() -> {
+            try {
+                encryptLegacyBackups();
+            } catch (Exception e) {
+                Log.e(TAG, "Could not encrypt old backups", e);
+            }
+        });
+    }
+
+    public File getBackupDir() {
+        return new File(appContext.getFilesDir(), BACKUP_DIR);
+    }
+
+    /** Test hook: waits for everything queued on the backup thread so far. */
+    static void drainForTesting() throws Exception {
+        EXECUTOR.submit(() -> { }).get();
+    }
+
+    /** Looks up the most recent backup on the backup thread (it lists a directory). */
+    public void findLatestBackup(LatestCallback callback) {
+        EXECUTOR.execute(() -> {
+            File latest = getLatestBackup();
+            post(() -> callback.onResult(latest));
+        });
+    }
+
+    /** Most recent backup file, or null if none have been taken; lists the directory, so not on the UI thread. */
+    File getLatestBackup() {
+        File[] files = getBackupDir().listFiles((dir, name) -> name.endsWith(BACKUP_SUFFIX));
+        if (files == null || files.length == 0) {
+            return null;
+        }
+        Arrays.sort(files, (a, b) -> a.getName().compareTo(b.getName()));
+        return files[files.length - 1];
+    }
+
+    // ----------- Backup -----------
+
+    public void backup(Callback callback) {
+        EXECUTOR.execute(() -> {
+            try {
+                File result = backupBlocking();
+                post(() -> callback.onSuccess(result));
+            } catch (Exception e) {
+                Log.e(TAG, "Backup failed", e);
+                post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    File backupBlocking() throws IOException {
+        File dir = getBackupDir();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File snapshot = new File(appContext.getCacheDir(), "inventory-snapshot.db");
+        File partial = new File(dir, "inventory-" + stamp + BACKUP_SUFFIX + ".part");
+        File target = new File(dir, "inventory-" + stamp + BACKUP_SUFFIX);
+
+        try {
+            // Include audit events that are still only buffered in memory
+            repository.getAuditLog().flush();
+            takeSnapshot(snapshot);
+
+            MessageDigest digest = newDigest();
+            try (InputStream in = new FileInputStream(snapshot);
+                 OutputStream out = new GZIPOutputStream(
+                         cipher.encrypt(new FileOutputStream(partial)), BUFFER_SIZE)) {
+                copy(new DigestInputStream(in, digest), out);
+            }
+
+            writeChecksum(checksumFileFor(target), toHex(digest.digest()));
+            Files.move(partial.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } finally {
+            deleteQuietly(snapshot);
+            deleteQuietly(partial);
+        }
+    }
+
+    private void takeSnapshot(File snapshot) {
+        deleteQuietly(snapshot);
+
+        // Separate connection: the helper's primary connection stays free for writers,
+        // and in WAL mode VACUUM INTO only needs a read transaction on the source.
+        SupportSQLiteOpenHelper source = dbHelper.openSideConnection();
+        try {
+            source.getWritableDatabase().execSQL("VACUUM INTO ?", new Object[]{snapshot.getAbsolutePath()});
+        } finally {
+            source.close();
+        }
+    }
+
+    // ----------- Restore -----------
+
+    public void restore(File backup, Callback callback) {
+        EXECUTOR.execute(() -> {
+            try {
+                File result = restoreBlocking(backup);
+                post(() -> callback.onSuccess(result));
+            } catch (Exception e) {
+                Log.e(TAG, "Restore failed", e);
+                post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    File restoreBlocking(File backup) throws IOException {
+        String expected = readChecksum(checksumFileFor(backup));
+        File dbFile = DatabaseHelper.getDatabaseFile(appContext);
+        // Same directory as the live file so the final rename stays atomic
+        File staged = new File(dbFile.getParentFile(), dbFile.getName() + ".restore");
+
+        try {
+            MessageDigest digest = newDigest();
+            try (InputStream sealed = openBackup(backup);
+                 InputStream in = new GZIPInputStream(sealed, BUFFER_SIZE);
+                 OutputStream out = new DigestOutputStream(new FileOutputStream(staged), digest)) {
+                copy(in, out);
+                // gzip stops at its own trailer; only the end of the sealed stream checks the MAC
+                drain(sealed);
+            }
+
+            String actual = toHex(digest.digest());
+            if (!actual.equalsIgnoreCase(expected)) {
+                throw new IOException("Checksum mismatch for " + backup.getName());
+            }
+
+            // With the file closed and nothing able to reopen it: drop the old WAL, then swap in one step
+            repository.replaceDatabase(() -> {
+                deleteQuietly(new File(dbFile.getPath() + "-wal"));
+                deleteQuietly(new File(dbFile.getPath() + "-shm"));
+                Files.move(staged.toPath(), dbFile.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            });
+            return dbFile;
+        } finally {
+            deleteQuietly(staged);
+        }
+    }
+
+    // Legacy files only exist if the migration failed part-way; read them as they are
+    private InputStream openBackup(File backup) throws IOException {
+        InputStream in = new FileInputStream(backup);
+        if (backup.getName().endsWith(LEGACY_SUFFIX)) {
+            return in;
+        }
+        try {
+            return cipher.decrypt(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    // ----------- Migration -----------
+
+    /**
+     * Encrypts every plain backup left by older versions, then deletes the
+     * plain copy. Each file is written to ".part" and renamed, so a crash
+     * part-way leaves either the old file or the new one, never neither.
+     * The checksum covers the uncompressed database, so it moves unchanged.
+     */
+    void encryptLegacyBackups() throws IOException {
+        File[] legacy = getBackupDir().listFiles((dir, name) -> name.endsWith(LEGACY_SUFFIX));
+        if (legacy == null) {
+            return;
+        }
+        for (File plain : legacy) {
+            File target = new File(plain.getPath() + ".enc");
+            File partial = new File(target.getPath() + ".part");
+            try {
+                try (InputStream in = new FileInputStream(plain);
+                     OutputStream out = cipher.encrypt(new FileOutputStream(partial))) {
+                    copy(in, out);
+                }
+                File checksum = checksumFileFor(plain);
+                if (checksum.exists()) {
+                    Files.copy(checksum.toPath(), checksumFileFor(target).toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(partial.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                deleteQuietly(plain);
+                deleteQuietly(checksum);
+            } finally {
+                deleteQuietly(partial);
+            }
+        }
+    }
+
+    // ----------- Helpers -----------
+
+    private void post(Runnable runnable) {
+        AppExecutors.get().mainThread().execute(runnable);
+    }
+
+    private static File checksumFileFor(File backup) {
+        return new File(backup.getPath() + CHECKSUM_SUFFIX);
+    }
+
+    // Via ".part" and a rename, so a crash never leaves a truncated checksum next to a good backup
+    private static void writeChecksum(File file, String checksum) throws IOException {
+        File partial = new File(file.getPath() + ".part");
+        try {
+            try (Writer writer = new FileWriter(partial)) {
+                writer.write(checksum);
+            }
+            Files.move(partial.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    private static String readChecksum(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Empty checksum file " + file.getName());
+            }
+            return line.trim();
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (in.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete " + file);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import net.zetetic.database.sqlcipher.SQLiteConnection;
+import net.zetetic.database.sqlcipher.SQLiteDatabaseHook;
+import net.zetetic.database.sqlcipher.SupportOpenHelperFactory;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * DatabaseEncryption
+ *
+ * Page-level encryption of inventory.db with SQLCipher. SQLite encrypts
+ * (AES-256) and authenticates (HMAC) each page as it writes it, and checks
+ * and decrypts it as it reads it, so the file never holds a plaintext page:
+ * the users table's password hashes are covered along with the stock list.
+ *
+ * The key is 32 random bytes, stored in no-backup storage wrapped by the
+ * same Android Keystore key as the backup key (see {@link BackupCipher}),
+ * and handed to SQLCipher as a raw key. A passphrase would go through
+ * 256,000 rounds of PBKDF2 on every connection the pool opens.
+ *
+ * Reads pay for decrypting each page they pull from the file, and writes
+ * pay for encrypting each page they dirty. Pages already in a connection's
+ * page cache are plaintext and cost nothing extra. So each connection gets
+ * {@link #CACHE_KIB} KiB of cache (SQLite's default is 2 MiB), which holds
+ * the inventory table and its indexes at tens of thousands of items. The
+ * grid and the hot lookups then decrypt a page once, not on every read. The
+ * "sqlite page cache" memory trim still frees the cache under pressure.
+ *
+ * A plaintext file is encrypted once, before anything opens it. That file
+ * may be left by a version before encryption or restored from an old
+ * backup. Its WAL is folded in, sqlcipher_export copies it into a new
+ * encrypted file, and an atomic rename swaps that in. A crash part-way
+ * leaves the plaintext file, and the next open starts over.
+ */
+final class DatabaseEncryption {
+
+    private static final String TAG = "DatabaseEncryption";
+    private static final String KEY_FILE = "database-key.bin";
+    private static final int KEY_BYTES = 32;
+    static final int CACHE_KIB = 8 * 1024;
+    // First 16 bytes of every unencrypted SQLite file; SQLCipher puts a random salt there
+    private static final byte[] PLAINTEXT_HEADER = "SQLite format 3\0".getBytes(StandardCharsets.US_ASCII);
+
+    // Guarded by the class
+    private static DatabaseEncryption instance;
+
+    // Runs on every connection SQLCipher opens, just after the key is applied
+    private static final SQLiteDatabaseHook CACHE_HOOK = new SQLiteDatabaseHook() {
+        @Override
+        public void preKey(SQLiteConnection connection) {
+        }
+
+        @Override
+        public void postKey(SQLiteConnection connection) {
+            connection.execute("PRAGMA cache_size = -" + CACHE_KIB, null, null);
+        }
+    };
+
+    private final Context appContext;
+    private final File keyFile;
+    private final BackupCipher.KeyWrapper wrapper;
+    // Raw-key passphrase, x'<hex>'; unwrapped on first use, guarded by this
+    private byte[] passphrase;
+
+    DatabaseEncryption(Context context, File keyFile, BackupCipher.KeyWrapper wrapper) {
+        this.appContext = context.getApplicationContext();
+        this.keyFile = keyFile;
+        this.wrapper = wrapper;
+    }
+
+    /** The device's encryption: key in no-backup storage, wrapped by the Android Keystore. */
+    static synchronized DatabaseEncryption forDevice(Context context) {
+        if (instance == null) {
+            System.loadLibrary("sqlcipher");
+            instance = new DatabaseEncryption(context, new File(context.getNoBackupFilesDir(), KEY_FILE),
+                    BackupCipher.deviceKeyWrapper());
+        }
+        return instance;
+    }
+
+    /**
+     * Encrypts {@code database} first if it is still plaintext, then returns
+     * a factory whose helpers open it with the key.
+     */
+    SupportSQLiteOpenHelper.Factory factoryFor(File database) throws GeneralSecurityException, IOException {
+        byte[] key = passphrase();
+        if (isPlaintext(database)) {
+            encryptInPlace(database, key);
+        }
+        return new SupportOpenHelperFactory(key, CACHE_HOOK, true);
+    }
+
+    /** True if {@code database} exists and is an unencrypted SQLite file. */
+    static boolean isPlaintext(File database) throws IOException {
+        if (database.length() < PLAINTEXT_HEADER.length) {
+            return false; // missing or empty: SQLCipher creates it encrypted
+        }
+        byte[] header = new byte[PLAINTEXT_HEADER.length];
+        try (InputStream in = new FileInputStream(database)) {
+            new DataInputStream(in).readFully(header);
+        } catch (EOFException e) {
+            return false;
+        }
+        return Arrays.equals(header, PLAINTEXT_HEADER);
+    }
+
+    // ----------- Migration -----------
+
+    private void encryptInPlace(File database, byte[] key) throws IOException {
+        Log.i(TAG, "Encrypting " + database.getName());
+        // Through the platform's SQLite: fold the WAL into the file and leave WAL mode, so the
+        // export below sees every committed page and nothing is left beside the old file
+        int version;
+        try (SQLiteDatabase plain = SQLiteDatabase.openDatabase(database.getPath(), null,
+                SQLiteDatabase.OPEN_READWRITE)) {
+            plain.disableWriteAheadLogging();
+            version = plain.getVersion();
+        }
+
+        File encrypted = new File(database.getPath() + ".encrypting");
+        deleteQuietly(encrypted);
+        deleteQuietly(new File(encrypted.getPath() + "-journal"));
+        try {
+            // An empty key opens the plaintext file as it is
+            SupportSQLiteOpenHelper source = new SupportOpenHelperFactory(new byte[0]).create(
+                    SupportSQLiteOpenHelper.Configuration.builder(appContext)
+                            .name(database.getName())
+                            .callback(new OpenOnly(version))
+                            .build());
+            try {
+                SupportSQLiteDatabase db = source.getWritableDatabase();
+                db.execSQL("ATTACH DATABASE ? AS encrypted KEY ?",
+                        new Object[]{encrypted.getPath(), new String(key, StandardCharsets.US_ASCII)});
+                try (Cursor cursor = db.query("SELECT sqlcipher_export('encrypted')")) {
+                    cursor.moveToFirst();
+                }
+                db.execSQL("PRAGMA encrypted.user_version = " + version);
+                db.execSQL("DETACH DATABASE encrypted");
+            } finally {
+                source.close();
+            }
+            Files.move(encrypted.toPath(), database.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteQuietly(new File(database.getPath() + "-journal"));
+        } finally {
+            deleteQuietly(encrypted);
+        }
+    }
+
+    /** Opens a file at its own version; the migration copies the schema, it never builds one. */
+    private static final class OpenOnly extends SupportSQLiteOpenHelper.Callback {
+        OpenOnly(int version) {
+            super(version);
+        }
+
+        @Override
+        public void onCreate(SupportSQLiteDatabase db) {
+        }
+
+        @Override
+        public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+        }
+    }
+
+    // ----------- Key -----------
+
+    private synchronized byte[] passphrase() throws GeneralSecurityException, IOException {
+        if (passphrase == null) {
+            byte[] key = BackupCipher.loadOrCreateKey(keyFile, wrapper, KEY_BYTES, new SecureRandom());
+            StringBuilder sb = new StringBuilder(KEY_BYTES * 2 + 3).append("x'");
+            for (byte b : key) {
+                sb.append(String.format("%02x", b));
+            }
+            passphrase = sb.append('\'').toString().getBytes(StandardCharsets.US_ASCII);
+            Arrays.fill(key, (byte) 0);
+        }
+        // A copy per factory, in case SQLCipher clears what it is given
+        return passphrase.clone();
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete " + file);
+        }
+    }
+}
@@ -4,17 +4,40 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteException;
+import android.os.Build;
 import android.util.Log;
 
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-public class DatabaseHelper extends SQLiteOpenHelper {
+/**
+ * DatabaseHelper
+ *
+ * Opens inventory.db and owns its schema and the user helpers.
+ *
+ * On devices the file is encrypted page by page with SQLCipher (see
+ * {@link DatabaseEncryption}), which also encrypts a plaintext file left
+ * by an older version before it is first opened. Everything above this
+ * class sees androidx.sqlite's SupportSQLiteDatabase, so local tests swap
+ * in the platform's plain SQLite through {@link #useFactoryForTesting};
+ * SQLCipher's native library only exists on devices.
+ */
+public class DatabaseHelper {
 
-    private static final String DATABASE_NAME = "inventory.db";
-    // Bump version when we change schema (adds role + password_hash)
-    private static final int DATABASE_VERSION = 2;
+    static final String DATABASE_NAME = "inventory.db";
+    // Bump version when we change schema
+    // v2: role + password_hash, v3: quantity history tables, v4: consumption forecast columns,
+    // v5: low-stock threshold, v6: audit log, v7: row version, v8: categories & tags,
+    // v9: lots with expiry dates, v10: remembered-device sessions, v11: unit cost,
+    // v12: name trigrams
+    private static final int DATABASE_VERSION = 12;
 
     // Users table
     private static final String TABLE_USERS = "users";
@@ -22,18 +45,218 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COL_PASSWORD_HASH = "password_hash";
     private static final String COL_ROLE = "role";
 
+    // Remembered-device sign-ins (see SessionStore)
+    static final String TABLE_SESSIONS = "sessions";
+
     // Inventory table
     private static final String TABLE_INVENTORY = "inventory";
     private static final String COL_ITEM_ID = "item_id";
     private static final String COL_ITEM_NAME = "item_name";
     private static final String COL_ITEM_QUANTITY = "item_quantity";
 
+    // Consumption forecast (see ConsumptionForecast)
+    static final String COL_CONSUMPTION_RATE = "consumption_rate";
+    static final String COL_RATE_UPDATED_AT = "rate_updated_at";
+    static final String COL_STOCKOUT_AT = "stockout_at";
+
+    static final String COL_LOW_STOCK_THRESHOLD = "low_stock_threshold";
+    // Bumped by every write to the row; edits made from a stale copy are rejected
+    static final String COL_VERSION = "version";
+    // Fixed-point cost per unit in minor currency units (cents); see MinorUnits
+    static final String COL_UNIT_COST_MINOR = "unit_cost_minor";
+
+    // Categories, tags and their pre-aggregated counts (see FacetStore)
+    static final String COL_CATEGORY_ID = "category_id";
+    static final String TABLE_CATEGORIES = "categories";
+    static final String TABLE_TAGS = "tags";
+    static final String TABLE_ITEM_TAGS = "item_tags";
+    static final String TABLE_FACET_COUNTS = "facet_counts";
+
+    // Dated stock lots, consumed earliest-expiry first (see LotStore)
+    static final String TABLE_LOTS = "lots";
+
+    // Item-name trigrams for fuzzy lookup (see TrigramIndex)
+    static final String TABLE_ITEM_TRIGRAMS = "item_trigrams";
+    static final String TABLE_TRIGRAM_COUNTS = "trigram_counts";
+
+    // Quantity history (see QuantityHistoryStore)
+    static final String TABLE_QUANTITY_SAMPLES = "quantity_samples";
+    static final String TABLE_QUANTITY_ROLLUPS = "quantity_rollups";
+
+    // Every table, for notifications about the whole file (a restore replaces all of them)
+    static final String[] ALL_TABLES = {
+            TABLE_USERS, TABLE_SESSIONS, TABLE_INVENTORY, TABLE_CATEGORIES, TABLE_TAGS, TABLE_ITEM_TAGS,
+            TABLE_FACET_COUNTS, TABLE_LOTS, TABLE_ITEM_TRIGRAMS, TABLE_TRIGRAM_COUNTS,
+            TABLE_QUANTITY_SAMPLES, TABLE_QUANTITY_ROLLUPS, AuditLog.TABLE_AUDIT_LOG};
+
+    // Set by local tests: plain SQLite instead of SQLCipher
+    private static volatile SupportSQLiteOpenHelper.Factory factoryForTesting;
+
+    private final Context appContext;
+    // Opened on first use and again after close(); guarded by this
+    private SupportSQLiteOpenHelper helper;
+    // Set while runWithFileClosed swaps the file; helper() waits instead of reopening. Guarded by this
+    private boolean fileClosed;
+
+    /** Work on inventory.db itself, run while no connection has it open. */
+    interface FileWork {
+        void run() throws IOException;
+    }
+
     public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.appContext = context.getApplicationContext();
+    }
+
+    /** Test hook: helpers opened after this use {@code factory}; null restores SQLCipher. */
+    static void useFactoryForTesting(SupportSQLiteOpenHelper.Factory factory) {
+        factoryForTesting = factory;
+    }
+
+    /** Location of inventory.db on disk (used by backup/restore). */
+    public static File getDatabaseFile(Context context) {
+        return context.getDatabasePath(DATABASE_NAME);
+    }
+
+    public SupportSQLiteDatabase getWritableDatabase() {
+        return helper().getWritableDatabase();
+    }
+
+    public SupportSQLiteDatabase getReadableDatabase() {
+        return helper().getReadableDatabase();
+    }
+
+    /** Closes every connection; the next get*Database() opens the file again. */
+    public synchronized void close() {
+        if (helper != null) {
+            helper.close();
+            helper = null;
+        }
+    }
+
+    /**
+     * Closes every connection and runs {@code work} (a restore's file swap)
+     * with the file closed. Until it returns, get*Database() and new side
+     * connections wait for it rather than reopen the file half-way through.
+     * One swap runs at a time.
+     */
+    void runWithFileClosed(FileWork work) throws IOException {
+        synchronized (this) {
+            awaitFileOpen();
+            fileClosed = true;
+            close();
+        }
+        try {
+            work.run();
+        } finally {
+            synchronized (this) {
+                fileClosed = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A helper with its own connections to inventory.db, for work that must
+     * not tie up the shared ones (backup snapshots). The schema stays the
+     * shared helper's job, so this one only opens; close it when done.
+     */
+    SupportSQLiteOpenHelper openSideConnection() {
+        getReadableDatabase(); // creates, encrypts and upgrades the file first
+        return create(new SupportSQLiteOpenHelper.Callback(DATABASE_VERSION) {
+            @Override
+            public void onCreate(SupportSQLiteDatabase db) {
+                throw new IllegalStateException(DATABASE_NAME + " went missing");
+            }
+
+            @Override
+            public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                throw new IllegalStateException(DATABASE_NAME + " was replaced by version " + oldVersion);
+            }
+        });
+    }
+
+    /** True when the file is SQLCipher-encrypted; false only under local tests. */
+    public boolean isEncrypted() {
+        return factoryForTesting == null;
+    }
+
+    /**
+     * True if beginTransactionReadOnly() takes a deferred read here: one WAL
+     * snapshot that writers don't wait for. The platform's SQLite has it
+     * from API 35; SQLCipher's connections don't, so a reader that needs one
+     * snapshot there takes beginTransactionNonExclusive() and holds writers
+     * off until it ends.
+     */
+    public boolean hasReadSnapshots() {
+        return !isEncrypted() && Build.VERSION.SDK_INT >= Build.VERSION_CODES.VANILLA_ICE_CREAM;
+    }
+
+    private synchronized SupportSQLiteOpenHelper helper() {
+        awaitFileOpen();
+        if (helper == null) {
+            helper = create(new Callback());
+        }
+        return helper;
     }
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
+    // Caller holds this. Not interruptible: the swap is short and a caller can't do without the database
+    private void awaitFileOpen() {
+        boolean interrupted = false;
+        while (fileClosed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SupportSQLiteOpenHelper create(SupportSQLiteOpenHelper.Callback callback) {
+        SupportSQLiteOpenHelper.Factory factory = factoryForTesting;
+        if (factory == null) {
+            try {
+                factory = DatabaseEncryption.forDevice(appContext).factoryFor(getDatabaseFile(appContext));
+            } catch (GeneralSecurityException | IOException e) {
+                throw new SQLiteException("Could not unlock " + DATABASE_NAME, e);
+            }
+        }
+        SupportSQLiteOpenHelper created = factory.create(SupportSQLiteOpenHelper.Configuration.builder(appContext)
+                .name(DATABASE_NAME)
+                .callback(callback)
+                .build());
+        // WAL lets readers (and backup snapshots) run alongside the writer
+        created.setWriteAheadLoggingEnabled(true);
+        return created;
+    }
+
+    // ----------- Schema -----------
+
+    private final class Callback extends SupportSQLiteOpenHelper.Callback {
+        Callback() {
+            super(DATABASE_VERSION);
+        }
+
+        @Override
+        public void onConfigure(SupportSQLiteDatabase db) {
+            // Takes effect for new databases; existing ones are converted by DatabaseMaintenance
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        }
+
+        @Override
+        public void onCreate(SupportSQLiteDatabase db) {
+            DatabaseHelper.this.onCreate(db);
+        }
+
+        @Override
+        public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            DatabaseHelper.this.onUpgrade(db, oldVersion, newVersion);
+        }
+    }
+
+    private void onCreate(SupportSQLiteDatabase db) {
         // Create users table
         db.execSQL("CREATE TABLE " + TABLE_USERS + " ("
                 + COL_USERNAME + " TEXT PRIMARY KEY, "
@@ -48,22 +271,262 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 + COL_ITEM_QUANTITY + " INTEGER NOT NULL"
                 + ");");
 
+        addForecastColumns(db);
+        addThresholdColumn(db);
+        addVersionColumn(db);
+        addUnitCostColumn(db);
+        createFacetTables(db);
+        createLotTable(db);
+        createTrigramTable(db);
+        createSessionTable(db);
+        createHistoryTables(db);
+        createAuditTable(db);
+
         // Seed a default admin user: username = admin, password = admin123
         createDefaultAdmin(db);
     }
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Simple strategy for this project: drop and recreate
-        // (OK for class assignments; in production we'd migrate data instead)
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_INVENTORY);
-        onCreate(db);
+    private void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            // Pre-hashing schema can't be migrated: drop and recreate
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_INVENTORY);
+            onCreate(db);
+            return;
+        }
+
+        // From v2 on we migrate in place so existing inventory is kept
+        if (oldVersion < 3) {
+            createHistoryTables(db);
+        }
+        if (oldVersion < 4) {
+            addForecastColumns(db);
+        }
+        if (oldVersion < 5) {
+            addThresholdColumn(db);
+        }
+        if (oldVersion < 6) {
+            createAuditTable(db);
+        }
+        if (oldVersion < 7) {
+            addVersionColumn(db);
+        }
+        if (oldVersion < 8) {
+            createFacetTables(db);
+        }
+        if (oldVersion < 9) {
+            createLotTable(db);
+        }
+        if (oldVersion < 10) {
+            createSessionTable(db);
+        }
+        if (oldVersion < 11) {
+            addUnitCostColumn(db);
+        }
+        if (oldVersion < 12) {
+            createTrigramTable(db);
+            TrigramIndex.indexAll(db);
+        }
+    }
+
+    private void createLotTable(SupportSQLiteDatabase db) {
+        // Only stock still on hand: lots are deleted once used up. Their sum
+        // never exceeds item_quantity; the rest of an item's stock is undated.
+        db.execSQL("CREATE TABLE " + TABLE_LOTS + " ("
+                + "lot_id INTEGER PRIMARY KEY, "
+                + "item_id INTEGER NOT NULL, "
+                + "lot_code TEXT, "
+                + "quantity INTEGER NOT NULL CHECK (quantity >= 0), "
+                + "expires_at INTEGER NOT NULL"
+                + ");");
+        // FEFO picking walks one item's range in (expiry, lot) order; quantity
+        // rides along so the walk never visits the table
+        db.execSQL("CREATE INDEX idx_lots_fefo ON " + TABLE_LOTS
+                + " (item_id, expires_at, lot_id, quantity);");
+        db.execSQL("CREATE INDEX idx_lots_expiry ON " + TABLE_LOTS + " (expires_at);");
+        db.execSQL("CREATE TRIGGER lots_item_removed AFTER DELETE ON " + TABLE_INVENTORY
+                + " BEGIN DELETE FROM " + TABLE_LOTS + " WHERE item_id = old.item_id; END;");
+    }
+
+    private void createTrigramTable(SupportSQLiteDatabase db) {
+        // Primary key answers "items with this trigram"; the second index lets a
+        // rename or delete find one item's rows. Names are written by the repository.
+        db.execSQL("CREATE TABLE " + TABLE_ITEM_TRIGRAMS + " ("
+                + "trigram INTEGER NOT NULL, "
+                + "item_id INTEGER NOT NULL, "
+                + "PRIMARY KEY (trigram, item_id)"
+                + ") WITHOUT ROWID;");
+        db.execSQL("CREATE INDEX idx_item_trigrams_item ON " + TABLE_ITEM_TRIGRAMS + " (item_id, trigram);");
+        db.execSQL("CREATE TRIGGER trigrams_item_removed AFTER DELETE ON " + TABLE_INVENTORY
+                + " BEGIN DELETE FROM " + TABLE_ITEM_TRIGRAMS + " WHERE item_id = old.item_id; END;");
+
+        // Items per trigram, so a lookup can start from the rarest ones
+        db.execSQL("CREATE TABLE " + TABLE_TRIGRAM_COUNTS + " ("
+                + "trigram INTEGER PRIMARY KEY, "
+                + "item_count INTEGER NOT NULL"
+                + ");");
+        db.execSQL("CREATE TRIGGER trigram_counts_added AFTER INSERT ON " + TABLE_ITEM_TRIGRAMS
+                + " BEGIN INSERT INTO " + TABLE_TRIGRAM_COUNTS + " (trigram, item_count) VALUES (new.trigram, 1) "
+                + "ON CONFLICT (trigram) DO UPDATE SET item_count = item_count + 1; END;");
+        db.execSQL("CREATE TRIGGER trigram_counts_removed AFTER DELETE ON " + TABLE_ITEM_TRIGRAMS
+                + " BEGIN UPDATE " + TABLE_TRIGRAM_COUNTS + " SET item_count = item_count - 1 "
+                + "WHERE trigram = old.trigram; END;");
+    }
+
+    private void createSessionTable(SupportSQLiteDatabase db) {
+        // Only a hash of each token is stored; the device keeps the token itself.
+        // Startup validation is one primary-key search.
+        db.execSQL("CREATE TABLE " + TABLE_SESSIONS + " ("
+                + "token_hash TEXT PRIMARY KEY, "
+                + COL_USERNAME + " TEXT NOT NULL, "
+                + "created_at INTEGER NOT NULL, "
+                + "expires_at INTEGER NOT NULL"
+                + ") WITHOUT ROWID;");
+        db.execSQL("CREATE INDEX idx_sessions_expiry ON " + TABLE_SESSIONS + " (expires_at);");
+    }
+
+    private void createFacetTables(SupportSQLiteDatabase db) {
+        // UNIQUE gives the name-ordered index the chip bar lists from
+        db.execSQL("CREATE TABLE " + TABLE_CATEGORIES + " ("
+                + COL_CATEGORY_ID + " INTEGER PRIMARY KEY, "
+                + "name TEXT NOT NULL UNIQUE"
+                + ");");
+        db.execSQL("CREATE TABLE " + TABLE_TAGS + " ("
+                + "tag_id INTEGER PRIMARY KEY, "
+                + "name TEXT NOT NULL UNIQUE"
+                + ");");
+
+        // One category per item; NULL = uncategorised
+        db.execSQL("ALTER TABLE " + TABLE_INVENTORY + " ADD COLUMN " + COL_CATEGORY_ID + " INTEGER");
+        db.execSQL("CREATE INDEX idx_inventory_category ON "
+                + TABLE_INVENTORY + " (" + COL_CATEGORY_ID + ");");
+
+        // Many-to-many item <-> tag. The primary key answers "tags of an item",
+        // the second index "items with a tag"; both are covering.
+        db.execSQL("CREATE TABLE " + TABLE_ITEM_TAGS + " ("
+                + "item_id INTEGER NOT NULL, "
+                + "tag_id INTEGER NOT NULL, "
+                + "PRIMARY KEY (item_id, tag_id)"
+                + ") WITHOUT ROWID;");
+        db.execSQL("CREATE INDEX idx_item_tags_tag ON " + TABLE_ITEM_TAGS + " (tag_id, item_id);");
+
+        // Items per category (facet_type 1) and per tag (2), kept current by the triggers below
+        db.execSQL("CREATE TABLE " + TABLE_FACET_COUNTS + " ("
+                + "facet_type INTEGER NOT NULL, "
+                + "facet_id INTEGER NOT NULL, "
+                + "item_count INTEGER NOT NULL, "
+                + "PRIMARY KEY (facet_type, facet_id)"
+                + ") WITHOUT ROWID;");
+
+        String bumpCategory = "INSERT INTO " + TABLE_FACET_COUNTS + " (facet_type, facet_id, item_count) "
+                + "SELECT " + FacetStore.TYPE_CATEGORY + ", new." + COL_CATEGORY_ID + ", 1 "
+                + "WHERE new." + COL_CATEGORY_ID + " IS NOT NULL "
+                + "ON CONFLICT (facet_type, facet_id) DO UPDATE SET item_count = item_count + 1;";
+        String dropCategory = "UPDATE " + TABLE_FACET_COUNTS + " SET item_count = item_count - 1 "
+                + "WHERE facet_type = " + FacetStore.TYPE_CATEGORY
+                + " AND facet_id = old." + COL_CATEGORY_ID + ";";
+
+        db.execSQL("CREATE TRIGGER facet_item_added AFTER INSERT ON " + TABLE_INVENTORY
+                + " BEGIN " + bumpCategory + " END;");
+        db.execSQL("CREATE TRIGGER facet_item_recategorised AFTER UPDATE OF " + COL_CATEGORY_ID
+                + " ON " + TABLE_INVENTORY
+                + " WHEN old." + COL_CATEGORY_ID + " IS NOT new." + COL_CATEGORY_ID
+                + " BEGIN " + dropCategory + " " + bumpCategory + " END;");
+        // Deleting an item also drops its tag links, which fires the tag trigger below
+        db.execSQL("CREATE TRIGGER facet_item_removed AFTER DELETE ON " + TABLE_INVENTORY
+                + " BEGIN " + dropCategory
+                + " DELETE FROM " + TABLE_ITEM_TAGS + " WHERE item_id = old.item_id; END;");
+
+        db.execSQL("CREATE TRIGGER facet_tag_linked AFTER INSERT ON " + TABLE_ITEM_TAGS
+                + " BEGIN INSERT INTO " + TABLE_FACET_COUNTS + " (facet_type, facet_id, item_count) "
+                + "VALUES (" + FacetStore.TYPE_TAG + ", new.tag_id, 1) "
+                + "ON CONFLICT (facet_type, facet_id) DO UPDATE SET item_count = item_count + 1; END;");
+        db.execSQL("CREATE TRIGGER facet_tag_unlinked AFTER DELETE ON " + TABLE_ITEM_TAGS
+                + " BEGIN UPDATE " + TABLE_FACET_COUNTS + " SET item_count = item_count - 1 "
+                + "WHERE facet_type = " + FacetStore.TYPE_TAG + " AND facet_id = old.tag_id; END;");
+    }
+
+    private void addVersionColumn(SupportSQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_INVENTORY + " ADD COLUMN "
+                + COL_VERSION + " INTEGER NOT NULL DEFAULT 0");
+    }
+
+    private void createAuditTable(SupportSQLiteDatabase db) {
+        // Append-only event log (see AuditLog); rowid order is append order
+        db.execSQL("CREATE TABLE " + AuditLog.TABLE_AUDIT_LOG + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "at INTEGER NOT NULL, "
+                + "event INTEGER NOT NULL, "
+                + "actor TEXT, "
+                + "item_id INTEGER NOT NULL DEFAULT 0, "
+                + "before_value INTEGER NOT NULL DEFAULT 0, "
+                + "after_value INTEGER NOT NULL DEFAULT 0"
+                + ");");
+        db.execSQL("CREATE INDEX idx_audit_log_at ON " + AuditLog.TABLE_AUDIT_LOG + " (at);");
+
+        // Rows are never edited, and only pruned once they are past retention
+        db.execSQL("CREATE TRIGGER audit_log_no_update BEFORE UPDATE ON " + AuditLog.TABLE_AUDIT_LOG
+                + " BEGIN SELECT RAISE(ABORT, 'audit_log is append-only'); END;");
+        db.execSQL("CREATE TRIGGER audit_log_no_early_delete BEFORE DELETE ON " + AuditLog.TABLE_AUDIT_LOG
+                + " WHEN old.at > CAST(strftime('%s', 'now') AS INTEGER) * 1000 - " + AuditLog.RETENTION_MS
+                + " BEGIN SELECT RAISE(ABORT, 'audit_log rows are only pruned by age'); END;");
+    }
+
+    private void addUnitCostColumn(SupportSQLiteDatabase db) {
+        // 0 = no cost recorded; integer so valuations add up exactly
+        db.execSQL("ALTER TABLE " + TABLE_INVENTORY + " ADD COLUMN "
+                + COL_UNIT_COST_MINOR + " INTEGER NOT NULL DEFAULT 0");
+    }
+
+    private void addThresholdColumn(SupportSQLiteDatabase db) {
+        // 0 = no threshold
+        db.execSQL("ALTER TABLE " + TABLE_INVENTORY + " ADD COLUMN "
+                + COL_LOW_STOCK_THRESHOLD + " INTEGER NOT NULL DEFAULT 0");
+    }
+
+    private void addForecastColumns(SupportSQLiteDatabase db) {
+        // Units consumed per day (EWMA) and when it was last updated
+        db.execSQL("ALTER TABLE " + TABLE_INVENTORY + " ADD COLUMN "
+                + COL_CONSUMPTION_RATE + " REAL NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_INVENTORY + " ADD COLUMN "
+                + COL_RATE_UPDATED_AT + " INTEGER NOT NULL DEFAULT 0");
+        // Projected stockout time; absolute so it doesn't go stale as the clock moves.
+        // Items with no consumption sort last (Long.MAX_VALUE).
+        db.execSQL("ALTER TABLE " + TABLE_INVENTORY + " ADD COLUMN "
+                + COL_STOCKOUT_AT + " INTEGER NOT NULL DEFAULT " + ConsumptionForecast.NO_STOCKOUT);
+        db.execSQL("CREATE INDEX idx_inventory_stockout ON "
+                + TABLE_INVENTORY + " (" + COL_STOCKOUT_AT + ");");
+    }
+
+    private void createHistoryTables(SupportSQLiteDatabase db) {
+        // Raw per-change samples, kept briefly for detail views
+        db.execSQL("CREATE TABLE " + TABLE_QUANTITY_SAMPLES + " ("
+                + "item_id INTEGER NOT NULL, "
+                + "sampled_at INTEGER NOT NULL, "
+                + "quantity INTEGER NOT NULL, "
+                + "PRIMARY KEY (item_id, sampled_at)"
+                + ") WITHOUT ROWID;");
+        db.execSQL("CREATE INDEX idx_quantity_samples_time ON "
+                + TABLE_QUANTITY_SAMPLES + " (sampled_at);");
+
+        // Hourly and daily min/max/last buckets; resolution is the bucket width in ms
+        db.execSQL("CREATE TABLE " + TABLE_QUANTITY_ROLLUPS + " ("
+                + "item_id INTEGER NOT NULL, "
+                + "resolution INTEGER NOT NULL, "
+                + "bucket_start INTEGER NOT NULL, "
+                + "min_quantity INTEGER NOT NULL, "
+                + "max_quantity INTEGER NOT NULL, "
+                + "last_quantity INTEGER NOT NULL, "
+                + "last_at INTEGER NOT NULL, "
+                + "PRIMARY KEY (item_id, bucket_start, resolution)"
+                + ") WITHOUT ROWID;");
+        db.execSQL("CREATE INDEX idx_quantity_rollups_age ON "
+                + TABLE_QUANTITY_ROLLUPS + " (resolution, bucket_start);");
     }
 
     // ----------- User & Auth helpers -----------
 
-    private void createDefaultAdmin(SQLiteDatabase db) {
+    private void createDefaultAdmin(SupportSQLiteDatabase db) {
         String username = "admin";
         String rawPassword = "admin123";
         String hash = hashPassword(rawPassword);
@@ -73,18 +536,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_PASSWORD_HASH, hash);
         values.put(COL_ROLE, "admin");
 
-        db.insert(TABLE_USERS, null, values);
+        db.insert(TABLE_USERS, SQLiteDatabase.CONFLICT_IGNORE, values);
     }
 
     public boolean userExists(String username) {
-        SQLiteDatabase db = getReadableDatabase();
-        try (Cursor cursor = db.query(
-                TABLE_USERS,
-                new String[]{COL_USERNAME},
-                COL_USERNAME + " = ?",
-                new String[]{username},
-                null, null, null)) {
-
+        SupportSQLiteDatabase db = getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.USER_EXISTS.sql, new String[]{username})) {
             return cursor.moveToFirst();
         }
     }
@@ -94,27 +551,21 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             return false;
         }
 
-        SQLiteDatabase db = getWritableDatabase();
+        SupportSQLiteDatabase db = getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COL_USERNAME, username);
         values.put(COL_PASSWORD_HASH, hashPassword(rawPassword));
         values.put(COL_ROLE, role);
 
-        long result = db.insert(TABLE_USERS, null, values);
+        long result = db.insert(TABLE_USERS, SQLiteDatabase.CONFLICT_IGNORE, values);
         return result != -1;
     }
 
     public boolean validateUser(String username, String rawPassword) {
-        SQLiteDatabase db = getReadableDatabase();
+        SupportSQLiteDatabase db = getReadableDatabase();
         String hashedInput = hashPassword(rawPassword);
 
-        try (Cursor cursor = db.query(
-                TABLE_USERS,
-                new String[]{COL_PASSWORD_HASH},
-                COL_USERNAME + " = ?",
-                new String[]{username},
-                null, null, null)) {
-
+        try (Cursor cursor = db.query(InventoryQueries.USER_PASSWORD_HASH.sql, new String[]{username})) {
             if (!cursor.moveToFirst()) {
                 return false;
             }
@@ -125,14 +576,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     public String getUserRole(String username) {
-        SQLiteDatabase db = getReadableDatabase();
-        try (Cursor cursor = db.query(
-                TABLE_USERS,
-                new String[]{COL_ROLE},
-                COL_USERNAME + " = ?",
-                new String[]{username},
-                null, null, null)) {
-
+        SupportSQLiteDatabase db = getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.USER_ROLE.sql, new String[]{username})) {
             if (cursor.moveToFirst()) {
                 return cursor.getString(0);
             }
@@ -143,11 +588,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
     // ----------- Inventory helpers (optional wrappers, if needed) -----------
 
-    public SQLiteDatabase getReadableInventoryDb() {
+    public SupportSQLiteDatabase getReadableInventoryDb() {
         return getReadableDatabase();
     }
 
-    public SQLiteDatabase getWritableInventoryDb() {
+    public SupportSQLiteDatabase getWritableInventoryDb() {
         return getWritableDatabase();
     }
 
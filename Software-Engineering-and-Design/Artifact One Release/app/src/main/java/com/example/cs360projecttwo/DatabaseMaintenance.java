@@ -0,0 +1,185 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseMaintenance
+ *
+ * Periodic upkeep of inventory.db, meant to run from
+ * {@link DatabaseMaintenanceJobService} while the device is idle or charging:
+ *
+ * 1. Reclaims free pages left by deletes with PRAGMA incremental_vacuum,
+ *    a small chunk at a time, so no single step holds the write lock for
+ *    longer than {@link #MAX_STEP_MS}. Writers get in between chunks.
+ * 2. Refreshes planner statistics with PRAGMA optimize, capped by
+ *    analysis_limit so ANALYZE samples rather than scanning every index.
+ * 3. Runs PRAGMA quick_check. It only reads, and with WAL it never blocks writers.
+ *
+ * File size and fragmentation (free pages / total pages) are measured
+ * before and after, and the report is logged.
+ */
+public class DatabaseMaintenance {
+
+    private static final String TAG = "DatabaseMaintenance";
+    private static final String PREFS = "maintenance";
+    private static final String KEY_LAST_RUN = "lastRunAt";
+
+    static final long MAX_STEP_MS = 50;
+    static final long MIN_INTERVAL_MS = TimeUnit.HOURS.toMillis(20);
+    private static final int ANALYSIS_LIMIT = 400;
+    private static final int INITIAL_CHUNK_PAGES = 64;
+    private static final int MAX_CHUNK_PAGES = 4096;
+    // Pause between vacuum chunks so queued writers can take the lock
+    private static final long YIELD_MS = 5;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    /** Size and fragmentation at one point in time. */
+    public static final class Snapshot {
+        public final long fileBytes;
+        public final long pageCount;
+        public final long freePages;
+
+        Snapshot(long fileBytes, long pageCount, long freePages) {
+            this.fileBytes = fileBytes;
+            this.pageCount = pageCount;
+            this.freePages = freePages;
+        }
+
+        public double fragmentation() {
+            return pageCount == 0 ? 0 : (double) freePages / pageCount;
+        }
+    }
+
+    /** What one maintenance run did. */
+    public static final class Report {
+        public Snapshot before;
+        public Snapshot after;
+        public boolean convertedToIncremental;
+        public int vacuumSteps;
+        public long longestStepMs;
+        public String quickCheck;
+        public boolean cancelled;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "size %d -> %d bytes, fragmentation %.1f%% -> %.1f%%, %d vacuum steps (longest %d ms), "
+                            + "quick_check=%s%s%s",
+                    before.fileBytes, after.fileBytes,
+                    before.fragmentation() * 100, after.fragmentation() * 100,
+                    vacuumSteps, longestStepMs, quickCheck,
+                    convertedToIncremental ? ", converted to incremental auto_vacuum" : "",
+                    cancelled ? ", cancelled" : "");
+        }
+    }
+
+    private final Context context;
+    private final DatabaseHelper dbHelper;
+
+    public DatabaseMaintenance(Context context, DatabaseHelper dbHelper) {
+        this.context = context.getApplicationContext();
+        this.dbHelper = dbHelper;
+    }
+
+    /** True if the last completed run is old enough that another is worthwhile. */
+    public boolean isDue() {
+        long last = prefs().getLong(KEY_LAST_RUN, 0);
+        return System.currentTimeMillis() - last >= MIN_INTERVAL_MS;
+    }
+
+    /** Runs every step; stops early (between steps) once {@code signal} is cancelled. */
+    public Report run(CancellationSignal signal) {
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        Report report = new Report();
+        report.before = measure(db);
+
+        if (longPragma(db, "auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            // One-off: the pragma only takes effect after a full VACUUM. This is the
+            // only unbounded step, and it runs once per install that predates it.
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+            report.convertedToIncremental = true;
+        }
+
+        reclaimFreePages(db, signal, report);
+
+        if (!signal.isCanceled()) {
+            runPragma(db, "PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+            runPragma(db, "PRAGMA optimize");
+        }
+
+        if (!signal.isCanceled()) {
+            try (SqlStatement check = SqlStatement.compile(db, "PRAGMA quick_check")) {
+                report.quickCheck = check.simpleQueryForString();
+            }
+        }
+
+        // Fold the WAL back into the main file without waiting on readers
+        runPragma(db, "PRAGMA wal_checkpoint(PASSIVE)");
+
+        report.cancelled = signal.isCanceled();
+        report.after = measure(db);
+        if (!report.cancelled) {
+            prefs().edit().putLong(KEY_LAST_RUN, System.currentTimeMillis()).apply();
+        }
+        Log.i(TAG, report.toString());
+        return report;
+    }
+
+    /**
+     * Frees pages in chunks sized to stay under MAX_STEP_MS: the chunk doubles
+     * while steps are quick and halves when one runs long.
+     */
+    private void reclaimFreePages(SupportSQLiteDatabase db, CancellationSignal signal, Report report) {
+        int chunk = INITIAL_CHUNK_PAGES;
+        while (!signal.isCanceled() && longPragma(db, "freelist_count") > 0) {
+            long start = SystemClock.elapsedRealtime();
+            runPragma(db, "PRAGMA incremental_vacuum(" + chunk + ")");
+            long elapsed = SystemClock.elapsedRealtime() - start;
+
+            report.vacuumSteps++;
+            report.longestStepMs = Math.max(report.longestStepMs, elapsed);
+            if (elapsed > MAX_STEP_MS / 2) {
+                chunk = Math.max(1, chunk / 2);
+            } else if (elapsed < MAX_STEP_MS / 4) {
+                chunk = Math.min(MAX_CHUNK_PAGES, chunk * 2);
+            }
+            SystemClock.sleep(YIELD_MS);
+        }
+    }
+
+    private Snapshot measure(SupportSQLiteDatabase db) {
+        File file = new File(db.getPath());
+        File wal = new File(db.getPath() + "-wal");
+        return new Snapshot(file.length() + wal.length(),
+                longPragma(db, "page_count"), longPragma(db, "freelist_count"));
+    }
+
+    // Pragmas that return rows can't go through execSQL; stepping the cursor runs them to completion
+    private static void runPragma(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            cursor.getCount();
+        }
+    }
+
+    private static long longPragma(SupportSQLiteDatabase db, String pragma) {
+        try (SqlStatement statement = SqlStatement.compile(db, "PRAGMA " + pragma)) {
+            return statement.simpleQueryForLong();
+        }
+    }
+
+    private SharedPreferences prefs() {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
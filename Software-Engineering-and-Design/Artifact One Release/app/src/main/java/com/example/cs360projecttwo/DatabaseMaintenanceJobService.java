@@ -0,0 +1,91 @@
+package com.example.cs360projecttwo;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseMaintenanceJobService
+ *
+ * Runs {@link DatabaseMaintenance} when the device is idle or charging.
+ * JobScheduler constraints are all-of, so there are two jobs, one per
+ * condition; whichever fires first does the work and the other finds it
+ * already done.
+ */
+public class DatabaseMaintenanceJobService extends JobService {
+
+    private static final String TAG = "DbMaintenanceJob";
+    static final int JOB_ID_IDLE = 1034;
+    static final int JOB_ID_CHARGING = 1035;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, "inventory-maintenance"));
+    private CancellationSignal signal;
+
+    public static void schedule(Context context) {
+        JobScheduler scheduler = context.getSystemService(JobScheduler.class);
+        if (scheduler == null) {
+            return;
+        }
+        ComponentName service = new ComponentName(context, DatabaseMaintenanceJobService.class);
+
+        if (scheduler.getPendingJob(JOB_ID_IDLE) == null) {
+            scheduler.schedule(new JobInfo.Builder(JOB_ID_IDLE, service)
+                    .setPeriodic(TimeUnit.DAYS.toMillis(1))
+                    .setRequiresDeviceIdle(true)
+                    .build());
+        }
+        if (scheduler.getPendingJob(JOB_ID_CHARGING) == null) {
+            scheduler.schedule(new JobInfo.Builder(JOB_ID_CHARGING, service)
+                    .setPeriodic(TimeUnit.DAYS.toMillis(1))
+                    .setRequiresCharging(true)
+                    .build());
+        }
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        DatabaseMaintenance maintenance = new DatabaseMaintenance(this,
+                InventoryRepository.getInstance(this).getDatabaseHelper());
+        if (!maintenance.isDue()) {
+            return false;
+        }
+
+        signal = new CancellationSignal();
+        CancellationSignal jobSignal = signal;
+        worker.execute(() -> {
+            try {
+                DatabaseMaintenance.Report report = maintenance.run(jobSignal);
+                jobFinished(params, report.cancelled);
+            } catch (Exception e) {
+                Log.e(TAG, "Database maintenance failed", e);
+                jobFinished(params, true);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // Constraint lost (device woke / unplugged): stop after the current chunk
+        if (signal != null) {
+            signal.cancel();
+        }
+        return true;
+    }
+
+    @Override
+    public void onDestroy() {
+        worker.shutdown();
+        super.onDestroy();
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.cs360projecttwo;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FacetStore
+ *
+ * Categories (one per item) and tags (many per item) for filtering the grid.
+ * Counts for the unfiltered inventory come from facet_counts, which triggers
+ * keep up to date on every insert, delete and re-labelling, so reading them
+ * is a primary-key range scan however large the inventory gets. Once a
+ * category or tag is selected, counts for the other dimension come from a
+ * grouped join that only touches covering indexes.
+ *
+ * Counts depend on the facet selection only, not on the search text, so
+ * typing in the search box never recounts anything.
+ */
+public class FacetStore {
+
+    // Stored in facet_counts.facet_type; never renumber
+    public static final int TYPE_CATEGORY = 1;
+    public static final int TYPE_TAG = 2;
+
+    /** Selected category and tag; 0 means that dimension isn't filtered. Both must match. */
+    public static final class Selection {
+        public static final Selection NONE = new Selection(0, 0);
+
+        public final long categoryId;
+        public final long tagId;
+
+        public Selection(long categoryId, long tagId) {
+            this.categoryId = categoryId;
+            this.tagId = tagId;
+        }
+
+        public boolean isEmpty() {
+            return categoryId == 0 && tagId == 0;
+        }
+    }
+
+    /** Ids matching a selection, tagged with the selection they were read for. */
+    public static final class Matches {
+        public final Selection selection;
+        /** Ascending; null if the selection is empty (everything matches). */
+        public final long[] ids;
+
+        Matches(Selection selection, long[] ids) {
+            this.selection = selection;
+            this.ids = ids;
+        }
+
+        public boolean contains(long itemId) {
+            return ids == null || Arrays.binarySearch(ids, itemId) >= 0;
+        }
+    }
+
+    /** One chip: a category or tag with how many items it would show. */
+    public static final class Facet {
+        public final int type;
+        public final long id;
+        public final String name;
+        public final int count;
+
+        Facet(int type, long id, String name, int count) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    public FacetStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // ----------- Writes (caller holds the repository's write lock and transaction) -----------
+
+    /** Id of the category called {@code name}, creating it if needed. */
+    long ensureCategory(SupportSQLiteDatabase db, String name) {
+        return ensureNamed(db, InventoryQueries.CATEGORY_INSERT, InventoryQueries.CATEGORY_BY_NAME, name);
+    }
+
+    /** Id of the tag called {@code name}, creating it if needed. */
+    long ensureTag(SupportSQLiteDatabase db, String name) {
+        return ensureNamed(db, InventoryQueries.TAG_INSERT, InventoryQueries.TAG_BY_NAME, name);
+    }
+
+    /** Id of the tag called {@code name}, or 0 if there is none. */
+    long findTag(SupportSQLiteDatabase db, String name) {
+        return findNamed(db, InventoryQueries.TAG_BY_NAME, name);
+    }
+
+    private static long ensureNamed(SupportSQLiteDatabase db, InventoryQueries.Query insert,
+                                    InventoryQueries.Query byName, String name) {
+        db.execSQL(insert.sql, new Object[]{name});
+        return findNamed(db, byName, name);
+    }
+
+    private static long findNamed(SupportSQLiteDatabase db, InventoryQueries.Query byName, String name) {
+        try (Cursor cursor = db.query(byName.sql, new String[]{name})) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /** Puts every item in {@code categoryId} (0 = none), adding each to {@code changed}. Returns how many. */
+    int setCategory(SupportSQLiteDatabase db, Collection<Long> itemIds, long categoryId, List<Long> changed) {
+        try (SqlStatement update = SqlStatement.compile(db, InventoryQueries.ITEM_SET_CATEGORY.sql)) {
+            for (long itemId : itemIds) {
+                if (categoryId == 0) {
+                    update.bindNull(1);
+                } else {
+                    update.bindLong(1, categoryId);
+                }
+                update.bindLong(2, itemId);
+                if (update.executeUpdateDelete() > 0) {
+                    changed.add(itemId);
+                }
+            }
+        }
+        return changed.size();
+    }
+
+    /**
+     * Links {@code tagId} to every item that doesn't have it yet, adding those
+     * items to {@code changed}. Returns how many links were added.
+     */
+    int addTag(SupportSQLiteDatabase db, Collection<Long> itemIds, long tagId, List<Long> changed) {
+        try (SqlStatement insert = SqlStatement.compile(db, InventoryQueries.ITEM_TAG_INSERT.sql)) {
+            for (long itemId : itemIds) {
+                insert.bindLong(1, itemId);
+                insert.bindLong(2, tagId);
+                if (insert.executeUpdateDelete() > 0) {
+                    changed.add(itemId);
+                }
+            }
+        }
+        return changed.size();
+    }
+
+    /** Unlinks {@code tagId} from every item, adding the ones that had it to {@code changed}. Returns how many. */
+    int removeTag(SupportSQLiteDatabase db, Collection<Long> itemIds, long tagId, List<Long> changed) {
+        try (SqlStatement delete = SqlStatement.compile(db, InventoryQueries.ITEM_TAG_DELETE.sql)) {
+            for (long itemId : itemIds) {
+                delete.bindLong(1, itemId);
+                delete.bindLong(2, tagId);
+                if (delete.executeUpdateDelete() > 0) {
+                    changed.add(itemId);
+                }
+            }
+        }
+        return changed.size();
+    }
+
+    // ----------- Reads -----------
+
+    /**
+     * Every category and tag with the number of items it would show given
+     * {@code selection}: category counts honour the selected tag and tag
+     * counts the selected category. Facets with no items are left out
+     * unless selected. Categories come first, then tags, each by name.
+     */
+    public List<Facet> getFacets(Selection selection) {
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        Map<Long, Integer> categoryCounts = selection.tagId == 0
+                ? readCounts(db, InventoryQueries.FACET_COUNTS, TYPE_CATEGORY)
+                : readCounts(db, InventoryQueries.CATEGORY_COUNTS_WITH_TAG, selection.tagId);
+        Map<Long, Integer> tagCounts = selection.categoryId == 0
+                ? readCounts(db, InventoryQueries.FACET_COUNTS, TYPE_TAG)
+                : readCounts(db, InventoryQueries.TAG_COUNTS_IN_CATEGORY, selection.categoryId);
+
+        List<Facet> facets = new ArrayList<>(categoryCounts.size() + tagCounts.size());
+        addNamed(db, InventoryQueries.CATEGORIES_BY_NAME, TYPE_CATEGORY, categoryCounts,
+                selection.categoryId, facets);
+        addNamed(db, InventoryQueries.TAGS_BY_NAME, TYPE_TAG, tagCounts, selection.tagId, facets);
+        return facets;
+    }
+
+    /** The items matching {@code selection}; see {@link Matches}. */
+    public Matches getMatches(Selection selection) {
+        return new Matches(selection, getMatchingIds(selection));
+    }
+
+    // Ascending, for Arrays.binarySearch; null if nothing is selected
+    long[] getMatchingIds(Selection selection) {
+        if (selection.isEmpty()) {
+            return null;
+        }
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        long[] inCategory = selection.categoryId == 0 ? null
+                : readIds(db, InventoryQueries.ITEM_IDS_IN_CATEGORY, selection.categoryId);
+        long[] withTag = selection.tagId == 0 ? null
+                : readIds(db, InventoryQueries.ITEM_IDS_WITH_TAG, selection.tagId);
+        if (inCategory == null) {
+            return withTag;
+        }
+        return withTag == null ? inCategory : intersect(inCategory, withTag);
+    }
+
+    private static Map<Long, Integer> readCounts(SupportSQLiteDatabase db, InventoryQueries.Query query, long arg) {
+        Map<Long, Integer> counts = new HashMap<>();
+        try (Cursor cursor = db.query(query.sql, new String[]{String.valueOf(arg)})) {
+            while (cursor.moveToNext()) {
+                counts.put(cursor.getLong(0), cursor.getInt(1));
+            }
+        }
+        return counts;
+    }
+
+    // Names are read in index order and joined to the counts here, so no query sorts
+    private static void addNamed(SupportSQLiteDatabase db, InventoryQueries.Query names, int type,
+                                 Map<Long, Integer> counts, long selectedId, List<Facet> out) {
+        if (counts.isEmpty() && selectedId == 0) {
+            return;
+        }
+        try (Cursor cursor = db.query(names.sql)) {
+            while (cursor.moveToNext()) {
+                long id = cursor.getLong(0);
+                Integer count = counts.get(id);
+                // A selected facet stays visible at 0 so it can still be deselected
+                if ((count != null && count > 0) || id == selectedId) {
+                    out.add(new Facet(type, id, cursor.getString(1), count == null ? 0 : count));
+                }
+            }
+        }
+    }
+
+    private static long[] readIds(SupportSQLiteDatabase db, InventoryQueries.Query query, long arg) {
+        try (Cursor cursor = db.query(query.sql, new String[]{String.valueOf(arg)})) {
+            long[] ids = new long[cursor.getCount()];
+            int i = 0;
+            while (cursor.moveToNext()) {
+                ids[i++] = cursor.getLong(0);
+            }
+            return ids;
+        }
+    }
+
+    // Both inputs ascending
+    static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
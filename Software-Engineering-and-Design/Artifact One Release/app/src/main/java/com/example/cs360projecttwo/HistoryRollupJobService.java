@@ -0,0 +1,73 @@
+package com.example.cs360projecttwo;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HistoryRollupJobService
+ *
+ * Periodic job that folds old hourly quantity buckets into daily ones and
+ * prunes history and audit rows past their retention. Runs while the device is idle so it
+ * never competes with the UI for the database.
+ */
+public class HistoryRollupJobService extends JobService {
+
+    private static final String TAG = "HistoryRollupJob";
+    static final int JOB_ID = 1031;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, "inventory-history-rollup"));
+
+    /** Schedules the daily rollup once; re-scheduling an existing job is skipped. */
+    public static void schedule(Context context) {
+        JobScheduler scheduler = context.getSystemService(JobScheduler.class);
+        if (scheduler == null || scheduler.getPendingJob(JOB_ID) != null) {
+            return;
+        }
+
+        JobInfo job = new JobInfo.Builder(JOB_ID,
+                new ComponentName(context, HistoryRollupJobService.class))
+                .setPeriodic(TimeUnit.DAYS.toMillis(1))
+                .setRequiresDeviceIdle(true)
+                .setPersisted(false)
+                .build();
+        scheduler.schedule(job);
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        worker.execute(() -> {
+            try {
+                InventoryRepository repository = InventoryRepository.getInstance(this);
+                long now = System.currentTimeMillis();
+                repository.getHistory().rollup(now);
+                repository.getAuditLog().prune(now);
+                jobFinished(params, false);
+            } catch (Exception e) {
+                Log.e(TAG, "History rollup failed", e);
+                jobFinished(params, true);
+            }
+        });
+        return true; // work continues on the worker thread
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        return true; // retry later; the rollup is idempotent
+    }
+
+    @Override
+    public void onDestroy() {
+        worker.shutdown();
+        super.onDestroy();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.cs360projecttwo;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InvalidationTracker
+ *
+ * Tracks which tables each committed write touched and re-runs the live
+ * queries that depend on them. Every write path reports its tables once per
+ * transaction through {@link #notifyTablesChanged(String...)}. Notifications
+ * that arrive within {@link #COALESCE_MS} of each other are merged, so a
+ * burst of writes (an import, a sync) causes one refresh per affected query
+ * rather than one per row.
+ *
+ * Each table has a version counter. A query that had no observers while its
+ * tables changed notices the new version and re-runs once it becomes active.
+ *
+ * Queries run on the tracker's own thread; {@link #close()} stops it.
+ * Components that keep their own copy of the data outside any screen (the
+ * catalog snapshot) register an {@link Observer} instead, which hears of
+ * every commit straight away.
+ */
+public class InvalidationTracker {
+
+    private static final String TAG = "InvalidationTracker";
+    static final long COALESCE_MS = 30;
+
+    private final ScheduledExecutorService executor;
+    private final ConcurrentHashMap<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private final Set<LiveQuery<?>> activeQueries = new CopyOnWriteArraySet<>();
+    private final Set<Observer> observers = new CopyOnWriteArraySet<>();
+
+    /** Hears of every committed write, on the committing thread and before any live query re-runs. */
+    public interface Observer {
+        /** Must return quickly (the writer may still hold its lock); hand real work to another thread. */
+        void onTablesChanged(String... tables);
+    }
+
+    private final Object pendingLock = new Object();
+    private final Set<String> pendingTables = new HashSet<>();
+    private boolean flushScheduled;
+
+    public InvalidationTracker() {
+        this(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-live-query");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            t.setDaemon(true);
+            return t;
+        }));
+    }
+
+    InvalidationTracker(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+
+    /** Stops the tracker thread; live queries stop refreshing. For owners that go away (tests, reset). */
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test hook: delivers pending notifications now instead of after the
+     * coalescing delay, and returns once every re-run they caused (and any
+     * run queued before) has finished.
+     */
+    void drainForTesting() throws Exception {
+        executor.submit(this::flush).get();
+    }
+
+    /** Call once after a transaction commits, with every table it wrote. */
+    public void notifyTablesChanged(String... tables) {
+        synchronized (pendingLock) {
+            for (String table : tables) {
+                versionOf(table).incrementAndGet();
+            }
+            Collections.addAll(pendingTables, tables);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flush, COALESCE_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+        for (Observer observer : observers) {
+            observer.onTablesChanged(tables);
+        }
+    }
+
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /** Creates a LiveData that re-runs {@code query} whenever one of {@code tables} changes. */
+    public <T> LiveQuery<T> createLiveQuery(Callable<T> query, String... tables) {
+        return new LiveQuery<>(this, query, tables);
+    }
+
+    private void flush() {
+        Set<String> changed;
+        synchronized (pendingLock) {
+            changed = new HashSet<>(pendingTables);
+            pendingTables.clear();
+            flushScheduled = false;
+        }
+
+        for (LiveQuery<?> query : activeQueries) {
+            if (query.dependsOnAny(changed)) {
+                query.run();
+            }
+        }
+    }
+
+    private AtomicLong versionOf(String table) {
+        return tableVersions.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    private long versionSum(String[] tables) {
+        long sum = 0;
+        for (String table : tables) {
+            sum += versionOf(table).get();
+        }
+        return sum;
+    }
+
+    /**
+     * LiveData backed by a query over one or more tables. Only registered with
+     * the tracker while it has active observers.
+     */
+    public static final class LiveQuery<T> extends LiveData<T> {
+
+        private final InvalidationTracker tracker;
+        private final Callable<T> query;
+        private final String[] tables;
+        // Sum of table versions the current value was computed from; -1 = never computed
+        private volatile long computedAt = -1;
+
+        LiveQuery(InvalidationTracker tracker, Callable<T> query, String[] tables) {
+            this.tracker = tracker;
+            this.query = query;
+            this.tables = Arrays.copyOf(tables, tables.length);
+        }
+
+        @Override
+        protected void onActive() {
+            tracker.activeQueries.add(this);
+            if (computedAt != tracker.versionSum(tables)) {
+                tracker.executor.execute(this::run);
+            }
+        }
+
+        @Override
+        protected void onInactive() {
+            tracker.activeQueries.remove(this);
+        }
+
+        /** Forces a re-run even if no tracked table changed (e.g. after a restore). */
+        public void invalidate() {
+            computedAt = -1;
+            if (hasActiveObservers()) {
+                tracker.executor.execute(this::run);
+            }
+        }
+
+        boolean dependsOnAny(Set<String> changed) {
+            for (String table : tables) {
+                if (changed.contains(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Runs on the tracker thread only
+        void run() {
+            long version = tracker.versionSum(tables);
+            if (version == computedAt) {
+                return; // already up to date (e.g. onActive and flush both queued a run)
+            }
+            try {
+                T result = query.call();
+                computedAt = version;
+                postValue(result);
+            } catch (Exception e) {
+                Log.e(TAG, "Live query failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.cs360projecttwo;
+
+import android.graphics.Color;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * InventoryAdapter
+ *
+ * Binds inventory rows into the grid's RecyclerView. Rows are recycled,
+ * and list updates are diffed so only changed rows are re-bound. Selection
+ * changes re-bind just the background of the affected rows.
+ *
+ * Each row's photo comes from {@link ThumbnailLoader}; a recycled row
+ * cancels its pending load so scrolled-past photos are never decoded.
+ */
+public class InventoryAdapter extends ListAdapter<InventoryItem, InventoryAdapter.RowHolder> {
+
+    public interface RowActions {
+        void onUpdate(InventoryItem item);
+
+        void onDelete(InventoryItem item);
+
+        /** Long-press, or any tap while a selection is active. */
+        void onToggleSelection(InventoryItem item);
+
+        /** Tap on the row's photo (admins only). */
+        void onPickImage(InventoryItem item);
+    }
+
+    private static final Object PAYLOAD_SELECTION = new Object();
+    private static final Object PAYLOAD_THUMBNAIL = new Object();
+
+    private static final DiffUtil.ItemCallback<InventoryItem> DIFF = new DiffUtil.ItemCallback<InventoryItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull InventoryItem a, @NonNull InventoryItem b) {
+            return a.getId() == b.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull InventoryItem a, @NonNull InventoryItem b) {
+            // Version too: the row's buttons must hand out the latest one for conditional edits
+            return a.getVersion() == b.getVersion()
+                    && a.getQuantity() == b.getQuantity()
+                    && a.getStockoutAt() == b.getStockoutAt()
+                    && a.getLowStockThreshold() == b.getLowStockThreshold()
+                    && a.getName().equals(b.getName());
+        }
+    };
+
+    private static final int SELECTED_COLOR = 0xFF1E3A5F;
+    static final int LOW_STOCK_COLOR = 0xFFFF8A80;
+
+    private final boolean isAdmin;
+    private final ThumbnailLoader thumbnails;
+    private final int thumbnailSize;
+    private final RowActions actions;
+    private Set<Long> selectedIds = Collections.emptySet();
+
+    public InventoryAdapter(boolean isAdmin, ThumbnailLoader thumbnails, int thumbnailSize, RowActions actions) {
+        super(DIFF);
+        this.isAdmin = isAdmin;
+        this.thumbnails = thumbnails;
+        this.thumbnailSize = thumbnailSize;
+        this.actions = actions;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    /** Re-binds only the rows whose selected state changed. */
+    public void setSelection(Set<Long> selection) {
+        Set<Long> previous = selectedIds;
+        selectedIds = selection;
+        List<InventoryItem> rows = getCurrentList();
+        for (int i = 0; i < rows.size(); i++) {
+            long id = rows.get(i).getId();
+            if (previous.contains(id) != selection.contains(id)) {
+                notifyItemChanged(i, PAYLOAD_SELECTION);
+            }
+        }
+    }
+
+    /** Re-binds the photo of one row, e.g. after a new one was picked. */
+    public void refreshThumbnail(long itemId) {
+        List<InventoryItem> rows = getCurrentList();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getId() == itemId) {
+                notifyItemChanged(i, PAYLOAD_THUMBNAIL);
+                return;
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_inventory_row, parent, false);
+        return new RowHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        InventoryItem item = getItem(position);
+        thumbnails.load(holder.thumbnail, item.getId(), thumbnailSize);
+        holder.thumbnail.setOnClickListener(isAdmin ? v -> actions.onPickImage(item) : null);
+        holder.name.setText(item.getName());
+        holder.quantity.setText(String.valueOf(item.getQuantity()));
+        holder.quantity.setTextColor(item.isLowStock() ? LOW_STOCK_COLOR : Color.WHITE);
+        bindForecast(holder.forecast, item);
+        bindSelection(holder, item);
+        holder.updateButton.setOnClickListener(v -> actions.onUpdate(item));
+        holder.deleteButton.setOnClickListener(v -> actions.onDelete(item));
+        holder.itemView.setOnLongClickListener(v -> {
+            actions.onToggleSelection(item);
+            return true;
+        });
+        holder.itemView.setOnClickListener(v -> {
+            if (!selectedIds.isEmpty()) {
+                actions.onToggleSelection(item);
+            }
+        });
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(p -> p == PAYLOAD_SELECTION)) {
+            bindSelection(holder, getItem(position));
+        } else if (!payloads.isEmpty() && payloads.stream().allMatch(p -> p == PAYLOAD_THUMBNAIL)) {
+            thumbnails.cancel(holder.thumbnail);
+            thumbnails.load(holder.thumbnail, getItem(position).getId(), thumbnailSize);
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RowHolder holder) {
+        // Off screen: don't spend a decode on it
+        thumbnails.cancel(holder.thumbnail);
+        super.onViewRecycled(holder);
+    }
+
+    private void bindSelection(RowHolder holder, InventoryItem item) {
+        holder.itemView.setBackgroundColor(selectedIds.contains(item.getId()) ? SELECTED_COLOR : Color.TRANSPARENT);
+    }
+
+    private static void bindForecast(TextView view, InventoryItem item) {
+        if (item.getStockoutAt() == ConsumptionForecast.NO_STOCKOUT) {
+            view.setVisibility(View.GONE);
+            return;
+        }
+        double days = ConsumptionForecast.daysUntilStockout(item.getStockoutAt(), System.currentTimeMillis());
+        view.setText(view.getContext().getString(R.string.forecast_summary,
+                (int) Math.floor(days), item.getSuggestedReorder()));
+        view.setVisibility(View.VISIBLE);
+    }
+
+    final class RowHolder extends RecyclerView.ViewHolder {
+        final ImageView thumbnail;
+        final TextView name;
+        final TextView quantity;
+        final TextView forecast;
+        final Button updateButton;
+        final Button deleteButton;
+
+        RowHolder(@NonNull View itemView) {
+            super(itemView);
+            thumbnail = itemView.findViewById(R.id.itemThumbnail);
+            name = itemView.findViewById(R.id.itemName);
+            quantity = itemView.findViewById(R.id.itemQuantity);
+            forecast = itemView.findViewById(R.id.itemForecast);
+            updateButton = itemView.findViewById(R.id.updateButton);
+            deleteButton = itemView.findViewById(R.id.deleteButton);
+
+            // If not admin, disable update/delete buttons (view-only role)
+            if (!isAdmin) {
+                updateButton.setEnabled(false);
+                updateButton.setAlpha(0.4f);
+                deleteButton.setEnabled(false);
+                deleteButton.setAlpha(0.4f);
+            }
+        }
+    }
+}
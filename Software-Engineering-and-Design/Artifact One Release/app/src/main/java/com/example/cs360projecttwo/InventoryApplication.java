@@ -0,0 +1,36 @@
+package com.example.cs360projecttwo;
+
+import android.app.Application;
+
+/**
+ * InventoryApplication
+ *
+ * Process-wide setup that has to happen before any screen is shown,
+ * such as StrictMode policies and scheduling periodic background maintenance,
+ * plus forwarding memory pressure to {@link MemoryTrimRegistry}.
+ */
+public class InventoryApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Debug builds only; collects main-thread I/O and leaked cursors for the baseline test
+        StrictModeGuard.install(this);
+        HistoryRollupJobService.schedule(this);
+        DatabaseMaintenanceJobService.schedule(this);
+        // Reads last run's catalog in the background so the grid can draw before SQLite is ready
+        CatalogSnapshotStore.get(this).preload();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        MemoryTrimRegistry.get().onTrimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        MemoryTrimRegistry.get().onLowMemory();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.cs360projecttwo;
+
+import android.util.LruCache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InventoryCache
+ *
+ * Size-aware LRU of inventory rows keyed by item_id.
+ *
+ * Writers bump a generation counter (under the cache lock) whenever they
+ * commit, and readers only store a row they loaded if no write committed
+ * while they were reading. That way a slow read can never put a stale
+ * quantity back into the cache after a newer write has landed.
+ */
+public class InventoryCache {
+
+    /** Default budget: 1 MB of row data (several thousand items). */
+    public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private final LruCache<Long, InventoryItem> lru;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public InventoryCache(int maxBytes) {
+        lru = new LruCache<Long, InventoryItem>(maxBytes) {
+            @Override
+            protected int sizeOf(Long key, InventoryItem value) {
+                return value.estimateSizeBytes();
+            }
+        };
+    }
+
+    /** Returns the cached row or null, and counts the hit/miss. */
+    public InventoryItem get(long itemId) {
+        InventoryItem item = lru.get(itemId);
+        if (item != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return item;
+    }
+
+    /** Token to take before reading from the database on a miss. */
+    public long readToken() {
+        return generation.get();
+    }
+
+    /** Stores a row read from the database, unless a write committed since the token was taken. */
+    public void putIfUnchanged(InventoryItem item, long readToken) {
+        synchronized (lru) {
+            if (generation.get() == readToken) {
+                lru.put(item.getId(), item);
+            }
+        }
+    }
+
+    /** Call after a committed write that produced this row. */
+    public void onWritten(InventoryItem item) {
+        synchronized (lru) {
+            generation.incrementAndGet();
+            lru.put(item.getId(), item);
+        }
+    }
+
+    /** Call after a committed write whose resulting row we don't have. */
+    public void invalidate(long itemId) {
+        synchronized (lru) {
+            generation.incrementAndGet();
+            lru.remove(itemId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (lru) {
+            generation.incrementAndGet();
+            lru.evictAll();
+        }
+    }
+
+    /**
+     * Empties the cache under memory pressure and returns the bytes freed.
+     * Unlike {@link #invalidateAll()} nothing changed in the database, so
+     * in-flight reads may still store what they loaded.
+     */
+    public int trimMemory() {
+        int bytes = lru.size();
+        lru.evictAll();
+        return bytes;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int sizeBytes() {
+        return lru.size();
+    }
+
+    public int maxSizeBytes() {
+        return lru.maxSize();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.cs360projecttwo;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+/**
+ * InventoryContract
+ *
+ * Public contract for {@link InventoryProvider}: authority, URIs, column
+ * names and the permissions other apps (scanner, ERP bridge) must hold.
+ */
+public final class InventoryContract {
+
+    public static final String AUTHORITY = "com.example.cs360projecttwo.inventory";
+    public static final Uri AUTHORITY_URI = Uri.parse("content://" + AUTHORITY);
+
+    public static final String PERMISSION_READ = "com.example.cs360projecttwo.permission.READ_INVENTORY";
+    public static final String PERMISSION_WRITE = "com.example.cs360projecttwo.permission.WRITE_INVENTORY";
+
+    private InventoryContract() {
+    }
+
+    public static final class Items implements BaseColumns {
+
+        public static final Uri CONTENT_URI = Uri.withAppendedPath(AUTHORITY_URI, "items");
+
+        public static final String CONTENT_TYPE =
+                ContentResolver.CURSOR_DIR_BASE_TYPE + "/vnd." + AUTHORITY + ".item";
+        public static final String CONTENT_ITEM_TYPE =
+                ContentResolver.CURSOR_ITEM_BASE_TYPE + "/vnd." + AUTHORITY + ".item";
+
+        public static final String NAME = "item_name";
+        public static final String QUANTITY = "item_quantity";
+        /** Read-only: units consumed per day. */
+        public static final String CONSUMPTION_RATE = "consumption_rate";
+        /** Read-only: projected stockout time in epoch ms, Long.MAX_VALUE if none. */
+        public static final String STOCKOUT_AT = "stockout_at";
+        /**
+         * Row version, bumped by every write. Include the value you read in an
+         * update's values to make it conditional: the update then returns 0
+         * if the row changed in the meantime.
+         */
+        public static final String VERSION = "version";
+
+        /** Optional query parameters for paging through large catalogs. */
+        public static final String PARAM_LIMIT = "limit";
+        public static final String PARAM_OFFSET = "offset";
+
+        private Items() {
+        }
+
+        public static Uri buildItemUri(long id) {
+            return Uri.withAppendedPath(CONTENT_URI, String.valueOf(id));
+        }
+    }
+}
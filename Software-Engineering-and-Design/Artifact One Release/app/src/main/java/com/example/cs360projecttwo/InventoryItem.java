@@ -0,0 +1,78 @@
+package com.example.cs360projecttwo;
+
+/**
+ * InventoryItem
+ *
+ * Immutable snapshot of one row of the inventory table.
+ */
+public final class InventoryItem {
+
+    private final long id;
+    private final String name;
+    private final int quantity;
+    private final double consumptionRate;
+    private final long stockoutAt;
+    private final int lowStockThreshold;
+    private final long version;
+
+    public InventoryItem(long id, String name, int quantity) {
+        this(id, name, quantity, 0, ConsumptionForecast.NO_STOCKOUT, 0, 0);
+    }
+
+    public InventoryItem(long id, String name, int quantity, double consumptionRate, long stockoutAt,
+                         int lowStockThreshold, long version) {
+        this.id = id;
+        this.name = name;
+        this.quantity = quantity;
+        this.consumptionRate = consumptionRate;
+        this.stockoutAt = stockoutAt;
+        this.lowStockThreshold = lowStockThreshold;
+        this.version = version;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /** Units consumed per day (moving average); 0 until the first decrement. */
+    public double getConsumptionRate() {
+        return consumptionRate;
+    }
+
+    /** Projected stockout time, or {@link ConsumptionForecast#NO_STOCKOUT}. */
+    public long getStockoutAt() {
+        return stockoutAt;
+    }
+
+    /** 0 means no threshold set. */
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    /** Row version this snapshot was read at; pass it back to make an edit conditional. */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isLowStock() {
+        return lowStockThreshold > 0 && quantity <= lowStockThreshold;
+    }
+
+    public int getSuggestedReorder() {
+        return ConsumptionForecast.suggestedReorder(quantity, consumptionRate);
+    }
+
+    /** Rough heap footprint, used to size the item cache. */
+    int estimateSizeBytes() {
+        // object header + fields + String header + UTF-16 chars
+        return 32 + 64 + (name == null ? 0 : name.length() * 2);
+    }
+}
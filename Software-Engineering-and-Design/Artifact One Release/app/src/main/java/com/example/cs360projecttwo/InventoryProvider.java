@@ -0,0 +1,309 @@
+package com.example.cs360projecttwo;
+
+import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteQueryBuilder;
+import android.net.Uri;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * InventoryProvider
+ *
+ * Exposes the inventory table to other apps on the device (scanner, ERP
+ * bridge). Reads need {@link InventoryContract#PERMISSION_READ} and writes
+ * {@link InventoryContract#PERMISSION_WRITE}; both are signature-level.
+ *
+ * Every write goes through {@link InventoryRepository}, so the item cache,
+ * quantity history and live queries stay consistent with in-app edits.
+ * {@link #bulkInsert} and {@link #applyBatch} each run as one transaction.
+ * Writes are audited under the calling app's package name.
+ * Change notifications name the exact rows that changed and are sent once,
+ * after the commit.
+ *
+ * Query cursors are returned unwrapped. Across processes the binder layer
+ * then pages them through CursorWindows as the caller reads, so a large
+ * result is never materialised at once.
+ */
+public class InventoryProvider extends ContentProvider {
+
+    private static final int ITEMS = 1;
+    private static final int ITEM_ID = 2;
+
+    private static final UriMatcher MATCHER = new UriMatcher(UriMatcher.NO_MATCH);
+    private static final Map<String, String> PROJECTION_MAP = new HashMap<>();
+    // String literals (skipped) and bare words
+    private static final Pattern WORD = Pattern.compile("'(?:[^']|'')*'|[A-Za-z_][A-Za-z0-9_]*");
+    private static final Set<String> CLAUSE_WORDS = new HashSet<>(Arrays.asList(
+            "AND", "OR", "NOT", "IN", "IS", "NULL", "LIKE", "GLOB", "BETWEEN", "ESCAPE",
+            "ASC", "DESC", "COLLATE", "NOCASE", "CASE", "WHEN", "THEN", "ELSE", "END",
+            "LOWER", "UPPER", "ABS", "LENGTH", "COALESCE", "IFNULL"));
+
+    static {
+        MATCHER.addURI(InventoryContract.AUTHORITY, "items", ITEMS);
+        MATCHER.addURI(InventoryContract.AUTHORITY, "items/#", ITEM_ID);
+
+        PROJECTION_MAP.put(InventoryContract.Items._ID, "item_id AS " + InventoryContract.Items._ID);
+        PROJECTION_MAP.put(InventoryContract.Items.NAME, InventoryContract.Items.NAME);
+        PROJECTION_MAP.put(InventoryContract.Items.QUANTITY, InventoryContract.Items.QUANTITY);
+        PROJECTION_MAP.put(InventoryContract.Items.CONSUMPTION_RATE, InventoryContract.Items.CONSUMPTION_RATE);
+        PROJECTION_MAP.put(InventoryContract.Items.STOCKOUT_AT, InventoryContract.Items.STOCKOUT_AT);
+        PROJECTION_MAP.put(InventoryContract.Items.VERSION, InventoryContract.Items.VERSION);
+    }
+
+    private InventoryRepository repository;
+    // Row URIs changed by the current batch, keyed by notify flag; only touched by the batch thread
+    private final ThreadLocal<Map<Integer, List<Uri>>> pendingChanges = new ThreadLocal<>();
+
+    @Override
+    public boolean onCreate() {
+        repository = InventoryRepository.getInstance(getContext());
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        switch (MATCHER.match(uri)) {
+            case ITEMS:
+                return InventoryContract.Items.CONTENT_TYPE;
+            case ITEM_ID:
+                return InventoryContract.Items.CONTENT_ITEM_TYPE;
+            default:
+                return null;
+        }
+    }
+
+    // ----------- Reads -----------
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                        @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+        // The platform builder maps the projection and rejects unknown columns; its strict
+        // query() only runs on the platform's own connections, so its other checks are below
+        SQLiteQueryBuilder builder = new SQLiteQueryBuilder();
+        builder.setTables(InventoryRepository.TABLE_INVENTORY);
+        builder.setProjectionMap(PROJECTION_MAP);
+        builder.setStrictColumns(true);
+
+        switch (MATCHER.match(uri)) {
+            case ITEMS:
+                break;
+            case ITEM_ID:
+                builder.appendWhere("item_id = " + ContentUris.parseId(uri));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+
+        requireExposedWords(selection);
+        requireExposedWords(sortOrder);
+        String limit = buildLimit(uri);
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getReadableDatabase();
+        // The selection must parse on its own, then runs in parentheses so it can't escape the id filter
+        SqlStatement.compile(db, builder.buildQuery(projection, selection, null, null, sortOrder, limit)).close();
+        String sql = builder.buildQuery(projection,
+                TextUtils.isEmpty(selection) ? selection : "(" + selection + ")", null, null, sortOrder, limit);
+        Cursor cursor = selectionArgs == null ? db.query(sql) : db.query(sql, selectionArgs);
+        cursor.setNotificationUri(getContext().getContentResolver(), uri);
+        return cursor;
+    }
+
+    /**
+     * Selections and sort orders may name exposed columns, literals and
+     * operators only. A subquery or a hidden column (unit cost, the users
+     * table) could otherwise read past what the provider exposes.
+     */
+    private static void requireExposedWords(String clause) {
+        if (TextUtils.isEmpty(clause)) {
+            return;
+        }
+        Matcher words = WORD.matcher(clause);
+        while (words.find()) {
+            String word = words.group();
+            if (word.startsWith("'") || PROJECTION_MAP.containsKey(word)
+                    || CLAUSE_WORDS.contains(word.toUpperCase(Locale.US))) {
+                continue;
+            }
+            throw new IllegalArgumentException("Invalid token " + word);
+        }
+    }
+
+    private static String buildLimit(Uri uri) {
+        String limit = uri.getQueryParameter(InventoryContract.Items.PARAM_LIMIT);
+        if (TextUtils.isEmpty(limit)) {
+            return null;
+        }
+        String offset = uri.getQueryParameter(InventoryContract.Items.PARAM_OFFSET);
+        // parseLong rejects anything that isn't a plain number
+        return TextUtils.isEmpty(offset)
+                ? String.valueOf(Long.parseLong(limit))
+                : Long.parseLong(offset) + "," + Long.parseLong(limit);
+    }
+
+    // ----------- Writes -----------
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        requireMatch(uri, ITEMS);
+        String name = requireName(values);
+        int quantity = requireQuantity(values);
+        InventoryItem item = asCaller(() -> repository.insertItem(name, quantity));
+        if (item == null) {
+            return null;
+        }
+        Uri itemUri = InventoryContract.Items.buildItemUri(item.getId());
+        rowChanged(itemUri, ContentResolver.NOTIFY_INSERT);
+        return itemUri;
+    }
+
+    @Override
+    public int bulkInsert(@NonNull Uri uri, @NonNull ContentValues[] valuesArray) {
+        requireMatch(uri, ITEMS);
+        List<InventoryItem> items = new ArrayList<>(valuesArray.length);
+        for (ContentValues values : valuesArray) {
+            items.add(new InventoryItem(0, requireName(values), requireQuantity(values)));
+        }
+
+        List<InventoryItem> inserted = asCaller(() -> repository.insertItemsAndGet(items));
+        List<Uri> uris = new ArrayList<>(inserted.size());
+        for (InventoryItem item : inserted) {
+            uris.add(InventoryContract.Items.buildItemUri(item.getId()));
+        }
+        notifyRows(uris, ContentResolver.NOTIFY_INSERT);
+        return inserted.size();
+    }
+
+    /**
+     * Only {@link InventoryContract.Items#QUANTITY} can be updated, one item at a time.
+     * If {@link InventoryContract.Items#VERSION} is also given, the update only
+     * applies while the row is still at that version.
+     */
+    @Override
+    public int update(@NonNull Uri uri, @Nullable ContentValues values, @Nullable String selection,
+                      @Nullable String[] selectionArgs) {
+        requireMatch(uri, ITEM_ID);
+        if (selection != null) {
+            throw new IllegalArgumentException("Selection not supported; update by item URI");
+        }
+        long itemId = ContentUris.parseId(uri);
+        int quantity = requireQuantity(values);
+        Long version = values.getAsLong(InventoryContract.Items.VERSION);
+        boolean updated = version == null
+                ? asCaller(() -> repository.updateQuantity(itemId, quantity))
+                : asCaller(() -> repository.updateQuantityIfUnchanged(itemId, version, quantity)).status
+                        == InventoryRepository.UpdateResult.Status.UPDATED;
+        if (updated) {
+            rowChanged(uri, ContentResolver.NOTIFY_UPDATE);
+            return 1;
+        }
+        return 0;
+    }
+
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
+        requireMatch(uri, ITEM_ID);
+        if (selection != null) {
+            throw new IllegalArgumentException("Selection not supported; delete by item URI");
+        }
+        long itemId = ContentUris.parseId(uri);
+        if (asCaller(() -> repository.deleteItem(itemId))) {
+            rowChanged(uri, ContentResolver.NOTIFY_DELETE);
+            return 1;
+        }
+        return 0;
+    }
+
+    /** Applies every operation in one transaction; any failure rolls back the whole batch. */
+    @NonNull
+    @Override
+    public ContentProviderResult[] applyBatch(@NonNull ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        pendingChanges.set(new HashMap<>());
+        try {
+            ContentProviderResult[] results = repository.runInTransaction(() -> super.applyBatch(operations));
+            for (Map.Entry<Integer, List<Uri>> entry : pendingChanges.get().entrySet()) {
+                notifyRows(entry.getValue(), entry.getKey());
+            }
+            return results;
+        } catch (OperationApplicationException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OperationApplicationException(e);
+        } finally {
+            pendingChanges.remove();
+        }
+    }
+
+    // ----------- Helpers -----------
+
+    // Attributes the audit events of a write to the app that asked for it
+    private <T> T asCaller(Supplier<T> write) {
+        String caller = getCallingPackage();
+        return repository.getAuditLog().runAs("app:" + (caller != null ? caller : "unknown"), write);
+    }
+
+    private void rowChanged(Uri uri, int flag) {
+        Map<Integer, List<Uri>> batch = pendingChanges.get();
+        if (batch != null) {
+            // Held until the batch commits
+            batch.computeIfAbsent(flag, f -> new ArrayList<>()).add(uri);
+        } else {
+            notifyRows(Collections.singletonList(uri), flag);
+        }
+    }
+
+    private void notifyRows(Collection<Uri> uris, int flag) {
+        if (!uris.isEmpty()) {
+            getContext().getContentResolver().notifyChange(uris, null, flag);
+        }
+    }
+
+    private static void requireMatch(Uri uri, int expected) {
+        if (MATCHER.match(uri) != expected) {
+            throw new IllegalArgumentException("Unsupported URI for this operation: " + uri);
+        }
+    }
+
+    private static String requireName(ContentValues values) {
+        String name = values == null ? null : values.getAsString(InventoryContract.Items.NAME);
+        if (TextUtils.isEmpty(name)) {
+            throw new IllegalArgumentException(InventoryContract.Items.NAME + " is required");
+        }
+        return name;
+    }
+
+    private static int requireQuantity(ContentValues values) {
+        Integer quantity = values == null ? null : values.getAsInteger(InventoryContract.Items.QUANTITY);
+        if (quantity == null || quantity < 0) {
+            throw new IllegalArgumentException(InventoryContract.Items.QUANTITY + " must be a non-negative integer");
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.cs360projecttwo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * InventoryQueries
+ *
+ * Registry of the SQL the app runs against inventory.db. Every statement
+ * is declared here with the plan it is allowed to have, and
+ * QueryPlanTest checks each one with EXPLAIN QUERY PLAN against a seeded
+ * schema. A schema or query change that quietly turns a lookup into a full
+ * table scan or adds a sort step fails the unit tests.
+ *
+ * Plain inserts (no plan to check) and the provider's caller-supplied
+ * selections are not listed.
+ */
+public final class InventoryQueries {
+
+    /** What EXPLAIN QUERY PLAN may show for a statement. */
+    public enum PlanRule {
+        /** Hot path: index/primary-key searches only; no SCAN, no temp B-tree. */
+        HOT,
+        /** Ordered listing: may walk a whole index in order, but never sorts in a temp B-tree. */
+        INDEX_ORDERED,
+        /** Background work: no unindexed table scan; temp B-trees (GROUP BY) allowed. */
+        INDEXED,
+        /** Intentionally reads the whole table (e.g. the full grid list). */
+        FULL_SCAN
+    }
+
+    /** One registered statement. */
+    public static final class Query {
+        public final String name;
+        public final String sql;
+        public final PlanRule rule;
+
+        Query(String name, String sql, PlanRule rule) {
+            this.name = name;
+            this.sql = sql;
+            this.rule = rule;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static final List<Query> ALL = new ArrayList<>();
+
+    private static final long HOUR_MS = QuantityHistoryStore.HOUR_MS;
+    private static final long DAY_MS = QuantityHistoryStore.DAY_MS;
+    private static final String ITEM_COLUMNS =
+            "item_id, item_name, item_quantity, consumption_rate, stockout_at, low_stock_threshold, version";
+
+    // ----------- Users -----------
+
+    public static final Query USER_EXISTS = register("userExists",
+            "SELECT username FROM users WHERE username = ?", PlanRule.HOT);
+
+    public static final Query USER_PASSWORD_HASH = register("userPasswordHash",
+            "SELECT password_hash FROM users WHERE username = ?", PlanRule.HOT);
+
+    public static final Query USER_ROLE = register("userRole",
+            "SELECT role FROM users WHERE username = ?", PlanRule.HOT);
+
+    // ----------- Sessions -----------
+
+    public static final Query SESSION_INSERT = register("sessionInsert",
+            "INSERT INTO sessions (token_hash, username, created_at, expires_at) VALUES (?, ?, ?, ?)",
+            PlanRule.HOT);
+
+    // Role comes from users, so a remembered session never outlives a role change or a removed account
+    public static final Query SESSION_LOOKUP = register("sessionLookup",
+            "SELECT s.username, u.role, s.expires_at FROM sessions s JOIN users u ON u.username = s.username "
+                    + "WHERE s.token_hash = ? AND s.expires_at > ?", PlanRule.HOT);
+
+    public static final Query SESSION_DELETE = register("sessionDelete",
+            "DELETE FROM sessions WHERE token_hash = ?", PlanRule.HOT);
+
+    public static final Query SESSIONS_PRUNE = register("sessionsPrune",
+            "DELETE FROM sessions WHERE expires_at <= ?", PlanRule.INDEXED);
+
+    // ----------- Inventory -----------
+
+    public static final Query ITEMS_ALL = register("itemsAll",
+            "SELECT " + ITEM_COLUMNS + " FROM inventory", PlanRule.FULL_SCAN);
+
+    public static final Query ITEMS_BY_URGENCY = register("itemsByUrgency",
+            "SELECT " + ITEM_COLUMNS + " FROM inventory ORDER BY stockout_at", PlanRule.INDEX_ORDERED);
+
+    public static final Query ITEM_BY_ID = register("itemById",
+            "SELECT " + ITEM_COLUMNS + " FROM inventory WHERE item_id = ?", PlanRule.HOT);
+
+    private static final String FOR_UPDATE_COLUMNS = "item_id, item_name, item_quantity, consumption_rate, "
+            + "rate_updated_at, low_stock_threshold, version, stockout_at";
+
+    public static final Query ITEM_FOR_UPDATE = register("itemForUpdate",
+            "SELECT " + FOR_UPDATE_COLUMNS + " FROM inventory WHERE item_id = ?", PlanRule.HOT);
+
+    // A batch write reads its rows this many at a time; one primary-key lookup per slot.
+    // Exactly InventoryRepository.FOR_UPDATE_SLOTS placeholders in the IN list.
+    public static final Query ITEMS_FOR_UPDATE = register("itemsForUpdate",
+            "SELECT " + FOR_UPDATE_COLUMNS + " FROM inventory WHERE item_id IN ("
+                    + placeholders(InventoryRepository.FOR_UPDATE_SLOTS) + ")", PlanRule.HOT);
+
+    // Conditional on the version read just before; a write from a stale copy changes nothing
+    public static final Query ITEM_UPDATE_QUANTITY = register("itemUpdateQuantity",
+            "UPDATE inventory SET item_quantity = ?, consumption_rate = ?, rate_updated_at = ?, "
+                    + "stockout_at = ?, version = version + 1 WHERE item_id = ? AND version = ?",
+            PlanRule.HOT);
+
+    public static final Query ITEM_SET_THRESHOLD = register("itemSetThreshold",
+            "UPDATE inventory SET low_stock_threshold = ?, version = version + 1 WHERE item_id = ?",
+            PlanRule.HOT);
+
+    public static final Query ITEM_NAME = register("itemName",
+            "SELECT item_name FROM inventory WHERE item_id = ?", PlanRule.HOT);
+
+    public static final Query ITEM_RENAME = register("itemRename",
+            "UPDATE inventory SET item_name = ?, version = version + 1 WHERE item_id = ?", PlanRule.HOT);
+
+    public static final Query ITEM_SET_UNIT_COST = register("itemSetUnitCost",
+            "UPDATE inventory SET unit_cost_minor = ?, version = version + 1 WHERE item_id = ?",
+            PlanRule.HOT);
+
+    public static final Query ITEM_DELETE = register("itemDelete",
+            "DELETE FROM inventory WHERE item_id = ?", PlanRule.HOT);
+
+    // ----------- Quantity history -----------
+
+    // Fold one bucket into an existing one: widen min/max, keep the newest "last"
+    private static final String MERGE_ON_CONFLICT =
+            " ON CONFLICT (item_id, bucket_start, resolution) DO UPDATE SET "
+                    + "min_quantity = MIN(min_quantity, excluded.min_quantity), "
+                    + "max_quantity = MAX(max_quantity, excluded.max_quantity), "
+                    + "last_quantity = CASE WHEN excluded.last_at >= last_at "
+                    + "THEN excluded.last_quantity ELSE last_quantity END, "
+                    + "last_at = MAX(last_at, excluded.last_at)";
+
+    public static final Query SAMPLE_INSERT = register("sampleInsert",
+            "INSERT OR REPLACE INTO quantity_samples (item_id, sampled_at, quantity) VALUES (?, ?, ?)",
+            PlanRule.HOT);
+
+    public static final Query HOURLY_UPSERT = register("hourlyUpsert",
+            "INSERT INTO quantity_rollups (item_id, bucket_start, resolution, "
+                    + "min_quantity, max_quantity, last_quantity, last_at) "
+                    + "VALUES (?, ?, " + HOUR_MS + ", ?, ?, ?, ?)"
+                    + MERGE_ON_CONFLICT, PlanRule.HOT);
+
+    // "last" is picked explicitly from the newest hour of each day: a bare column next to several
+    // aggregates may come from any row of the group
+    public static final Query HOURLY_TO_DAILY = register("hourlyToDaily",
+            "INSERT INTO quantity_rollups (item_id, bucket_start, resolution, "
+                    + "min_quantity, max_quantity, last_quantity, last_at) "
+                    + "SELECT item_id, day * " + DAY_MS + ", " + DAY_MS + ", "
+                    + "MIN(min_quantity), MAX(max_quantity), MAX(CASE WHEN newest = 1 THEN last_quantity END), "
+                    + "MAX(last_at) "
+                    + "FROM (SELECT item_id, bucket_start / " + DAY_MS + " AS day, "
+                    + "min_quantity, max_quantity, last_quantity, last_at, "
+                    + "ROW_NUMBER() OVER (PARTITION BY item_id, bucket_start / " + DAY_MS
+                    + " ORDER BY last_at DESC) AS newest "
+                    + "FROM quantity_rollups WHERE resolution = " + HOUR_MS + " AND bucket_start < ?) "
+                    + "GROUP BY item_id, day"
+                    + MERGE_ON_CONFLICT, PlanRule.INDEXED);
+
+    public static final Query ROLLUPS_PRUNE = register("rollupsPrune",
+            "DELETE FROM quantity_rollups WHERE resolution = ? AND bucket_start < ?", PlanRule.INDEXED);
+
+    public static final Query SAMPLES_PRUNE = register("samplesPrune",
+            "DELETE FROM quantity_samples WHERE sampled_at < ?", PlanRule.INDEXED);
+
+    public static final Query SAMPLES_DELETE_ITEM = register("samplesDeleteItem",
+            "DELETE FROM quantity_samples WHERE item_id = ?", PlanRule.HOT);
+
+    public static final Query ROLLUPS_DELETE_ITEM = register("rollupsDeleteItem",
+            "DELETE FROM quantity_rollups WHERE item_id = ?", PlanRule.HOT);
+
+    // Primary key order (item_id, bucket_start, resolution) already gives bucket order
+    public static final Query TREND = register("trend",
+            "SELECT bucket_start, resolution, min_quantity, max_quantity, last_quantity "
+                    + "FROM quantity_rollups WHERE item_id = ? AND bucket_start >= ? ORDER BY bucket_start",
+            PlanRule.HOT);
+
+    // ----------- Categories & tags -----------
+
+    public static final Query CATEGORY_INSERT = register("categoryInsert",
+            "INSERT OR IGNORE INTO categories (name) VALUES (?)", PlanRule.HOT);
+
+    public static final Query CATEGORY_BY_NAME = register("categoryByName",
+            "SELECT category_id FROM categories WHERE name = ?", PlanRule.HOT);
+
+    public static final Query TAG_INSERT = register("tagInsert",
+            "INSERT OR IGNORE INTO tags (name) VALUES (?)", PlanRule.HOT);
+
+    public static final Query TAG_BY_NAME = register("tagByName",
+            "SELECT tag_id FROM tags WHERE name = ?", PlanRule.HOT);
+
+    public static final Query CATEGORIES_BY_NAME = register("categoriesByName",
+            "SELECT category_id, name FROM categories ORDER BY name", PlanRule.INDEX_ORDERED);
+
+    public static final Query TAGS_BY_NAME = register("tagsByName",
+            "SELECT tag_id, name FROM tags ORDER BY name", PlanRule.INDEX_ORDERED);
+
+    public static final Query ITEM_SET_CATEGORY = register("itemSetCategory",
+            "UPDATE inventory SET category_id = ?, version = version + 1 WHERE item_id = ?", PlanRule.HOT);
+
+    public static final Query ITEM_TAG_INSERT = register("itemTagInsert",
+            "INSERT OR IGNORE INTO item_tags (item_id, tag_id) VALUES (?, ?)", PlanRule.HOT);
+
+    public static final Query ITEM_TAG_DELETE = register("itemTagDelete",
+            "DELETE FROM item_tags WHERE item_id = ? AND tag_id = ?", PlanRule.HOT);
+
+    // Pre-aggregated by triggers: a primary-key range, no counting
+    public static final Query FACET_COUNTS = register("facetCounts",
+            "SELECT facet_id, item_count FROM facet_counts WHERE facet_type = ?", PlanRule.HOT);
+
+    // Covering indexes only: idx_inventory_category, then the item_tags primary key
+    public static final Query TAG_COUNTS_IN_CATEGORY = register("tagCountsInCategory",
+            "SELECT t.tag_id, COUNT(*) FROM inventory i JOIN item_tags t ON t.item_id = i.item_id "
+                    + "WHERE i.category_id = ? GROUP BY t.tag_id", PlanRule.INDEXED);
+
+    public static final Query CATEGORY_COUNTS_WITH_TAG = register("categoryCountsWithTag",
+            "SELECT i.category_id, COUNT(*) FROM item_tags t JOIN inventory i ON i.item_id = t.item_id "
+                    + "WHERE t.tag_id = ? AND i.category_id IS NOT NULL GROUP BY i.category_id",
+            PlanRule.INDEXED);
+
+    public static final Query ITEM_IDS_IN_CATEGORY = register("itemIdsInCategory",
+            "SELECT item_id FROM inventory WHERE category_id = ? ORDER BY item_id", PlanRule.HOT);
+
+    public static final Query ITEM_IDS_WITH_TAG = register("itemIdsWithTag",
+            "SELECT item_id FROM item_tags WHERE tag_id = ? ORDER BY item_id", PlanRule.HOT);
+
+    // ----------- Columnar store -----------
+
+    // Sizes the arrays before COLUMNS_ALL fills them
+    public static final Query COLUMNS_COUNT = register("columnsCount",
+            "SELECT COUNT(*) FROM inventory", PlanRule.FULL_SCAN);
+
+    // In item_id order so the arrays come out sorted
+    public static final Query COLUMNS_ALL = register("columnsAll",
+            "SELECT item_id, item_quantity, low_stock_threshold, category_id FROM inventory ORDER BY item_id",
+            PlanRule.FULL_SCAN);
+
+    public static final Query COLUMNS_ROW = register("columnsRow",
+            "SELECT item_quantity, low_stock_threshold, category_id FROM inventory WHERE item_id = ?",
+            PlanRule.HOT);
+
+    // ----------- Valuation report -----------
+
+    // Keyset page: a rowid range search, so each page costs the same however far in it is
+    public static final Query VALUATION_PAGE = register("valuationPage",
+            "SELECT item_id, item_name, item_quantity, unit_cost_minor, category_id FROM inventory "
+                    + "WHERE item_id > ? ORDER BY item_id LIMIT ?", PlanRule.HOT);
+
+    // ----------- Fuzzy lookup -----------
+
+    public static final Query TRIGRAM_INSERT = register("trigramInsert",
+            "INSERT OR IGNORE INTO item_trigrams (trigram, item_id) VALUES (?, ?)", PlanRule.HOT);
+
+    public static final Query TRIGRAMS_DELETE_ITEM = register("trigramsDeleteItem",
+            "DELETE FROM item_trigrams WHERE item_id = ?", PlanRule.HOT);
+
+    public static final Query TRIGRAM_COUNT = register("trigramCount",
+            "SELECT item_count FROM trigram_counts WHERE trigram = ?", PlanRule.HOT);
+
+    // One primary-key range per query trigram, then a sort of the grouped result.
+    // Exactly TrigramIndex.QUERY_SLOTS placeholders in the IN list.
+    public static final Query TRIGRAM_CANDIDATES = register("trigramCandidates",
+            "SELECT item_id, COUNT(*) AS shared FROM item_trigrams "
+                    + "WHERE trigram IN (?, ?, ?, ?, ?, ?) "
+                    + "GROUP BY item_id ORDER BY shared DESC, item_id LIMIT ?", PlanRule.INDEXED);
+
+    // ----------- Lots -----------
+
+    public static final Query LOT_INSERT = register("lotInsert",
+            "INSERT INTO lots (item_id, lot_code, quantity, expires_at) VALUES (?, ?, ?, ?)", PlanRule.HOT);
+
+    // FEFO in one statement: each lot gives what is still owed after every
+    // earlier-expiring lot gave its all. The window walks idx_lots_fefo in
+    // order, so only this item's range is read and nothing is sorted.
+    public static final Query LOTS_CONSUME = register("lotsConsume",
+            "UPDATE lots SET quantity = lots.quantity - pick.take FROM ("
+                    + "SELECT lot_id, MIN(quantity, ? - (SUM(quantity) OVER ("
+                    + "ORDER BY expires_at, lot_id ROWS UNBOUNDED PRECEDING) - quantity)) AS take "
+                    + "FROM lots WHERE item_id = ?) AS pick "
+                    + "WHERE lots.lot_id = pick.lot_id AND pick.take > 0", PlanRule.HOT);
+
+    public static final Query LOTS_DELETE_EMPTY = register("lotsDeleteEmpty",
+            "DELETE FROM lots WHERE item_id = ? AND quantity = 0", PlanRule.HOT);
+
+    public static final Query LOTS_FOR_ITEM = register("lotsForItem",
+            "SELECT lot_id, lot_code, quantity, expires_at FROM lots "
+                    + "WHERE item_id = ? ORDER BY expires_at, lot_id", PlanRule.HOT);
+
+    public static final Query LOTS_TOTAL = register("lotsTotal",
+            "SELECT COALESCE(SUM(quantity), 0) FROM lots WHERE item_id = ?", PlanRule.HOT);
+
+    // Range on idx_lots_expiry, already in expiry order; LIMIT stops the walk early
+    public static final Query LOTS_EXPIRING = register("lotsExpiring",
+            "SELECT l.lot_id, l.item_id, i.item_name, l.lot_code, l.quantity, l.expires_at "
+                    + "FROM lots l JOIN inventory i ON i.item_id = l.item_id "
+                    + "WHERE l.expires_at < ? ORDER BY l.expires_at LIMIT ?", PlanRule.HOT);
+
+    // ----------- Audit log -----------
+
+    public static final Query AUDIT_INSERT = register("auditInsert",
+            "INSERT INTO audit_log (at, event, actor, item_id, before_value, after_value) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", PlanRule.HOT);
+
+    public static final Query AUDIT_PRUNE = register("auditPrune",
+            "DELETE FROM audit_log WHERE at < ?", PlanRule.INDEXED);
+
+    public static final Query AUDIT_SINCE = register("auditSince",
+            "SELECT at, event, actor, item_id, before_value, after_value "
+                    + "FROM audit_log WHERE at >= ? ORDER BY at DESC LIMIT ?", PlanRule.HOT);
+
+    private InventoryQueries() {
+    }
+
+    /** Every registered statement, in declaration order. */
+    public static List<Query> all() {
+        return Collections.unmodifiableList(ALL);
+    }
+
+    private static Query register(String name, String sql, PlanRule rule) {
+        Query query = new Query(name, sql, rule);
+        ALL.add(query);
+        return query;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder("?");
+        for (int i = 1; i < count; i++) {
+            sb.append(", ?");
+        }
+        return sb.toString();
+    }
+}
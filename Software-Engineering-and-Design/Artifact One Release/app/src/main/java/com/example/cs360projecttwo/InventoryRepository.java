@@ -0,0 +1,1113 @@
+package com.example.cs360projecttwo;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * InventoryRepository
+ *
+ * Single entry point for reading and writing the inventory table.
+ * Lookups by item_id are served from an {@link InventoryCache}; every
+ * mutation goes through here and updates or invalidates the cache before
+ * it returns, so callers never see a quantity older than the last commit.
+ * Quantity changes are also recorded in the {@link QuantityHistoryStore},
+ * in the same transaction as the change itself, and every committed change
+ * is reported to the {@link AuditLog} with the user who made it.
+ *
+ * Every write bumps the row's version. An edit made from an earlier
+ * snapshot (a dialog left open while someone else saved) can pass that
+ * snapshot's version to {@link #updateQuantityIfUnchanged}; if the row has
+ * moved on, nothing is written and the caller gets the fresh row back.
+ * No lock is held between reading the snapshot and writing.
+ *
+ * Categories and tags live in the {@link FacetStore}; labelling writes go
+ * through here so they share the write lock and change notifications.
+ * Likewise for dated lots ({@link LotStore}): every quantity decrease
+ * consumes them earliest-expiry-first in the same transaction.
+ *
+ * Item names are also indexed by trigram ({@link TrigramIndex}) in the
+ * transaction that inserts or renames them, for typo-tolerant lookup.
+ *
+ * Once someone asks for the {@link ColumnarInventory}, every committed
+ * write also tells it which rows changed, so bulk scans stay current
+ * without re-reading the table.
+ *
+ * The process-wide instance gives its row cache, columnar copy and SQLite
+ * page cache back under memory pressure (see {@link MemoryTrimRegistry});
+ * each fills again on its next read.
+ */
+public class InventoryRepository {
+
+    private static final String TAG = "InventoryRepository";
+
+    public static final String TABLE_INVENTORY = "inventory";
+    private static final String COL_ITEM_NAME = "item_name";
+    private static final String COL_ITEM_QUANTITY = "item_quantity";
+    private static final String COL_RATE_AT = DatabaseHelper.COL_RATE_UPDATED_AT;
+
+    /** Outcome of a conditional edit. */
+    public static final class UpdateResult {
+        public enum Status { UPDATED, CONFLICT, MISSING }
+
+        public final Status status;
+        /** The row after the write, or the newer row that caused the conflict; null if missing. */
+        public final InventoryItem current;
+
+        UpdateResult(Status status, InventoryItem current) {
+            this.status = status;
+            this.current = current;
+        }
+    }
+
+    private static final UpdateResult MISSING = new UpdateResult(UpdateResult.Status.MISSING, null);
+    // Expected version that matches whatever is stored (unconditional writes)
+    private static final long ANY_VERSION = -1;
+    // Must match the number of IN placeholders in ITEMS_FOR_UPDATE
+    static final int FOR_UPDATE_SLOTS = 32;
+    // Binds the unused placeholders; item ids start at 1
+    private static final String NO_ITEM = "0";
+
+    /** Told after the commit which items a delete removed, e.g. to drop files kept for them. */
+    public interface DeleteListener {
+        /** Called with the write lock held; hand file work to another thread. */
+        void onItemsDeleted(List<Long> itemIds);
+    }
+
+    private static volatile InventoryRepository instance;
+
+    private final DatabaseHelper dbHelper;
+    private final InventoryCache cache;
+    private final QuantityHistoryStore history;
+    private final AuditLog audit;
+    private final FacetStore facets;
+    private final LotStore lots;
+    private final SessionStore sessions;
+    private final TrigramIndex trigrams;
+    private final InvalidationTracker invalidationTracker = new InvalidationTracker();
+    private final List<DeleteListener> deleteListeners = new CopyOnWriteArrayList<>();
+    // Created on first use; null until then so writes skip the bookkeeping
+    private volatile ColumnarInventory columns;
+    // Set on the process-wide instance only; guarded by writeLock once set
+    private MemoryTrimRegistry trimRegistry;
+    // SQLite only has one writer anyway; serialising here keeps cache updates in commit order
+    private final Object writeLock = new Object();
+    private final AtomicLong queryCount = new AtomicLong();
+    // Set while runInTransaction is active; guarded by writeLock
+    private Set<String> deferredTables;
+    private List<AuditLog.Event> deferredAudit;
+    private List<Long> deferredRows;
+    // Row cache updates held back until the commit; a null value means evict
+    private Map<Long, InventoryItem> deferredCache;
+    private List<Long> deferredDeletes;
+
+    public static InventoryRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (InventoryRepository.class) {
+                if (instance == null) {
+                    instance = new InventoryRepository(
+                            new DatabaseHelper(context.getApplicationContext()),
+                            new InventoryCache(InventoryCache.DEFAULT_MAX_BYTES));
+                    instance.registerTrims(MemoryTrimRegistry.get());
+                    // However a row goes (the grid, the provider, a batch), its photo goes with it
+                    ThumbnailLoader thumbnails = ThumbnailLoader.get(context);
+                    instance.addDeleteListener(itemIds -> AppExecutors.get().diskIO().execute(
+                            () -> thumbnails.deleteImages(itemIds)));
+                    // Next cold start's preview follows every commit, not just the ones a screen saw
+                    CatalogSnapshotStore.get(context).attach(instance);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Drops the process-wide instance so local tests get a fresh database each run. */
+    static void resetForTesting() {
+        synchronized (InventoryRepository.class) {
+            if (instance != null) {
+                instance.audit.close();
+                instance.invalidationTracker.close();
+                instance.dbHelper.close();
+                instance = null;
+            }
+        }
+        // Its directories belong to the test's app context too
+        ThumbnailLoader.resetForTesting();
+        CatalogSnapshotStore.resetForTesting();
+        DatabaseBackupManager.resetForTesting();
+        MemoryTrimRegistry.resetForTesting();
+    }
+
+    InventoryRepository(DatabaseHelper dbHelper, InventoryCache cache) {
+        this.dbHelper = dbHelper;
+        this.cache = cache;
+        this.history = new QuantityHistoryStore(dbHelper, QuantityHistoryStore.Retention.defaults());
+        this.audit = new AuditLog(dbHelper);
+        this.facets = new FacetStore(dbHelper);
+        this.lots = new LotStore(dbHelper);
+        this.sessions = new SessionStore(dbHelper);
+        this.trigrams = new TrigramIndex(dbHelper);
+    }
+
+    public DatabaseHelper getDatabaseHelper() {
+        return dbHelper;
+    }
+
+    public InventoryCache getCache() {
+        return cache;
+    }
+
+    public QuantityHistoryStore getHistory() {
+        return history;
+    }
+
+    public FacetStore getFacets() {
+        return facets;
+    }
+
+    public LotStore getLots() {
+        return lots;
+    }
+
+    public SessionStore getSessions() {
+        return sessions;
+    }
+
+    public TrigramIndex getTrigrams() {
+        return trigrams;
+    }
+
+    /** The columnar copy for bulk scans; created (and loaded on its first query) on first call. */
+    public ColumnarInventory getColumns() {
+        ColumnarInventory store = columns;
+        if (store == null) {
+            // Under the write lock so no commit falls between "not tracked" and "tracked"
+            synchronized (writeLock) {
+                if (columns == null) {
+                    columns = new ColumnarInventory(dbHelper);
+                    if (trimRegistry != null) {
+                        registerColumnsTrim(trimRegistry, columns);
+                    }
+                }
+                store = columns;
+            }
+        }
+        return store;
+    }
+
+    public AuditLog getAuditLog() {
+        return audit;
+    }
+
+    public InvalidationTracker getInvalidationTracker() {
+        return invalidationTracker;
+    }
+
+    /** Live list of all items; re-queried (coalesced) whenever the inventory table changes. */
+    public InvalidationTracker.LiveQuery<List<InventoryItem>> observeAllItems() {
+        return invalidationTracker.createLiveQuery(this::getAllItems, TABLE_INVENTORY);
+    }
+
+    /** Live list of all items, most urgent (earliest projected stockout) first. */
+    public InvalidationTracker.LiveQuery<List<InventoryItem>> observeItemsByUrgency() {
+        return invalidationTracker.createLiveQuery(this::getItemsByUrgency, TABLE_INVENTORY);
+    }
+
+    /**
+     * Live facet chips for whatever {@code selection} returns when the query
+     * runs. Call {@link InvalidationTracker.LiveQuery#invalidate()} after changing it.
+     */
+    public InvalidationTracker.LiveQuery<List<FacetStore.Facet>> observeFacets(
+            Supplier<FacetStore.Selection> selection) {
+        return invalidationTracker.createLiveQuery(() -> facets.getFacets(selection.get()),
+                TABLE_INVENTORY, DatabaseHelper.TABLE_FACET_COUNTS);
+    }
+
+    /** Live ids of the items matching {@code selection}; same contract as {@link #observeFacets}. */
+    public InvalidationTracker.LiveQuery<FacetStore.Matches> observeFacetMatches(
+            Supplier<FacetStore.Selection> selection) {
+        return invalidationTracker.createLiveQuery(() -> facets.getMatches(selection.get()),
+                TABLE_INVENTORY, DatabaseHelper.TABLE_FACET_COUNTS);
+    }
+
+    public void addDeleteListener(DeleteListener listener) {
+        deleteListeners.add(listener);
+    }
+
+    /** Number of SELECTs issued against the database (cache hits don't count). */
+    public long getQueryCount() {
+        return queryCount.get();
+    }
+
+    // ----------- Memory pressure -----------
+
+    private void registerTrims(MemoryTrimRegistry registry) {
+        synchronized (writeLock) {
+            trimRegistry = registry;
+        }
+        registry.register("row cache", MemoryTrimRegistry.TIER_BACKGROUND, tier -> cache.trimMemory());
+        // Connections stay open (reopening is the cold start we want to avoid); their page caches go
+        registry.register("sqlite page cache", MemoryTrimRegistry.TIER_BACKGROUND, tier -> {
+            AppExecutors.get().diskIO().execute(() -> {
+                try {
+                    dbHelper.getWritableDatabase().execSQL("PRAGMA shrink_memory");
+                } catch (SQLiteException | IllegalStateException e) {
+                    Log.w(TAG, "Could not shrink SQLite memory", e);
+                }
+            });
+            return 0; // SQLite doesn't say how much it let go
+        });
+    }
+
+    // Scans hold the store's lock, so the arrays are dropped off the UI thread; the size is known up front
+    private static void registerColumnsTrim(MemoryTrimRegistry registry, ColumnarInventory store) {
+        registry.register("columnar inventory", MemoryTrimRegistry.TIER_BACKGROUND, tier -> {
+            long bytes = store.retainedBytes();
+            AppExecutors.get().diskIO().execute(store::release);
+            return bytes;
+        });
+    }
+
+    // ----------- Reads -----------
+
+    /** Read-through lookup of a single item; null if it doesn't exist. */
+    public InventoryItem getItem(long itemId) {
+        if (readingInsideBatch()) {
+            // The cache only holds committed rows; this batch may have written newer ones
+            return queryItem(itemId);
+        }
+        InventoryItem cached = cache.get(itemId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long token = cache.readToken();
+        InventoryItem loaded = queryItem(itemId);
+        if (loaded != null) {
+            cache.putIfUnchanged(loaded, token);
+        }
+        return loaded;
+    }
+
+    /** All items in table order. Rows read here also warm the cache. */
+    public List<InventoryItem> getAllItems() {
+        long token = cache.readToken();
+        boolean cacheable = !readingInsideBatch();
+        List<InventoryItem> items = new ArrayList<>();
+
+        queryCount.incrementAndGet();
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.ITEMS_ALL.sql)) {
+            while (cursor.moveToNext()) {
+                InventoryItem item = readItem(cursor);
+                items.add(item);
+                if (cacheable) {
+                    cache.putIfUnchanged(item, token);
+                }
+            }
+        }
+        return items;
+    }
+
+    /** All items ordered by projected stockout; walks idx_inventory_stockout, so no sort step. */
+    public List<InventoryItem> getItemsByUrgency() {
+        long token = cache.readToken();
+        boolean cacheable = !readingInsideBatch();
+        List<InventoryItem> items = new ArrayList<>();
+
+        queryCount.incrementAndGet();
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.ITEMS_BY_URGENCY.sql)) {
+            while (cursor.moveToNext()) {
+                InventoryItem item = readItem(cursor);
+                items.add(item);
+                if (cacheable) {
+                    cache.putIfUnchanged(item, token);
+                }
+            }
+        }
+        return items;
+    }
+
+    // A batch's own reads run on its open transaction and can see rows that may still roll back
+    private boolean readingInsideBatch() {
+        return Thread.holdsLock(writeLock) && deferredCache != null;
+    }
+
+    private InventoryItem queryItem(long itemId) {
+        queryCount.incrementAndGet();
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.ITEM_BY_ID.sql,
+                new String[]{String.valueOf(itemId)})) {
+            return cursor.moveToFirst() ? readItem(cursor) : null;
+        }
+    }
+
+    // Column order of the InventoryQueries item SELECTs
+    private static InventoryItem readItem(Cursor cursor) {
+        return new InventoryItem(cursor.getLong(0), cursor.getString(1), cursor.getInt(2),
+                cursor.getDouble(3), cursor.getLong(4), cursor.getInt(5), cursor.getLong(6));
+    }
+
+    // ----------- Writes -----------
+
+    /** Inserts a new item and returns it, or null if the insert failed. */
+    public InventoryItem insertItem(String name, int quantity) {
+        synchronized (writeLock) {
+            long now = System.currentTimeMillis();
+            ContentValues values = new ContentValues();
+            values.put(COL_ITEM_NAME, name);
+            values.put(COL_ITEM_QUANTITY, quantity);
+            values.put(COL_RATE_AT, now); // first decrement measures from creation
+
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long id;
+            db.beginTransaction();
+            try {
+                id = db.insert(TABLE_INVENTORY, SQLiteDatabase.CONFLICT_IGNORE, values);
+                if (id != -1) {
+                    history.recordSample(db, id, quantity, now);
+                    TrigramIndex.index(db, id, name);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            if (id == -1) {
+                return null;
+            }
+            InventoryItem item = new InventoryItem(id, name, quantity);
+            cacheWritten(item);
+            rowsChanged(Collections.singletonList(id));
+            tablesChanged(TABLE_INVENTORY);
+            audited(Collections.singletonList(new AuditLog.Event(
+                    now, AuditLog.ITEM_ADDED, audit.currentActor(), id, 0, quantity)));
+            return item;
+        }
+    }
+
+    /** Imports many items in one transaction. Returns how many rows were inserted. */
+    public int insertItems(Collection<InventoryItem> items) {
+        return insertItemsAndGet(items).size();
+    }
+
+    /** Like {@link #insertItems}, but returns the inserted rows with their new ids. */
+    public List<InventoryItem> insertItemsAndGet(Collection<InventoryItem> items) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            List<InventoryItem> inserted = new ArrayList<>(items.size());
+
+            long now = System.currentTimeMillis();
+            db.beginTransaction();
+            try (QuantityHistoryStore.Recorder samples = history.recorder(db)) {
+                ContentValues values = new ContentValues();
+                for (InventoryItem item : items) {
+                    values.clear();
+                    values.put(COL_ITEM_NAME, item.getName());
+                    values.put(COL_ITEM_QUANTITY, item.getQuantity());
+                    values.put(COL_RATE_AT, now);
+                    long id = db.insert(TABLE_INVENTORY, SQLiteDatabase.CONFLICT_IGNORE, values);
+                    if (id != -1) {
+                        inserted.add(new InventoryItem(id, item.getName(), item.getQuantity()));
+                        samples.record(id, item.getQuantity(), now);
+                        TrigramIndex.index(db, id, item.getName());
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            String actor = audit.currentActor();
+            List<AuditLog.Event> events = new ArrayList<>(inserted.size());
+            List<Long> ids = new ArrayList<>(inserted.size());
+            for (InventoryItem item : inserted) {
+                cacheWritten(item);
+                ids.add(item.getId());
+                events.add(new AuditLog.Event(now, AuditLog.ITEM_ADDED, actor, item.getId(), 0, item.getQuantity()));
+            }
+            rowsChanged(ids);
+            // One notification for the whole import
+            tablesChanged(TABLE_INVENTORY);
+            audited(events);
+            return inserted;
+        }
+    }
+
+    /**
+     * Sets an absolute quantity. Returns false if the item no longer exists.
+     * A decrease also feeds the consumption-rate average, and the projected
+     * stockout is recomputed either way; both are O(1) on the item's own row.
+     */
+    public boolean updateQuantity(long itemId, int newQuantity) {
+        return writeQuantities(Collections.singletonList(itemId), current -> newQuantity) > 0;
+    }
+
+    /**
+     * Sets an absolute quantity only if the row is still at {@code expectedVersion},
+     * i.e. nobody has written it since the caller's copy was read. On a
+     * conflict nothing changes and the result carries the current row.
+     */
+    public UpdateResult updateQuantityIfUnchanged(long itemId, long expectedVersion, int newQuantity) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            List<AuditLog.Event> events = new ArrayList<>(1);
+            UpdateResult result;
+
+            db.beginTransaction();
+            try (SqlStatement update = SqlStatement.compile(db, InventoryQueries.ITEM_UPDATE_QUANTITY.sql);
+                 QuantityHistoryStore.Recorder samples = history.recorder(db)) {
+                result = writeQuantity(db, update, samples, readForUpdate(db, itemId),
+                        current -> newQuantity, expectedVersion, now, events);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            if (result.status == UpdateResult.Status.MISSING) {
+                cacheInvalidated(itemId);
+                return result;
+            }
+            // Either way the result holds the committed row; a conflict also refreshes a stale cached copy
+            cacheWritten(result.current);
+            if (result.status == UpdateResult.Status.UPDATED) {
+                rowsChanged(Collections.singletonList(itemId));
+                tablesChanged(TABLE_INVENTORY);
+                audited(events);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Receives {@code quantity} units of the item as a lot expiring at
+     * {@code expiresAt} ({@link LotStore#NO_EXPIRY} if it doesn't). The lot
+     * and the matching quantity increase commit together. Returns the
+     * updated item, or null if it no longer exists. Throws if the total
+     * would pass Integer.MAX_VALUE.
+     */
+    public InventoryItem receiveLot(long itemId, String lotCode, int quantity, long expiresAt) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Lot quantity must be positive: " + quantity);
+        }
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            List<AuditLog.Event> events = new ArrayList<>(1);
+            UpdateResult result;
+
+            db.beginTransaction();
+            try (SqlStatement update = SqlStatement.compile(db, InventoryQueries.ITEM_UPDATE_QUANTITY.sql);
+                 QuantityHistoryStore.Recorder samples = history.recorder(db)) {
+                RowForUpdate row = readForUpdate(db, itemId);
+                // A lot is received whole or not at all; clamping would leave lots the item can't hold
+                if (row != null && (long) row.quantity + quantity > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Lot of " + quantity + " overflows item " + itemId);
+                }
+                result = writeQuantity(db, update, samples, row,
+                        current -> current + quantity, ANY_VERSION, now, events);
+                if (result.status == UpdateResult.Status.UPDATED) {
+                    lots.insert(db, itemId, lotCode, quantity, expiresAt);
+                    db.setTransactionSuccessful();
+                }
+            } finally {
+                db.endTransaction();
+            }
+
+            if (result.status != UpdateResult.Status.UPDATED) {
+                cacheInvalidated(itemId);
+                return null;
+            }
+            cacheWritten(result.current);
+            rowsChanged(Collections.singletonList(itemId));
+            tablesChanged(TABLE_INVENTORY, DatabaseHelper.TABLE_LOTS);
+            audited(events);
+            return result.current;
+        }
+    }
+
+    /**
+     * Adds {@code delta} (which may be negative) to each item's quantity,
+     * clamped to [0, Integer.MAX_VALUE], in one transaction. Returns how many items were updated.
+     */
+    public int adjustQuantities(Collection<Long> itemIds, int delta) {
+        // In long, so a large delta can't wrap a large quantity round to a negative one
+        return writeQuantities(itemIds,
+                current -> (int) Math.max(0, Math.min(Integer.MAX_VALUE, (long) current + delta)));
+    }
+
+    // One transaction for the whole set: the rows are read FOR_UPDATE_SLOTS at a time, and each
+    // write reuses the same compiled UPDATE and history statements. One notification at the end.
+    private int writeQuantities(Collection<Long> itemIds, IntUnaryOperator newQuantity) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            // Each id once: its row is read up front, so a repeat would write from a stale copy
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(itemIds));
+            List<InventoryItem> updated = new ArrayList<>(ids.size());
+            List<AuditLog.Event> events = new ArrayList<>(ids.size());
+
+            db.beginTransaction();
+            try (SqlStatement update = SqlStatement.compile(db, InventoryQueries.ITEM_UPDATE_QUANTITY.sql);
+                 QuantityHistoryStore.Recorder samples = history.recorder(db)) {
+                Map<Long, RowForUpdate> rows = readForUpdate(db, ids);
+                for (long itemId : ids) {
+                    UpdateResult result = writeQuantity(db, update, samples, rows.get(itemId),
+                            newQuantity, ANY_VERSION, now, events);
+                    if (result.status == UpdateResult.Status.UPDATED) {
+                        updated.add(result.current);
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            if (updated.size() < ids.size()) {
+                // Some rows were already gone; drop any stale cached copies
+                for (long itemId : ids) {
+                    cacheInvalidated(itemId);
+                }
+            }
+            for (InventoryItem item : updated) {
+                cacheWritten(item);
+            }
+            if (!updated.isEmpty()) {
+                rowsChanged(ids);
+                tablesChanged(TABLE_INVENTORY);
+            }
+            audited(events);
+            return updated.size();
+        }
+    }
+
+    // Null row: the item no longer exists
+    private UpdateResult writeQuantity(SupportSQLiteDatabase db, SqlStatement update,
+                                       QuantityHistoryStore.Recorder samples, RowForUpdate row,
+                                       IntUnaryOperator newQuantityFn, long expectedVersion, long now,
+                                       List<AuditLog.Event> events) {
+        if (row == null) {
+            return MISSING;
+        }
+        if (expectedVersion != ANY_VERSION && row.version != expectedVersion) {
+            return new UpdateResult(UpdateResult.Status.CONFLICT, new InventoryItem(row.id, row.name,
+                    row.quantity, row.rate, row.stockoutAt, row.threshold, row.version));
+        }
+        int oldQuantity = row.quantity;
+        int newQuantity = newQuantityFn.applyAsInt(oldQuantity);
+        double rate = row.rate;
+        long rateAt = row.rateAt;
+
+        if (newQuantity < oldQuantity) {
+            rate = ConsumptionForecast.updateRate(rate, oldQuantity - newQuantity, now - rateAt);
+            rateAt = now;
+        }
+        long stockoutAt = ConsumptionForecast.projectStockout(newQuantity, rate, now);
+
+        update.bindLong(1, newQuantity);
+        update.bindDouble(2, rate);
+        update.bindLong(3, rateAt);
+        update.bindLong(4, stockoutAt);
+        update.bindLong(5, row.id);
+        update.bindLong(6, row.version);
+        // Can't miss: the transaction has held the write lock since the row was read
+        update.executeUpdateDelete();
+        if (newQuantity < oldQuantity) {
+            lots.consume(db, row.id, oldQuantity - newQuantity);
+        }
+        samples.record(row.id, newQuantity, now);
+        if (newQuantity != oldQuantity) {
+            events.add(new AuditLog.Event(now, AuditLog.QUANTITY_CHANGED, audit.currentActor(),
+                    row.id, oldQuantity, newQuantity));
+        }
+        return new UpdateResult(UpdateResult.Status.UPDATED, new InventoryItem(row.id, row.name,
+                newQuantity, rate, stockoutAt, row.threshold, row.version + 1));
+    }
+
+    /** Sets the low-stock threshold (0 = none) on each item in one transaction. */
+    public int setLowStockThreshold(Collection<Long> itemIds, int threshold) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            String actor = audit.currentActor();
+            List<AuditLog.Event> events = new ArrayList<>(itemIds.size());
+            int rows = 0;
+
+            db.beginTransaction();
+            try (SqlStatement update = SqlStatement.compile(db, InventoryQueries.ITEM_SET_THRESHOLD.sql)) {
+                for (long itemId : itemIds) {
+                    update.bindLong(1, threshold);
+                    update.bindLong(2, itemId);
+                    if (update.executeUpdateDelete() > 0) {
+                        rows++;
+                        events.add(new AuditLog.Event(now, AuditLog.THRESHOLD_CHANGED, actor, itemId, 0, threshold));
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            for (long itemId : itemIds) {
+                cacheInvalidated(itemId);
+            }
+            if (rows > 0) {
+                rowsChanged(itemIds);
+                tablesChanged(TABLE_INVENTORY);
+            }
+            audited(events);
+            return rows;
+        }
+    }
+
+    /** Renames the item and re-indexes its trigrams in one transaction. Returns false if it no longer exists. */
+    public boolean renameItem(long itemId, String name) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            boolean renamed;
+
+            db.beginTransaction();
+            try (SqlStatement rename = SqlStatement.compile(db, InventoryQueries.ITEM_RENAME.sql)) {
+                rename.bindString(1, name);
+                rename.bindLong(2, itemId);
+                renamed = rename.executeUpdateDelete() > 0;
+                if (renamed) {
+                    TrigramIndex.index(db, itemId, name);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            // The row's name and version moved on
+            cacheInvalidated(itemId);
+            if (renamed) {
+                tablesChanged(TABLE_INVENTORY);
+                audited(Collections.singletonList(new AuditLog.Event(
+                        now, AuditLog.ITEM_RENAMED, audit.currentActor(), itemId, 0, 0)));
+            }
+            return renamed;
+        }
+    }
+
+    /** Sets the unit cost, in minor currency units (see {@link MinorUnits}), on each item in one transaction. */
+    public int setUnitCost(Collection<Long> itemIds, long unitCostMinor) {
+        if (unitCostMinor < 0) {
+            throw new IllegalArgumentException("Unit cost can't be negative: " + unitCostMinor);
+        }
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            String actor = audit.currentActor();
+            List<AuditLog.Event> events = new ArrayList<>(itemIds.size());
+            int rows = 0;
+
+            db.beginTransaction();
+            try (SqlStatement update = SqlStatement.compile(db, InventoryQueries.ITEM_SET_UNIT_COST.sql)) {
+                for (long itemId : itemIds) {
+                    update.bindLong(1, unitCostMinor);
+                    update.bindLong(2, itemId);
+                    if (update.executeUpdateDelete() > 0) {
+                        rows++;
+                        events.add(new AuditLog.Event(now, AuditLog.UNIT_COST_CHANGED, actor, itemId, 0, unitCostMinor));
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            // The rows' versions moved on
+            for (long itemId : itemIds) {
+                cacheInvalidated(itemId);
+            }
+            if (rows > 0) {
+                tablesChanged(TABLE_INVENTORY);
+            }
+            audited(events);
+            return rows;
+        }
+    }
+
+    public boolean deleteItem(long itemId) {
+        return deleteItems(Collections.singletonList(itemId)) > 0;
+    }
+
+    /** Deletes every item (and its history) in one transaction. Returns how many rows were deleted. */
+    public int deleteItems(Collection<Long> itemIds) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            String actor = audit.currentActor();
+            List<AuditLog.Event> events = new ArrayList<>(itemIds.size());
+            List<Long> deleted = new ArrayList<>(itemIds.size());
+
+            db.beginTransaction();
+            try (SqlStatement delete = SqlStatement.compile(db, InventoryQueries.ITEM_DELETE.sql)) {
+                for (long itemId : itemIds) {
+                    delete.bindLong(1, itemId);
+                    if (delete.executeUpdateDelete() > 0) {
+                        deleted.add(itemId);
+                        events.add(new AuditLog.Event(now, AuditLog.ITEM_DELETED, actor, itemId, 0, 0));
+                    }
+                }
+                history.deleteHistory(db, itemIds);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            for (long itemId : itemIds) {
+                cacheInvalidated(itemId);
+            }
+            if (!deleted.isEmpty()) {
+                rowsChanged(itemIds);
+                tablesChanged(TABLE_INVENTORY);
+                itemsDeleted(deleted);
+            }
+            audited(events);
+            return deleted.size();
+        }
+    }
+
+    // ----------- Categories & tags -----------
+
+    /**
+     * Moves every item into the category called {@code name}, creating it if
+     * needed; null or empty removes the category. Returns how many items changed.
+     */
+    public int setCategory(Collection<Long> itemIds, String name) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            List<Long> changed = new ArrayList<>(itemIds.size());
+            long categoryId;
+
+            db.beginTransaction();
+            try {
+                categoryId = name == null || name.isEmpty() ? 0 : facets.ensureCategory(db, name);
+                facets.setCategory(db, itemIds, categoryId, changed);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            if (!changed.isEmpty()) {
+                // The rows' versions moved on
+                for (long itemId : changed) {
+                    cacheInvalidated(itemId);
+                }
+                rowsChanged(changed);
+                tablesChanged(TABLE_INVENTORY, DatabaseHelper.TABLE_FACET_COUNTS);
+                audited(facetEvents(now, AuditLog.CATEGORY_CHANGED, changed, 0, categoryId));
+            }
+            return changed.size();
+        }
+    }
+
+    /** Adds the tag called {@code name} (created if needed) to every item. Returns how many links were added. */
+    public int addTag(Collection<Long> itemIds, String name) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            List<Long> changed = new ArrayList<>(itemIds.size());
+            long tagId;
+
+            db.beginTransaction();
+            try {
+                tagId = facets.ensureTag(db, name);
+                facets.addTag(db, itemIds, tagId, changed);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            if (!changed.isEmpty()) {
+                tablesChanged(DatabaseHelper.TABLE_ITEM_TAGS, DatabaseHelper.TABLE_FACET_COUNTS);
+            }
+            audited(facetEvents(now, AuditLog.TAG_ADDED, changed, 0, tagId));
+            return changed.size();
+        }
+    }
+
+    /** Removes the tag called {@code name} from every item. Returns how many links were removed. */
+    public int removeTag(Collection<Long> itemIds, String name) {
+        synchronized (writeLock) {
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            long now = System.currentTimeMillis();
+            List<Long> changed = new ArrayList<>(itemIds.size());
+            long tagId;
+
+            db.beginTransaction();
+            try {
+                tagId = facets.findTag(db, name);
+                if (tagId != 0) {
+                    facets.removeTag(db, itemIds, tagId, changed);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            if (!changed.isEmpty()) {
+                tablesChanged(DatabaseHelper.TABLE_ITEM_TAGS, DatabaseHelper.TABLE_FACET_COUNTS);
+            }
+            audited(facetEvents(now, AuditLog.TAG_REMOVED, changed, tagId, 0));
+            return changed.size();
+        }
+    }
+
+    // One event per item that actually changed
+    private List<AuditLog.Event> facetEvents(long now, int event, List<Long> itemIds, long before, long after) {
+        String actor = audit.currentActor();
+        List<AuditLog.Event> events = new ArrayList<>(itemIds.size());
+        for (long itemId : itemIds) {
+            events.add(new AuditLog.Event(now, event, actor, itemId, before, after));
+        }
+        return events;
+    }
+
+    /**
+     * Drops every cached row and the columnar copy, and tells live queries
+     * and observers that every table changed, e.g. after the database file
+     * was replaced.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        ColumnarInventory store = columns;
+        if (store != null) {
+            store.markAllChanged();
+        }
+        invalidationTracker.notifyTablesChanged(DatabaseHelper.ALL_TABLES);
+    }
+
+    /**
+     * Replaces the database file through {@code swap} (a restore). Writers,
+     * audit flushes and new connections are all held off from the moment
+     * the file is closed until everything derived from the old one has
+     * been dropped, so nothing reads, writes or caches the old file late.
+     */
+    void replaceDatabase(DatabaseHelper.FileWork swap) throws IOException {
+        synchronized (writeLock) {
+            audit.pauseWhile(() -> dbHelper.runWithFileClosed(swap));
+            invalidateAll();
+        }
+    }
+
+    // ----------- Reads for writes -----------
+
+    /** An item's row as a quantity write needs it; read inside the write's transaction. */
+    private static final class RowForUpdate {
+        final long id;
+        final String name;
+        final int quantity;
+        final double rate;
+        final long rateAt;
+        final int threshold;
+        final long version;
+        final long stockoutAt;
+
+        // Column order of ITEM_FOR_UPDATE / ITEMS_FOR_UPDATE
+        RowForUpdate(Cursor cursor) {
+            id = cursor.getLong(0);
+            name = cursor.getString(1);
+            quantity = cursor.getInt(2);
+            rate = cursor.getDouble(3);
+            rateAt = cursor.getLong(4);
+            threshold = cursor.getInt(5);
+            version = cursor.getLong(6);
+            stockoutAt = cursor.getLong(7);
+        }
+    }
+
+    private RowForUpdate readForUpdate(SupportSQLiteDatabase db, long itemId) {
+        queryCount.incrementAndGet();
+        try (Cursor cursor = db.query(InventoryQueries.ITEM_FOR_UPDATE.sql,
+                new String[]{String.valueOf(itemId)})) {
+            return cursor.moveToFirst() ? new RowForUpdate(cursor) : null;
+        }
+    }
+
+    // FOR_UPDATE_SLOTS ids per SELECT, so the statement text (and its cached compiled form) never
+    // changes; unused slots get an id no row has. Ids that no longer exist are simply absent.
+    private Map<Long, RowForUpdate> readForUpdate(SupportSQLiteDatabase db, List<Long> itemIds) {
+        Map<Long, RowForUpdate> rows = new HashMap<>();
+        String[] args = new String[FOR_UPDATE_SLOTS];
+        for (int from = 0; from < itemIds.size(); from += FOR_UPDATE_SLOTS) {
+            Arrays.fill(args, NO_ITEM);
+            int to = Math.min(from + FOR_UPDATE_SLOTS, itemIds.size());
+            for (int i = from; i < to; i++) {
+                args[i - from] = String.valueOf(itemIds.get(i));
+            }
+            queryCount.incrementAndGet();
+            try (Cursor cursor = db.query(InventoryQueries.ITEMS_FOR_UPDATE.sql, args)) {
+                while (cursor.moveToNext()) {
+                    RowForUpdate row = new RowForUpdate(cursor);
+                    rows.put(row.id, row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    // ----------- Batches -----------
+
+    /**
+     * Runs several repository writes as one transaction. Live queries are
+     * notified once, and audit events recorded, after the commit. The row
+     * cache only takes the written rows after the commit too; until then
+     * they are evicted, so other threads read the last committed copy. If
+     * {@code work} throws, everything is rolled back and the rows it touched
+     * are evicted once more.
+     */
+    public <T> T runInTransaction(Callable<T> work) throws Exception {
+        synchronized (writeLock) {
+            if (deferredTables != null) {
+                return work.call(); // already inside a batch
+            }
+
+            SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+            deferredTables = new HashSet<>();
+            deferredAudit = new ArrayList<>();
+            deferredRows = new ArrayList<>();
+            deferredCache = new LinkedHashMap<>();
+            deferredDeletes = new ArrayList<>();
+            boolean committed = false;
+            db.beginTransaction();
+            try {
+                T result = work.call();
+                db.setTransactionSuccessful();
+                committed = true;
+                return result;
+            } finally {
+                db.endTransaction();
+                Set<String> changed = deferredTables;
+                List<AuditLog.Event> events = deferredAudit;
+                List<Long> rows = deferredRows;
+                Map<Long, InventoryItem> written = deferredCache;
+                List<Long> deleted = deferredDeletes;
+                deferredTables = null;
+                deferredAudit = null;
+                deferredRows = null;
+                deferredCache = null;
+                deferredDeletes = null;
+                ColumnarInventory store = columns;
+                if (committed) {
+                    for (Map.Entry<Long, InventoryItem> entry : written.entrySet()) {
+                        if (entry.getValue() != null) {
+                            cache.onWritten(entry.getValue());
+                        } else {
+                            cache.invalidate(entry.getKey());
+                        }
+                    }
+                    audit.recordAll(events);
+                    if (store != null) {
+                        store.markChanged(rows);
+                    }
+                    if (!deleted.isEmpty()) {
+                        itemsDeleted(deleted);
+                    }
+                } else {
+                    // Nothing uncommitted reached the cache; evicting the touched rows again is cheap insurance
+                    for (long itemId : written.keySet()) {
+                        cache.invalidate(itemId);
+                    }
+                    if (store != null) {
+                        store.markAllChanged();
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    invalidationTracker.notifyTablesChanged(changed.toArray(new String[0]));
+                }
+            }
+        }
+    }
+
+    // Caller holds writeLock. Inside a batch the row is evicted now and cached at the commit, so
+    // no reader is handed a row (or a version) that may still be rolled back.
+    private void cacheWritten(InventoryItem item) {
+        if (deferredCache != null) {
+            cache.invalidate(item.getId());
+            deferredCache.put(item.getId(), item);
+        } else {
+            cache.onWritten(item);
+        }
+    }
+
+    // Caller holds writeLock. Evicted again at the commit, in case a reader re-cached the old row meanwhile.
+    private void cacheInvalidated(long itemId) {
+        cache.invalidate(itemId);
+        if (deferredCache != null) {
+            deferredCache.put(itemId, null);
+        }
+    }
+
+    // Caller holds writeLock. Inside a batch the columnar store only hears of the rows at commit,
+    // so it never re-reads a row that may still be rolled back.
+    private void rowsChanged(Collection<Long> itemIds) {
+        ColumnarInventory store = columns;
+        if (store == null) {
+            return;
+        }
+        if (deferredRows != null) {
+            deferredRows.addAll(itemIds);
+        } else {
+            store.markChanged(itemIds);
+        }
+    }
+
+    // Caller holds writeLock
+    private void tablesChanged(String... tables) {
+        if (deferredTables != null) {
+            Collections.addAll(deferredTables, tables);
+        } else {
+            invalidationTracker.notifyTablesChanged(tables);
+        }
+    }
+
+    // Caller holds writeLock; a rolled-back delete keeps its rows, so nobody hears of it
+    private void itemsDeleted(List<Long> itemIds) {
+        if (deferredDeletes != null) {
+            deferredDeletes.addAll(itemIds);
+            return;
+        }
+        for (DeleteListener listener : deleteListeners) {
+            listener.onItemsDeleted(itemIds);
+        }
+    }
+
+    // Caller holds writeLock; rolled-back batches never reach the log
+    private void audited(List<AuditLog.Event> events) {
+        if (deferredAudit != null) {
+            deferredAudit.addAll(events);
+        } else {
+            audit.recordAll(events);
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.cs360projecttwo;
+
+import android.app.Application;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * InventoryViewModel
+ *
+ * Holds the grid's state across configuration changes: the loaded inventory
+ * snapshot, the current search text and sort order, and any quantity edit
+ * the user has in progress. When the fragment is recreated (rotation, theme
+ * change) it re-binds from here instead of querying the database again.
+ *
+ * The snapshot comes from a live query, so writes from anywhere in the app
+ * (imports, sync, background jobs) show up without a manual reload.
+ *
+ * Quantity edits are conditional on the row version the dialog was opened
+ * with. If someone else saved the row in the meantime the edit is not
+ * applied; {@link #getEditConflict()} reports it with the fresh row so the
+ * user can decide.
+ *
+ * Admins can select several rows and delete, adjust, or set a threshold or
+ * unit cost on all of them at once. Each batch is one repository call, so it
+ * runs as one transaction and produces one refresh.
+ *
+ * Category and tag chips narrow the grid further. Their counts and matching
+ * ids are live queries keyed on the facet selection alone, so search
+ * keystrokes filter the snapshot in memory without recounting anything.
+ *
+ * A search that matches no name as typed falls back to the
+ * {@link TrigramIndex}: the closest few names are shown instead, best
+ * first, so a typo still finds the item.
+ */
+public class InventoryViewModel extends AndroidViewModel {
+
+    private static final String TAG = "InventoryViewModel";
+    // Rows shown for a search that only matches fuzzily
+    static final int FUZZY_LIMIT = 20;
+
+    public enum SortOrder {
+        DEFAULT, NAME, QUANTITY, URGENCY
+    }
+
+    /** An update dialog the user has open, so it can be restored after recreation. */
+    public static final class PendingEdit {
+        public final long itemId;
+        public final int originalQuantity;
+        // Row version the dialog was opened from; the save only applies if it still matches
+        public final long version;
+        public String text;
+
+        PendingEdit(long itemId, int originalQuantity, long version, String text) {
+            this.itemId = itemId;
+            this.originalQuantity = originalQuantity;
+            this.version = version;
+            this.text = text;
+        }
+    }
+
+    /** A save that lost to a newer write; kept until the user resolves it. */
+    public static final class EditConflict {
+        public final long itemId;
+        public final int attemptedQuantity;
+        /** The row as it is now; null if it was deleted meanwhile. */
+        public final InventoryItem current;
+
+        EditConflict(long itemId, int attemptedQuantity, InventoryItem current) {
+            this.itemId = itemId;
+            this.attemptedQuantity = attemptedQuantity;
+            this.current = current;
+        }
+    }
+
+    private final InventoryRepository repository;
+    private final ThumbnailLoader thumbnails;
+    private final CatalogSnapshotStore catalogSnapshots;
+    private final InvalidationTracker.LiveQuery<List<InventoryItem>> allItems;
+    // Ordered by the indexed stockout column; only observed while URGENCY is selected
+    private final InvalidationTracker.LiveQuery<List<InventoryItem>> urgentItems;
+    private final MediatorLiveData<List<InventoryItem>> visibleItems = new MediatorLiveData<>();
+    private final InvalidationTracker.LiveQuery<List<FacetStore.Facet>> facets;
+    private final InvalidationTracker.LiveQuery<FacetStore.Matches> facetMatches;
+    // Read by the live queries on the tracker thread
+    private volatile FacetStore.Selection facetSelection = FacetStore.Selection.NONE;
+
+    // Only touched on the main thread
+    private List<InventoryItem> snapshot;
+    private List<InventoryItem> urgentSnapshot;
+    private FacetStore.Matches matches;
+    private String searchQuery = "";
+    // Fuzzy matches for fuzzyQuery in rank order; null while the lookup runs
+    private String fuzzyQuery = "";
+    private long[] fuzzyIds;
+    private SortOrder sortOrder = SortOrder.DEFAULT;
+    private PendingEdit pendingEdit;
+    private final MutableLiveData<EditConflict> editConflict = new MutableLiveData<>();
+    private final Set<Long> selectedIds = new LinkedHashSet<>();
+    private final MutableLiveData<Set<Long>> selection = new MutableLiveData<>(Collections.emptySet());
+    // Row whose photo is being picked; survives recreation while the picker is open
+    private long photoTargetId = -1;
+    private final MutableLiveData<Long> photoChanged = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> photoFailed = new MutableLiveData<>();
+
+    public InventoryViewModel(@NonNull Application application) {
+        super(application);
+        repository = InventoryRepository.getInstance(application);
+        thumbnails = ThumbnailLoader.get(application);
+        catalogSnapshots = CatalogSnapshotStore.get(application);
+        allItems = repository.observeAllItems();
+        urgentItems = repository.observeItemsByUrgency();
+        visibleItems.addSource(allItems, items -> {
+            snapshot = items;
+            publish();
+        });
+        facets = repository.observeFacets(() -> facetSelection);
+        facetMatches = repository.observeFacetMatches(() -> facetSelection);
+        visibleItems.addSource(facetMatches, result -> {
+            matches = result;
+            publish();
+        });
+    }
+
+    public LiveData<List<InventoryItem>> getVisibleItems() {
+        return visibleItems;
+    }
+
+    /** Last run's rows, decrypted from disk; see {@link CatalogSnapshotStore}. */
+    public LiveData<CatalogSnapshot> getCatalogPreview() {
+        return catalogSnapshots.getPreview();
+    }
+
+    // ----------- Loading -----------
+
+    /** Forces the live query to re-read, e.g. after the database file was replaced. */
+    public void refresh() {
+        allItems.invalidate();
+        urgentItems.invalidate();
+        facets.invalidate();
+        facetMatches.invalidate();
+    }
+
+    public boolean hasSnapshot() {
+        return snapshot != null;
+    }
+
+    // ----------- Search & sort -----------
+
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    public void setSearchQuery(String query) {
+        String normalized = query == null ? "" : query.trim();
+        if (!normalized.equals(searchQuery)) {
+            searchQuery = normalized;
+            // Fuzzy matches belong to the old text; a quantity change elsewhere doesn't look them up again
+            fuzzyQuery = "";
+            fuzzyIds = null;
+            publish();
+        }
+    }
+
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    public void setSortOrder(SortOrder order) {
+        if (order == sortOrder) {
+            return;
+        }
+        if (order == SortOrder.URGENCY) {
+            visibleItems.addSource(urgentItems, items -> {
+                urgentSnapshot = items;
+                publish();
+            });
+        } else if (sortOrder == SortOrder.URGENCY) {
+            visibleItems.removeSource(urgentItems);
+            urgentSnapshot = null;
+        }
+        sortOrder = order;
+        publish();
+    }
+
+    // ----------- Categories & tags -----------
+
+    public LiveData<List<FacetStore.Facet>> getFacets() {
+        return facets;
+    }
+
+    public FacetStore.Selection getFacetSelection() {
+        return facetSelection;
+    }
+
+    /** Selects {@code facet}, replacing any other of its type, or deselects it if it was selected. */
+    public void toggleFacet(FacetStore.Facet facet) {
+        FacetStore.Selection current = facetSelection;
+        if (facet.type == FacetStore.TYPE_CATEGORY) {
+            facetSelection = new FacetStore.Selection(
+                    current.categoryId == facet.id ? 0 : facet.id, current.tagId);
+        } else {
+            facetSelection = new FacetStore.Selection(
+                    current.categoryId, current.tagId == facet.id ? 0 : facet.id);
+        }
+        facets.invalidate();
+        facetMatches.invalidate();
+    }
+
+    /**
+     * Labels the selected rows: "#name" adds a tag, "-#name" removes one,
+     * anything else sets the category (empty clears it).
+     */
+    public void labelSelected(String label) {
+        List<Long> ids = takeSelection();
+        String text = label == null ? "" : label.trim();
+        AppExecutors.get().diskIO().execute(() -> {
+            if (text.startsWith("-#")) {
+                repository.removeTag(ids, text.substring(2).trim());
+            } else if (text.startsWith("#")) {
+                String tag = text.substring(1).trim();
+                if (!tag.isEmpty()) {
+                    repository.addTag(ids, tag);
+                }
+            } else {
+                repository.setCategory(ids, text);
+            }
+        });
+    }
+
+    private void publish() {
+        // Urgency order comes straight from the database; other orders sort the snapshot here
+        List<InventoryItem> source = sortOrder == SortOrder.URGENCY ? urgentSnapshot : snapshot;
+        if (source == null) {
+            return;
+        }
+        FacetStore.Selection selected = facetSelection;
+        if (!selected.isEmpty() && (matches == null || matches.selection != selected)) {
+            return; // ids for the new selection are still loading; keep showing the old list
+        }
+
+        List<InventoryItem> result = new ArrayList<>(source.size());
+        String needle = searchQuery.toLowerCase(Locale.getDefault());
+        for (InventoryItem item : source) {
+            if (!selected.isEmpty() && !matches.contains(item.getId())) {
+                continue;
+            }
+            if (needle.isEmpty() || item.getName().toLowerCase(Locale.getDefault()).contains(needle)) {
+                result.add(item);
+            }
+        }
+
+        if (result.isEmpty() && needle.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+            if (!needle.equals(fuzzyQuery)) {
+                lookUpFuzzy(needle); // publishes again when the matches arrive
+            } else if (fuzzyIds != null) {
+                visibleItems.setValue(fuzzyMatches(source, selected));
+            }
+            return;
+        }
+
+        if (sortOrder == SortOrder.NAME) {
+            Collections.sort(result, Comparator.comparing(InventoryItem::getName, String.CASE_INSENSITIVE_ORDER));
+        } else if (sortOrder == SortOrder.QUANTITY) {
+            Collections.sort(result, Comparator.comparingInt(InventoryItem::getQuantity));
+        }
+        visibleItems.setValue(result);
+    }
+
+    private void lookUpFuzzy(String needle) {
+        fuzzyQuery = needle;
+        fuzzyIds = null;
+        AppExecutors.get().diskIO().execute(() -> {
+            List<TrigramIndex.Match> found = repository.getTrigrams().search(needle, FUZZY_LIMIT);
+            long[] ids = new long[found.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = found.get(i).itemId;
+            }
+            AppExecutors.get().mainThread().execute(() -> {
+                if (needle.equals(fuzzyQuery)) {
+                    fuzzyIds = ids;
+                    publish();
+                }
+            });
+        });
+    }
+
+    // Items from source named by fuzzyIds, closest match first
+    private List<InventoryItem> fuzzyMatches(List<InventoryItem> source, FacetStore.Selection selected) {
+        InventoryItem[] ranked = new InventoryItem[fuzzyIds.length];
+        for (InventoryItem item : source) {
+            if (!selected.isEmpty() && !matches.contains(item.getId())) {
+                continue;
+            }
+            for (int i = 0; i < fuzzyIds.length; i++) {
+                if (fuzzyIds[i] == item.getId()) {
+                    ranked[i] = item;
+                    break;
+                }
+            }
+        }
+        List<InventoryItem> result = new ArrayList<>(ranked.length);
+        for (InventoryItem item : ranked) {
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    // ----------- Pending edit -----------
+
+    public PendingEdit getPendingEdit() {
+        return pendingEdit;
+    }
+
+    public void startEdit(InventoryItem item) {
+        pendingEdit = new PendingEdit(item.getId(), item.getQuantity(), item.getVersion(),
+                String.valueOf(item.getQuantity()));
+    }
+
+    public void updatePendingText(String text) {
+        if (pendingEdit != null) {
+            pendingEdit.text = text;
+        }
+    }
+
+    public void clearEdit() {
+        pendingEdit = null;
+    }
+
+    public LiveData<EditConflict> getEditConflict() {
+        return editConflict;
+    }
+
+    public void clearConflict() {
+        editConflict.setValue(null);
+    }
+
+    // ----------- Multi-select -----------
+
+    public LiveData<Set<Long>> getSelection() {
+        return selection;
+    }
+
+    public boolean isSelecting() {
+        return !selectedIds.isEmpty();
+    }
+
+    public void toggleSelection(long itemId) {
+        if (!selectedIds.remove(itemId)) {
+            selectedIds.add(itemId);
+        }
+        selection.setValue(Collections.unmodifiableSet(new LinkedHashSet<>(selectedIds)));
+    }
+
+    public void clearSelection() {
+        if (!selectedIds.isEmpty()) {
+            selectedIds.clear();
+            selection.setValue(Collections.emptySet());
+        }
+    }
+
+    public void deleteSelected() {
+        List<Long> ids = takeSelection();
+        // The repository drops their photos once the delete commits
+        AppExecutors.get().diskIO().execute(() -> repository.deleteItems(ids));
+    }
+
+    public void adjustSelected(int delta) {
+        List<Long> ids = takeSelection();
+        AppExecutors.get().diskIO().execute(() -> repository.adjustQuantities(ids, delta));
+    }
+
+    public void setThresholdForSelected(int threshold) {
+        List<Long> ids = takeSelection();
+        AppExecutors.get().diskIO().execute(() -> repository.setLowStockThreshold(ids, threshold));
+    }
+
+    public void setUnitCostForSelected(long unitCostMinor) {
+        List<Long> ids = takeSelection();
+        AppExecutors.get().diskIO().execute(() -> repository.setUnitCost(ids, unitCostMinor));
+    }
+
+    private List<Long> takeSelection() {
+        List<Long> ids = new ArrayList<>(selectedIds);
+        clearSelection();
+        return ids;
+    }
+
+    // ----------- Photos -----------
+
+    public ThumbnailLoader getThumbnails() {
+        return thumbnails;
+    }
+
+    public void startPhotoPick(long itemId) {
+        photoTargetId = itemId;
+    }
+
+    /** Item id whose photo just changed, for re-binding that row. */
+    public LiveData<Long> getPhotoChanged() {
+        return photoChanged;
+    }
+
+    /** True once each time a picked photo could not be stored. */
+    public LiveData<Boolean> getPhotoFailed() {
+        return photoFailed;
+    }
+
+    public void consumePhotoFailed() {
+        photoFailed.setValue(false);
+    }
+
+    /** Stores the photo the picker returned for the row passed to {@link #startPhotoPick}. */
+    public void finishPhotoPick(Uri uri) {
+        long itemId = photoTargetId;
+        photoTargetId = -1;
+        if (uri == null || itemId < 0) {
+            return; // picker dismissed
+        }
+        AppExecutors.get().diskIO().execute(() -> {
+            try (InputStream in = getApplication().getContentResolver().openInputStream(uri)) {
+                if (in == null) {
+                    throw new IOException("No content for " + uri);
+                }
+                thumbnails.setImage(itemId, in);
+                photoChanged.postValue(itemId);
+            } catch (IOException | SecurityException e) {
+                Log.e(TAG, "Could not store photo for item " + itemId, e);
+                photoFailed.postValue(true);
+            }
+        });
+    }
+
+    // ----------- Mutations -----------
+
+    public void addItem(String name, int quantity) {
+        // The live query picks the change up through the invalidation tracker
+        AppExecutors.get().diskIO().execute(() -> repository.insertItem(name, quantity));
+    }
+
+    /** Saves {@code newQuantity} unless the row changed since {@code expectedVersion}. */
+    public void updateQuantity(long itemId, long expectedVersion, int newQuantity) {
+        // The live query picks a successful change up through the invalidation tracker
+        AppExecutors.get().diskIO().execute(() -> {
+            InventoryRepository.UpdateResult result =
+                    repository.updateQuantityIfUnchanged(itemId, expectedVersion, newQuantity);
+            if (result.status != InventoryRepository.UpdateResult.Status.UPDATED) {
+                editConflict.postValue(new EditConflict(itemId, newQuantity, result.current));
+            }
+        });
+    }
+
+    public void deleteItem(long itemId) {
+        // The live query picks the change up through the invalidation tracker
+        AppExecutors.get().diskIO().execute(() -> repository.deleteItem(itemId));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+/**
+ * LoginFragment
+ *
+ * Handles user authentication and registration for the Inventory app.
+ * Uses SHA-256 password hashing and stores user role (admin/user).
+ * Successful and failed sign-ins are written to the {@link AuditLog}.
+ * Hosted by {@link MainActivity}, which clears login state on every
+ * fresh app start unless the user ticked "Remember this device", in which
+ * case a {@link SessionStore} token signs them back in.
+ */
+public class LoginFragment extends Fragment {
+
+    private EditText usernameField;
+    private EditText passwordField;
+    private CheckBox rememberDevice;
+    private DatabaseHelper dbHelper;
+    private AuditLog auditLog;
+    private SessionStore sessions;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_login, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        InventoryRepository repository = InventoryRepository.getInstance(requireContext());
+        dbHelper = repository.getDatabaseHelper();
+        auditLog = repository.getAuditLog();
+        sessions = repository.getSessions();
+
+        initViews(view);
+        initClickListeners(view);
+    }
+
+    // ----------------- UI setup -----------------
+
+    private void initViews(View view) {
+        usernameField = view.findViewById(R.id.usernameField);
+        passwordField = view.findViewById(R.id.passwordField);
+        rememberDevice = view.findViewById(R.id.rememberDevice);
+    }
+
+    private void initClickListeners(View view) {
+        view.findViewById(R.id.loginButton).setOnClickListener(v -> loginUser());
+        view.findViewById(R.id.registerButton).setOnClickListener(v -> registerUser());
+    }
+
+    // ----------------- Auth helpers -----------------
+
+    private boolean validateCredentialsNotEmpty(String username, String password) {
+        if (TextUtils.isEmpty(username) || TextUtils.isEmpty(password)) {
+            Toast.makeText(requireContext(), "Please enter both username and password.", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+        return true;
+    }
+
+    // Additional validation for registration (length, no spaces, etc.)
+    private boolean validateRegistrationInput(String username, String password) {
+        if (!validateCredentialsNotEmpty(username, password)) {
+            return false;
+        }
+
+        if (username.contains(" ")) {
+            Toast.makeText(requireContext(), "Username cannot contain spaces.", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+
+        if (username.length() < 3) {
+            Toast.makeText(requireContext(), "Username must be at least 3 characters.", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+
+        if (password.length() < 6) {
+            Toast.makeText(requireContext(), "Password must be at least 6 characters.", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+
+        return true;
+    }
+
+    private void setLoggedIn(String username, String role) {
+        requireContext().getSharedPreferences("auth", Context.MODE_PRIVATE)
+                .edit()
+                .putBoolean("isLoggedIn", true)
+                .putString("userRole", role)
+                .putString(MainActivity.PREF_USERNAME, username)
+                .apply();
+    }
+
+    // ----------------- Login & Register logic -----------------
+
+    private void loginUser() {
+        final String username = usernameField.getText().toString().trim();
+        final String password = passwordField.getText().toString().trim();
+
+        if (!validateCredentialsNotEmpty(username, password)) {
+            return;
+        }
+
+        boolean valid = dbHelper.validateUser(username, password);
+        if (valid) {
+            String role = dbHelper.getUserRole(username);
+            setLoggedIn(username, role);
+            auditLog.setSessionActor(username);
+            auditLog.recordAuth(AuditLog.LOGIN, username);
+            if (rememberDevice.isChecked()) {
+                Context app = requireContext().getApplicationContext();
+                AppExecutors.get().diskIO().execute(() -> sessions.remember(app, username));
+            }
+
+            Toast.makeText(requireContext(),
+                    "Login successful (" + role + ")", Toast.LENGTH_SHORT).show();
+
+            ((MainActivity) requireActivity()).onLoggedIn();
+        } else {
+            auditLog.recordAuth(AuditLog.LOGIN_FAILED, username);
+            Toast.makeText(requireContext(), "Invalid username or password.", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void registerUser() {
+        final String username = usernameField.getText().toString().trim();
+        final String password = passwordField.getText().toString().trim();
+
+        if (!validateRegistrationInput(username, password)) {
+            return;
+        }
+
+        // All new registrations are standard users
+        boolean success = dbHelper.registerUser(username, password, "user");
+
+        if (!success) {
+            Toast.makeText(requireContext(),
+                    "User already exists. Please choose a different username.",
+                    Toast.LENGTH_SHORT).show();
+        } else {
+            Toast.makeText(requireContext(),
+                    "User registered successfully. You can now log in.",
+                    Toast.LENGTH_SHORT).show();
+        }
+    }
+}
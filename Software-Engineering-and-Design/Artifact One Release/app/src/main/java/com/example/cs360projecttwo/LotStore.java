@@ -0,0 +1,141 @@
+package com.example.cs360projecttwo;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LotStore
+ *
+ * Dated lots of stock per item. An item's item_quantity stays the total on
+ * hand; lots say how much of it expires when, and whatever the lots don't
+ * cover is undated stock. Any decrease of an item's quantity is taken from
+ * its lots first-expiry-first-out (FEFO) by a single UPDATE, inside the
+ * same transaction as the quantity write, and lots that run out are
+ * deleted.
+ *
+ * Both picking and the "expiring soon" list read one index range (an
+ * item's lots, or every lot up to a date), so their cost follows the
+ * number of lots returned, not the number stored.
+ */
+public class LotStore {
+
+    /** Expiry of lots that don't expire; sorts after every real date. */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    /** One lot on hand. */
+    public static final class Lot {
+        public final long lotId;
+        public final long itemId;
+        /** Item name, filled in by {@link #getExpiring}; null otherwise. */
+        public final String itemName;
+        public final String lotCode;
+        public final int quantity;
+        public final long expiresAt;
+
+        Lot(long lotId, long itemId, String itemName, String lotCode, int quantity, long expiresAt) {
+            this.lotId = lotId;
+            this.itemId = itemId;
+            this.itemName = itemName;
+            this.lotCode = lotCode;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    public LotStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // ----------- Writes (caller holds the repository's write lock and transaction) -----------
+
+    long insert(SupportSQLiteDatabase db, long itemId, String lotCode, int quantity, long expiresAt) {
+        try (SqlStatement insert = SqlStatement.compile(db, InventoryQueries.LOT_INSERT.sql)) {
+            insert.bindLong(1, itemId);
+            if (lotCode != null) {
+                insert.bindString(2, lotCode);
+            } else {
+                insert.bindNull(2);
+            }
+            insert.bindLong(3, quantity);
+            insert.bindLong(4, expiresAt);
+            return insert.executeInsert();
+        }
+    }
+
+    /**
+     * Takes {@code amount} from the item's lots, earliest expiry first, and
+     * deletes the lots that were emptied. Anything beyond the lots' total
+     * comes out of undated stock, which isn't tracked here.
+     */
+    void consume(SupportSQLiteDatabase db, long itemId, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        try (SqlStatement consume = SqlStatement.compile(db, InventoryQueries.LOTS_CONSUME.sql)) {
+            consume.bindLong(1, amount);
+            consume.bindLong(2, itemId);
+            if (consume.executeUpdateDelete() == 0) {
+                return; // no lots; the common case for undated items
+            }
+        }
+        try (SqlStatement delete = SqlStatement.compile(db, InventoryQueries.LOTS_DELETE_EMPTY.sql)) {
+            delete.bindLong(1, itemId);
+            delete.executeUpdateDelete();
+        }
+    }
+
+    // ----------- Reads -----------
+
+    /** The item's lots in the order they will be consumed. */
+    public List<Lot> getLots(long itemId) {
+        List<Lot> lots = new ArrayList<>();
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.LOTS_FOR_ITEM.sql,
+                new String[]{String.valueOf(itemId)})) {
+            while (cursor.moveToNext()) {
+                lots.add(new Lot(cursor.getLong(0), itemId, null, cursor.getString(1),
+                        cursor.getInt(2), cursor.getLong(3)));
+            }
+        }
+        return lots;
+    }
+
+    /** How much of the item's stock is in dated lots. */
+    public int getLotTotal(long itemId) {
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.LOTS_TOTAL.sql,
+                new String[]{String.valueOf(itemId)})) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    /**
+     * Up to {@code limit} lots expiring before {@code until}, soonest first,
+     * across all items. Lots already past their date are included, as they
+     * are the most urgent.
+     */
+    public List<Lot> getExpiring(long until, int limit) {
+        List<Lot> lots = new ArrayList<>();
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.LOTS_EXPIRING.sql,
+                new String[]{String.valueOf(until), String.valueOf(limit)})) {
+            while (cursor.moveToNext()) {
+                lots.add(new Lot(cursor.getLong(0), cursor.getLong(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getInt(4), cursor.getLong(5)));
+            }
+        }
+        return lots;
+    }
+
+    /** Lots expiring within {@code days} days of {@code now} (or already expired). */
+    public List<Lot> getExpiringWithin(long now, int days, int limit) {
+        return getExpiring(now + days * QuantityHistoryStore.DAY_MS, limit);
+    }
+}
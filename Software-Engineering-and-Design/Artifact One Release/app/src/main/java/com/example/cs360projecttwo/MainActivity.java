@@ -0,0 +1,199 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import androidx.annotation.IdRes;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+
+import com.google.android.material.bottomnavigation.BottomNavigationView;
+
+/**
+ * MainActivity
+ *
+ * Single host for the Login, Inventory Grid and SMS screens.
+ * Each bottom-nav tab is a fragment that is created once and then only
+ * shown/hidden, so switching tabs never grows a back stack, never reopens
+ * the database and keeps the grid's loaded rows and scroll position.
+ * NOTE: Login state is cleared on every fresh app start, so the user
+ * must log in again each time they open the app, unless they chose to
+ * remember this device: then a {@link SessionStore} token is checked in
+ * the background and, if still valid, signs them in with their current role.
+ */
+public class MainActivity extends AppCompatActivity {
+
+    private static final String TAG_LOGIN = "login";
+    private static final String TAG_GRID = "grid";
+    private static final String TAG_SMS = "sms";
+    // Key in the "auth" prefs next to isLoggedIn/userRole: who audit events are attributed to
+    static final String PREF_USERNAME = "username";
+
+    private BottomNavigationView bottomNav;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // 🔒 Always start logged out when the app is (re)opened, but not on rotation
+        if (savedInstanceState == null) {
+            clearAuthState();
+        } else if (isLoggedIn()) {
+            // Still signed in, possibly in a new process whose audit log has no session user yet
+            restoreSessionActor();
+        }
+
+        setContentView(R.layout.activity_main);
+
+        bottomNav = findViewById(R.id.bottom_nav);
+        bottomNav.setOnItemSelectedListener(item -> showDestination(item.getItemId()));
+
+        updateNavForAuth();
+        if (savedInstanceState == null) {
+            navigateTo(R.id.nav_login);
+            restoreRememberedSession();
+        }
+    }
+
+    // ----------------- Auth state -----------------
+
+    private void clearAuthState() {
+        InventoryRepository.getInstance(this).getAuditLog().setSessionActor(null);
+        getSharedPreferences("auth", MODE_PRIVATE)
+                .edit()
+                .putBoolean("isLoggedIn", false)
+                .putString("userRole", "user")
+                .remove(PREF_USERNAME)
+                .apply();
+    }
+
+    private void restoreSessionActor() {
+        String username = getSharedPreferences("auth", MODE_PRIVATE).getString(PREF_USERNAME, null);
+        InventoryRepository.getInstance(this).getAuditLog().setSessionActor(username);
+    }
+
+    // One indexed lookup on the disk thread; the login screen stays up until it answers
+    private void restoreRememberedSession() {
+        Context app = getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(app);
+        AppExecutors.get().diskIO().execute(() -> {
+            SessionStore.Session session = repository.getSessions().restore(app);
+            if (session == null) {
+                return;
+            }
+            AppExecutors.get().mainThread().execute(() -> {
+                if (isDestroyed() || isLoggedIn()) {
+                    return;
+                }
+                AuditLog auditLog = repository.getAuditLog();
+                auditLog.setSessionActor(session.username);
+                auditLog.recordAuth(AuditLog.LOGIN, session.username);
+                getSharedPreferences("auth", MODE_PRIVATE)
+                        .edit()
+                        .putBoolean("isLoggedIn", true)
+                        .putString("userRole", session.role)
+                        .putString(PREF_USERNAME, session.username)
+                        .apply();
+                onLoggedIn();
+            });
+        });
+    }
+
+    boolean isLoggedIn() {
+        return getSharedPreferences("auth", MODE_PRIVATE).getBoolean("isLoggedIn", false);
+    }
+
+    /** Called by LoginFragment once credentials are accepted. */
+    void onLoggedIn() {
+        updateNavForAuth();
+        navigateTo(R.id.nav_grid);
+        // Don't keep typed credentials around once we're in
+        removeFragments(TAG_LOGIN);
+    }
+
+    /** Called by DataGridFragment on logout; drops screens tied to the old user/role. */
+    void onLoggedOut() {
+        removeFragments(TAG_GRID, TAG_SMS);
+        updateNavForAuth();
+        navigateTo(R.id.nav_login);
+    }
+
+    private void removeFragments(String... tags) {
+        FragmentManager fm = getSupportFragmentManager();
+        FragmentTransaction tx = fm.beginTransaction().setReorderingAllowed(true);
+        for (String tag : tags) {
+            Fragment fragment = fm.findFragmentByTag(tag);
+            if (fragment != null) {
+                tx.remove(fragment);
+            }
+        }
+        tx.commitNow();
+    }
+
+    private void updateNavForAuth() {
+        boolean loggedIn = isLoggedIn();
+        // Hide Login tab when user is already logged in, and the app tabs when not
+        bottomNav.getMenu().findItem(R.id.nav_login).setVisible(!loggedIn);
+        bottomNav.getMenu().findItem(R.id.nav_grid).setVisible(loggedIn);
+        bottomNav.getMenu().findItem(R.id.nav_sms).setVisible(loggedIn);
+    }
+
+    // ----------------- Navigation -----------------
+
+    /** Switches tab programmatically (setSelectedItemId skips the listener for the current item). */
+    void navigateTo(@IdRes int navId) {
+        if (showDestination(navId)) {
+            bottomNav.getMenu().findItem(navId).setChecked(true);
+        }
+    }
+
+    private boolean showDestination(@IdRes int navId) {
+        String tag;
+        if (navId == R.id.nav_login) {
+            tag = TAG_LOGIN;
+        } else if (navId == R.id.nav_grid) {
+            tag = TAG_GRID;
+        } else if (navId == R.id.nav_sms) {
+            tag = TAG_SMS;
+        } else {
+            return false;
+        }
+
+        // Make sure the user is logged in before showing app screens
+        if (!TAG_LOGIN.equals(tag) && !isLoggedIn()) {
+            tag = TAG_LOGIN;
+        }
+
+        FragmentManager fm = getSupportFragmentManager();
+        FragmentTransaction tx = fm.beginTransaction().setReorderingAllowed(true);
+
+        for (Fragment fragment : fm.getFragments()) {
+            if (!tag.equals(fragment.getTag()) && !fragment.isHidden()) {
+                tx.hide(fragment);
+            }
+        }
+
+        Fragment target = fm.findFragmentByTag(tag);
+        if (target == null) {
+            tx.add(R.id.fragment_container, createFragment(tag), tag);
+        } else if (target.isHidden()) {
+            tx.show(target);
+        }
+
+        tx.commitNow();
+        return true;
+    }
+
+    private static Fragment createFragment(String tag) {
+        switch (tag) {
+            case TAG_GRID:
+                return new DataGridFragment();
+            case TAG_SMS:
+                return new SMSFragment();
+            default:
+                return new LoginFragment();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.cs360projecttwo;
+
+import android.content.ComponentCallbacks2;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * MemoryTrimRegistry
+ *
+ * One place where caches, view pools and connection holders give memory
+ * back when the system asks. InventoryApplication forwards onTrimMemory
+ * and onLowMemory here; each component registers what it can drop and at
+ * which tier:
+ *
+ *  - {@link #TIER_UI_HIDDEN}: the app left the screen. Memory that only
+ *    the visible UI uses: recycled row views, decoded thumbnails.
+ *  - {@link #TIER_BACKGROUND}: the app is in the background and the
+ *    system is short of memory. Data that can be read again: the row
+ *    cache, the columnar copy, SQLite's page cache.
+ *
+ * A trim runs its own tier and every tier below it. Nothing is reloaded
+ * afterwards; each component fills itself again on its next use (a cache
+ * miss, a bound row, a columnar query), so coming back to the foreground
+ * only pays for what the first screen actually shows.
+ *
+ * Trims run on the thread that delivered the callback (the UI thread) and
+ * must be quick; a component holding a lock that slow work can take hands
+ * the freeing to its own thread and reports an estimate. The last
+ * {@link #HISTORY_SIZE} trims are kept for diagnostics.
+ */
+public final class MemoryTrimRegistry {
+
+    private static final String TAG = "MemoryTrimRegistry";
+
+    public static final int TIER_UI_HIDDEN = 1;
+    public static final int TIER_BACKGROUND = 2;
+    static final int HISTORY_SIZE = 64;
+
+    /** Something that can let go of memory and rebuild it on demand. */
+    public interface Trimmable {
+        /** Frees what this component holds; returns the bytes freed (an estimate, or 0 if unknown). */
+        long trim(int tier);
+    }
+
+    /** What one component gave back in one trim. */
+    public static final class TrimRecord {
+        public final String name;
+        public final int tier;
+        public final long bytes;
+        public final long uptimeMillis;
+
+        TrimRecord(String name, int tier, long bytes, long uptimeMillis) {
+            this.name = name;
+            this.tier = tier;
+            this.bytes = bytes;
+            this.uptimeMillis = uptimeMillis;
+        }
+    }
+
+    private static final class Entry {
+        final String name;
+        final int tier;
+        final Trimmable trimmable;
+
+        Entry(String name, int tier, Trimmable trimmable) {
+            this.name = name;
+            this.tier = tier;
+            this.trimmable = trimmable;
+        }
+    }
+
+    private static volatile MemoryTrimRegistry instance;
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+    // Guarded by itself; oldest first
+    private final ArrayDeque<TrimRecord> history = new ArrayDeque<>();
+
+    public static MemoryTrimRegistry get() {
+        if (instance == null) {
+            synchronized (MemoryTrimRegistry.class) {
+                if (instance == null) {
+                    instance = new MemoryTrimRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Test hook: forgets every registration and record. */
+    static void resetForTesting() {
+        synchronized (MemoryTrimRegistry.class) {
+            instance = null;
+        }
+    }
+
+    MemoryTrimRegistry() {
+    }
+
+    // ----------- Registration -----------
+
+    /** Trims {@code trimmable} whenever a trim reaches {@code tier}. */
+    public void register(String name, int tier, Trimmable trimmable) {
+        entries.add(new Entry(name, tier, trimmable));
+    }
+
+    /** Stops trimming {@code trimmable}; call when its owner goes away (e.g. a fragment's view). */
+    public void unregister(Trimmable trimmable) {
+        entries.removeIf(entry -> entry.trimmable == trimmable);
+    }
+
+    // ----------- Trimming -----------
+
+    /** Maps a ComponentCallbacks2 level to a tier; 0 means nothing to shed. */
+    static int tierFor(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            return TIER_BACKGROUND;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            return TIER_UI_HIDDEN;
+        }
+        // RUNNING_* levels: still on screen, and not delivered at all since API 34
+        return 0;
+    }
+
+    public void onTrimMemory(int level) {
+        trim(tierFor(level));
+    }
+
+    public void onLowMemory() {
+        trim(TIER_BACKGROUND);
+    }
+
+    /** Trims every component registered at {@code tier} or below; returns the bytes freed. */
+    long trim(int tier) {
+        if (tier <= 0) {
+            return 0;
+        }
+        long total = 0;
+        long now = SystemClock.uptimeMillis();
+        for (Entry entry : entries) {
+            if (entry.tier > tier) {
+                continue;
+            }
+            long bytes;
+            try {
+                bytes = entry.trimmable.trim(tier);
+            } catch (RuntimeException e) {
+                // One component failing must not keep the rest from shedding
+                Log.e(TAG, "Trim failed for " + entry.name, e);
+                continue;
+            }
+            total += bytes;
+            record(new TrimRecord(entry.name, tier, bytes, now));
+        }
+        Log.i(TAG, "Trim to tier " + tier + " freed about " + total / 1024 + " KB");
+        return total;
+    }
+
+    private void record(TrimRecord trim) {
+        synchronized (history) {
+            if (history.size() == HISTORY_SIZE) {
+                history.removeFirst();
+            }
+            history.addLast(trim);
+        }
+    }
+
+    /** Recent trims, oldest first. */
+    public List<TrimRecord> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+}
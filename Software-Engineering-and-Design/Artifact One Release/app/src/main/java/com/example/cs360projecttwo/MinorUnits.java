@@ -0,0 +1,76 @@
+package com.example.cs360projecttwo;
+
+/**
+ * MinorUnits
+ *
+ * Money as a long count of minor currency units (cents), so sums are exact
+ * and need no BigDecimal. Parsing and formatting use a fixed two decimal
+ * places and '.' as the separator, the same in every locale, since the
+ * values also end up in CSV files.
+ */
+public final class MinorUnits {
+
+    public static final int DIGITS = 2;
+    public static final long PER_MAJOR = 100;
+
+    private MinorUnits() {
+    }
+
+    /** "12", "12.3" or "12.34" (optionally signed) to 1200, 1230, 1234; throws NumberFormatException otherwise. */
+    public static long parse(String text) {
+        String s = text.trim();
+        boolean negative = s.startsWith("-");
+        if (negative || s.startsWith("+")) {
+            s = s.substring(1);
+        }
+        int dot = s.indexOf('.');
+        String whole = dot < 0 ? s : s.substring(0, dot);
+        String fraction = dot < 0 ? "" : s.substring(dot + 1);
+        if ((whole.isEmpty() && fraction.isEmpty()) || fraction.length() > DIGITS
+                || !isDigits(whole) || !isDigits(fraction)) {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+
+        long minor;
+        try {
+            minor = Math.multiplyExact(whole.isEmpty() ? 0 : Long.parseLong(whole), PER_MAJOR);
+            long cents = fraction.isEmpty() ? 0 : Long.parseLong(fraction);
+            minor = Math.addExact(minor, fraction.length() == 1 ? cents * 10 : cents);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount too large: " + text);
+        }
+        return negative ? -minor : minor;
+    }
+
+    /** 1234 to "12.34", -5 to "-0.05". */
+    public static String format(long minor) {
+        StringBuilder sb = new StringBuilder(24);
+        append(sb, minor);
+        return sb.toString();
+    }
+
+    /** Appends {@link #format(long)} of {@code minor} without creating a String. */
+    public static void append(StringBuilder sb, long minor) {
+        if (minor < 0) {
+            sb.append('-');
+        }
+        // Divide before abs(): Long.MIN_VALUE itself has no positive counterpart
+        long major = Math.abs(minor / PER_MAJOR);
+        long cents = Math.abs(minor % PER_MAJOR);
+        sb.append(major).append('.');
+        if (cents < 10) {
+            sb.append('0');
+        }
+        sb.append(cents);
+    }
+
+    private static boolean isDigits(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.cs360projecttwo;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * QuantityHistoryStore
+ *
+ * Per-item quantity history for trend views.
+ *
+ * Every quantity change writes one raw sample and folds the value into the
+ * item's current hourly bucket (min, max, last). A background rollup later
+ * folds hourly buckets older than the hourly retention into daily buckets and
+ * prunes anything past its retention. A trend query therefore reads at most
+ * (hourly retention in hours + days requested) rows per item, however often
+ * that item changes.
+ */
+public class QuantityHistoryStore {
+
+    // Compile-time constants: InventoryQueries builds SQL from them
+    public static final long HOUR_MS = 3_600_000L;
+    public static final long DAY_MS = 24 * HOUR_MS;
+
+    /** How long each resolution is kept. */
+    public static final class Retention {
+        final long rawMs;
+        final long hourlyMs;
+        final long dailyMs;
+
+        public Retention(long rawMs, long hourlyMs, long dailyMs) {
+            this.rawMs = rawMs;
+            this.hourlyMs = hourlyMs;
+            this.dailyMs = dailyMs;
+        }
+
+        /** 2 days of raw samples, 7 days of hourly buckets, ~13 months of daily buckets. */
+        public static Retention defaults() {
+            return new Retention(2 * DAY_MS, 7 * DAY_MS, 400 * DAY_MS);
+        }
+    }
+
+    /** One bucket of a trend series. */
+    public static final class TrendPoint {
+        public final long bucketStart;
+        public final long resolutionMs;
+        public final int min;
+        public final int max;
+        public final int last;
+
+        TrendPoint(long bucketStart, long resolutionMs, int min, int max, int last) {
+            this.bucketStart = bucketStart;
+            this.resolutionMs = resolutionMs;
+            this.min = min;
+            this.max = max;
+            this.last = last;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final Retention retention;
+
+    public QuantityHistoryStore(DatabaseHelper dbHelper, Retention retention) {
+        this.dbHelper = dbHelper;
+        this.retention = retention;
+    }
+
+    // ----------- Write path -----------
+
+    /**
+     * Records a quantity change. Call inside the transaction that made the change:
+     * it costs one insert plus one primary-key upsert.
+     */
+    public void recordSample(SupportSQLiteDatabase db, long itemId, int quantity, long now) {
+        try (Recorder recorder = recorder(db)) {
+            recorder.record(itemId, quantity, now);
+        }
+    }
+
+    /** Compiles the sample writes once for a batch; close it before the transaction ends. */
+    public Recorder recorder(SupportSQLiteDatabase db) {
+        return new Recorder(db);
+    }
+
+    /** The two statements behind {@link #recordSample}, reused for every row of a batch. */
+    public static final class Recorder implements AutoCloseable {
+        private final SqlStatement sample;
+        private final SqlStatement hourly;
+
+        Recorder(SupportSQLiteDatabase db) {
+            sample = SqlStatement.compile(db, InventoryQueries.SAMPLE_INSERT.sql);
+            hourly = SqlStatement.compile(db, InventoryQueries.HOURLY_UPSERT.sql);
+        }
+
+        public void record(long itemId, int quantity, long now) {
+            sample.bindLong(1, itemId);
+            sample.bindLong(2, now);
+            sample.bindLong(3, quantity);
+            sample.executeInsert();
+            hourly.bindLong(1, itemId);
+            hourly.bindLong(2, floor(now, HOUR_MS));
+            hourly.bindLong(3, quantity);
+            hourly.bindLong(4, quantity);
+            hourly.bindLong(5, quantity);
+            hourly.bindLong(6, now);
+            hourly.executeInsert();
+        }
+
+        @Override
+        public void close() {
+            sample.close();
+            hourly.close();
+        }
+    }
+
+    /** Drops all history for deleted items. Call inside the delete's transaction. */
+    public void deleteHistory(SupportSQLiteDatabase db, Collection<Long> itemIds) {
+        try (SqlStatement samples = SqlStatement.compile(db, InventoryQueries.SAMPLES_DELETE_ITEM.sql);
+             SqlStatement rollups = SqlStatement.compile(db, InventoryQueries.ROLLUPS_DELETE_ITEM.sql)) {
+            for (long itemId : itemIds) {
+                samples.bindLong(1, itemId);
+                samples.executeUpdateDelete();
+                rollups.bindLong(1, itemId);
+                rollups.executeUpdateDelete();
+            }
+        }
+    }
+
+    // ----------- Background rollup -----------
+
+    /**
+     * Folds old hourly buckets into daily ones and prunes expired data.
+     * Each step is its own short transaction so writers are never held up for long.
+     */
+    public void rollup(long now) {
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        long hourlyCutoff = floor(now - retention.hourlyMs, DAY_MS);
+
+        db.beginTransaction();
+        try {
+            db.execSQL(InventoryQueries.HOURLY_TO_DAILY.sql, new Object[]{hourlyCutoff});
+            db.execSQL(InventoryQueries.ROLLUPS_PRUNE.sql, new Object[]{HOUR_MS, hourlyCutoff});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        db.execSQL(InventoryQueries.SAMPLES_PRUNE.sql, new Object[]{now - retention.rawMs});
+        db.execSQL(InventoryQueries.ROLLUPS_PRUNE.sql,
+                new Object[]{DAY_MS, floor(now - retention.dailyMs, DAY_MS)});
+    }
+
+    // ----------- Trend query -----------
+
+    /**
+     * Trend for one item from {@code fromMs} onwards, oldest first. Daily buckets
+     * cover the older range and hourly buckets the recent one.
+     */
+    public List<TrendPoint> getTrend(long itemId, long fromMs) {
+        List<TrendPoint> points = new ArrayList<>();
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.TREND.sql,
+                new String[]{String.valueOf(itemId), String.valueOf(floor(fromMs, DAY_MS))})) {
+            while (cursor.moveToNext()) {
+                points.add(new TrendPoint(cursor.getLong(0), cursor.getLong(1),
+                        cursor.getInt(2), cursor.getInt(3), cursor.getInt(4)));
+            }
+        }
+        return points;
+    }
+
+    /** Trend over the last {@code days} days. */
+    public List<TrendPoint> getTrendForDays(long itemId, int days, long now) {
+        return getTrend(itemId, now - days * DAY_MS);
+    }
+
+    private static long floor(long time, long width) {
+        return (time / width) * width;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.cs360projecttwo;
+
+import android.Manifest;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.telephony.SmsManager;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.Fragment;
+
+public class SMSFragment extends Fragment {
+
+    private TextView permissionStatus;
+    private Button sendTestSmsButton;
+
+    private final ActivityResultLauncher<String> smsPermissionLauncher =
+            registerForActivityResult(new ActivityResultContracts.RequestPermission(), this::onSmsPermissionResult);
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_sms, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        permissionStatus = view.findViewById(R.id.permissionStatus);
+        Button requestSmsButton = view.findViewById(R.id.requestSmsButton);
+        sendTestSmsButton = view.findViewById(R.id.sendTestSmsButton);
+
+        requestSmsButton.setOnClickListener(v -> checkSmsPermission());
+        sendTestSmsButton.setOnClickListener(v -> sendTestSMS());
+        sendTestSmsButton.setEnabled(false);
+    }
+
+    private void checkSmsPermission() {
+        if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.SEND_SMS)
+                != PackageManager.PERMISSION_GRANTED) {
+            smsPermissionLauncher.launch(Manifest.permission.SEND_SMS);
+        } else {
+            permissionStatus.setText(getString(R.string.sms_permission_granted));
+            sendTestSmsButton.setEnabled(true);
+        }
+    }
+
+    private void sendTestSMS() {
+        try {
+            SmsManager smsManager = SmsManager.getDefault();
+            String testNumber = "5554"; // Emulator number; replace for real device
+
+            smsManager.sendTextMessage(testNumber, null,
+                    "Test alert: Inventory low!", null, null);
+
+            Toast.makeText(requireContext(), "Test SMS sent successfully", Toast.LENGTH_SHORT).show();
+        } catch (Exception e) {
+            Toast.makeText(requireContext(), "Failed to send SMS: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private void onSmsPermissionResult(boolean granted) {
+        permissionStatus.setText(granted ?
+                getString(R.string.sms_permission_granted) :
+                getString(R.string.sms_permission_denied));
+
+        sendTestSmsButton.setEnabled(granted);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * SessionStore
+ *
+ * Opt-in "remember this device" sign-in. A successful login can issue a
+ * random 256-bit token: the device keeps the token in its auth prefs and
+ * the sessions table keeps only its SHA-256 hash, with an expiry. On the
+ * next start the token is checked with one primary-key search (joined to
+ * users for the current role), so no password is typed or hashed.
+ *
+ * A plain hash is enough here: the token is random, not a user-chosen
+ * secret, so there is nothing to brute-force. Logging out deletes the row
+ * and the local token; expired rows are pruned whenever a token is issued.
+ *
+ * All methods touch disk; call them off the UI thread.
+ */
+public class SessionStore {
+
+    static final long SESSION_TTL_MS = 30 * QuantityHistoryStore.DAY_MS;
+    // Key in the "auth" prefs next to isLoggedIn/userRole
+    static final String PREF_SESSION_TOKEN = "sessionToken";
+    private static final int TOKEN_BYTES = 32;
+
+    /** A remembered sign-in that is still valid. */
+    public static final class Session {
+        public final String username;
+        /** The user's role as stored now, not as it was when the token was issued. */
+        public final String role;
+        public final long expiresAt;
+
+        Session(String username, String role, long expiresAt) {
+            this.username = username;
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final SecureRandom random = new SecureRandom();
+
+    public SessionStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // ----------- Tokens -----------
+
+    /** Issues a token for {@code username}, valid for {@link #SESSION_TTL_MS}, and returns it. */
+    public String create(String username, long now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try (SqlStatement prune = SqlStatement.compile(db, InventoryQueries.SESSIONS_PRUNE.sql);
+             SqlStatement insert = SqlStatement.compile(db, InventoryQueries.SESSION_INSERT.sql)) {
+            prune.bindLong(1, now);
+            prune.executeUpdateDelete();
+            insert.bindString(1, hashToken(token));
+            insert.bindString(2, username);
+            insert.bindLong(3, now);
+            insert.bindLong(4, now + SESSION_TTL_MS);
+            insert.executeInsert();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return token;
+    }
+
+    /** The session {@code token} belongs to, or null if it is unknown, expired or its user is gone. */
+    public Session validate(String token, long now) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(InventoryQueries.SESSION_LOOKUP.sql,
+                new String[]{hashToken(token), String.valueOf(now)})) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new Session(cursor.getString(0), cursor.getString(1), cursor.getLong(2));
+        }
+    }
+
+    /** Ends the session; a no-op for unknown tokens. */
+    public void revoke(String token) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        try (SqlStatement delete = SqlStatement.compile(db, InventoryQueries.SESSION_DELETE.sql)) {
+            delete.bindString(1, hashToken(token));
+            delete.executeUpdateDelete();
+        }
+    }
+
+    static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Android runtime ships SHA-256; unlike passwords there is no plain-text fallback
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ----------- This device's token -----------
+
+    /** Issues a token for {@code username} and keeps it on this device. */
+    public void remember(Context context, String username) {
+        String token = create(username, System.currentTimeMillis());
+        authPrefs(context).edit().putString(PREF_SESSION_TOKEN, token).apply();
+    }
+
+    /** This device's remembered session, if it is still valid; an invalid token is dropped. */
+    public Session restore(Context context) {
+        SharedPreferences prefs = authPrefs(context);
+        String token = prefs.getString(PREF_SESSION_TOKEN, null);
+        if (token == null) {
+            return null;
+        }
+        Session session = validate(token, System.currentTimeMillis());
+        if (session == null) {
+            prefs.edit().remove(PREF_SESSION_TOKEN).apply();
+        }
+        return session;
+    }
+
+    /** Ends this device's remembered session, if any. */
+    public void forget(Context context) {
+        SharedPreferences prefs = authPrefs(context);
+        revoke(prefs.getString(PREF_SESSION_TOKEN, null));
+        prefs.edit().remove(PREF_SESSION_TOKEN).apply();
+    }
+
+    private static SharedPreferences authPrefs(Context context) {
+        return context.getSharedPreferences("auth", Context.MODE_PRIVATE);
+    }
+}
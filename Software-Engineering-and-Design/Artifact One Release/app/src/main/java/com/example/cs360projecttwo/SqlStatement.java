@@ -0,0 +1,93 @@
+package com.example.cs360projecttwo;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * SqlStatement
+ *
+ * A compiled statement on a {@link SupportSQLiteDatabase}, for use in
+ * try-with-resources. SupportSQLiteStatement inherits Closeable's
+ * {@code close() throws IOException}, which Java callers would have to
+ * catch at every site; closing a statement only finalizes it, so here it
+ * doesn't throw.
+ */
+final class SqlStatement implements SupportSQLiteStatement {
+
+    private final SupportSQLiteStatement statement;
+
+    private SqlStatement(SupportSQLiteStatement statement) {
+        this.statement = statement;
+    }
+
+    static SqlStatement compile(SupportSQLiteDatabase db, String sql) {
+        return new SqlStatement(db.compileStatement(sql));
+    }
+
+    @Override
+    public void execute() {
+        statement.execute();
+    }
+
+    @Override
+    public int executeUpdateDelete() {
+        return statement.executeUpdateDelete();
+    }
+
+    @Override
+    public long executeInsert() {
+        return statement.executeInsert();
+    }
+
+    @Override
+    public long simpleQueryForLong() {
+        return statement.simpleQueryForLong();
+    }
+
+    @Override
+    public String simpleQueryForString() {
+        return statement.simpleQueryForString();
+    }
+
+    @Override
+    public void bindNull(int index) {
+        statement.bindNull(index);
+    }
+
+    @Override
+    public void bindLong(int index, long value) {
+        statement.bindLong(index, value);
+    }
+
+    @Override
+    public void bindDouble(int index, double value) {
+        statement.bindDouble(index, value);
+    }
+
+    @Override
+    public void bindString(int index, String value) {
+        statement.bindString(index, value);
+    }
+
+    @Override
+    public void bindBlob(int index, byte[] value) {
+        statement.bindBlob(index, value);
+    }
+
+    @Override
+    public void clearBindings() {
+        statement.clearBindings();
+    }
+
+    @Override
+    public void close() {
+        try {
+            statement.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
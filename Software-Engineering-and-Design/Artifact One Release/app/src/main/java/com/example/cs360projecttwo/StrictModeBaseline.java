@@ -0,0 +1,69 @@
+package com.example.cs360projecttwo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * StrictModeBaseline
+ *
+ * Known StrictMode violation keys (see {@link StrictModeGuard#keyFor}),
+ * one per line; blank lines and lines starting with '#' are ignored.
+ * The baseline may shrink as violations are fixed but must never grow:
+ * anything observed that isn't listed is a regression. A listed key that
+ * no longer occurs fails too, so a fixed violation is deleted from the
+ * file in the same change and can't quietly come back later.
+ */
+public final class StrictModeBaseline {
+
+    private final Set<String> keys;
+
+    private StrictModeBaseline(Set<String> keys) {
+        this.keys = keys;
+    }
+
+    public static StrictModeBaseline parse(Reader source) throws IOException {
+        Set<String> keys = new LinkedHashSet<>();
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    keys.add(trimmed);
+                }
+            }
+        }
+        return new StrictModeBaseline(keys);
+    }
+
+    /** Observed keys missing from the baseline: these fail the test. */
+    public Set<String> newViolations(Collection<String> observed) {
+        Set<String> added = new TreeSet<>(observed);
+        added.removeAll(keys);
+        return added;
+    }
+
+    /** Baseline keys not observed in this run: these fail the test until their lines are deleted. */
+    public Set<String> resolved(Collection<String> observed) {
+        Set<String> gone = new TreeSet<>(keys);
+        gone.removeAll(observed);
+        return gone;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /** Baseline file contents for a set of keys, sorted. */
+    public static String format(Collection<String> observed) {
+        StringBuilder out = new StringBuilder();
+        for (String key : new TreeSet<>(observed)) {
+            out.append(key).append('\n');
+        }
+        return out.toString();
+    }
+}
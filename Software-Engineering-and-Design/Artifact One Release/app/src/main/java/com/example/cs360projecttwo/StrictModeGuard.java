@@ -0,0 +1,128 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StrictModeGuard
+ *
+ * Debug/test-only StrictMode setup. The main thread policy flags disk
+ * reads, disk writes and network access. The VM policy flags leaked
+ * cursors, databases and closeables. Violations are not fatal: a penalty
+ * listener groups them by a stable key (violation type plus the innermost
+ * two app frames) and keeps one stack trace per key.
+ *
+ * Instrumented tests compare the collected keys with a baseline file
+ * through {@link StrictModeBaseline}, so new violations fail the build
+ * while known ones are burned down over time.
+ */
+public final class StrictModeGuard {
+
+    private static final String TAG = "StrictModeGuard";
+    private static final String APP_PACKAGE = "com.example.cs360projecttwo.";
+    private static final int KEY_FRAMES = 2;
+
+    /** All occurrences of one violation key. */
+    public static final class Record {
+        public final String key;
+        public final String stackTrace;
+        final AtomicInteger count = new AtomicInteger();
+
+        Record(String key, String stackTrace) {
+            this.key = key;
+            this.stackTrace = stackTrace;
+        }
+
+        public int getCount() {
+            return count.get();
+        }
+    }
+
+    private static final Map<String, Record> RECORDS = new ConcurrentHashMap<>();
+    private static volatile boolean installed;
+
+    private StrictModeGuard() {
+    }
+
+    /** Enables the policies on debuggable builds; a no-op in release. */
+    public static void install(Context context) {
+        if (installed || (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0) {
+            return;
+        }
+        installed = true;
+
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .detectNetwork()
+                .penaltyLog()
+                .penaltyListener(Runnable::run, StrictModeGuard::record)
+                .build());
+        StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                .detectLeakedSqlLiteObjects()
+                .detectLeakedClosableObjects()
+                .penaltyLog()
+                .penaltyListener(Runnable::run, StrictModeGuard::record)
+                .build());
+    }
+
+    static void record(Violation violation) {
+        String key = keyFor(violation);
+        Record record = RECORDS.computeIfAbsent(key, k -> new Record(k, stackTraceOf(violation)));
+        if (record.count.getAndIncrement() == 0) {
+            Log.w(TAG, "New StrictMode violation: " + key);
+        }
+    }
+
+    /** Snapshot of everything recorded since the last {@link #clear()}, sorted by key. */
+    public static Map<String, Record> getRecords() {
+        return new TreeMap<>(RECORDS);
+    }
+
+    public static void clear() {
+        RECORDS.clear();
+    }
+
+    /**
+     * "DiskReadViolation @ DatabaseHelper.validateUser < LoginFragment.loginUser".
+     * Framework frames are skipped so the key survives platform and line-number changes.
+     */
+    static String keyFor(Throwable violation) {
+        StringBuilder key = new StringBuilder(violation.getClass().getSimpleName()).append(" @ ");
+        int frames = 0;
+        for (StackTraceElement element : violation.getStackTrace()) {
+            String className = element.getClassName();
+            if (!className.startsWith(APP_PACKAGE) || className.startsWith(StrictModeGuard.class.getName())) {
+                continue;
+            }
+            if (frames > 0) {
+                key.append(" < ");
+            }
+            String simpleName = className.substring(APP_PACKAGE.length());
+            key.append(simpleName).append('.').append(element.getMethodName());
+            if (++frames == KEY_FRAMES) {
+                break;
+            }
+        }
+        if (frames == 0) {
+            key.append("<framework>");
+        }
+        return key.toString();
+    }
+
+    private static String stackTraceOf(Throwable throwable) {
+        StringWriter out = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(out));
+        return out.toString();
+    }
+}
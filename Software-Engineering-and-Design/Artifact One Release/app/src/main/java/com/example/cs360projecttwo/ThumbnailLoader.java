@@ -0,0 +1,518 @@
+package com.example.cs360projecttwo;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.media.ThumbnailUtils;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ThumbnailLoader
+ *
+ * Item photos for the grid. Originals are plain files under
+ * files/item_images, one per item, never blobs in inventory.db. A row
+ * only ever sees a small square thumbnail:
+ *
+ *  1. memory: a byte-bounded LRU of decoded thumbnails, checked on the UI thread;
+ *  2. disk: pre-scaled WebP thumbnails under cache/thumbnails, trimmed
+ *     oldest-first once they pass their byte budget;
+ *  3. decode: the original is decoded with inSampleSize so that it is
+ *     never materialised at full resolution, then cropped to size.
+ *
+ * Steps 2 and 3 run on a small background pool. A row that is re-bound or
+ * recycled cancels its pending request, which also takes it off the queue,
+ * so fast scrolling only decodes what ends up on screen.
+ *
+ * Items found to have no photo are remembered (a bounded LRU of ids), so
+ * rows without one never queue a decode. Replacing or deleting a photo
+ * bumps the item's generation; a load that started before that stores
+ * nothing, so an old thumbnail can't come back after the eviction.
+ */
+public class ThumbnailLoader {
+
+    private static final String TAG = "ThumbnailLoader";
+    static final String IMAGES_DIR = "item_images";
+    static final String THUMBNAILS_DIR = "thumbnails";
+    static final long DEFAULT_DISK_BYTES = 32L * 1024 * 1024;
+    private static final int DECODE_THREADS = 2;
+    private static final int THUMBNAIL_QUALITY = 80;
+    // Ids of items known to have no photo; a few bytes each
+    private static final int MISSING_ENTRIES = 10_000;
+
+    private static volatile ThumbnailLoader instance;
+
+    private final File imagesDir;
+    private final File thumbnailsDir;
+    private final LruCache<String, Bitmap> memory;
+    private final LruCache<Long, Boolean> missing = new LruCache<>(MISSING_ENTRIES);
+    // Bumped under diskLock when an item's photo is replaced or deleted; one entry per such item
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    private final long maxDiskBytes;
+    private final ThreadPoolExecutor decoder;
+    private final Executor mainThread;
+    // Bytes of thumbnails on disk; -1 until first counted (on a decode thread)
+    private final AtomicLong diskBytes = new AtomicLong(-1);
+    private final Object diskLock = new Object();
+
+    private final AtomicInteger memoryHits = new AtomicInteger();
+    private final AtomicInteger diskHits = new AtomicInteger();
+    private final AtomicInteger decodes = new AtomicInteger();
+    private final AtomicInteger missingHits = new AtomicInteger();
+
+    /** One in-flight load for one view; lives in the view's tag until done or cancelled. */
+    private static final class Request {
+        final String key;
+        // The photo's generation when the row asked; a newer photo makes the result stale
+        final long generation;
+        volatile boolean cancelled;
+        Future<?> future;
+
+        Request(String key, long generation) {
+            this.key = key;
+            this.generation = generation;
+        }
+    }
+
+    public static ThumbnailLoader get(Context context) {
+        if (instance == null) {
+            synchronized (ThumbnailLoader.class) {
+                if (instance == null) {
+                    Context app = context.getApplicationContext();
+                    // An eighth of the app's heap class, the usual share for an image cache
+                    ActivityManager am = app.getSystemService(ActivityManager.class);
+                    int memoryBytes = (am != null ? am.getMemoryClass() : 64) * 1024 * 1024 / 8;
+                    instance = new ThumbnailLoader(new File(app.getFilesDir(), IMAGES_DIR),
+                            new File(app.getCacheDir(), THUMBNAILS_DIR), memoryBytes, DEFAULT_DISK_BYTES,
+                            newDecoder(), AppExecutors.get().mainThread());
+                    ThumbnailLoader loader = instance;
+                    MemoryTrimRegistry.get().register("thumbnails", MemoryTrimRegistry.TIER_UI_HIDDEN,
+                            tier -> loader.clearMemory());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Test hook: drops the singleton and its threads. */
+    static void resetForTesting() {
+        synchronized (ThumbnailLoader.class) {
+            if (instance != null) {
+                instance.decoder.shutdownNow();
+                instance = null;
+            }
+        }
+    }
+
+    ThumbnailLoader(File imagesDir, File thumbnailsDir, int memoryBytes, long maxDiskBytes,
+                    ThreadPoolExecutor decoder, Executor mainThread) {
+        this.imagesDir = imagesDir;
+        this.thumbnailsDir = thumbnailsDir;
+        this.maxDiskBytes = maxDiskBytes;
+        this.decoder = decoder;
+        this.mainThread = mainThread;
+        this.memory = new LruCache<String, Bitmap>(memoryBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    static ThreadPoolExecutor newDecoder() {
+        return new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "inventory-thumbnails");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    // ----------- Originals (call off the UI thread) -----------
+
+    /** Where the item's original photo lives; the file may not exist. */
+    public File imageFile(long itemId) {
+        return new File(imagesDir, String.valueOf(itemId)); // any format BitmapFactory reads
+    }
+
+    /** Stores {@code in} as the item's photo, replacing any previous one and its thumbnails. */
+    public void setImage(long itemId, InputStream in) throws IOException {
+        if (!imagesDir.isDirectory() && !imagesDir.mkdirs()) {
+            throw new IOException("Cannot create " + imagesDir);
+        }
+        File target = imageFile(itemId);
+        File tmp = new File(imagesDir, itemId + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+        }
+        // Rename is atomic, so a reader never decodes a half-written photo
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Cannot replace " + target);
+        }
+        evict(Collections.singletonList(itemId));
+    }
+
+    /** Deletes the photos and thumbnails of items that were deleted. */
+    public void deleteImages(Collection<Long> itemIds) {
+        for (long itemId : itemIds) {
+            imageFile(itemId).delete();
+        }
+        evict(itemIds);
+    }
+
+    // One directory listing however many items go
+    private void evict(Collection<Long> itemIds) {
+        Set<String> ids = new HashSet<>();
+        for (long itemId : itemIds) {
+            ids.add(String.valueOf(itemId));
+        }
+        synchronized (diskLock) {
+            // Loads already under way for these items now store nothing
+            for (long itemId : itemIds) {
+                generations.merge(itemId, 1L, Long::sum);
+                missing.remove(itemId);
+            }
+            for (String key : memory.snapshot().keySet()) {
+                if (ids.contains(itemIdOf(key))) {
+                    memory.remove(key);
+                }
+            }
+            File[] thumbnails = thumbnailsDir.listFiles((dir, name) -> ids.contains(itemIdOf(name)));
+            if (thumbnails == null) {
+                return;
+            }
+            for (File file : thumbnails) {
+                long length = file.length();
+                if (file.delete() && diskBytes.get() >= 0) {
+                    diskBytes.addAndGet(-length);
+                }
+            }
+        }
+    }
+
+    private long generation(long itemId) {
+        Long generation = generations.get(itemId);
+        return generation != null ? generation : 0;
+    }
+
+    // ----------- Loading -----------
+
+    /**
+     * Shows the item's thumbnail in {@code view} at {@code sizePx} square,
+     * cancelling whatever the view was loading before. UI thread only.
+     */
+    public void load(ImageView view, long itemId, int sizePx) {
+        String key = key(itemId, sizePx);
+        Request previous = (Request) view.getTag(R.id.thumbnail_request);
+        if (previous != null) {
+            if (previous.key.equals(key)) {
+                return; // already on its way
+            }
+            cancel(view);
+        }
+
+        Bitmap cached = memory.get(key);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setImageDrawable(null);
+        if (missing.get(itemId) != null) {
+            missingHits.incrementAndGet();
+            return; // no photo; nothing to queue
+        }
+        Request request = new Request(key, generation(itemId));
+        view.setTag(R.id.thumbnail_request, request);
+        request.future = decoder.submit(() -> {
+            Bitmap bitmap = load(itemId, sizePx, request);
+            if (bitmap == null && request.cancelled) {
+                return;
+            }
+            mainThread.execute(() -> {
+                if (view.getTag(R.id.thumbnail_request) == request && !request.cancelled) {
+                    view.setTag(R.id.thumbnail_request, null);
+                    view.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    /** Abandons the view's pending load, e.g. when its row is recycled. UI thread only. */
+    public void cancel(ImageView view) {
+        Request request = (Request) view.getTag(R.id.thumbnail_request);
+        if (request == null) {
+            return;
+        }
+        view.setTag(R.id.thumbnail_request, null);
+        request.cancelled = true;
+        if (request.future != null) {
+            request.future.cancel(false);
+            // Takes a queued decode off the queue instead of leaving a dead entry behind
+            decoder.remove((Runnable) request.future);
+        }
+    }
+
+    /** Thumbnail from memory, disk, or a fresh decode; null if the item has no photo. Off the UI thread. */
+    Bitmap loadBlocking(long itemId, int sizePx) {
+        return load(itemId, sizePx, null);
+    }
+
+    private Bitmap load(long itemId, int sizePx, Request request) {
+        String key = key(itemId, sizePx);
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null) {
+            memoryHits.incrementAndGet();
+            return bitmap;
+        }
+        if (missing.get(itemId) != null) {
+            missingHits.incrementAndGet();
+            return null;
+        }
+        long generation = request != null ? request.generation : generation(itemId);
+
+        File thumbnail = new File(thumbnailsDir, key + ".webp");
+        if (thumbnail.isFile()) {
+            bitmap = BitmapFactory.decodeFile(thumbnail.getPath());
+            if (bitmap != null) {
+                diskHits.incrementAndGet();
+                thumbnail.setLastModified(System.currentTimeMillis()); // LRU order for trimming
+                remember(itemId, generation, key, bitmap);
+                return bitmap;
+            }
+        }
+
+        File original = imageFile(itemId);
+        if (request != null && request.cancelled) {
+            return null;
+        }
+        if (!original.isFile()) {
+            synchronized (diskLock) {
+                if (generation(itemId) == generation) {
+                    missing.put(itemId, Boolean.TRUE);
+                }
+            }
+            return null;
+        }
+        bitmap = decodeThumbnail(original, sizePx);
+        if (bitmap == null) {
+            return null;
+        }
+        decodes.incrementAndGet();
+        if (remember(itemId, generation, key, bitmap)) {
+            writeThumbnail(itemId, generation, thumbnail, bitmap);
+        }
+        return bitmap;
+    }
+
+    // Keeps the bitmap unless the photo changed since the load read its generation
+    private boolean remember(long itemId, long generation, String key, Bitmap bitmap) {
+        synchronized (diskLock) {
+            if (generation(itemId) != generation) {
+                return false;
+            }
+            memory.put(key, bitmap);
+            return true;
+        }
+    }
+
+    /** Decodes {@code file} straight to a {@code sizePx} square, never at full resolution. */
+    static Bitmap decodeThumbnail(File file, int sizePx) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            Log.w(TAG, "Not an image: " + file);
+            return null;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, sizePx);
+        // Photos have no alpha; half the bytes of ARGB_8888
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap sampled = BitmapFactory.decodeFile(file.getPath(), options);
+        if (sampled == null) {
+            return null;
+        }
+        Bitmap square = ThumbnailUtils.extractThumbnail(sampled, sizePx, sizePx,
+                ThumbnailUtils.OPTIONS_RECYCLE_INPUT);
+        return rotateForExif(file, square);
+    }
+
+    /** Largest power of two that still leaves the shorter side at least {@code sizePx}. */
+    static int sampleSize(int width, int height, int sizePx) {
+        int shorter = Math.min(width, height);
+        int sample = 1;
+        while (shorter / (sample * 2) >= sizePx) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static Bitmap rotateForExif(File file, Bitmap bitmap) {
+        int degrees;
+        try {
+            degrees = new ExifInterface(file.getPath()).getRotationDegrees();
+        } catch (IOException e) {
+            return bitmap; // no EXIF (e.g. PNG); show as stored
+        }
+        if (degrees == 0) {
+            return bitmap;
+        }
+        Matrix matrix = new Matrix();
+        matrix.postRotate(degrees);
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (rotated != bitmap) {
+            bitmap.recycle();
+        }
+        return rotated;
+    }
+
+    // ----------- Disk cache -----------
+
+    private void writeThumbnail(long itemId, long generation, File thumbnail, Bitmap bitmap) {
+        if (!thumbnailsDir.isDirectory() && !thumbnailsDir.mkdirs()) {
+            return; // cache only; the next load decodes again
+        }
+        File tmp = new File(thumbnailsDir, thumbnail.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.WEBP_LOSSY, THUMBNAIL_QUALITY, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache thumbnail " + thumbnail, e);
+            tmp.delete();
+            return;
+        }
+        synchronized (diskLock) {
+            // Renamed under the lock, so an eviction either sees the file or this sees the new generation
+            if (generation(itemId) != generation || !tmp.renameTo(thumbnail)) {
+                tmp.delete();
+                return;
+            }
+            if (diskBytes.get() < 0) {
+                diskBytes.set(directoryBytes(thumbnailsDir));
+            } else {
+                diskBytes.addAndGet(thumbnail.length());
+            }
+            if (diskBytes.get() > maxDiskBytes) {
+                trimDisk();
+            }
+        }
+    }
+
+    // Oldest-used first, down to three quarters of the budget so trims are rare; caller holds diskLock
+    private void trimDisk() {
+        File[] files = thumbnailsDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long[] modified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            modified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> modified[i]));
+
+        long bytes = diskBytes.get();
+        long goal = maxDiskBytes * 3 / 4;
+        for (int i = 0; i < order.length && bytes > goal; i++) {
+            File file = files[order[i]];
+            long length = file.length();
+            if (file.delete()) {
+                bytes -= length;
+            }
+        }
+        diskBytes.set(bytes);
+    }
+
+    private static long directoryBytes(File dir) {
+        long total = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                total += file.length();
+            }
+        }
+        return total;
+    }
+
+    // ----------- Stats -----------
+
+    /** Bytes of decoded thumbnails held in memory. */
+    public int memoryBytes() {
+        return memory.size();
+    }
+
+    public int maxMemoryBytes() {
+        return memory.maxSize();
+    }
+
+    /** Bytes of thumbnails on disk, or -1 if none have been written yet. */
+    public long diskBytes() {
+        return diskBytes.get();
+    }
+
+    int memoryHits() {
+        return memoryHits.get();
+    }
+
+    int diskHits() {
+        return diskHits.get();
+    }
+
+    int decodes() {
+        return decodes.get();
+    }
+
+    int missingHits() {
+        return missingHits.get();
+    }
+
+    /** Drops every decoded thumbnail and returns their bytes; disk thumbnails stay. */
+    public int clearMemory() {
+        int bytes = memory.size();
+        memory.evictAll();
+        missing.evictAll();
+        return bytes;
+    }
+
+    private static String key(long itemId, int sizePx) {
+        return itemId + "_" + sizePx;
+    }
+
+    // "12_96" and "12_96.webp" both belong to item 12
+    private static String itemIdOf(String name) {
+        int end = name.indexOf('_');
+        return end < 0 ? name : name.substring(0, end);
+    }
+}
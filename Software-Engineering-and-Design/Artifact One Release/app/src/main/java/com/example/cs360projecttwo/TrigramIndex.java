@@ -0,0 +1,349 @@
+package com.example.cs360projecttwo;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TrigramIndex
+ *
+ * Typo-tolerant item lookup. Every item name is split into trigrams (runs
+ * of three characters of its lower-cased words) and item_trigrams keeps
+ * one (trigram, item) row per distinct trigram, so "items sharing a
+ * trigram with the query" is a primary-key range search.
+ *
+ * A lookup has two steps. First one grouped query ranks items by how many
+ * of the query's rarest trigrams they share and keeps a short list. Then
+ * each name on that list is checked with an edit distance (insert, delete,
+ * substitute or swap two neighbours) against its best-matching stretch,
+ * so "glvoes" finds "Nitrile gloves" but two names that merely share
+ * common letters are dropped.
+ *
+ * Only {@link #QUERY_SLOTS} trigrams are looked up, ranked by
+ * trigram_counts, which triggers keep current like facet_counts. Catalog
+ * names repeat the same few words, and the trigrams of those words each
+ * list a large share of all items; grouping those lists is most of the
+ * cost. So a lookup takes the rarest trigram of each of the
+ * {@link #WORD_SLOTS} rarest query words: a name has to hold every word,
+ * and one trigram from each of several words narrows far more than several
+ * from one word, which all list the same items. Queries of fewer words fill
+ * the other slots with their rarest remaining trigrams. For the same reason
+ * words are padded with one space on each side, not pg_trgm's two in front:
+ * every "  x" trigram lists all words that start with x.
+ *
+ * The repository keeps the table current inside its write transactions:
+ * inserts and renames call {@link #index}; a trigger drops an item's rows
+ * when the item is deleted.
+ */
+public class TrigramIndex {
+
+    /** Shorter queries are answered by the plain substring search. */
+    public static final int MIN_QUERY_LENGTH = 3;
+    // Must match the number of IN placeholders in TRIGRAM_CANDIDATES
+    static final int QUERY_SLOTS = 6;
+    // Query words that each contribute their rarest trigram
+    static final int WORD_SLOTS = 4;
+    // Binds the unused placeholders; no trigram packs to a negative number
+    private static final String NO_TRIGRAM = "-1";
+    // Candidates checked by edit distance, per result wanted
+    private static final int SHORTLIST_FACTOR = 4;
+
+    /** One item that survived the edit-distance check. */
+    public static final class Match {
+        public final long itemId;
+        public final String name;
+        /** Edits between the query and the closest part of the name. */
+        public final int distance;
+        /** Query trigrams the name contains. */
+        public final int shared;
+
+        Match(long itemId, String name, int distance, int shared) {
+            this.itemId = itemId;
+            this.name = name;
+            this.distance = distance;
+            this.shared = shared;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final AtomicLong postingsRead = new AtomicLong();
+    private final AtomicLong namesChecked = new AtomicLong();
+
+    public TrigramIndex(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // ----------- Writes (caller holds the repository's write lock and transaction) -----------
+
+    /** Replaces the item's trigrams with those of {@code name}. */
+    static void index(SupportSQLiteDatabase db, long itemId, String name) {
+        try (SqlStatement delete = SqlStatement.compile(db, InventoryQueries.TRIGRAMS_DELETE_ITEM.sql);
+             SqlStatement insert = SqlStatement.compile(db, InventoryQueries.TRIGRAM_INSERT.sql)) {
+            index(delete, insert, itemId, name);
+        }
+    }
+
+    /** Indexes every existing item; for the schema upgrade that adds the table. */
+    static void indexAll(SupportSQLiteDatabase db) {
+        try (SqlStatement delete = SqlStatement.compile(db, InventoryQueries.TRIGRAMS_DELETE_ITEM.sql);
+             SqlStatement insert = SqlStatement.compile(db, InventoryQueries.TRIGRAM_INSERT.sql);
+             Cursor cursor = db.query(InventoryQueries.ITEMS_ALL.sql)) {
+            while (cursor.moveToNext()) {
+                index(delete, insert, cursor.getLong(0), cursor.getString(1));
+            }
+        }
+    }
+
+    private static void index(SqlStatement delete, SqlStatement insert, long itemId, String name) {
+        delete.bindLong(1, itemId);
+        delete.executeUpdateDelete();
+        for (long trigram : trigrams(name)) {
+            insert.bindLong(1, trigram);
+            insert.bindLong(2, itemId);
+            insert.executeInsert();
+        }
+    }
+
+    // ----------- Lookup -----------
+
+    /**
+     * Up to {@code limit} items whose names are within a few edits of
+     * {@code query}, closest first. Empty for queries shorter than
+     * {@link #MIN_QUERY_LENGTH}.
+     */
+    public List<Match> search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.length() < MIN_QUERY_LENGTH) {
+            return Collections.emptyList();
+        }
+        SupportSQLiteDatabase db = dbHelper.getReadableDatabase();
+        long[] rarest = chooseTrigrams(db, needle);
+        if (rarest.length == 0) {
+            return Collections.emptyList();
+        }
+
+        String[] args = new String[QUERY_SLOTS + 1];
+        Arrays.fill(args, NO_TRIGRAM);
+        for (int i = 0; i < rarest.length; i++) {
+            args[i] = String.valueOf(rarest[i]);
+        }
+        args[QUERY_SLOTS] = String.valueOf(limit * SHORTLIST_FACTOR);
+
+        int maxEdits = maxEdits(needle.length());
+        List<Match> matches = new ArrayList<>();
+        int[][] rows = new int[3][];
+        try (Cursor shortlist = db.query(InventoryQueries.TRIGRAM_CANDIDATES.sql, args)) {
+            String[] idArg = new String[1];
+            while (shortlist.moveToNext()) {
+                long itemId = shortlist.getLong(0);
+                idArg[0] = String.valueOf(itemId);
+                try (Cursor item = db.query(InventoryQueries.ITEM_NAME.sql, idArg)) {
+                    if (!item.moveToFirst()) {
+                        continue; // deleted since the shortlist was read
+                    }
+                    String name = item.getString(0);
+                    namesChecked.incrementAndGet();
+                    int distance = substringDistance(needle, normalize(name), maxEdits, rows);
+                    if (distance <= maxEdits) {
+                        matches.add(new Match(itemId, name, distance, shortlist.getInt(1)));
+                    }
+                }
+            }
+        }
+
+        Collections.sort(matches, (a, b) -> a.distance != b.distance ? Integer.compare(a.distance, b.distance)
+                : a.shared != b.shared ? Integer.compare(b.shared, a.shared)
+                : Long.compare(a.itemId, b.itemId));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    // Up to QUERY_SLOTS trigrams of the normalized query: the rarest of each of its WORD_SLOTS rarest
+    // words, then, for shorter queries, the rarest of the rest. Ones no item has (typos) are left out.
+    private long[] chooseTrigrams(SupportSQLiteDatabase db, String needle) {
+        long[] all = trigrams(needle);
+        int[] counts = new int[all.length];
+        String[] arg = new String[1];
+        for (int i = 0; i < all.length; i++) {
+            arg[0] = String.valueOf(all[i]);
+            try (Cursor cursor = db.query(InventoryQueries.TRIGRAM_COUNT.sql, arg)) {
+                counts[i] = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            }
+        }
+
+        // item count in the high half, position in all[] in the low half, so sorting orders by count
+        String[] words = needle.split(" ");
+        long[] ranked = new long[Math.max(words.length, all.length)];
+        boolean[] taken = new boolean[all.length];
+        int present = 0;
+        for (String word : words) {
+            int best = -1;
+            for (long trigram : trigrams(word)) {
+                int at = Arrays.binarySearch(all, trigram);
+                if (counts[at] > 0 && !taken[at] && (best < 0 || counts[at] < counts[best])) {
+                    best = at;
+                }
+            }
+            if (best >= 0) {
+                taken[best] = true;
+                ranked[present++] = ((long) counts[best] << 32) | best;
+            }
+        }
+        Arrays.sort(ranked, 0, present);
+
+        long[] chosen = new long[QUERY_SLOTS];
+        int count = 0;
+        Arrays.fill(taken, false);
+        for (int i = 0; i < present && count < WORD_SLOTS; i++) {
+            taken[(int) ranked[i]] = true;
+            chosen[count++] = ranked[i];
+        }
+        if (words.length < WORD_SLOTS) {
+            present = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (counts[i] > 0 && !taken[i]) {
+                    ranked[present++] = ((long) counts[i] << 32) | i;
+                }
+            }
+            Arrays.sort(ranked, 0, present);
+            for (int i = 0; i < present && count < QUERY_SLOTS; i++) {
+                chosen[count++] = ranked[i];
+            }
+        }
+
+        long[] picked = new long[count];
+        for (int i = 0; i < count; i++) {
+            picked[i] = all[(int) chosen[i]];
+            postingsRead.addAndGet(chosen[i] >>> 32);
+        }
+        return picked;
+    }
+
+    /** Index rows the candidate queries have grouped so far; for tests. */
+    long postingsRead() {
+        return postingsRead.get();
+    }
+
+    /** Names checked by edit distance so far; for tests. */
+    long namesChecked() {
+        return namesChecked.get();
+    }
+
+    // Edits tolerated for a query of this many characters: 1 up to 5, then one more per 4
+    static int maxEdits(int length) {
+        return Math.max(1, (length + 2) / 4);
+    }
+
+    // ----------- Trigrams -----------
+
+    /** Lower-cased words (letters and digits) joined by single spaces. */
+    static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        boolean gap = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                gap = false;
+            } else {
+                gap = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Distinct trigrams of {@code text}'s words, each packed into a long, ascending. */
+    static long[] trigrams(String text) {
+        String words = normalize(text);
+        long[] out = new long[words.length() + 2];
+        int count = 0;
+        int start = 0;
+        while (start < words.length()) {
+            int end = words.indexOf(' ', start);
+            if (end < 0) {
+                end = words.length();
+            }
+            // " word " -> " wo", "wor", "ord", "rd "
+            for (int i = start - 1; i + 2 <= end; i++) {
+                char a = i < start ? ' ' : words.charAt(i);
+                char b = words.charAt(i + 1);
+                char c = i + 2 == end ? ' ' : words.charAt(i + 2);
+                out[count++] = ((long) a << 32) | ((long) b << 16) | c;
+            }
+            start = end + 1;
+        }
+
+        Arrays.sort(out, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || out[distinct - 1] != out[i]) {
+                out[distinct++] = out[i];
+            }
+        }
+        return Arrays.copyOf(out, distinct);
+    }
+
+    // ----------- Edit distance -----------
+
+    /**
+     * Fewest edits turning {@code needle} into some substring of
+     * {@code haystack}, counting a swap of neighbours as one edit (optimal
+     * string alignment). Stops early and returns {@code maxEdits + 1} once
+     * every alignment is already over the limit. {@code rows} is scratch
+     * space reused between calls.
+     */
+    static int substringDistance(String needle, String haystack, int maxEdits, int[][] rows) {
+        int m = needle.length();
+        int n = haystack.length();
+        if (rows[0] == null || rows[0].length < n + 1) {
+            for (int r = 0; r < 3; r++) {
+                rows[r] = new int[n + 1];
+            }
+        }
+        int[] before = rows[0];
+        int[] previous = rows[1];
+        int[] current = rows[2];
+        // The match may start anywhere in the haystack for free
+        Arrays.fill(previous, 0, n + 1, 0);
+
+        for (int i = 1; i <= m; i++) {
+            char a = needle.charAt(i - 1);
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= n; j++) {
+                char b = haystack.charAt(j - 1);
+                int cost = a == b ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a == haystack.charAt(j - 2) && needle.charAt(i - 2) == b) {
+                    d = Math.min(d, before[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        // ... and end anywhere
+        int best = m;
+        for (int j = 0; j <= n; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return Math.min(best, maxEdits + 1);
+    }
+}
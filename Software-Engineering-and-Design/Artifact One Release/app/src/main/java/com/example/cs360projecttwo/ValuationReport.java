@@ -0,0 +1,412 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.util.Log;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ValuationReport
+ *
+ * Stock valuation as a CSV file: one line per item (quantity times unit
+ * cost), then a subtotal per category and a grand total.
+ *
+ * The report streams. Items are read in keyset pages of {@link #PAGE_ROWS}
+ * by item id and each line is written as soon as it is read, so memory stays
+ * the same for ten items or a million. Money is a long count of minor units
+ * (see {@link MinorUnits}) and all sums use exact long arithmetic; a total
+ * too large for a long fails the report rather than wrapping.
+ *
+ * Every page is read inside one transaction, so the lines and totals all
+ * come from the same snapshot. Where the connection has a deferred read
+ * transaction (see {@link DatabaseHelper#hasReadSnapshots}) writers carry
+ * on meanwhile. SQLCipher's connections don't, so on devices the report
+ * holds an immediate transaction instead: writes wait until it finishes
+ * (seconds at a million items, on the disk thread) rather than land
+ * half-way through it.
+ *
+ * Reports run on one shared background thread and can be cancelled through the
+ * {@link CancellationSignal} returned by {@link #start}. A cancelled or
+ * failed report leaves no file behind: lines go to a ".part" file that is
+ * renamed into place only once the totals are written. The file is sealed
+ * with {@link BackupCipher} like a backup, since it lists every item and
+ * its cost; {@link #openReport} reads it back.
+ *
+ * Names are written so that a spreadsheet never runs them: a cell starting
+ * with =, +, -, @, tab or carriage return gets a leading apostrophe.
+ */
+public class ValuationReport {
+
+    private static final String TAG = "ValuationReport";
+    private static final String REPORT_DIR = "reports";
+    private static final String REPORT_SUFFIX = ".csv.enc";
+    static final int PAGE_ROWS = 2048;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Characters a spreadsheet reads as the start of a formula
+    private static final String FORMULA_STARTS = "=+-@\t\r";
+
+    public interface Callback {
+        void onSuccess(File file);
+
+        /** Also called, with an {@link android.os.OperationCanceledException}, after a cancel. */
+        void onError(Exception e);
+    }
+
+    /** Test hook: hears how many rows each keyset page read. */
+    interface PageListener {
+        void onPage(int rows);
+    }
+
+    /** What a finished report added up to. */
+    public static final class Summary {
+        public final int items;
+        public final long units;
+        public final long valueMinor;
+
+        Summary(int items, long units, long valueMinor) {
+            this.items = items;
+            this.units = units;
+            this.valueMinor = valueMinor;
+        }
+    }
+
+    private final Context appContext;
+    private final DatabaseHelper dbHelper;
+    private final BackupCipher cipher;
+    // One thread per process, shared by every report object (one is made per grid view), so a long
+    // report never queues in front of normal disk work and recreating the screen leaks nothing
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "inventory-reports");
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile PageListener pageListener;
+
+    public ValuationReport(Context context, InventoryRepository repository) {
+        this(context, repository, BackupCipher.forDevice(context));
+    }
+
+    ValuationReport(Context context, InventoryRepository repository, BackupCipher cipher) {
+        this.appContext = context.getApplicationContext();
+        this.dbHelper = repository.getDatabaseHelper();
+        this.cipher = cipher;
+    }
+
+    public File getReportDir() {
+        return new File(appContext.getFilesDir(), REPORT_DIR);
+    }
+
+    /** Test hook: {@code listener} hears every page this report reads; null stops it. */
+    void setPageListenerForTesting(PageListener listener) {
+        pageListener = listener;
+    }
+
+    // ----------- Running -----------
+
+    /** Writes a report in the background; cancel the returned signal to stop it. */
+    public CancellationSignal start(Callback callback) {
+        CancellationSignal signal = new CancellationSignal();
+        EXECUTOR.execute(() -> {
+            try {
+                File result = writeBlocking(signal);
+                post(() -> callback.onSuccess(result));
+            } catch (Exception e) {
+                if (!signal.isCanceled()) {
+                    Log.e(TAG, "Valuation report failed", e);
+                }
+                post(() -> callback.onError(e));
+            }
+        });
+        return signal;
+    }
+
+    File writeBlocking(CancellationSignal signal) throws IOException {
+        File dir = getReportDir();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File partial = new File(dir, "valuation-" + stamp + REPORT_SUFFIX + ".part");
+        File target = new File(dir, "valuation-" + stamp + REPORT_SUFFIX);
+
+        try {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    cipher.encrypt(new FileOutputStream(partial)), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                write(out, signal);
+            }
+            Files.move(partial.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    /**
+     * Opens a finished report as plain CSV. The stream throws at its end if
+     * the file was altered, so read it to the end before trusting it.
+     */
+    public InputStream openReport(File report) throws IOException {
+        InputStream in = new FileInputStream(report);
+        try {
+            return cipher.decrypt(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /** Streams the whole report to {@code out}; throws OperationCanceledException once {@code signal} is cancelled. */
+    Summary write(Writer out, CancellationSignal signal) throws IOException {
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        if (dbHelper.hasReadSnapshots()) {
+            db.beginTransactionReadOnly();
+        } else {
+            db.beginTransactionNonExclusive(); // holds writers off; the shared pool queues them, no busy errors
+        }
+        try {
+            return write(db, out, signal);
+        } finally {
+            db.endTransaction(); // nothing was written: nothing to commit
+        }
+    }
+
+    private Summary write(SupportSQLiteDatabase db, Writer out, CancellationSignal signal) throws IOException {
+        CategoryTotals categories = new CategoryTotals();
+        categories.load(db);
+
+        StringBuilder line = new StringBuilder(128);
+        out.write("item_id,item_name,category,quantity,unit_cost,value\n");
+
+        int items = 0;
+        long units = 0;
+        long value = 0;
+        long uncategorisedUnits = 0;
+        long uncategorisedValue = 0;
+        int uncategorisedItems = 0;
+
+        long after = 0;
+        String[] args = new String[2];
+        args[1] = String.valueOf(PAGE_ROWS);
+        while (true) {
+            signal.throwIfCanceled();
+            args[0] = String.valueOf(after);
+            int read = 0;
+            // Keyset pages: each one is a fresh short search on the rowid, never an OFFSET walk
+            try (Cursor cursor = db.query(new SimpleSQLiteQuery(InventoryQueries.VALUATION_PAGE.sql, args), signal)) {
+                while (cursor.moveToNext()) {
+                    read++;
+                    long id = cursor.getLong(0);
+                    int quantity = cursor.getInt(2);
+                    long unitCost = cursor.getLong(3);
+                    long lineValue = Math.multiplyExact((long) quantity, unitCost);
+
+                    items++;
+                    units += quantity;
+                    value = Math.addExact(value, lineValue);
+
+                    String categoryName = "";
+                    if (cursor.isNull(4)) {
+                        uncategorisedItems++;
+                        uncategorisedUnits += quantity;
+                        uncategorisedValue = Math.addExact(uncategorisedValue, lineValue);
+                    } else {
+                        int slot = categories.slotFor(db, cursor.getLong(4));
+                        categories.add(slot, quantity, lineValue);
+                        categoryName = categories.names[slot];
+                    }
+
+                    line.setLength(0);
+                    line.append(id).append(',');
+                    appendField(line, cursor.getString(1));
+                    line.append(',');
+                    appendField(line, categoryName);
+                    line.append(',').append(quantity).append(',');
+                    MinorUnits.append(line, unitCost);
+                    line.append(',');
+                    MinorUnits.append(line, lineValue);
+                    line.append('\n');
+                    out.append(line);
+
+                    after = id;
+                }
+            }
+            PageListener listener = pageListener;
+            if (listener != null) {
+                listener.onPage(read);
+            }
+            if (read < PAGE_ROWS) {
+                break;
+            }
+        }
+
+        signal.throwIfCanceled();
+        out.write("\ncategory,items,quantity,value\n");
+        for (int slot : categories.byName()) {
+            if (categories.items[slot] > 0) {
+                writeTotal(out, line, categories.names[slot], categories.items[slot],
+                        categories.units[slot], categories.values[slot]);
+            }
+        }
+        if (uncategorisedItems > 0) {
+            writeTotal(out, line, "Uncategorised", uncategorisedItems, uncategorisedUnits, uncategorisedValue);
+        }
+        writeTotal(out, line, "Total", items, units, value);
+        return new Summary(items, units, value);
+    }
+
+    private static void writeTotal(Writer out, StringBuilder line, String label,
+                                   int items, long units, long value) throws IOException {
+        line.setLength(0);
+        appendField(line, label);
+        line.append(',').append(items).append(',').append(units).append(',');
+        MinorUnits.append(line, value);
+        line.append('\n');
+        out.append(line);
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break, doubling inner quotes.
+    // A leading formula character is defused with an apostrophe, inside quotes.
+    static void appendField(StringBuilder line, String value) {
+        boolean formula = !value.isEmpty() && FORMULA_STARTS.indexOf(value.charAt(0)) >= 0;
+        boolean quote = formula;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        if (formula) {
+            line.append('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    // ----------- Per-category totals -----------
+
+    /**
+     * Running totals per category in parallel primitive arrays, found by a
+     * binary search over the sorted ids, so adding a row allocates nothing.
+     * A category created while the report runs is picked up by reading the
+     * (small) categories table again.
+     */
+    private static final class CategoryTotals {
+        long[] ids = new long[0];
+        String[] names = new String[0];
+        int[] items = new int[0];
+        long[] units = new long[0];
+        long[] values = new long[0];
+        int count;
+
+        void load(SupportSQLiteDatabase db) {
+            try (Cursor cursor = db.query(InventoryQueries.CATEGORIES_BY_NAME.sql)) {
+                while (cursor.moveToNext()) {
+                    int slot = slotOrInsert(cursor.getLong(0)); // may grow the arrays
+                    names[slot] = cursor.getString(1);
+                }
+            }
+        }
+
+        int slotFor(SupportSQLiteDatabase db, long categoryId) {
+            int slot = Arrays.binarySearch(ids, 0, count, categoryId);
+            if (slot >= 0) {
+                return slot;
+            }
+            load(db);
+            slot = slotOrInsert(categoryId);
+            if (names[slot] == null) {
+                names[slot] = "#" + categoryId; // deleted since; keep its rows apart
+            }
+            return slot;
+        }
+
+        void add(int slot, int quantity, long value) {
+            items[slot]++;
+            units[slot] += quantity;
+            values[slot] = Math.addExact(values[slot], value);
+        }
+
+        /** Slots in name order, for the subtotal lines. */
+        Integer[] byName() {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> names[a].compareTo(names[b]));
+            return order;
+        }
+
+        private int slotOrInsert(long categoryId) {
+            int slot = Arrays.binarySearch(ids, 0, count, categoryId);
+            if (slot >= 0) {
+                return slot;
+            }
+            slot = -slot - 1;
+            if (count == ids.length) {
+                int capacity = Math.max(16, count * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                items = Arrays.copyOf(items, capacity);
+                units = Arrays.copyOf(units, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            int tail = count - slot;
+            System.arraycopy(ids, slot, ids, slot + 1, tail);
+            System.arraycopy(names, slot, names, slot + 1, tail);
+            System.arraycopy(items, slot, items, slot + 1, tail);
+            System.arraycopy(units, slot, units, slot + 1, tail);
+            System.arraycopy(values, slot, values, slot + 1, tail);
+            ids[slot] = categoryId;
+            names[slot] = null;
+            items[slot] = 0;
+            units[slot] = 0;
+            values[slot] = 0;
+            count++;
+            return slot;
+        }
+    }
+
+    // ----------- Helpers -----------
+
+    private void post(Runnable runnable) {
+        AppExecutors.get().mainThread().execute(runnable);
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete " + file);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): what auditing costs
+ * the thread making a change (one offer into the ring buffer, one
+ * {@link AuditLog#record}), and how fast a flush writes the buffered
+ * events out. Writes build/benchmarks/audit-log.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AuditLogBenchmark {
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void recordOfferAndFlush() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        AuditLog audit = InventoryRepository.getInstance(context).getAuditLog();
+        audit.setSessionActor("admin");
+
+        // A buffer with room, drained between samples so every offer takes the publish path
+        AuditRingBuffer buffer = new AuditRingBuffer(1 << 14);
+        int perOffer = buffer.capacity();
+        AuditRingBuffer.Sink discard = (at, event, actor, itemId, before, after) -> { };
+        long offerNanos = BenchmarkReport.medianNanos(5, 31, () -> {
+            for (int i = 0; i < perOffer; i++) {
+                buffer.offer(0, AuditLog.QUANTITY_CHANGED, "admin", i, i + 1, i);
+            }
+            buffer.drain(discard, perOffer);
+        });
+        assertEquals(0, buffer.takeDropped());
+
+        // A quarter of the log's buffer per round, flushed in between so nothing is dropped
+        int perRound = AuditLog.CAPACITY / 4;
+        int rounds = 30;
+        long recordNanos = 0;
+        long flushNanos = 0;
+        int flushed = 0;
+        for (int r = 0; r < rounds; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < perRound; i++) {
+                audit.record(AuditLog.QUANTITY_CHANGED, i, i + 1, i);
+            }
+            recordNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            flushed += audit.flush(); // the audit thread may have written some of them already
+            flushNanos += System.nanoTime() - start;
+        }
+        int events = rounds * perRound;
+        assertEquals(events, audit.getEvents(0, Integer.MAX_VALUE).size());
+
+        new BenchmarkReport("audit-log")
+                .line("ring buffer offer: %,d ns per event (median of rounds of %,d)", offerNanos / perOffer, perOffer)
+                .line("AuditLog.record:   %,d ns per event (mean over %,d events)", recordNanos / events, events)
+                .line("flush:             %,.0f events/s over the %,d events explicit flushes wrote",
+                        flushed * 1e9 / Math.max(1, flushNanos), flushed)
+                .write();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteException;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for the buffered, append-only audit log.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AuditLogTest {
+
+    private InventoryRepository repository;
+    private AuditLog audit;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        audit = repository.getAuditLog();
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void quantityChange_isRecordedWithUserAndValues() {
+        audit.setSessionActor("alice");
+        InventoryItem item = repository.insertItem("Gloves", 40);
+        repository.updateQuantity(item.getId(), 35);
+        repository.updateQuantity(item.getId(), 35); // no change, no event
+        audit.flush();
+
+        List<AuditLog.Event> events = audit.getEvents(0, 10);
+        assertEquals(2, events.size());
+        AuditLog.Event change = findEvent(events, AuditLog.QUANTITY_CHANGED);
+        assertEquals("alice", change.actor);
+        assertEquals(item.getId(), change.itemId);
+        assertEquals(40, change.before);
+        assertEquals(35, change.after);
+        assertNotNull(findEvent(events, AuditLog.ITEM_ADDED));
+    }
+
+    @Test
+    public void callerActor_overridesSessionUser() {
+        audit.setSessionActor("alice");
+        InventoryItem item = audit.runAs("app:com.example.scanner", () -> repository.insertItem("Tape", 3));
+        audit.flush();
+
+        assertEquals("app:com.example.scanner", findEvent(audit.getEvents(0, 10), AuditLog.ITEM_ADDED).actor);
+        assertNotNull(item);
+    }
+
+    @Test
+    public void rolledBackBatch_leavesNoAuditRows() {
+        InventoryItem item = repository.insertItem("Masks", 10);
+        audit.flush();
+        int before = audit.getEvents(0, 100).size();
+
+        try {
+            repository.runInTransaction(() -> {
+                repository.adjustQuantities(Arrays.asList(item.getId()), -5);
+                throw new IllegalStateException("abort");
+            });
+            fail("expected the batch to throw");
+        } catch (Exception expected) {
+            // rolled back
+        }
+        audit.flush();
+
+        assertEquals(before, audit.getEvents(0, 100).size());
+    }
+
+    @Test
+    public void loginEvents_areRecorded() {
+        audit.recordAuth(AuditLog.LOGIN_FAILED, "mallory");
+        audit.recordAuth(AuditLog.LOGIN, "admin");
+        assertEquals(2, audit.flush());
+
+        List<AuditLog.Event> events = audit.getEvents(0, 10);
+        assertEquals("mallory", findEvent(events, AuditLog.LOGIN_FAILED).actor);
+        assertEquals("admin", findEvent(events, AuditLog.LOGIN).actor);
+    }
+
+    @Test
+    public void rows_areAppendOnlyUntilPastRetention() {
+        long now = System.currentTimeMillis();
+        long old = now - AuditLog.RETENTION_MS - 2 * QuantityHistoryStore.DAY_MS;
+        audit.recordAt(old, AuditLog.QUANTITY_CHANGED, "alice", 1, 5, 4);
+        audit.recordAt(now, AuditLog.QUANTITY_CHANGED, "alice", 1, 4, 3);
+        audit.flush();
+
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        assertThrows(SQLiteException.class, () -> db.execSQL("UPDATE audit_log SET actor = 'eve'"));
+        assertThrows(SQLiteException.class, () -> db.execSQL("DELETE FROM audit_log"));
+
+        assertEquals(1, audit.prune(now));
+        List<AuditLog.Event> remaining = audit.getEvents(0, 10);
+        assertEquals(1, remaining.size());
+        assertEquals(now, remaining.get(0).at);
+    }
+
+    @Test
+    public void backgroundFlush_writesWithoutExplicitCall() throws Exception {
+        audit.recordAuth(AuditLog.LOGIN, "admin");
+        audit.awaitScheduledFlushForTesting();
+
+        assertEquals(1, audit.getEvents(0, 10).size());
+    }
+
+    /** Rounds of a quarter of the buffer, flushed between rounds: every event lands and none is dropped. */
+    @Test
+    public void record_keepsEveryEventWhileTheBufferHasRoom() {
+        final int rounds = 8;
+        final int perRound = AuditLog.CAPACITY / 4;
+        audit.setSessionActor("admin");
+
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < perRound; i++) {
+                audit.record(AuditLog.QUANTITY_CHANGED, i, i + 1, i);
+            }
+            audit.flush(); // the audit thread may have taken some of them already
+        }
+
+        List<AuditLog.Event> events = audit.getEvents(0, 1_000_000);
+        assertEquals(rounds * perRound, events.size());
+        assertEquals(0, events.stream().filter(e -> e.event == AuditLog.EVENTS_DROPPED).count());
+    }
+
+    @Test
+    public void recreatedActivity_restoresTheSignedInUser() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(activity -> {
+                activity.getSharedPreferences("auth", Context.MODE_PRIVATE)
+                        .edit()
+                        .putBoolean("isLoggedIn", true)
+                        .putString("userRole", "admin")
+                        .putString(MainActivity.PREF_USERNAME, "alice")
+                        .commit();
+                activity.onLoggedIn();
+            });
+            // What a new process starts with after the old one was killed in the background
+            audit.setSessionActor(null);
+
+            scenario.recreate();
+
+            assertEquals("alice", audit.currentActor());
+        }
+    }
+
+    private static AuditLog.Event findEvent(List<AuditLog.Event> events, int type) {
+        for (AuditLog.Event e : events) {
+            if (e.event == type) {
+                return e;
+            }
+        }
+        fail("no event of type " + type + " in " + events.size() + " rows");
+        return null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.cs360projecttwo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the lock-free audit ring buffer.
+ */
+public class AuditRingBufferTest {
+
+    @Test
+    public void concurrentProducers_loseNothingAndKeepPerThreadOrder() throws Exception {
+        final int producers = 4;
+        final int perProducer = 200_000;
+        AuditRingBuffer buffer = new AuditRingBuffer(1 << 12);
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        long[] received = new long[1];
+        boolean[] outOfOrder = new boolean[1];
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread t = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < perProducer; i++) {
+                    // Spin until the drainer makes room; this test is about loss and order, not drops
+                    while (!buffer.offer(i, producer, null, producer, i, 0)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+
+        AuditRingBuffer.Sink sink = (at, event, actor, itemId, before, after) -> {
+            if (before <= lastSeen[event]) {
+                outOfOrder[0] = true;
+            }
+            lastSeen[event] = before;
+            received[0]++;
+        };
+        start.countDown();
+        long total = (long) producers * perProducer;
+        while (received[0] < total) {
+            if (buffer.drain(sink, 1_024) == 0) {
+                Thread.yield();
+            }
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(total, received[0]);
+        assertFalse("events from one producer arrived out of order", outOfOrder[0]);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void fullBuffer_dropsAndCountsInsteadOfBlocking() {
+        AuditRingBuffer buffer = new AuditRingBuffer(8);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i, 1, "a", i, 0, 0));
+        }
+        assertFalse(buffer.offer(8, 1, "a", 8, 0, 0));
+        assertFalse(buffer.offer(9, 1, "a", 9, 0, 0));
+        assertEquals(2, buffer.takeDropped());
+        assertEquals(0, buffer.takeDropped());
+
+        List<Long> drained = new ArrayList<>();
+        buffer.drain((at, event, actor, itemId, before, after) -> drained.add(itemId), 100);
+        assertEquals(8, drained.size());
+        assertEquals(Long.valueOf(0), drained.get(0));
+        assertTrue(buffer.offer(10, 1, "a", 10, 0, 0)); // room again after the drain
+    }
+
+    @Test
+    public void failingSink_leavesEventForNextDrain() {
+        AuditRingBuffer buffer = new AuditRingBuffer(8);
+        buffer.offer(1, 1, "a", 1, 0, 0);
+        buffer.offer(2, 1, "a", 2, 0, 0);
+
+        try {
+            buffer.drain((at, event, actor, itemId, before, after) -> {
+                if (itemId == 2) {
+                    throw new IllegalStateException("disk full");
+                }
+            }, 100);
+            fail("expected the sink's exception");
+        } catch (IllegalStateException expected) {
+            // first event consumed, second still queued
+        }
+
+        List<Long> drained = new ArrayList<>();
+        buffer.drain((at, event, actor, itemId, before, after) -> drained.add(itemId), 100);
+        assertEquals(1, drained.size());
+        assertEquals(Long.valueOf(2), drained.get(0));
+    }
+
+    /**
+     * A buffer with room takes every offer on the publish path, however many
+     * times its indexes wrap round, and drains them in order.
+     */
+    @Test
+    public void offer_withRoomNeverDropsAcrossWraps() {
+        final int rounds = 50;
+        AuditRingBuffer buffer = new AuditRingBuffer(1 << 6);
+        final int perRound = buffer.capacity();
+        long[] next = new long[1];
+        boolean[] outOfOrder = new boolean[1];
+        AuditRingBuffer.Sink check = (at, event, actor, itemId, before, after) -> {
+            if (itemId != next[0]++) {
+                outOfOrder[0] = true;
+            }
+        };
+
+        long sequence = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < perRound; i++) {
+                assertTrue(buffer.offer(0, AuditLog.QUANTITY_CHANGED, "admin", sequence++, i + 1, i));
+            }
+            assertEquals(perRound, buffer.drain(check, perRound));
+        }
+
+        assertEquals(0, buffer.takeDropped());
+        assertEquals(sequence, next[0]);
+        assertFalse(outOfOrder[0]);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for encrypted backups: round trip, tamper detection (including
+ * a trailer the gzip reader never reaches), the one-time migration of
+ * plain backups, and a restore's swap: nothing reopens the file part-way
+ * and every table is reported changed afterwards. Robolectric has no AndroidKeyStore, so the data key is
+ * wrapped by {@link SoftwareKeyWrapper} here.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BackupEncryptionTest {
+
+    private Context context;
+    private InventoryRepository repository;
+    private BackupCipher cipher;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        cipher = new BackupCipher(new File(context.getNoBackupFilesDir(), "test-key.bin"), new SoftwareKeyWrapper());
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void backupAndRestore_roundTripsThroughEncryption() throws Exception {
+        repository.insertItem("Secret widget", 7);
+        DatabaseBackupManager manager = new DatabaseBackupManager(context, repository, cipher);
+        File backup = manager.backupBlocking();
+        assertTrue(backup.getName().endsWith(".db.gz.enc"));
+        assertEquals(backup, manager.getLatestBackup());
+
+        // Neither the gzip header nor the item name shows through
+        byte[] raw = Files.readAllBytes(backup.toPath());
+        assertFalse(raw[0] == (byte) 0x1f && raw[1] == (byte) 0x8b);
+        assertFalse(new String(raw, "ISO-8859-1").contains("Secret widget"));
+
+        repository.insertItem("Added after backup", 1);
+        manager.restoreBlocking(backup);
+        List<String> names = new ArrayList<>();
+        for (InventoryItem item : repository.getAllItems()) {
+            names.add(item.getName());
+        }
+        assertEquals(Arrays.asList("Secret widget"), names);
+    }
+
+    @Test
+    public void restore_rejectsAlteredBackup() throws Exception {
+        repository.insertItem("Widget", 3);
+        DatabaseBackupManager manager = new DatabaseBackupManager(context, repository, cipher);
+        File backup = manager.backupBlocking();
+        try (RandomAccessFile file = new RandomAccessFile(backup, "rw")) {
+            file.seek(file.length() / 2);
+            int b = file.read();
+            file.seek(file.length() / 2);
+            file.write(b ^ 0x01);
+        }
+
+        try {
+            manager.restoreBlocking(backup);
+            fail("altered backup restored");
+        } catch (IOException expected) {
+            // the trailer or the gzip stream catches it before the live file is touched
+        }
+        assertEquals("Widget", repository.getAllItems().get(0).getName());
+    }
+
+    @Test
+    public void restore_rejectsAlteredTrailer() throws Exception {
+        repository.insertItem("Widget", 3);
+        DatabaseBackupManager manager = new DatabaseBackupManager(context, repository, cipher);
+        File backup = manager.backupBlocking();
+        // Only the MAC changes: every byte the gzip reader consumes is intact
+        try (RandomAccessFile file = new RandomAccessFile(backup, "rw")) {
+            file.seek(file.length() - 1);
+            int b = file.read();
+            file.seek(file.length() - 1);
+            file.write(b ^ 0x01);
+        }
+        repository.insertItem("Added after backup", 1);
+
+        assertThrows(IOException.class, () -> manager.restoreBlocking(backup));
+        assertEquals(2, repository.getAllItems().size()); // the live file was never replaced
+    }
+
+    @Test
+    public void restore_tellsObserversEveryTableChanged() throws Exception {
+        repository.insertItem("Widget", 3);
+        DatabaseBackupManager manager = new DatabaseBackupManager(context, repository, cipher);
+        File backup = manager.backupBlocking();
+        Set<String> heard = ConcurrentHashMap.newKeySet();
+        repository.getInvalidationTracker().addObserver(tables -> heard.addAll(Arrays.asList(tables)));
+
+        manager.restoreBlocking(backup);
+
+        // Facets, lots, sessions, history and the audit log were replaced too, not just inventory
+        assertTrue(heard.containsAll(Arrays.asList(DatabaseHelper.ALL_TABLES)));
+    }
+
+    @Test
+    public void swap_holdsOffNewConnectionsUntilItIsDone() throws Exception {
+        DatabaseHelper dbHelper = repository.getDatabaseHelper();
+        dbHelper.getWritableDatabase();
+        CountDownLatch opened = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            dbHelper.getReadableDatabase();
+            opened.countDown();
+        });
+
+        boolean[] openedMidSwap = new boolean[1];
+        dbHelper.runWithFileClosed(() -> {
+            reader.start();
+            try {
+                openedMidSwap[0] = opened.await(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        });
+
+        assertFalse(openedMidSwap[0]);
+        assertTrue(opened.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void decrypt_rejectsTruncationAndWrongKey() throws Exception {
+        byte[] plain = new byte[100_000];
+        new Random(1).nextBytes(plain);
+        ByteArrayOutputStream sealed = new ByteArrayOutputStream();
+        try (OutputStream out = cipher.encrypt(sealed)) {
+            out.write(plain);
+        }
+        byte[] bytes = sealed.toByteArray();
+        assertArrayEquals(plain, readAll(cipher.decrypt(new ByteArrayInputStream(bytes))));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IOException.class, () -> readAll(cipher.decrypt(new ByteArrayInputStream(truncated))));
+
+        BackupCipher other = new BackupCipher(new File(context.getNoBackupFilesDir(), "other-key.bin"),
+                new SoftwareKeyWrapper());
+        assertThrows(IOException.class, () -> readAll(other.decrypt(new ByteArrayInputStream(bytes))));
+    }
+
+    @Test
+    public void keyFile_holdsOnlyTheWrappedKey() throws Exception {
+        try (OutputStream out = cipher.encrypt(new ByteArrayOutputStream())) {
+            out.write(1);
+        }
+        File keyFile = new File(context.getNoBackupFilesDir(), "test-key.bin");
+        byte[] wrapped = Files.readAllBytes(keyFile.toPath());
+        byte[] key = new SoftwareKeyWrapper().unwrap(wrapped);
+        assertEquals(64, key.length);
+        for (int i = 0; i + 8 <= key.length; i += 8) {
+            assertEquals(-1, indexOf(wrapped, Arrays.copyOfRange(key, i, i + 8)));
+        }
+    }
+
+    @Test
+    public void legacyPlainBackup_isEncryptedOnceAndStillRestores() throws Exception {
+        repository.insertItem("Old widget", 5);
+        DatabaseBackupManager first = new DatabaseBackupManager(context, repository, cipher);
+        // Through the backup thread, so this manager's own migration pass is over before the legacy file appears
+        first.backup(new DatabaseBackupManager.Callback() {
+            @Override
+            public void onSuccess(File file) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+        });
+        DatabaseBackupManager.drainForTesting();
+        File encrypted = first.getLatestBackup();
+        assertNotNull(encrypted);
+
+        // Turn it back into what an older version wrote
+        File legacy = new File(encrypted.getParentFile(), "inventory-20200101-000000.db.gz");
+        try (InputStream in = cipher.decrypt(new FileInputStream(encrypted));
+             OutputStream out = new FileOutputStream(legacy)) {
+            out.write(readAll(in));
+        }
+        Files.move(new File(encrypted.getPath() + ".sha256").toPath(),
+                new File(legacy.getPath() + ".sha256").toPath());
+        assertTrue(encrypted.delete());
+
+        DatabaseBackupManager manager = new DatabaseBackupManager(context, repository, cipher);
+        DatabaseBackupManager.drainForTesting(); // the migration was queued by the constructor
+        File migrated = manager.getLatestBackup();
+        assertEquals(legacy.getName() + ".enc", migrated.getName());
+        assertFalse(legacy.exists());
+        assertFalse(new File(legacy.getPath() + ".sha256").exists());
+
+        repository.insertItem("New widget", 1);
+        manager.restoreBlocking(migrated);
+        assertEquals(1, repository.getAllItems().size());
+        assertEquals("Old widget", repository.getAllItems().get(0).getName());
+    }
+
+    // ----------- Helpers -----------
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        for (int i = 0; i + needle.length <= haystack.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(haystack, i, i + needle.length), needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
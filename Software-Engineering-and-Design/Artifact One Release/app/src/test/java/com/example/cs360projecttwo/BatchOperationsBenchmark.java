@@ -0,0 +1,105 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): batch delete,
+ * adjust and set-threshold on 10k selected rows, each against the same
+ * change made one item at a time. Writes
+ * build/benchmarks/batch-operations.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BatchOperationsBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int RUNS = 5;
+
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void tenThousandSelected_batchVsOneAtATime() throws Exception {
+        List<Long> ids = seed(ROWS);
+        int[] step = {0};
+
+        long adjustBatch = BenchmarkReport.medianNanos(1, RUNS,
+                () -> assertEquals(ROWS, repository.adjustQuantities(ids, ++step[0] % 2 == 0 ? -1 : 1)));
+        long adjustSingle = BenchmarkReport.medianNanos(1, RUNS, () -> {
+            int delta = ++step[0] % 2 == 0 ? -1 : 1;
+            for (long id : ids) {
+                repository.adjustQuantities(Collections.singletonList(id), delta);
+            }
+        });
+
+        long thresholdBatch = BenchmarkReport.medianNanos(1, RUNS,
+                () -> assertEquals(ROWS, repository.setLowStockThreshold(ids, 1 + ++step[0] % 2)));
+        long thresholdSingle = BenchmarkReport.medianNanos(1, RUNS, () -> {
+            int threshold = 1 + ++step[0] % 2;
+            for (long id : ids) {
+                repository.setLowStockThreshold(Collections.singletonList(id), threshold);
+            }
+        });
+
+        // Deletes need fresh rows before every run
+        long[] deleteBatch = new long[RUNS];
+        long[] deleteSingle = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            List<Long> batch = seed(ROWS);
+            long start = System.nanoTime();
+            assertEquals(ROWS, repository.deleteItems(batch));
+            deleteBatch[run] = System.nanoTime() - start;
+
+            List<Long> single = seed(ROWS);
+            start = System.nanoTime();
+            for (long id : single) {
+                assertTrue(repository.deleteItem(id));
+            }
+            deleteSingle[run] = System.nanoTime() - start;
+        }
+        assertEquals(ROWS, repository.getAllItems().size());
+
+        new BenchmarkReport("batch-operations")
+                .line("%,d selected rows", ROWS)
+                .compare("adjust quantity", "one at a time", adjustSingle, "batch", adjustBatch)
+                .compare("set low-stock threshold", "one at a time", thresholdSingle, "batch", thresholdBatch)
+                .compare("delete", "one at a time", BenchmarkReport.median(deleteSingle),
+                        "batch", BenchmarkReport.median(deleteBatch))
+                .write();
+    }
+
+    private List<Long> seed(int count) {
+        List<InventoryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InventoryItem(0, "Item " + i, 10 + i));
+        }
+        List<Long> ids = new ArrayList<>(count);
+        for (InventoryItem item : repository.insertItemsAndGet(items)) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
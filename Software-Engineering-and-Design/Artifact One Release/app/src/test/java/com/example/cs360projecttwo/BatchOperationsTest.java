@@ -0,0 +1,146 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for multi-select batch delete, adjust and set-threshold, and
+ * what a delete tells the repository's delete listeners.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BatchOperationsTest {
+
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void deleteFiveThousandSelected_readsNothingFirst() {
+        List<Long> ids = seed(5_000);
+        repository.insertItem("Keep me", 1);
+
+        long queries = repository.getQueryCount();
+        assertEquals(5_000, repository.deleteItems(ids));
+        assertEquals(queries, repository.getQueryCount()); // one compiled DELETE, rebound per row
+
+        assertEquals(1, repository.getAllItems().size());
+        assertNull(repository.getItem(ids.get(0)));
+    }
+
+    @Test
+    public void adjustMany_readsRowsInSlotSizedChunks() {
+        int count = 5 * InventoryRepository.FOR_UPDATE_SLOTS + 3;
+        List<Long> ids = seed(count);
+
+        long queries = repository.getQueryCount();
+        assertEquals(count, repository.adjustQuantities(ids, -1));
+        assertEquals(queries + 6, repository.getQueryCount()); // not one SELECT per row
+
+        for (int i : new int[]{0, count / 2, count - 1}) {
+            assertEquals(9 + i, repository.getItem(ids.get(i)).getQuantity());
+            List<QuantityHistoryStore.TrendPoint> trend = repository.getHistory().getTrend(ids.get(i), 0);
+            assertEquals(9 + i, trend.get(trend.size() - 1).last); // the reused history statements wrote too
+        }
+    }
+
+    @Test
+    public void adjust_clampsInsteadOfOverflowing() {
+        long big = repository.insertItem("Big", Integer.MAX_VALUE - 1).getId();
+        long small = repository.insertItem("Small", 5).getId();
+
+        repository.adjustQuantities(Arrays.asList(big), Integer.MAX_VALUE);
+        repository.adjustQuantities(Arrays.asList(small), Integer.MIN_VALUE);
+
+        assertEquals(Integer.MAX_VALUE, repository.getItem(big).getQuantity());
+        assertEquals(0, repository.getItem(small).getQuantity());
+    }
+
+    @Test
+    public void adjust_appliesDeltaClampsAtZeroAndFeedsForecast() {
+        List<Long> ids = seed(3);
+        repository.adjustQuantities(ids, -15);
+
+        // Seeded quantities are 10, 11, 12
+        for (long id : ids) {
+            InventoryItem item = repository.getItem(id);
+            assertEquals(0, item.getQuantity());
+            assertTrue(item.getConsumptionRate() > 0);
+        }
+
+        repository.adjustQuantities(ids.subList(0, 1), 7);
+        assertEquals(7, repository.getItem(ids.get(0)).getQuantity());
+    }
+
+    @Test
+    public void setThreshold_marksLowStockRows() {
+        List<Long> ids = seed(3);
+        assertEquals(2, repository.setLowStockThreshold(ids.subList(0, 2), 10));
+
+        assertTrue(repository.getItem(ids.get(0)).isLowStock());   // 10 <= 10
+        assertFalse(repository.getItem(ids.get(1)).isLowStock());  // 11 > 10
+        assertEquals(0, repository.getItem(ids.get(2)).getLowStockThreshold());
+    }
+
+    @Test
+    public void delete_tellsDeleteListenersWhatWasRemoved() {
+        List<Long> ids = seed(3);
+        List<List<Long>> heard = new ArrayList<>();
+        repository.addDeleteListener(heard::add);
+
+        assertEquals(1, repository.deleteItems(Arrays.asList(ids.get(0), 999_999L)));
+        assertEquals(Arrays.asList(Arrays.asList(ids.get(0))), heard); // only the row that existed
+
+        heard.clear();
+        assertFalse(repository.deleteItem(999_999L));
+        repository.setLowStockThreshold(ids.subList(1, 3), 4);
+        assertTrue(heard.isEmpty()); // nothing removed, nothing to hear
+
+        assertTrue(repository.deleteItem(ids.get(1)));
+        assertEquals(Arrays.asList(Arrays.asList(ids.get(1))), heard);
+    }
+
+    @Test
+    public void batchWithMissingIds_skipsThemAndKeepsCacheConsistent() {
+        List<Long> ids = seed(2);
+        repository.getItem(ids.get(0)); // cached
+        repository.deleteItem(ids.get(1));
+
+        assertEquals(1, repository.adjustQuantities(Arrays.asList(ids.get(0), ids.get(1), 999_999L), 5));
+        assertEquals(15, repository.getItem(ids.get(0)).getQuantity());
+        assertNull(repository.getItem(ids.get(1)));
+    }
+
+    private List<Long> seed(int count) {
+        List<InventoryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InventoryItem(0, "Item " + i, 10 + i));
+        }
+        List<Long> ids = new ArrayList<>(count);
+        for (InventoryItem item : repository.insertItemsAndGet(items)) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
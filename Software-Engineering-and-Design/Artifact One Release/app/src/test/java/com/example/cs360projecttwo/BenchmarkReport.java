@@ -0,0 +1,83 @@
+package com.example.cs360projecttwo;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * BenchmarkReport
+ *
+ * Timing and report file for the report-only benchmarks: the classes named
+ * *Benchmark, which the build leaves out of the normal unit test run. Run
+ * them with
+ *
+ *   ./gradlew testDebugUnitTest -Pbenchmarks --tests '*Benchmark'
+ *
+ * Each one times its work as the median of several runs after untimed
+ * warm-ups, and writes what it measured to build/benchmarks/&lt;name&gt;.txt
+ * so runs on two branches can be diffed (as WorkloadBenchmarkTest does for
+ * the workload). Timings vary from machine to machine and under
+ * Robolectric, so a benchmark never asserts one; it only checks that the
+ * two sides it compares computed the same answer.
+ */
+final class BenchmarkReport {
+
+    /** Work to time; runs once per sample. */
+    interface Work {
+        void run() throws Exception;
+    }
+
+    private final String name;
+    private final StringBuilder text = new StringBuilder();
+
+    BenchmarkReport(String name) {
+        this.name = name;
+    }
+
+    /** Median wall time of {@code runs} calls to {@code work}, in nanoseconds, after {@code warmups} untimed ones. */
+    static long medianNanos(int warmups, int runs, Work work) throws Exception {
+        for (int i = 0; i < warmups; i++) {
+            work.run();
+        }
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            work.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        return median(samples);
+    }
+
+    /** Median of samples taken by hand, for work that needs untimed setup before every run. */
+    static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /** Appends one formatted line. */
+    BenchmarkReport line(String format, Object... args) {
+        text.append(String.format(Locale.US, format, args)).append('\n');
+        return this;
+    }
+
+    /** Appends a line comparing two medians, with their ratio. */
+    BenchmarkReport compare(String what, String baseline, long baselineNanos, String candidate, long candidateNanos) {
+        return line("%-32s %s %,d us  %s %,d us  (%.2fx)", what, baseline, baselineNanos / 1_000,
+                candidate, candidateNanos / 1_000, (double) baselineNanos / Math.max(1, candidateNanos));
+    }
+
+    /** Writes the report to build/benchmarks/&lt;name&gt;.txt, replacing the last run's. */
+    void write() throws IOException {
+        File dir = new File("build/benchmarks");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        try (Writer writer = new FileWriter(new File(dir, name + ".txt"))) {
+            writer.write(text.toString());
+        }
+    }
+}
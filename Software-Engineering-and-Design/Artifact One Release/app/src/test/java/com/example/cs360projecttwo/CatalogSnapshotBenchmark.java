@@ -0,0 +1,91 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): the first screen of
+ * a cold start, bound from the sealed snapshot against a fresh SQLite
+ * open and query. Writes build/benchmarks/catalog-snapshot.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CatalogSnapshotBenchmark {
+
+    private static final int ITEMS = 20_000;
+    private static final int FIRST_SCREEN = 30;
+
+    private File file;
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void coldStart_firstScreenFromSnapshotVsSqlite() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        // Its own file, so the store the repository attaches never rewrites it mid-run
+        file = new File(context.getFilesDir(), "benchmark.snapshot");
+        BackupCipher cipher = BackupCipher.forDevice(context);
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        db.beginTransaction();
+        try (SqlStatement insert = SqlStatement.compile(db,
+                "INSERT INTO inventory (item_name, item_quantity) VALUES (?, ?)")) {
+            for (int i = 1; i <= ITEMS; i++) {
+                insert.bindString(1, "Item " + i);
+                insert.bindLong(2, i % 50);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        List<InventoryItem> all = repository.getAllItems();
+        CatalogSnapshot.write(file, all, System.currentTimeMillis(), cipher);
+        String lastOnScreen = all.get(FIRST_SCREEN - 1).getName();
+
+        char[] name = new char[64];
+        int[] length = new int[1];
+        long snapshotNanos = BenchmarkReport.medianNanos(1, 7, () -> {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(file, cipher);
+            for (int row = 0; row < FIRST_SCREEN; row++) {
+                length[0] = snapshot.getName(row, name);
+                snapshot.quantity(row);
+                snapshot.isLowStock(row);
+            }
+        });
+        assertEquals(lastOnScreen, new String(name, 0, length[0]));
+
+        String[] first = new String[1];
+        long sqliteNanos = BenchmarkReport.medianNanos(1, 7, () -> {
+            InventoryRepository.resetForTesting(); // closes the database, as after a process restart
+            List<InventoryItem> rows = InventoryRepository.getInstance(context).getAllItems();
+            for (int row = 0; row < FIRST_SCREEN; row++) {
+                first[0] = rows.get(row).getName();
+            }
+        });
+        assertEquals(lastOnScreen, first[0]);
+
+        new BenchmarkReport("catalog-snapshot")
+                .line("%,d items, first %d rows bound; sealed snapshot %,d KB", ITEMS, FIRST_SCREEN,
+                        file.length() / 1024)
+                .compare("cold start to first screen", "SQLite", sqliteNanos, "snapshot", snapshotNanos)
+                .write();
+    }
+}
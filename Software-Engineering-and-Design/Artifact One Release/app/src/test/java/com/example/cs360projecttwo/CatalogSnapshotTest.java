@@ -0,0 +1,188 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for the catalog snapshot: the file format and its sealing, the
+ * debounced writer fed by every commit, and the stale marker that outlives
+ * a process killed before its write.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CatalogSnapshotTest {
+
+    private Context context;
+    private File file;
+    private BackupCipher cipher;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        file = new File(context.getFilesDir(), CatalogSnapshotStore.FILE_NAME);
+        cipher = BackupCipher.forDevice(context);
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+        file.delete();
+        new File(file.getPath() + ".stale").delete();
+    }
+
+    @Test
+    public void roundTrip_keepsRowsInOrder() throws IOException {
+        List<InventoryItem> items = Arrays.asList(
+                new InventoryItem(7, "Gloves", 5, 0, 123_456L, 10, 3),
+                new InventoryItem(2, "Café ☕ 🍎", 40, 0, ConsumptionForecast.NO_STOCKOUT, 0, 1),
+                new InventoryItem(9, "", 0));
+        CatalogSnapshot.write(file, items, 42L, cipher);
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file, cipher);
+        assertEquals(3, snapshot.size());
+        assertEquals(42L, snapshot.writtenAt());
+        for (int row = 0; row < items.size(); row++) {
+            InventoryItem item = items.get(row);
+            assertEquals(item.getId(), snapshot.itemId(row));
+            assertEquals(item.getName(), snapshot.name(row));
+            assertEquals(item.getQuantity(), snapshot.quantity(row));
+            assertEquals(item.getLowStockThreshold(), snapshot.lowStockThreshold(row));
+            assertEquals(item.getStockoutAt(), snapshot.stockoutAt(row));
+            assertEquals(item.getVersion(), snapshot.version(row));
+            assertEquals(item.isLowStock(), snapshot.isLowStock(row));
+        }
+
+        // Copied into a buffer the caller keeps, without a String per row
+        char[] buffer = new char[snapshot.nameLength(1)];
+        assertEquals(buffer.length, snapshot.getName(1, buffer));
+        assertEquals("Café ☕ 🍎", new String(buffer));
+    }
+
+    @Test
+    public void rowsDecryptInAnyOrder_acrossBlockAndChunkBoundaries() throws IOException {
+        List<InventoryItem> items = new ArrayList<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            // Names from empty to several decrypt chunks long, so reads start and end mid-block
+            StringBuilder name = new StringBuilder();
+            for (int c = random.nextInt(i % 7 == 0 ? 300 : 20); c > 0; c--) {
+                name.append((char) ('a' + random.nextInt(26)));
+            }
+            items.add(new InventoryItem(i + 1, name.toString(), random.nextInt(1_000)));
+        }
+        CatalogSnapshot.write(file, items, 1L, cipher);
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file, cipher);
+        for (int n = 0; n < 2_000; n++) {
+            int row = random.nextInt(items.size());
+            assertEquals(items.get(row).getId(), snapshot.itemId(row));
+            assertEquals(items.get(row).getName(), snapshot.name(row));
+            assertEquals(items.get(row).getQuantity(), snapshot.quantity(row));
+        }
+    }
+
+    @Test
+    public void emptyCatalog_isStillASnapshot() throws IOException {
+        CatalogSnapshot.write(file, Collections.emptyList(), 1L, cipher);
+        assertEquals(0, CatalogSnapshot.open(file, cipher).size());
+    }
+
+    @Test
+    public void missingOrDamagedFile_isIgnored() throws IOException {
+        CatalogSnapshotStore store = CatalogSnapshotStore.get(context);
+        assertNull(CatalogSnapshot.open(file, cipher));
+
+        CatalogSnapshot.write(file, Collections.singletonList(new InventoryItem(1, "Tape", 3)), 1L, cipher);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2); // cut the trailer short
+        }
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(file, cipher));
+        assertNull(store.read());
+
+        CatalogSnapshot.write(file, Collections.singletonList(new InventoryItem(1, "Tape", 3)), 1L, cipher);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() / 2); // a single altered byte inside the rows
+            int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 0x01);
+        }
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(file, cipher));
+        assertNull(store.read());
+
+        ByteBuffer wrongMagic = ByteBuffer.allocate(CatalogSnapshot.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        wrongMagic.putInt(0, 0x12345678);
+        assertNull(CatalogSnapshot.wrap(wrongMagic));
+    }
+
+    @Test
+    public void file_holdsNoPlaintextNames() throws IOException {
+        CatalogSnapshot.write(file, Collections.singletonList(new InventoryItem(1, "Tape", 3)), 1L, cipher);
+
+        // Byte for byte, so the name's UTF-16 units are looked for at any alignment
+        String onDisk = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+        assertFalse(onDisk.contains(new String("Tape".getBytes(StandardCharsets.UTF_16LE), StandardCharsets.ISO_8859_1)));
+        assertEquals("Tape", CatalogSnapshot.open(file, cipher).name(0));
+    }
+
+    @Test
+    public void commitsFromAnyPath_reachTheSnapshot() throws Exception {
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        CatalogSnapshotStore store = CatalogSnapshotStore.get(context);
+        long gloves = repository.insertItem("Gloves", 4).getId();
+        // No screen is observing: a background batch and a provider-style write
+        repository.runInTransaction(() -> {
+            repository.insertItem("Masks", 2);
+            repository.updateQuantity(gloves, 9);
+            return null;
+        });
+        store.flush();
+
+        CatalogSnapshot snapshot = store.read();
+        assertEquals(2, snapshot.size());
+        assertEquals("Gloves", snapshot.name(0));
+        assertEquals(9, snapshot.quantity(0));
+        assertEquals("Masks", snapshot.name(1));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        assertFalse(new File(file.getPath() + ".stale").exists());
+    }
+
+    @Test
+    public void changeLostWithTheProcess_hidesThePreviewUntilRewritten() throws Exception {
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        repository.insertItem("Gloves", 4);
+        CatalogSnapshotStore.get(context).flush();
+        repository.insertItem("Masks", 2);
+        // Killed inside the debounce window: the pending write never runs
+        InventoryRepository.resetForTesting();
+
+        CatalogSnapshotStore restarted = CatalogSnapshotStore.get(context);
+        assertNull(restarted.read()); // better no preview than one missing Masks
+        InventoryRepository.getInstance(context); // attaching rewrites it from the database
+        restarted.flush();
+
+        CatalogSnapshot snapshot = restarted.read();
+        assertEquals(2, snapshot.size());
+        assertEquals("Masks", snapshot.name(1));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for the columnar inventory copy: incremental refresh from
+ * repository writes, and bulk scans checked against the equivalent SQL.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ColumnarInventoryTest {
+
+    private InventoryRepository repository;
+    private ColumnarInventory columns;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        columns = repository.getColumns();
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void committedWrites_patchOnlyTheirRows() {
+        long gloves = repository.insertItem("Gloves", 4).getId();
+        long tape = repository.insertItem("Tape", 30).getId();
+        assertEquals(2, columns.size());
+        assertEquals(1, columns.fullLoads());
+
+        long masks = repository.insertItem("Masks", 2).getId();
+        repository.setLowStockThreshold(Arrays.asList(gloves, masks), 5);
+        repository.setCategory(Arrays.asList(gloves, masks), "PPE");
+        repository.updateQuantity(masks, 9);
+        repository.deleteItem(tape);
+
+        assertEquals(2, columns.size());
+        assertEquals(13, columns.totalUnits());
+        assertEquals(1, columns.countLowStock());
+        assertArrayEquals(new long[]{gloves}, columns.lowStockIds());
+        assertEquals(1, columns.countBelow(5));
+        ColumnarInventory.CategoryTotals totals = columns.unitsByCategory();
+        assertEquals(1, totals.categoryIds.length);
+        assertEquals(13, totals.units[0]);
+        assertEquals(2, totals.items[0]);
+        assertEquals("no full re-read for row changes", 1, columns.fullLoads());
+    }
+
+    @Test
+    public void rolledBackBatch_isNeverSeen() throws Exception {
+        long id = repository.insertItem("Bleach", 10).getId();
+        assertEquals(10, columns.totalUnits());
+
+        try {
+            repository.runInTransaction(() -> {
+                repository.updateQuantity(id, 0);
+                repository.insertItem("Sponges", 5);
+                throw new IllegalStateException("abort");
+            });
+            fail("expected the batch to throw");
+        } catch (IllegalStateException expected) {
+            // rolled back
+        }
+        assertEquals(1, columns.size());
+        assertEquals(10, columns.totalUnits());
+
+        repository.runInTransaction(() -> repository.updateQuantity(id, 3));
+        assertEquals(3, columns.totalUnits());
+    }
+
+    @Test
+    public void restoredDatabase_isReadAgain() {
+        repository.insertItem("Soap", 7);
+        assertEquals(7, columns.totalUnits());
+        repository.getDatabaseHelper().getWritableDatabase().execSQL("UPDATE inventory SET item_quantity = 1");
+
+        assertEquals(7, columns.totalUnits()); // written behind the repository's back
+        repository.invalidateAll();
+        assertEquals(1, columns.totalUnits());
+        assertEquals(2, columns.fullLoads());
+    }
+
+    @Test
+    public void largeInventory_scansMatchSqlAndWritesReReadOneRow() {
+        int items = 100_000;
+        int categories = 40;
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        Random random = new Random(7);
+        db.beginTransaction();
+        try (SqlStatement category = SqlStatement.compile(db, "INSERT INTO categories (name) VALUES (?)");
+             SqlStatement item = SqlStatement.compile(db, "INSERT INTO inventory "
+                     + "(item_name, item_quantity, low_stock_threshold, category_id) VALUES (?, ?, ?, ?)")) {
+            for (int c = 1; c <= categories; c++) {
+                category.bindString(1, "Category " + c);
+                category.executeInsert();
+            }
+            for (int i = 1; i <= items; i++) {
+                item.bindString(1, "Item " + i);
+                item.bindLong(2, random.nextInt(500));
+                item.bindLong(3, random.nextInt(40));
+                if (i % 10 == 0) {
+                    item.bindNull(4);
+                } else {
+                    item.bindLong(4, 1 + random.nextInt(categories));
+                }
+                item.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        repository.invalidateAll();
+        assertEquals(items, columns.size());
+        int reloads = columns.rowReloads();
+
+        for (int run = 0; run < 5; run++) {
+            int below = 10 + run;
+            try (Cursor cursor = db.query("SELECT COUNT(*) FROM inventory WHERE item_quantity < ?",
+                    new String[]{String.valueOf(below)})) {
+                cursor.moveToFirst();
+                assertEquals(cursor.getLong(0), columns.countBelow(below));
+            }
+
+            Map<Long, Long> sqlTotals = new HashMap<>();
+            try (Cursor cursor = db.query("SELECT COALESCE(category_id, 0), SUM(item_quantity) "
+                    + "FROM inventory GROUP BY category_id")) {
+                while (cursor.moveToNext()) {
+                    sqlTotals.put(cursor.getLong(0), cursor.getLong(1));
+                }
+            }
+            ColumnarInventory.CategoryTotals totals = columns.unitsByCategory();
+            assertEquals(sqlTotals.size(), totals.categoryIds.length);
+            for (int i = 0; i < totals.categoryIds.length; i++) {
+                assertEquals(sqlTotals.get(totals.categoryIds[i]).longValue(), totals.units[i]);
+            }
+
+            // A write between scans costs one row re-read, not a reload; seeded quantities are below 500
+            repository.updateQuantity(1 + random.nextInt(items), 500 + run);
+        }
+        columns.countBelow(0); // picks up the last write
+        assertEquals(1, columns.fullLoads());
+        assertEquals(reloads + 5, columns.rowReloads());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): columnar scans
+ * against the equivalent SQL over a million items, plus the one full load
+ * they pay for. Writes build/benchmarks/columnar-scan.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ColumnarScanBenchmark {
+
+    private static final int ITEMS = 1_000_000;
+    private static final int CATEGORIES = 40;
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void millionItems_columnarScansVsSql() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        seed(db);
+        ColumnarInventory columns = repository.getColumns();
+
+        long start = System.nanoTime();
+        assertEquals(ITEMS, columns.size());
+        long loadNanos = System.nanoTime() - start;
+
+        int below = 10;
+        long[] sqlCount = new long[1];
+        long sqlCountNanos = BenchmarkReport.medianNanos(2, 9, () -> {
+            try (Cursor cursor = db.query("SELECT COUNT(*) FROM inventory WHERE item_quantity < ?",
+                    new String[]{String.valueOf(below)})) {
+                cursor.moveToFirst();
+                sqlCount[0] = cursor.getLong(0);
+            }
+        });
+        long columnCountNanos = BenchmarkReport.medianNanos(2, 9, () -> columns.countBelow(below));
+        assertEquals(sqlCount[0], columns.countBelow(below));
+
+        Map<Long, Long> sqlTotals = new HashMap<>();
+        long sqlGroupNanos = BenchmarkReport.medianNanos(2, 9, () -> {
+            sqlTotals.clear();
+            try (Cursor cursor = db.query("SELECT COALESCE(category_id, 0), SUM(item_quantity) "
+                    + "FROM inventory GROUP BY category_id")) {
+                while (cursor.moveToNext()) {
+                    sqlTotals.put(cursor.getLong(0), cursor.getLong(1));
+                }
+            }
+        });
+        long columnGroupNanos = BenchmarkReport.medianNanos(2, 9, columns::unitsByCategory);
+        ColumnarInventory.CategoryTotals totals = columns.unitsByCategory();
+        assertEquals(sqlTotals.size(), totals.categoryIds.length);
+        for (int i = 0; i < totals.categoryIds.length; i++) {
+            assertEquals(sqlTotals.get(totals.categoryIds[i]).longValue(), totals.units[i]);
+        }
+
+        new BenchmarkReport("columnar-scan")
+                .line("%,d items, %d categories; first load %,d ms", ITEMS, CATEGORIES, loadNanos / 1_000_000)
+                .compare("count below " + below, "SQL", sqlCountNanos, "columnar", columnCountNanos)
+                .compare("units by category", "SQL", sqlGroupNanos, "columnar", columnGroupNanos)
+                .write();
+    }
+
+    private static void seed(SupportSQLiteDatabase db) {
+        Random random = new Random(7);
+        db.beginTransaction();
+        try (SqlStatement category = SqlStatement.compile(db, "INSERT INTO categories (name) VALUES (?)");
+             SqlStatement item = SqlStatement.compile(db, "INSERT INTO inventory "
+                     + "(item_name, item_quantity, low_stock_threshold, category_id) VALUES (?, ?, ?, ?)")) {
+            for (int c = 1; c <= CATEGORIES; c++) {
+                category.bindString(1, "Category " + c);
+                category.executeInsert();
+            }
+            for (int i = 1; i <= ITEMS; i++) {
+                item.bindString(1, "Item " + i);
+                item.bindLong(2, random.nextInt(500));
+                item.bindLong(3, random.nextInt(40));
+                if (i % 10 == 0) {
+                    item.bindNull(4);
+                } else {
+                    item.bindLong(4, 1 + random.nextInt(CATEGORIES));
+                }
+                item.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
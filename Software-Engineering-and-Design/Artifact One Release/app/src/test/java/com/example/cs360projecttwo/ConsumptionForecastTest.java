@@ -0,0 +1,69 @@
+package com.example.cs360projecttwo;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the consumption-rate moving average and projections.
+ */
+public class ConsumptionForecastTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void steadyConsumption_convergesToTrueRate() {
+        double rate = 0;
+        for (int day = 0; day < 60; day++) {
+            rate = ConsumptionForecast.updateRate(rate, 10, DAY);
+        }
+        assertEquals(10.0, rate, 0.05);
+    }
+
+    @Test
+    public void irregularIntervals_convergeToSameRate() {
+        double rate = 0;
+        // 5 units every 12h, then 30 units after 3 days: still 10/day
+        for (int i = 0; i < 100; i++) {
+            rate = ConsumptionForecast.updateRate(rate, 5, 12 * HOUR);
+        }
+        rate = ConsumptionForecast.updateRate(rate, 30, 3 * DAY);
+        assertEquals(10.0, rate, 0.05);
+    }
+
+    @Test
+    public void burstOfEdits_isBounded() {
+        double rate = ConsumptionForecast.updateRate(4.0, 7, 0);
+        assertEquals(4.0 + 7 / ConsumptionForecast.TAU_DAYS, rate, 1e-9);
+        assertTrue(Double.isFinite(ConsumptionForecast.updateRate(4.0, 7, 1)));
+    }
+
+    @Test
+    public void seasonalShift_isTrackedWithinAFewWeeks() {
+        double rate = 0;
+        for (int day = 0; day < 60; day++) {
+            rate = ConsumptionForecast.updateRate(rate, 2, DAY);
+        }
+        for (int day = 0; day < 21; day++) {
+            rate = ConsumptionForecast.updateRate(rate, 20, DAY);
+        }
+        assertTrue("rate " + rate, rate > 18);
+    }
+
+    @Test
+    public void projection_andReorder() {
+        long now = 1_000 * DAY;
+        long stockout = ConsumptionForecast.projectStockout(50, 10.0, now);
+        assertEquals(5.0, ConsumptionForecast.daysUntilStockout(stockout, now), 1e-6);
+
+        assertEquals(ConsumptionForecast.NO_STOCKOUT, ConsumptionForecast.projectStockout(50, 0, now));
+        assertEquals(now, ConsumptionForecast.projectStockout(0, 3.0, now));
+
+        // 10/day over 7 days lead + 14 days cover = 210, minus 50 on hand
+        assertEquals(160, ConsumptionForecast.suggestedReorder(50, 10.0));
+        assertEquals(0, ConsumptionForecast.suggestedReorder(500, 10.0));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Local tests that the grid survives configuration changes without touching the database.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DataGridRecreationTest {
+
+    private static final int ITEMS = 25;
+
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        for (int i = 0; i < ITEMS; i++) {
+            repository.insertItem("Item " + i, i + 1);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void recreate_rebindsWithoutQueries() throws Exception {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(DataGridRecreationTest::logInAsAdmin);
+            drainBackgroundWork();
+            scenario.onActivity(activity -> assertEquals(ITEMS, gridAdapter(activity).getItemCount()));
+
+            long queriesBefore = repository.getQueryCount();
+            scenario.recreate();
+            drainBackgroundWork();
+
+            assertEquals(queriesBefore, repository.getQueryCount());
+            scenario.onActivity(activity -> assertEquals(ITEMS, gridAdapter(activity).getItemCount()));
+        }
+    }
+
+    @Test
+    public void recreate_keepsSearchSortAndPendingEdit() throws Exception {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            AtomicLong editedId = new AtomicLong();
+            scenario.onActivity(DataGridRecreationTest::logInAsAdmin);
+            drainBackgroundWork();
+
+            scenario.onActivity(activity -> {
+                InventoryViewModel vm = gridViewModel(activity);
+                vm.setSearchQuery("Item 1");
+                vm.setSortOrder(InventoryViewModel.SortOrder.QUANTITY);
+                InventoryItem first = vm.getVisibleItems().getValue().get(0);
+                vm.startEdit(first);
+                vm.updatePendingText("77");
+                editedId.set(first.getId());
+            });
+
+            scenario.recreate();
+            drainBackgroundWork();
+
+            AtomicReference<InventoryViewModel> after = new AtomicReference<>();
+            scenario.onActivity(activity -> after.set(gridViewModel(activity)));
+            assertEquals("Item 1", after.get().getSearchQuery());
+            assertEquals(InventoryViewModel.SortOrder.QUANTITY, after.get().getSortOrder());
+            assertNotNull(after.get().getPendingEdit());
+            assertEquals(editedId.get(), after.get().getPendingEdit().itemId);
+            assertEquals("77", after.get().getPendingEdit().text);
+        }
+    }
+
+    private static void logInAsAdmin(MainActivity activity) {
+        activity.getSharedPreferences("auth", Context.MODE_PRIVATE)
+                .edit()
+                .putBoolean("isLoggedIn", true)
+                .putString("userRole", "admin")
+                .commit();
+        activity.onLoggedIn();
+    }
+
+    private static DataGridFragment gridFragment(MainActivity activity) {
+        return (DataGridFragment) activity.getSupportFragmentManager().findFragmentByTag("grid");
+    }
+
+    private static InventoryViewModel gridViewModel(MainActivity activity) {
+        return new ViewModelProvider(gridFragment(activity)).get(InventoryViewModel.class);
+    }
+
+    private static RecyclerView.Adapter<?> gridAdapter(MainActivity activity) {
+        RecyclerView list = gridFragment(activity).requireView().findViewById(R.id.inventoryList);
+        return list.getAdapter();
+    }
+
+    /** Waits for queued disk work and live-query refreshes, then runs what they posted to the UI thread. */
+    private void drainBackgroundWork() throws Exception {
+        AppExecutors.get().diskIO().submit(() -> { }).get();
+        repository.getInvalidationTracker().drainForTesting();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
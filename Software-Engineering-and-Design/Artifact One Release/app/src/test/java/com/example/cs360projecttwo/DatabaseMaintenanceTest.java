@@ -0,0 +1,89 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests that maintenance reclaims deleted pages in bounded steps and reports it.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseMaintenanceTest {
+
+    private Context context;
+    private InventoryRepository repository;
+    private DatabaseMaintenance maintenance;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        maintenance = new DatabaseMaintenance(context, repository.getDatabaseHelper());
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void newDatabase_usesIncrementalAutoVacuum() {
+        long mode;
+        try (SqlStatement pragma = SqlStatement.compile(
+                repository.getDatabaseHelper().getReadableDatabase(), "PRAGMA auto_vacuum")) {
+            mode = pragma.simpleQueryForLong();
+        }
+        assertEquals(2, mode);
+    }
+
+    @Test
+    public void run_reclaimsDeletedPagesAndPassesQuickCheck() {
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            longName.append('x');
+        }
+        List<InventoryItem> seed = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            seed.add(new InventoryItem(0, longName + " " + i, i));
+        }
+        repository.insertItems(seed);
+        for (InventoryItem item : repository.getAllItems()) {
+            repository.deleteItem(item.getId());
+        }
+
+        DatabaseMaintenance.Report report = maintenance.run(new CancellationSignal());
+
+        assertTrue("free pages before: " + report.before.freePages, report.before.freePages > 0);
+        assertEquals(0, report.after.freePages);
+        assertTrue(report.after.fragmentation() < report.before.fragmentation());
+        assertTrue(report.vacuumSteps > 0);
+        assertEquals("ok", report.quickCheck);
+        assertFalse(report.convertedToIncremental);
+        assertFalse(maintenance.isDue());
+    }
+
+    @Test
+    public void cancelledRun_skipsRemainingStepsAndStaysDue() {
+        CancellationSignal signal = new CancellationSignal();
+        signal.cancel();
+
+        DatabaseMaintenance.Report report = maintenance.run(signal);
+
+        assertTrue(report.cancelled);
+        assertEquals(0, report.vacuumSteps);
+        assertNull(report.quickCheck);
+        assertTrue(maintenance.isDue());
+    }
+}
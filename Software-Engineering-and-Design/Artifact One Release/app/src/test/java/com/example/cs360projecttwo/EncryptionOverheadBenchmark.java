@@ -0,0 +1,144 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): what sealing with
+ * {@link BackupCipher} adds to a backup and to a cold open of the catalog
+ * snapshot, each against the same work on plaintext. Writes
+ * build/benchmarks/encryption-overhead.txt.
+ *
+ * SQLCipher's per-page cost on inventory.db can't be measured here: local
+ * tests open the database with the platform's plain SQLite.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class EncryptionOverheadBenchmark {
+
+    private static final int ITEMS = 100_000;
+    private static final int FIRST_SCREEN = 30;
+
+    private final List<File> scratch = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+        for (File file : scratch) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void sealedVsPlain_backupAndSnapshotOpen() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        BackupCipher cipher = new BackupCipher(new File(context.getNoBackupFilesDir(), "benchmark-key.bin"),
+                new SoftwareKeyWrapper());
+        List<InventoryItem> seed = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < ITEMS; i++) {
+            seed.add(new InventoryItem(0, "Item " + random.nextInt(1_000_000) + " bin " + random.nextInt(500),
+                    random.nextInt(1000)));
+        }
+        repository.insertItems(seed);
+
+        // Backup: the database image gzipped, with and without the cipher stream around it
+        File backup = new DatabaseBackupManager(context, repository, cipher).backupBlocking();
+        scratch.add(backup);
+        byte[] database;
+        try (InputStream in = new GZIPInputStream(cipher.decrypt(new FileInputStream(backup)))) {
+            database = readAll(in);
+        }
+        long gzipNanos = BenchmarkReport.medianNanos(1, 7, () -> compress(new ByteArrayOutputStream(), database));
+        long sealedGzipNanos = BenchmarkReport.medianNanos(1, 7,
+                () -> compress(cipher.encrypt(new ByteArrayOutputStream()), database));
+
+        // Snapshot: map, check and bind the first screen, sealed against the same bytes in the clear
+        File sealed = new File(context.getFilesDir(), "benchmark-sealed.snapshot");
+        File plain = new File(context.getFilesDir(), "benchmark-plain.snapshot");
+        scratch.add(sealed);
+        scratch.add(plain);
+        List<InventoryItem> all = repository.getAllItems();
+        CatalogSnapshot.write(sealed, all, System.currentTimeMillis(), cipher);
+        try (InputStream in = cipher.decrypt(new FileInputStream(sealed))) {
+            Files.write(plain.toPath(), readAll(in));
+        }
+        String lastOnScreen = all.get(FIRST_SCREEN - 1).getName();
+
+        char[] name = new char[64];
+        int[] length = new int[1];
+        long sealedOpenNanos = BenchmarkReport.medianNanos(1, 7,
+                () -> length[0] = bindFirstScreen(CatalogSnapshot.open(sealed, cipher), name));
+        assertEquals(lastOnScreen, new String(name, 0, length[0]));
+        long plainOpenNanos = BenchmarkReport.medianNanos(1, 7,
+                () -> length[0] = bindFirstScreen(CatalogSnapshot.wrap(map(plain)), name));
+        assertEquals(lastOnScreen, new String(name, 0, length[0]));
+
+        new BenchmarkReport("encryption-overhead")
+                .line("%,d items: database image %,d KB, snapshot %,d KB sealed / %,d KB plain",
+                        ITEMS, database.length / 1024, sealed.length() / 1024, plain.length() / 1024)
+                .compare("backup (gzip)", "plain", gzipNanos, "sealed", sealedGzipNanos)
+                .compare("snapshot open + first screen", "plain", plainOpenNanos, "sealed", sealedOpenNanos)
+                .line("SQLCipher page encryption: device only, not measured here")
+                .write();
+    }
+
+    // ----------- Helpers -----------
+
+    // Returns the length of the last name bound
+    private static int bindFirstScreen(CatalogSnapshot snapshot, char[] name) {
+        int length = 0;
+        for (int row = 0; row < FIRST_SCREEN; row++) {
+            length = snapshot.getName(row, name);
+            snapshot.quantity(row);
+            snapshot.isLowStock(row);
+        }
+        return length;
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+    }
+
+    private static void compress(OutputStream sink, byte[] data) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(sink, 64 * 1024)) {
+            out.write(data);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): facet counts over
+ * 100k tagged items, unfiltered from the trigger-maintained table against
+ * a GROUP BY recount, then filtered by category, by tag and both. Writes
+ * build/benchmarks/facet-counts.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FacetCountBenchmark {
+
+    private static final int ITEMS = 100_000;
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void countQueries() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        FacetStore facets = repository.getFacets();
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        FacetsTest.seed(db, ITEMS);
+
+        List<FacetStore.Facet> all = facets.getFacets(FacetStore.Selection.NONE);
+        long categoryId = FacetsTest.find(all, FacetStore.TYPE_CATEGORY, "Category 3").id;
+        long tagId = FacetsTest.find(all, FacetStore.TYPE_TAG, "Tag 42").id;
+        FacetStore.Selection byCategory = new FacetStore.Selection(categoryId, 0);
+        FacetStore.Selection byTag = new FacetStore.Selection(0, tagId);
+        FacetStore.Selection byBoth = new FacetStore.Selection(categoryId, tagId);
+
+        String recountSql = "SELECT tag_id, COUNT(*) FROM item_tags GROUP BY tag_id";
+        long recountNanos = BenchmarkReport.medianNanos(1, 7, () -> FacetsTest.recount(db, recountSql));
+        long unfilteredNanos = BenchmarkReport.medianNanos(1, 7, () -> facets.getFacets(FacetStore.Selection.NONE));
+        Map<Long, Integer> recounted = FacetsTest.recount(db, recountSql);
+        for (FacetStore.Facet facet : facets.getFacets(FacetStore.Selection.NONE)) {
+            if (facet.type == FacetStore.TYPE_TAG) {
+                assertEquals(recounted.getOrDefault(facet.id, 0).intValue(), facet.count);
+            }
+        }
+
+        long inCategoryNanos = BenchmarkReport.medianNanos(1, 7, () -> facets.getFacets(byCategory));
+        long withTagNanos = BenchmarkReport.medianNanos(1, 7, () -> facets.getFacets(byTag));
+        long matchesNanos = BenchmarkReport.medianNanos(1, 7, () -> facets.getMatches(byBoth));
+
+        new BenchmarkReport("facet-counts")
+                .line("%,d items, %d tags, %d categories", ITEMS, FacetsTest.TAGS, FacetsTest.CATEGORIES)
+                .compare("unfiltered tag counts", "GROUP BY", recountNanos, "facet_counts", unfilteredNanos)
+                .line("in one category:  %,d us", inCategoryNanos / 1_000)
+                .line("with one tag:     %,d us", withTagNanos / 1_000)
+                .line("matching ids:     %,d us", matchesNanos / 1_000)
+                .write();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for categories, tags and their trigger-maintained counts.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FacetsTest {
+
+    private static final int ITEMS = 10_000;
+    static final int TAGS = 500;
+    static final int CATEGORIES = 20;
+
+    private InventoryRepository repository;
+    private FacetStore facets;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        facets = repository.getFacets();
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void labelling_updatesCountsAndMatches() {
+        long gloves = repository.insertItem("Gloves", 10).getId();
+        long masks = repository.insertItem("Masks", 5).getId();
+        long tape = repository.insertItem("Tape", 3).getId();
+
+        assertEquals(2, repository.setCategory(Arrays.asList(gloves, masks), "PPE"));
+        assertEquals(2, repository.addTag(Arrays.asList(gloves, tape), "fragile"));
+        assertEquals(0, repository.addTag(Arrays.asList(gloves), "fragile")); // already linked
+
+        List<FacetStore.Facet> all = facets.getFacets(FacetStore.Selection.NONE);
+        FacetStore.Facet ppe = find(all, FacetStore.TYPE_CATEGORY, "PPE");
+        FacetStore.Facet fragile = find(all, FacetStore.TYPE_TAG, "fragile");
+        assertEquals(2, ppe.count);
+        assertEquals(2, fragile.count);
+
+        // Counts for one dimension honour the selection in the other
+        List<FacetStore.Facet> inPpe = facets.getFacets(new FacetStore.Selection(ppe.id, 0));
+        assertEquals(1, find(inPpe, FacetStore.TYPE_TAG, "fragile").count);
+        FacetStore.Matches both = facets.getMatches(new FacetStore.Selection(ppe.id, fragile.id));
+        assertArrayEquals(new long[]{gloves}, both.ids);
+        assertTrue(both.contains(gloves));
+        assertFalse(both.contains(masks));
+
+        repository.removeTag(Arrays.asList(gloves), "fragile");
+        repository.deleteItem(tape);
+        assertNull(find(facets.getFacets(FacetStore.Selection.NONE), FacetStore.TYPE_TAG, "fragile"));
+        assertEquals(0, repository.removeTag(Arrays.asList(gloves), "no such tag"));
+    }
+
+    @Test
+    public void recategorising_bumpsVersionAndMovesCounts() {
+        InventoryItem item = repository.insertItem("Gloves", 10);
+        repository.setCategory(Arrays.asList(item.getId()), "PPE");
+        repository.setCategory(Arrays.asList(item.getId()), "Cleaning");
+
+        assertEquals(2, repository.getItem(item.getId()).getVersion());
+        List<FacetStore.Facet> all = facets.getFacets(FacetStore.Selection.NONE);
+        assertNull(find(all, FacetStore.TYPE_CATEGORY, "PPE"));
+        assertEquals(1, find(all, FacetStore.TYPE_CATEGORY, "Cleaning").count);
+
+        repository.setCategory(Arrays.asList(item.getId()), "");
+        assertTrue(facets.getFacets(FacetStore.Selection.NONE).isEmpty());
+    }
+
+    @Test
+    public void recategorisingNothing_notifiesNobody() {
+        List<String> heard = new ArrayList<>();
+        repository.getInvalidationTracker().addObserver(tables -> heard.addAll(Arrays.asList(tables)));
+
+        assertEquals(0, repository.setCategory(Arrays.asList(999_999L), "PPE"));
+        assertEquals(0, repository.setCategory(new ArrayList<>(), "PPE"));
+
+        assertTrue(heard.isEmpty());
+        repository.getAuditLog().flush();
+        assertTrue(repository.getAuditLog().getEvents(0, 10).isEmpty());
+    }
+
+    @Test
+    public void selectedFacet_staysListedAtZero() {
+        long id = repository.insertItem("Gloves", 10).getId();
+        repository.addTag(Arrays.asList(id), "fragile");
+        long tagId = find(facets.getFacets(FacetStore.Selection.NONE), FacetStore.TYPE_TAG, "fragile").id;
+        repository.removeTag(Arrays.asList(id), "fragile");
+
+        FacetStore.Facet selected = find(facets.getFacets(new FacetStore.Selection(0, tagId)),
+                FacetStore.TYPE_TAG, "fragile");
+        assertEquals(0, selected.count);
+    }
+
+    @Test
+    public void intersect_keepsCommonIds() {
+        assertArrayEquals(new long[]{3, 7}, FacetStore.intersect(new long[]{1, 3, 5, 7}, new long[]{2, 3, 7, 9}));
+        assertArrayEquals(new long[0], FacetStore.intersect(new long[]{1}, new long[0]));
+    }
+
+    @Test
+    public void largeInventory_countsMatchRecount() {
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        seed(db, ITEMS);
+        assertCountsMatchRecount(db);
+
+        // Re-labelling and deleting keep the triggers' counts exact
+        List<Long> moved = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            (id % 2 == 0 ? moved : deleted).add(id);
+        }
+        repository.setCategory(moved, "Category 3");
+        repository.addTag(moved, "Tag 42");
+        repository.removeTag(moved, "Tag 7");
+        repository.deleteItems(deleted);
+        assertCountsMatchRecount(db);
+
+        List<FacetStore.Facet> all = facets.getFacets(FacetStore.Selection.NONE);
+        long categoryId = find(all, FacetStore.TYPE_CATEGORY, "Category 3").id;
+        long tagId = find(all, FacetStore.TYPE_TAG, "Tag 42").id;
+        FacetStore.Selection byCategory = new FacetStore.Selection(categoryId, 0);
+        FacetStore.Selection byBoth = new FacetStore.Selection(categoryId, tagId);
+
+        // The filtered counts and the matching ids agree with plain SQL over the same rows
+        assertEquals(count(db, "SELECT COUNT(*) FROM inventory i JOIN item_tags t ON t.item_id = i.item_id"
+                        + " WHERE i.category_id = " + categoryId + " AND t.tag_id = " + tagId),
+                find(facets.getFacets(byCategory), FacetStore.TYPE_TAG, "Tag 42").count);
+        List<Long> expected = new ArrayList<>();
+        try (Cursor cursor = db.query("SELECT i.item_id FROM inventory i JOIN item_tags t"
+                + " ON t.item_id = i.item_id WHERE i.category_id = ? AND t.tag_id = ? ORDER BY i.item_id",
+                new String[]{String.valueOf(categoryId), String.valueOf(tagId)})) {
+            while (cursor.moveToNext()) {
+                expected.add(cursor.getLong(0));
+            }
+        }
+        long[] ids = facets.getMatches(byBoth).ids;
+        assertEquals(expected.size(), ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals((long) expected.get(i), ids[i]);
+        }
+    }
+
+    @Test
+    public void labelling_isAuditedPerChangedItem() {
+        AuditLog audit = repository.getAuditLog();
+        audit.setSessionActor("alice");
+        long gloves = repository.insertItem("Gloves", 10).getId();
+        long masks = repository.insertItem("Masks", 5).getId();
+        repository.addTag(Arrays.asList(gloves), "fragile");
+
+        repository.setCategory(Arrays.asList(gloves, masks), "PPE");
+        repository.addTag(Arrays.asList(gloves, masks), "fragile"); // only masks gains it
+        repository.removeTag(Arrays.asList(gloves, masks), "fragile");
+        repository.removeTag(Arrays.asList(gloves), "fragile"); // nothing left to remove
+        audit.flush();
+
+        List<FacetStore.Facet> all = facets.getFacets(FacetStore.Selection.NONE);
+        long ppe = find(all, FacetStore.TYPE_CATEGORY, "PPE").id;
+        long fragile = facets.findTag(repository.getDatabaseHelper().getReadableDatabase(), "fragile");
+        Set<String> seen = new HashSet<>();
+        for (AuditLog.Event e : audit.getEvents(0, 100)) {
+            if (e.event == AuditLog.CATEGORY_CHANGED || e.event == AuditLog.TAG_ADDED
+                    || e.event == AuditLog.TAG_REMOVED) {
+                assertEquals("alice", e.actor);
+                assertTrue(seen.add(e.event + ":" + e.itemId + ":" + e.before + ":" + e.after));
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList(
+                AuditLog.CATEGORY_CHANGED + ":" + gloves + ":0:" + ppe,
+                AuditLog.CATEGORY_CHANGED + ":" + masks + ":0:" + ppe,
+                AuditLog.TAG_ADDED + ":" + gloves + ":0:" + fragile,
+                AuditLog.TAG_ADDED + ":" + masks + ":0:" + fragile,
+                AuditLog.TAG_REMOVED + ":" + gloves + ":" + fragile + ":0",
+                AuditLog.TAG_REMOVED + ":" + masks + ":" + fragile + ":0")), seen);
+    }
+
+    // ----------- Helpers -----------
+
+    // Plain SQL in one transaction, so the triggers run exactly as for app writes (also FacetCountBenchmark)
+    static void seed(SupportSQLiteDatabase db, int items) {
+        db.beginTransaction();
+        try {
+            for (int c = 1; c <= CATEGORIES; c++) {
+                db.execSQL("INSERT INTO categories (name) VALUES (?)", new Object[]{"Category " + c});
+            }
+            for (int t = 1; t <= TAGS; t++) {
+                db.execSQL("INSERT INTO tags (name) VALUES (?)", new Object[]{"Tag " + t});
+            }
+            try (SqlStatement item = SqlStatement.compile(db,
+                    "INSERT INTO inventory (item_name, item_quantity, category_id) VALUES (?, ?, ?)");
+                 SqlStatement link = SqlStatement.compile(db, InventoryQueries.ITEM_TAG_INSERT.sql)) {
+                for (int i = 1; i <= items; i++) {
+                    item.bindString(1, "Item " + i);
+                    item.bindLong(2, i % 50);
+                    item.bindLong(3, i % CATEGORIES + 1);
+                    long id = item.executeInsert();
+                    // Three skewed tags per item; duplicates are ignored
+                    for (long tag : new long[]{i % 25 + 1, (i * 7L) % TAGS + 1, (i * 31L + 2) % TAGS + 1}) {
+                        link.bindLong(1, id);
+                        link.bindLong(2, tag);
+                        link.executeUpdateDelete();
+                    }
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void assertCountsMatchRecount(SupportSQLiteDatabase db) {
+        assertEquals(recount(db, "SELECT category_id, COUNT(*) FROM inventory"
+                        + " WHERE category_id IS NOT NULL GROUP BY category_id"),
+                recount(db, "SELECT facet_id, item_count FROM facet_counts"
+                        + " WHERE facet_type = " + FacetStore.TYPE_CATEGORY + " AND item_count > 0"));
+        assertEquals(recount(db, "SELECT tag_id, COUNT(*) FROM item_tags GROUP BY tag_id"),
+                recount(db, "SELECT facet_id, item_count FROM facet_counts"
+                        + " WHERE facet_type = " + FacetStore.TYPE_TAG + " AND item_count > 0"));
+    }
+
+    static Map<Long, Integer> recount(SupportSQLiteDatabase db, String sql) {
+        Map<Long, Integer> counts = new HashMap<>();
+        try (Cursor cursor = db.query(sql)) {
+            while (cursor.moveToNext()) {
+                counts.put(cursor.getLong(0), cursor.getInt(1));
+            }
+        }
+        return counts;
+    }
+
+    private static int count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    static FacetStore.Facet find(List<FacetStore.Facet> facets, int type, String name) {
+        for (FacetStore.Facet facet : facets) {
+            if (facet.type == type && facet.name.equals(name)) {
+                return facet;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.lifecycle.Observer;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Local tests for table-level invalidation and refresh coalescing.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InvalidationTrackerTest {
+
+    private DatabaseHelper dbHelper;
+    private InventoryRepository repository;
+    private InvalidationTracker tracker;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        dbHelper = new DatabaseHelper(context);
+        repository = new InventoryRepository(dbHelper, new InventoryCache(InventoryCache.DEFAULT_MAX_BYTES));
+        tracker = repository.getInvalidationTracker();
+    }
+
+    @After
+    public void tearDown() {
+        tracker.close();
+        dbHelper.close();
+    }
+
+    @Test
+    public void importTransaction_triggersOneRefresh() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        InvalidationTracker.LiveQuery<Integer> count = countQuery(runs);
+        List<Integer> delivered = new ArrayList<>();
+        Observer<Integer> observer = delivered::add;
+        count.observeForever(observer);
+        drain();
+        assertEquals(1, runs.get());
+
+        List<InventoryItem> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(new InventoryItem(0, "Item " + i, 1));
+        }
+        repository.insertItems(batch);
+        drain();
+
+        assertEquals(2, runs.get());
+        assertEquals(Integer.valueOf(500), delivered.get(delivered.size() - 1));
+        count.removeObserver(observer);
+    }
+
+    @Test
+    public void rapidWrites_areCoalesced() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        InvalidationTracker.LiveQuery<Integer> count = countQuery(runs);
+        Observer<Integer> observer = value -> { };
+        count.observeForever(observer);
+        drain();
+
+        // Hold the tracker thread so every write lands inside one coalescing window
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> blocker = tracker.getExecutor().submit(() -> {
+            release.await();
+            return null;
+        });
+        int writes = 200;
+        for (int i = 0; i < writes; i++) {
+            repository.insertItem("Item " + i, 1);
+        }
+        release.countDown();
+        blocker.get();
+        drain();
+
+        assertEquals("one refresh for the whole burst", 2, runs.get());
+        assertEquals(Integer.valueOf(writes), count.getValue());
+        count.removeObserver(observer);
+    }
+
+    @Test
+    public void unrelatedTable_doesNotRerunQuery() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        InvalidationTracker.LiveQuery<Integer> query = tracker.createLiveQuery(() -> {
+            runs.incrementAndGet();
+            return 0;
+        }, InventoryRepository.TABLE_INVENTORY);
+        Observer<Integer> observer = value -> { };
+        query.observeForever(observer);
+        drain();
+
+        tracker.notifyTablesChanged("users");
+        drain();
+
+        assertEquals(1, runs.get());
+        query.removeObserver(observer);
+    }
+
+    @Test
+    public void inactiveQuery_catchesUpWhenObservedAgain() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        InvalidationTracker.LiveQuery<Integer> count = countQuery(runs);
+        Observer<Integer> observer = value -> { };
+
+        count.observeForever(observer);
+        drain();
+        count.removeObserver(observer);
+
+        repository.insertItem("Added while nobody watched", 3);
+        drain();
+        assertEquals(1, runs.get());
+
+        count.observeForever(observer);
+        drain();
+        assertEquals(2, runs.get());
+        assertEquals(Integer.valueOf(1), count.getValue());
+        count.removeObserver(observer);
+    }
+
+    @Test
+    public void reobservingWithoutWrites_doesNotRequery() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        InvalidationTracker.LiveQuery<Integer> query = tracker.createLiveQuery(() -> {
+            runs.incrementAndGet();
+            return 0;
+        }, InventoryRepository.TABLE_INVENTORY);
+        Observer<Integer> observer = value -> { };
+
+        query.observeForever(observer);
+        drain();
+        query.removeObserver(observer);
+        query.observeForever(observer);
+        drain();
+
+        assertEquals(1, runs.get());
+        query.removeObserver(observer);
+    }
+
+    private InvalidationTracker.LiveQuery<Integer> countQuery(AtomicInteger runs) {
+        return tracker.createLiveQuery(() -> {
+            runs.incrementAndGet();
+            return repository.getAllItems().size();
+        }, InventoryRepository.TABLE_INVENTORY);
+    }
+
+    private void drain() throws Exception {
+        tracker.drainForTesting();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cs360projecttwo;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): the exported
+ * provider against the in-process repository, for a 10k-row bulk import,
+ * a full-table query and one page of it. Writes
+ * build/benchmarks/inventory-provider.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InventoryProviderBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int PAGE = 50;
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void providerVsInProcess() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        Robolectric.setupContentProvider(InventoryProvider.class, InventoryContract.AUTHORITY);
+        ContentResolver resolver = context.getContentResolver();
+
+        // Each sample adds ROWS more; both paths grow the same table in turn
+        List<InventoryItem> items = new ArrayList<>(ROWS);
+        ContentValues[] values = new ContentValues[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new InventoryItem(0, "Item " + i, i + 1));
+            values[i] = new ContentValues();
+            values[i].put(InventoryContract.Items.NAME, "Item " + i);
+            values[i].put(InventoryContract.Items.QUANTITY, i + 1);
+        }
+        int runs = 5;
+        long inProcessInsert = BenchmarkReport.medianNanos(1, runs, () -> repository.insertItems(items));
+        long providerInsert = BenchmarkReport.medianNanos(1, runs,
+                () -> assertEquals(ROWS, resolver.bulkInsert(InventoryContract.Items.CONTENT_URI, values)));
+        int total = 2 * (runs + 1) * ROWS;
+
+        int[] read = new int[1];
+        long inProcessQuery = BenchmarkReport.medianNanos(1, 7, () -> read[0] = repository.getAllItems().size());
+        assertEquals(total, read[0]);
+        long providerQuery = BenchmarkReport.medianNanos(1, 7, () -> read[0] = walk(resolver,
+                InventoryContract.Items.CONTENT_URI));
+        assertEquals(total, read[0]);
+
+        Uri page = InventoryContract.Items.CONTENT_URI.buildUpon()
+                .appendQueryParameter(InventoryContract.Items.PARAM_LIMIT, String.valueOf(PAGE))
+                .appendQueryParameter(InventoryContract.Items.PARAM_OFFSET, String.valueOf(total / 2))
+                .build();
+        long providerPage = BenchmarkReport.medianNanos(1, 7, () -> read[0] = walk(resolver, page));
+        assertEquals(PAGE, read[0]);
+
+        new BenchmarkReport("inventory-provider")
+                .line("bulk import of %,d rows; queries over %,d rows", ROWS, total)
+                .compare("bulk insert", "in-process", inProcessInsert, "provider", providerInsert)
+                .compare("whole table", "in-process", inProcessQuery, "provider", providerQuery)
+                .line("provider page of %d at offset %,d: %,d us", PAGE, total / 2, providerPage / 1_000)
+                .write();
+    }
+
+    // Reads every row's name and quantity, as a client listing the inventory would
+    private static int walk(ContentResolver resolver, Uri uri) {
+        int rows = 0;
+        try (Cursor cursor = resolver.query(uri,
+                new String[]{InventoryContract.Items._ID, InventoryContract.Items.NAME,
+                        InventoryContract.Items.QUANTITY}, null, null, null)) {
+            while (cursor.moveToNext()) {
+                cursor.getLong(0);
+                cursor.getString(1);
+                cursor.getInt(2);
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.cs360projecttwo;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.OperationApplicationException;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for the exported inventory provider: batching, paging,
+ * notifications, deletes, and bulk imports compared with in-process ones.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InventoryProviderTest {
+
+    private static final int BULK_ROWS = 10_000;
+
+    private ContentResolver resolver;
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        Robolectric.setupContentProvider(InventoryProvider.class, InventoryContract.AUTHORITY);
+        resolver = context.getContentResolver();
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void bulkInsert_notifiesEachInsertedRow() {
+        List<Uri> notified = new ArrayList<>();
+        resolver.registerContentObserver(InventoryContract.Items.CONTENT_URI, true,
+                new ContentObserver(null) {
+                    @Override
+                    public void onChange(boolean selfChange, Uri uri, int flags) {
+                        assertEquals(ContentResolver.NOTIFY_INSERT, flags);
+                        notified.add(uri);
+                    }
+                });
+
+        assertEquals(3, resolver.bulkInsert(InventoryContract.Items.CONTENT_URI, rows(3)));
+        assertEquals(3, notified.size());
+        for (Uri uri : notified) {
+            assertNotNull(repository.getItem(Long.parseLong(uri.getLastPathSegment())));
+        }
+    }
+
+    @Test
+    public void query_pagesWithLimitAndOffset() {
+        resolver.bulkInsert(InventoryContract.Items.CONTENT_URI, rows(25));
+        Uri page = InventoryContract.Items.CONTENT_URI.buildUpon()
+                .appendQueryParameter(InventoryContract.Items.PARAM_LIMIT, "10")
+                .appendQueryParameter(InventoryContract.Items.PARAM_OFFSET, "20")
+                .build();
+
+        try (Cursor cursor = resolver.query(page,
+                new String[]{InventoryContract.Items._ID, InventoryContract.Items.NAME},
+                null, null, InventoryContract.Items._ID)) {
+            assertEquals(5, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals("Item 20", cursor.getString(1));
+        }
+    }
+
+    @Test
+    public void applyBatch_rollsBackEverythingOnFailure() {
+        ArrayList<ContentProviderOperation> ops = new ArrayList<>();
+        ops.add(ContentProviderOperation.newInsert(InventoryContract.Items.CONTENT_URI)
+                .withValues(rows(1)[0]).build());
+        ops.add(ContentProviderOperation.newUpdate(InventoryContract.Items.buildItemUri(999_999))
+                .withValue(InventoryContract.Items.QUANTITY, 5)
+                .withExpectedCount(1)
+                .build());
+
+        assertThrows(OperationApplicationException.class,
+                () -> resolver.applyBatch(InventoryContract.AUTHORITY, ops));
+        assertTrue(repository.getAllItems().isEmpty());
+    }
+
+    @Test
+    public void applyBatch_commitsAllOperations() throws Exception {
+        InventoryItem existing = repository.insertItem("Existing", 10);
+        ArrayList<ContentProviderOperation> ops = new ArrayList<>();
+        ops.add(ContentProviderOperation.newInsert(InventoryContract.Items.CONTENT_URI)
+                .withValues(rows(1)[0]).build());
+        ops.add(ContentProviderOperation.newUpdate(InventoryContract.Items.buildItemUri(existing.getId()))
+                .withValue(InventoryContract.Items.QUANTITY, 4)
+                .withExpectedCount(1)
+                .build());
+
+        resolver.applyBatch(InventoryContract.AUTHORITY, ops);
+        assertEquals(2, repository.getAllItems().size());
+        assertEquals(4, repository.getItem(existing.getId()).getQuantity());
+    }
+
+    @Test
+    public void bulkInsert_costsNoMoreThanInProcessImport() {
+        long queries = repository.getQueryCount();
+        repository.insertItems(items(BULK_ROWS));
+        long inProcess = repository.getQueryCount() - queries;
+
+        queries = repository.getQueryCount();
+        assertEquals(BULK_ROWS, resolver.bulkInsert(InventoryContract.Items.CONTENT_URI, rows(BULK_ROWS)));
+        long provider = repository.getQueryCount() - queries;
+
+        // Same single-transaction import underneath: no per-row reads on either path
+        assertEquals(0, inProcess);
+        assertEquals(inProcess, provider);
+        assertEquals(2 * BULK_ROWS, repository.getAllItems().size());
+    }
+
+    @Test
+    public void delete_alsoRemovesTheItemsPhoto() throws Exception {
+        ThumbnailLoader thumbnails = ThumbnailLoader.get(ApplicationProvider.getApplicationContext());
+        long kept = repository.insertItem("Kept", 1).getId();
+        long gone = repository.insertItem("Gone", 1).getId();
+        thumbnails.setImage(kept, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        thumbnails.setImage(gone, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        assertEquals(1, resolver.delete(InventoryContract.Items.buildItemUri(gone), null, null));
+        assertThrows(IllegalStateException.class, () -> repository.runInTransaction(() -> {
+            repository.deleteItem(kept);
+            throw new IllegalStateException("abort");
+        }));
+        AppExecutors.get().diskIO().submit(() -> { }).get(); // the files are deleted there
+
+        assertFalse(thumbnails.imageFile(gone).exists());
+        assertTrue(thumbnails.imageFile(kept).exists()); // its delete was rolled back
+    }
+
+    private static ContentValues[] rows(int count) {
+        ContentValues[] values = new ContentValues[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new ContentValues();
+            values[i].put(InventoryContract.Items.NAME, "Item " + i);
+            values[i].put(InventoryContract.Items.QUANTITY, i + 1);
+        }
+        return values;
+    }
+
+    private static List<InventoryItem> items(int count) {
+        List<InventoryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InventoryItem(0, "Item " + i, i + 1));
+        }
+        return items;
+    }
+}
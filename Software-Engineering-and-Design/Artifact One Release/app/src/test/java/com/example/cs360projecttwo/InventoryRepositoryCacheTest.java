@@ -0,0 +1,138 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for the read-through inventory cache in {@link InventoryRepository}.
+ * Runs against a real SQLite database through Robolectric.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InventoryRepositoryCacheTest {
+
+    private DatabaseHelper dbHelper;
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        dbHelper = new DatabaseHelper(context);
+        repository = new InventoryRepository(dbHelper, new InventoryCache(InventoryCache.DEFAULT_MAX_BYTES));
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void repeatedLookup_isServedFromCache() {
+        InventoryItem item = repository.insertItem("Widget", 5);
+        repository.invalidateAll();
+
+        repository.getItem(item.getId());
+        repository.getItem(item.getId());
+
+        assertEquals(1, repository.getCache().getMissCount());
+        assertEquals(1, repository.getCache().getHitCount());
+    }
+
+    @Test
+    public void updateQuantity_isVisibleImmediately() {
+        InventoryItem item = repository.insertItem("Widget", 5);
+        assertEquals(5, repository.getItem(item.getId()).getQuantity());
+
+        repository.updateQuantity(item.getId(), 42);
+
+        assertEquals(42, repository.getItem(item.getId()).getQuantity());
+    }
+
+    @Test
+    public void deleteItem_removesCachedRow() {
+        InventoryItem item = repository.insertItem("Widget", 5);
+        repository.getItem(item.getId());
+
+        repository.deleteItem(item.getId());
+
+        assertNull(repository.getItem(item.getId()));
+    }
+
+    @Test
+    public void insertItems_areCachedAfterImport() {
+        List<InventoryItem> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(new InventoryItem(0, "Item " + i, i + 1));
+        }
+        assertEquals(50, repository.insertItems(batch));
+
+        for (InventoryItem item : repository.getAllItems()) {
+            assertEquals(item.getQuantity(), repository.getItem(item.getId()).getQuantity());
+        }
+    }
+
+    @Test
+    public void cacheStaysWithinByteBudget() {
+        InventoryRepository small = new InventoryRepository(dbHelper, new InventoryCache(4 * 1024));
+        for (int i = 0; i < 500; i++) {
+            small.insertItem("Item number " + i, i + 1);
+        }
+        assertTrue(small.getCache().sizeBytes() <= small.getCache().maxSizeBytes());
+    }
+
+    @Test
+    public void concurrentReaders_neverSeeQuantityOlderThanLastCommit() throws Exception {
+        InventoryItem item = repository.insertItem("Contended", 0);
+        long id = item.getId();
+        int writes = 300;
+
+        AtomicInteger committed = new AtomicInteger(0);
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    int floor = committed.get();
+                    int seen = repository.getItem(id).getQuantity();
+                    if (seen < floor) {
+                        failure.set("read " + seen + " after commit of " + floor);
+                    }
+                    // Force some misses so loads race with writes
+                    if ((seen & 7) == 0) {
+                        repository.getCache().invalidate(id);
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        for (int q = 1; q <= writes; q++) {
+            assertTrue(repository.updateQuantity(id, q));
+            committed.set(q);
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(writes, repository.getItem(id).getQuantity());
+    }
+}
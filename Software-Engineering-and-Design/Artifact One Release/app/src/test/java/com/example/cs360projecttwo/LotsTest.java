@@ -0,0 +1,194 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for dated lots and first-expiry-first-out consumption.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LotsTest {
+
+    private static final long DAY = QuantityHistoryStore.DAY_MS;
+
+    private InventoryRepository repository;
+    private LotStore lots;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        lots = repository.getLots();
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void decreases_consumeEarliestExpiryFirst() {
+        long id = repository.insertItem("Milk", 0).getId();
+        repository.receiveLot(id, "A", 10, 30 * DAY);
+        repository.receiveLot(id, "B", 5, 10 * DAY);
+        InventoryItem item = repository.receiveLot(id, "C", 8, LotStore.NO_EXPIRY);
+        assertEquals(23, item.getQuantity());
+        assertEquals(Arrays.asList("B", "A", "C"), codes(lots.getLots(id)));
+
+        repository.updateQuantity(id, 16); // takes all of B, 2 of A
+        List<LotStore.Lot> left = lots.getLots(id);
+        assertEquals(Arrays.asList("A", "C"), codes(left));
+        assertEquals(8, left.get(0).quantity);
+
+        repository.adjustQuantities(Arrays.asList(id), -10); // rest of A, 2 of C
+        left = lots.getLots(id);
+        assertEquals(Arrays.asList("C"), codes(left));
+        assertEquals(6, left.get(0).quantity);
+        assertEquals(6, repository.getItem(id).getQuantity());
+    }
+
+    @Test
+    public void undatedStock_isUsedOnlyAfterLots() {
+        long id = repository.insertItem("Rice", 10).getId(); // undated
+        repository.receiveLot(id, "R1", 5, 20 * DAY);
+
+        repository.updateQuantity(id, 12);
+        assertEquals(2, lots.getLotTotal(id));
+        repository.updateQuantity(id, 4);
+        assertEquals(0, lots.getLotTotal(id));
+        assertTrue(lots.getLots(id).isEmpty());
+
+        repository.updateQuantity(id, 9); // increases never create lots
+        assertEquals(0, lots.getLotTotal(id));
+    }
+
+    @Test
+    public void rolledBackDecrease_leavesLotsAlone() throws Exception {
+        long id = repository.insertItem("Eggs", 0).getId();
+        repository.receiveLot(id, "E1", 12, 5 * DAY);
+
+        try {
+            repository.runInTransaction(() -> {
+                repository.updateQuantity(id, 0);
+                throw new IllegalStateException("abort");
+            });
+            fail("expected the batch to throw");
+        } catch (IllegalStateException expected) {
+            // rolled back
+        }
+        assertEquals(12, lots.getLotTotal(id));
+    }
+
+    @Test
+    public void deletingItem_removesItsLots() {
+        long id = repository.insertItem("Yogurt", 0).getId();
+        repository.receiveLot(id, "Y1", 4, 3 * DAY);
+        repository.deleteItem(id);
+
+        assertTrue(lots.getLots(id).isEmpty());
+        assertTrue(lots.getExpiring(LotStore.NO_EXPIRY, 10).isEmpty());
+        assertNull(repository.receiveLot(id, "Y2", 1, 3 * DAY));
+    }
+
+    @Test
+    public void expiring_isSoonestFirstAndBounded() {
+        long milk = repository.insertItem("Milk", 0).getId();
+        long bread = repository.insertItem("Bread", 0).getId();
+        repository.receiveLot(milk, "M1", 3, 9 * DAY);
+        repository.receiveLot(bread, "B1", 2, 2 * DAY);
+        repository.receiveLot(milk, "M2", 1, 40 * DAY);
+        repository.receiveLot(bread, "B2", 6, LotStore.NO_EXPIRY);
+
+        List<LotStore.Lot> soon = lots.getExpiringWithin(DAY, 14, 10);
+        assertEquals(Arrays.asList("B1", "M1"), codes(soon));
+        assertEquals("Bread", soon.get(0).itemName);
+        assertEquals(1, lots.getExpiringWithin(DAY, 14, 1).size());
+    }
+
+    @Test
+    public void receiving_pastIntMax_isRejectedWhole() {
+        long id = repository.insertItem("Screws", Integer.MAX_VALUE - 5).getId();
+
+        assertThrows(IllegalArgumentException.class, () -> repository.receiveLot(id, "S1", 6, 3 * DAY));
+        assertEquals(Integer.MAX_VALUE - 5, repository.getItem(id).getQuantity());
+        assertTrue(lots.getLots(id).isEmpty());
+
+        assertEquals(Integer.MAX_VALUE, repository.receiveLot(id, "S2", 5, 3 * DAY).getQuantity());
+        assertEquals(5, lots.getLotTotal(id));
+    }
+
+    /**
+     * Many items with many lots each: every FEFO pick leaves exactly the
+     * expected total behind, and the expiry list is soonest first. That
+     * both only read their own range is checked by QueryPlanTest.
+     */
+    @Test
+    public void manyLots_pickingAndExpiryStayExact() {
+        int items = 2_000;
+        int lotCount = 40_000;
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        Random random = new Random(42);
+        db.beginTransaction();
+        try (SqlStatement item = SqlStatement.compile(db,
+                "INSERT INTO inventory (item_name, item_quantity) VALUES (?, ?)");
+             SqlStatement lot = SqlStatement.compile(db, InventoryQueries.LOT_INSERT.sql)) {
+            for (int i = 1; i <= items; i++) {
+                item.bindString(1, "Item " + i);
+                item.bindLong(2, 1_000);
+                item.executeInsert();
+            }
+            for (int i = 0; i < lotCount; i++) {
+                lot.bindLong(1, 1 + random.nextInt(items));
+                lot.bindString(2, "L" + i);
+                lot.bindLong(3, 1 + random.nextInt(50));
+                lot.bindLong(4, random.nextInt(720) * DAY);
+                lot.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        for (int i = 0; i < 200; i++) {
+            long itemId = 1 + random.nextInt(items);
+            List<LotStore.Lot> before = lots.getLots(itemId);
+            int total = 0;
+            for (LotStore.Lot l : before) {
+                total += l.quantity;
+            }
+            int take = total / 2 + 1;
+            repository.adjustQuantities(Arrays.asList(itemId), -take);
+            assertEquals(Math.max(0, total - take), lots.getLotTotal(itemId));
+        }
+
+        // About 380 lots expire in the first week; the limit cuts the list short
+        List<LotStore.Lot> soon = lots.getExpiringWithin(0, 7, 100);
+        assertEquals(100, soon.size());
+        for (int i = 1; i < soon.size(); i++) {
+            assertTrue(soon.get(i - 1).expiresAt <= soon.get(i).expiresAt);
+        }
+        assertTrue(soon.get(soon.size() - 1).expiresAt < 7 * DAY);
+    }
+
+    private static List<String> codes(List<LotStore.Lot> lots) {
+        String[] codes = new String[lots.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = lots.get(i).lotCode;
+        }
+        return Arrays.asList(codes);
+    }
+}
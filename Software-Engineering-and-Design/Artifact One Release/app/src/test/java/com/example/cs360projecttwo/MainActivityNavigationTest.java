@@ -0,0 +1,116 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+
+import com.google.android.material.bottomnavigation.BottomNavigationView;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for tab switching in the single-activity host.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MainActivityNavigationTest {
+
+    private static final int SWITCHES = 500;
+    private static final long MAX_HEAP_GROWTH_BYTES = 4L * 1024 * 1024;
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void startsOnLoginTab() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(activity -> {
+                FragmentManager fm = activity.getSupportFragmentManager();
+                assertTrue(fm.findFragmentByTag("login") instanceof LoginFragment);
+                assertNull(fm.findFragmentByTag("grid"));
+            });
+        }
+    }
+
+    @Test
+    public void tabSwitches_reuseFragmentsAndKeepMemoryFlat() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(activity -> {
+                logInAsAdmin(activity);
+                BottomNavigationView bottomNav = activity.findViewById(R.id.bottom_nav);
+                FragmentManager fm = activity.getSupportFragmentManager();
+
+                // Warm up so both tabs exist before we take the baseline
+                switchTabs(bottomNav, 50);
+                Fragment grid = fm.findFragmentByTag("grid");
+                Fragment sms = fm.findFragmentByTag("sms");
+                assertNotNull(grid);
+                assertNotNull(sms);
+                View gridView = grid.requireView();
+                RecyclerView list = gridView.findViewById(R.id.inventoryList);
+                RecyclerView.Adapter<?> adapter = list.getAdapter();
+                long heapBefore = usedHeapAfterGc();
+
+                switchTabs(bottomNav, SWITCHES);
+
+                // Same instances, same view hierarchy, nothing pushed on the back stack
+                assertSame(grid, fm.findFragmentByTag("grid"));
+                assertSame(sms, fm.findFragmentByTag("sms"));
+                assertSame(gridView, grid.requireView());
+                assertSame(adapter, list.getAdapter());
+                assertEquals(2, fm.getFragments().size());
+                assertEquals(0, fm.getBackStackEntryCount());
+
+                long growth = usedHeapAfterGc() - heapBefore;
+                assertTrue("heap grew by " + growth + " bytes", growth < MAX_HEAP_GROWTH_BYTES);
+            });
+        }
+    }
+
+    @Test
+    public void logout_dropsAppTabsAndReturnsToLogin() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(activity -> {
+                logInAsAdmin(activity);
+                activity.findViewById(R.id.logoutButton).performClick();
+
+                FragmentManager fm = activity.getSupportFragmentManager();
+                assertNull(fm.findFragmentByTag("grid"));
+                assertTrue(fm.findFragmentByTag("login").isVisible());
+            });
+        }
+    }
+
+    private static void logInAsAdmin(MainActivity activity) {
+        activity.getSharedPreferences("auth", Context.MODE_PRIVATE)
+                .edit()
+                .putBoolean("isLoggedIn", true)
+                .putString("userRole", "admin")
+                .commit();
+        activity.onLoggedIn();
+    }
+
+    private static void switchTabs(BottomNavigationView bottomNav, int count) {
+        for (int i = 0; i < count; i++) {
+            bottomNav.setSelectedItemId(i % 2 == 0 ? R.id.nav_sms : R.id.nav_grid);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.cs360projecttwo;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for memory trims: which tier sheds what, the trim record,
+ * and that the repository's caches refill on demand afterwards.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MemoryTrimRegistryTest {
+
+    private Context context;
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void trimLevels_shedTiersInOrder() {
+        MemoryTrimRegistry registry = new MemoryTrimRegistry();
+        List<String> trimmed = new ArrayList<>();
+        registry.register("views", MemoryTrimRegistry.TIER_UI_HIDDEN, tier -> {
+            trimmed.add("views");
+            return 100;
+        });
+        registry.register("broken", MemoryTrimRegistry.TIER_UI_HIDDEN, tier -> {
+            throw new IllegalStateException("boom");
+        });
+        MemoryTrimRegistry.Trimmable rows = tier -> {
+            trimmed.add("rows");
+            return 1_000;
+        };
+        registry.register("rows", MemoryTrimRegistry.TIER_BACKGROUND, rows);
+
+        registry.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertTrue(trimmed.isEmpty());
+
+        registry.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(List.of("views"), trimmed);
+
+        trimmed.clear();
+        registry.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(List.of("views", "rows"), trimmed); // a failing component doesn't stop the rest
+
+        List<MemoryTrimRegistry.TrimRecord> history = registry.getHistory();
+        assertEquals(3, history.size());
+        assertEquals("rows", history.get(2).name);
+        assertEquals(1_000, history.get(2).bytes);
+        assertEquals(MemoryTrimRegistry.TIER_BACKGROUND, history.get(2).tier);
+
+        trimmed.clear();
+        registry.unregister(rows);
+        registry.onLowMemory();
+        assertEquals(List.of("views"), trimmed);
+    }
+
+    @Test
+    public void uiHidden_keepsDataCaches() {
+        repository.insertItem("Gloves", 4);
+        repository.getAllItems();
+        int cached = repository.getCache().sizeBytes();
+        assertTrue(cached > 0);
+
+        MemoryTrimRegistry.get().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(cached, repository.getCache().sizeBytes());
+    }
+
+    @Test
+    public void background_freesRepositoryMemoryAndRefillsOnUse() throws Exception {
+        List<InventoryItem> seed = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            seed.add(new InventoryItem(0, "Item " + i, i % 50));
+        }
+        repository.insertItems(seed);
+        List<InventoryItem> all = repository.getAllItems(); // warms the row cache
+        ColumnarInventory columns = repository.getColumns();
+        int below = columns.countBelow(10);
+        assertTrue(columns.retainedBytes() > 0);
+        ThumbnailLoader.get(context);
+
+        MemoryTrimRegistry.get().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        AppExecutors.get().diskIO().submit(() -> { }).get(); // the columnar and SQLite trims run there
+
+        assertEquals(0, repository.getCache().sizeBytes());
+        assertEquals(0, columns.retainedBytes());
+        List<String> names = new ArrayList<>();
+        long freed = 0;
+        for (MemoryTrimRegistry.TrimRecord trim : MemoryTrimRegistry.get().getHistory()) {
+            names.add(trim.name);
+            freed += trim.bytes;
+        }
+        assertTrue(names.containsAll(List.of("row cache", "sqlite page cache", "columnar inventory", "thumbnails")));
+        assertTrue(freed > 0);
+
+        // Nothing is reloaded until asked, then only what is asked for
+        int loads = columns.fullLoads();
+        assertEquals(below, columns.countBelow(10));
+        assertEquals(loads + 1, columns.fullLoads());
+        long queries = repository.getQueryCount();
+        long id = all.get(0).getId();
+        assertEquals("Item 0", repository.getItem(id).getName());
+        assertEquals("Item 0", repository.getItem(id).getName());
+        assertEquals(queries + 1, repository.getQueryCount());
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for version-checked quantity edits.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class OptimisticConcurrencyTest {
+
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void matchingVersion_updatesAndBumpsVersion() {
+        InventoryItem item = repository.insertItem("Gloves", 10);
+        assertEquals(0, item.getVersion());
+
+        InventoryRepository.UpdateResult result =
+                repository.updateQuantityIfUnchanged(item.getId(), item.getVersion(), 7);
+
+        assertEquals(InventoryRepository.UpdateResult.Status.UPDATED, result.status);
+        assertEquals(1, result.current.getVersion());
+        assertEquals(7, repository.getItem(item.getId()).getQuantity());
+        assertEquals(1, repository.getItem(item.getId()).getVersion());
+    }
+
+    @Test
+    public void staleVersion_isRejectedWithTheFreshRow() {
+        InventoryItem opened = repository.insertItem("Gloves", 10);
+        repository.updateQuantity(opened.getId(), 4); // someone else saves first
+
+        InventoryRepository.UpdateResult result =
+                repository.updateQuantityIfUnchanged(opened.getId(), opened.getVersion(), 12);
+
+        assertEquals(InventoryRepository.UpdateResult.Status.CONFLICT, result.status);
+        assertEquals(4, result.current.getQuantity());
+        assertEquals(1, result.current.getVersion());
+        assertEquals(4, repository.getItem(opened.getId()).getQuantity());
+    }
+
+    @Test
+    public void otherWrites_alsoBumpTheVersion() {
+        InventoryItem item = repository.insertItem("Gloves", 10);
+        List<Long> ids = new ArrayList<>();
+        ids.add(item.getId());
+        repository.adjustQuantities(ids, 5);
+        repository.setLowStockThreshold(ids, 3);
+
+        assertEquals(2, repository.getItem(item.getId()).getVersion());
+        assertEquals(InventoryRepository.UpdateResult.Status.CONFLICT,
+                repository.updateQuantityIfUnchanged(item.getId(), 1, 0).status);
+    }
+
+    @Test
+    public void deletedRow_reportsMissing() {
+        InventoryItem item = repository.insertItem("Gloves", 10);
+        repository.deleteItem(item.getId());
+
+        InventoryRepository.UpdateResult result = repository.updateQuantityIfUnchanged(item.getId(), 0, 3);
+
+        assertEquals(InventoryRepository.UpdateResult.Status.MISSING, result.status);
+        assertNull(result.current);
+    }
+
+    @Test
+    public void batchWrites_reachTheCacheOnlyOnCommit() throws Exception {
+        InventoryItem item = repository.insertItem("Gloves", 10);
+        repository.getItem(item.getId()); // cached at version 0
+
+        repository.runInTransaction(() -> {
+            repository.updateQuantityIfUnchanged(item.getId(), 0, 7);
+            assertNull(repository.getCache().get(item.getId()));
+            assertEquals(7, repository.getItem(item.getId()).getQuantity()); // the batch sees its own write
+            assertNull(repository.getCache().get(item.getId())); // ...without caching it
+            return null;
+        });
+
+        long queries = repository.getQueryCount();
+        assertEquals(1, repository.getItem(item.getId()).getVersion());
+        assertEquals(queries, repository.getQueryCount()); // cached at the commit
+    }
+
+    @Test
+    public void rolledBackBatch_leavesNoUncommittedVersionBehind() {
+        InventoryItem item = repository.insertItem("Gloves", 10);
+        repository.getItem(item.getId());
+
+        assertThrows(IllegalStateException.class, () -> repository.runInTransaction(() -> {
+            repository.updateQuantityIfUnchanged(item.getId(), 0, 7);
+            repository.receiveLot(item.getId(), "L1", 5, LotStore.NO_EXPIRY);
+            repository.getItem(item.getId());
+            throw new IllegalStateException("abort");
+        }));
+
+        InventoryItem current = repository.getItem(item.getId());
+        assertEquals(10, current.getQuantity());
+        assertEquals(0, current.getVersion());
+        // The version read after the rollback is the committed one, so this is no false conflict
+        assertEquals(InventoryRepository.UpdateResult.Status.UPDATED,
+                repository.updateQuantityIfUnchanged(item.getId(), current.getVersion(), 3).status);
+    }
+
+    /**
+     * Several threads each read the row, add one and write it back with the
+     * version they read, retrying on conflict. With absolute writes some of
+     * those increments would be lost; here every one must land.
+     */
+    @Test
+    public void concurrentReadModifyWrite_losesNoUpdates() throws Exception {
+        final int threads = 8;
+        final int incrementsPerThread = 250;
+        long itemId = repository.insertItem("Contended", 0).getId();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < incrementsPerThread; i++) {
+                    while (true) {
+                        InventoryItem seen = repository.getItem(itemId);
+                        InventoryRepository.UpdateResult result = repository.updateQuantityIfUnchanged(
+                                itemId, seen.getVersion(), seen.getQuantity() + 1);
+                        if (result.status == InventoryRepository.UpdateResult.Status.UPDATED) {
+                            break;
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int total = threads * incrementsPerThread;
+        repository.getCache().invalidateAll();
+        InventoryItem last = repository.getItem(itemId);
+        assertEquals(total, last.getQuantity());
+        assertEquals(total, last.getVersion());
+    }
+}
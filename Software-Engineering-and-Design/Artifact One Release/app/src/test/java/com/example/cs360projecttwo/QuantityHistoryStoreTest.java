@@ -0,0 +1,144 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for quantity history bucketing, rollup and retention.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QuantityHistoryStoreTest {
+
+    private static final long HOUR = QuantityHistoryStore.HOUR_MS;
+    private static final long DAY = QuantityHistoryStore.DAY_MS;
+    private static final long START = 1_700_000_000_000L / DAY * DAY;
+
+    private DatabaseHelper dbHelper;
+    private QuantityHistoryStore history;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        dbHelper = InventoryRepository.getInstance(context).getDatabaseHelper();
+        history = new QuantityHistoryStore(dbHelper, QuantityHistoryStore.Retention.defaults());
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void hourlyBucket_tracksMinMaxLast() {
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        history.recordSample(db, 1, 50, START + 1_000);
+        history.recordSample(db, 1, 10, START + 2_000);
+        history.recordSample(db, 1, 80, START + 3_000);
+        history.recordSample(db, 1, 30, START + 4_000);
+
+        List<QuantityHistoryStore.TrendPoint> trend = history.getTrend(1, START);
+        assertEquals(1, trend.size());
+        assertEquals(HOUR, trend.get(0).resolutionMs);
+        assertEquals(10, trend.get(0).min);
+        assertEquals(80, trend.get(0).max);
+        assertEquals(30, trend.get(0).last);
+    }
+
+    @Test
+    public void ninetyDayTrend_readsFewHundredRowsForBusyItem() {
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        long step = TimeUnit.MINUTES.toMillis(10);
+        long end = START + 90 * DAY;
+
+        for (long day = START; day < end; day += DAY) {
+            db.beginTransaction();
+            try {
+                for (long t = day; t < day + DAY; t += step) {
+                    history.recordSample(db, 7, (int) ((t / step) % 500), t);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            history.rollup(day + DAY);
+        }
+
+        List<QuantityHistoryStore.TrendPoint> trend = history.getTrendForDays(7, 90, end);
+        assertTrue("trend rows: " + trend.size(), trend.size() <= 7 * 24 + 91);
+        assertTrue(trend.size() > 90);
+
+        long raw = rawSamples(db);
+        assertTrue("raw samples kept: " + raw, raw <= 3 * DAY / step);
+        for (int i = 1; i < trend.size(); i++) {
+            assertTrue(trend.get(i).bucketStart >= trend.get(i - 1).bucketStart);
+        }
+    }
+
+    @Test
+    public void rollup_foldsHoursIntoDayAndPrunesExpired() {
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        history.recordSample(db, 3, 40, START + HOUR);
+        history.recordSample(db, 3, 5, START + 5 * HOUR);
+        history.recordSample(db, 3, 25, START + 9 * HOUR);
+
+        history.rollup(START + 10 * DAY);
+        List<QuantityHistoryStore.TrendPoint> trend = history.getTrend(3, START);
+        assertEquals(1, trend.size());
+        assertEquals(DAY, trend.get(0).resolutionMs);
+        assertEquals(5, trend.get(0).min);
+        assertEquals(40, trend.get(0).max);
+        assertEquals(25, trend.get(0).last);
+        assertEquals(0, rawSamples(db));
+
+        history.rollup(START + 500 * DAY);
+        assertTrue(history.getTrend(3, START).isEmpty());
+    }
+
+    @Test
+    public void rollup_takesLastFromNewestHourWhateverItsValue() {
+        SupportSQLiteDatabase db = dbHelper.getWritableDatabase();
+        // Newest hour holds the day's minimum, then its maximum: "last" must follow the hour, not the aggregate
+        history.recordSample(db, 4, 40, START + HOUR);
+        history.recordSample(db, 4, 90, START + 5 * HOUR);
+        history.recordSample(db, 4, 2, START + 9 * HOUR);
+        history.recordSample(db, 5, 40, START + HOUR);
+        history.recordSample(db, 5, 2, START + 5 * HOUR);
+        history.recordSample(db, 5, 90, START + 9 * HOUR);
+
+        history.rollup(START + 10 * DAY);
+        assertEquals(2, history.getTrend(4, START).get(0).last);
+        assertEquals(90, history.getTrend(5, START).get(0).last);
+    }
+
+    @Test
+    public void deleteItem_dropsItsHistory() {
+        InventoryRepository repository =
+                InventoryRepository.getInstance(ApplicationProvider.getApplicationContext());
+        InventoryItem item = repository.insertItem("Widget", 5);
+        repository.updateQuantity(item.getId(), 3);
+        assertFalse(repository.getHistory().getTrend(item.getId(), 0).isEmpty());
+
+        repository.deleteItem(item.getId());
+        assertTrue(repository.getHistory().getTrend(item.getId(), 0).isEmpty());
+    }
+
+    private static long rawSamples(SupportSQLiteDatabase db) {
+        try (SqlStatement count = SqlStatement.compile(db,
+                "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_QUANTITY_SAMPLES)) {
+            return count.simpleQueryForLong();
+        }
+    }
+}
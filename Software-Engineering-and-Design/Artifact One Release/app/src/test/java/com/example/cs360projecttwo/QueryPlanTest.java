@@ -0,0 +1,145 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for every statement in {@link InventoryQueries}
+ * against a seeded schema and fails if a plan breaks its declared rule.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanTest {
+
+    private SupportSQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+
+        // Enough rows, history and statistics that the planner chooses as it would on a device
+        List<InventoryItem> seed = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            seed.add(new InventoryItem(0, "Item " + i, 100 + i));
+        }
+        repository.insertItems(seed);
+        for (InventoryItem item : repository.getAllItems().subList(0, 200)) {
+            repository.updateQuantity(item.getId(), item.getQuantity() - 10);
+        }
+        db = repository.getDatabaseHelper().getWritableDatabase();
+        db.execSQL("ANALYZE");
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void everyRegisteredQuery_meetsItsPlanRule() {
+        List<String> failures = new ArrayList<>();
+        for (InventoryQueries.Query query : InventoryQueries.all()) {
+            List<String> plan = explain(query.sql);
+            String violation = check(query.rule, plan);
+            if (violation != null) {
+                failures.add(query.name + " (" + query.rule + "): " + violation + "\n    plan: " + plan);
+            }
+        }
+        assertTrue("Query plan regressions:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    @Test
+    public void checker_flagsScansAndSorts() {
+        assertNotNull(check(InventoryQueries.PlanRule.HOT,
+                explain("SELECT item_id FROM inventory WHERE item_name = ?")));
+        assertNotNull(check(InventoryQueries.PlanRule.INDEX_ORDERED,
+                explain("SELECT item_id FROM inventory ORDER BY item_quantity")));
+        assertNotNull(check(InventoryQueries.PlanRule.INDEXED,
+                explain("DELETE FROM quantity_samples WHERE quantity < ?")));
+        // Scanning a materialized subquery is fine; scanning a table inside one is not
+        assertNull(check(InventoryQueries.PlanRule.HOT, explain("SELECT * FROM "
+                + "(SELECT sampled_at, SUM(quantity) OVER (ORDER BY sampled_at) FROM quantity_samples "
+                + "WHERE item_id = ?) AS s")));
+        assertNotNull(check(InventoryQueries.PlanRule.HOT, explain("SELECT * FROM "
+                + "(SELECT item_id, SUM(item_quantity) OVER (ORDER BY item_id) FROM inventory) AS s")));
+        assertNull(check(InventoryQueries.PlanRule.FULL_SCAN,
+                explain("SELECT item_id FROM inventory ORDER BY item_quantity")));
+    }
+
+    /** Returns a description of the first rule violation, or null if the plan is acceptable. */
+    private static String check(InventoryQueries.PlanRule rule, List<String> plan) {
+        // Subquery results the plan builds itself; their own steps are checked like any other
+        Set<String> derived = new HashSet<>();
+        for (String step : plan) {
+            String detail = step.toUpperCase(Locale.US);
+            if (detail.startsWith("MATERIALIZE ") || detail.startsWith("CO-ROUTINE ")) {
+                derived.add(detail.substring(detail.indexOf(' ') + 1));
+                continue;
+            }
+            boolean scan = detail.startsWith("SCAN") && !derived.contains(detail.substring(5).split(" ")[0]);
+            boolean indexedScan = scan && detail.contains("USING") && detail.contains("INDEX");
+            boolean tempSort = detail.contains("TEMP B-TREE");
+
+            switch (rule) {
+                case HOT:
+                    if (scan) {
+                        return "scan: " + step;
+                    }
+                    if (tempSort) {
+                        return "temp b-tree: " + step;
+                    }
+                    break;
+                case INDEX_ORDERED:
+                    if (scan && !indexedScan) {
+                        return "table scan: " + step;
+                    }
+                    if (tempSort) {
+                        return "temp b-tree: " + step;
+                    }
+                    break;
+                case INDEXED:
+                    if (scan && !indexedScan) {
+                        return "table scan: " + step;
+                    }
+                    break;
+                case FULL_SCAN:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    private List<String> explain(String sql) {
+        int params = sql.length() - sql.replace("?", "").length();
+        String[] args = new String[params];
+        for (int i = 0; i < params; i++) {
+            args[i] = "1";
+        }
+
+        List<String> details = new ArrayList<>();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detail));
+            }
+        }
+        return details;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.os.Looper;
+
+import androidx.fragment.app.FragmentManager;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Local tests for remembered-device sessions: hashed storage, expiry,
+ * revocation, current-role lookup and sign-in on start.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SessionStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private Context context;
+    private SessionStore sessions;
+    private SupportSQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        sessions = repository.getSessions();
+        db = repository.getDatabaseHelper().getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void token_isValidatedButNeverStored() {
+        String token = sessions.create("admin", NOW);
+
+        SessionStore.Session session = sessions.validate(token, NOW + 1);
+        assertEquals("admin", session.username);
+        assertEquals("admin", session.role);
+        assertEquals(NOW + SessionStore.SESSION_TTL_MS, session.expiresAt);
+
+        try (Cursor cursor = db.query("SELECT token_hash FROM sessions")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(SessionStore.hashToken(token), cursor.getString(0));
+            assertNotEquals(token, cursor.getString(0));
+        }
+        assertNull(sessions.validate(token + "x", NOW + 1));
+        assertNull(sessions.validate("", NOW + 1));
+    }
+
+    @Test
+    public void expiredTokens_failAndArePruned() {
+        String old = sessions.create("admin", NOW);
+        long later = NOW + SessionStore.SESSION_TTL_MS;
+        assertNull(sessions.validate(old, later));
+
+        sessions.create("admin", later);
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM sessions")) {
+            cursor.moveToFirst();
+            assertEquals(1, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void revokedToken_andDemotedUser_areSeenImmediately() {
+        String token = sessions.create("admin", NOW);
+        db.execSQL("UPDATE users SET role = 'user' WHERE username = 'admin'");
+        assertEquals("user", sessions.validate(token, NOW + 1).role);
+
+        sessions.revoke(token);
+        assertNull(sessions.validate(token, NOW + 1));
+    }
+
+    @Test
+    public void deviceToken_isDroppedOnceInvalid() {
+        sessions.remember(context, "admin");
+        assertNotNull(sessions.restore(context));
+
+        db.execSQL("DELETE FROM sessions");
+        assertNull(sessions.restore(context));
+        assertFalse(authPrefs().contains(SessionStore.PREF_SESSION_TOKEN));
+    }
+
+    @Test
+    public void rememberedDevice_signsBackInOnStart() throws Exception {
+        sessions.remember(context, "admin");
+
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            AppExecutors.get().diskIO().submit(() -> { }).get(); // the lookup has run
+            shadowOf(Looper.getMainLooper()).idle();
+
+            scenario.onActivity(activity -> {
+                FragmentManager fm = activity.getSupportFragmentManager();
+                assertTrue(activity.isLoggedIn());
+                assertTrue(fm.findFragmentByTag("grid").isVisible());
+                assertNull(fm.findFragmentByTag("login"));
+                assertEquals("admin", authPrefs().getString("userRole", null));
+
+                activity.findViewById(R.id.logoutButton).performClick();
+            });
+            AppExecutors.get().diskIO().submit(() -> { }).get();
+        }
+        assertFalse(authPrefs().contains(SessionStore.PREF_SESSION_TOKEN));
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM sessions")) {
+            cursor.moveToFirst();
+            assertEquals(0, cursor.getInt(0));
+        }
+    }
+
+    private SharedPreferences authPrefs() {
+        return context.getSharedPreferences("auth", Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.cs360projecttwo;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Stands in for the Keystore in local tests, which have no AndroidKeyStore:
+ * AES-GCM under a fixed software key.
+ */
+final class SoftwareKeyWrapper implements BackupCipher.KeyWrapper {
+
+    private static final SecretKeySpec KEY = new SecretKeySpec(new byte[32], "AES");
+
+    @Override
+    public byte[] wrap(byte[] key) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        byte[] iv = new byte[12];
+        new Random().nextBytes(iv);
+        cipher.init(Cipher.ENCRYPT_MODE, KEY, new GCMParameterSpec(128, iv));
+        byte[] sealed = cipher.doFinal(key);
+        byte[] wrapped = Arrays.copyOf(iv, iv.length + sealed.length);
+        System.arraycopy(sealed, 0, wrapped, iv.length, sealed.length);
+        return wrapped;
+    }
+
+    @Override
+    public byte[] unwrap(byte[] wrapped) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, KEY, new GCMParameterSpec(128, wrapped, 0, 12));
+        return cipher.doFinal(wrapped, 12, wrapped.length - 12);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.cs360projecttwo;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for violation keys and the shrink-only baseline.
+ */
+public class StrictModeBaselineTest {
+
+    private static final String BASELINE = "# comment\n"
+            + "DiskReadViolation @ DatabaseHelper.validateUser < LoginFragment.loginUser\n"
+            + "\n"
+            + "DiskReadViolation @ MainActivity.clearAuthState < MainActivity.onCreate\n";
+
+    @Test
+    public void parse_ignoresCommentsAndBlankLines() throws Exception {
+        assertEquals(2, StrictModeBaseline.parse(new StringReader(BASELINE)).size());
+    }
+
+    @Test
+    public void fixedViolation_isReportedUntilItsLineIsDeleted() throws Exception {
+        StrictModeBaseline baseline = StrictModeBaseline.parse(new StringReader(BASELINE));
+        List<String> observed = Collections.singletonList(
+                "DiskReadViolation @ MainActivity.clearAuthState < MainActivity.onCreate");
+
+        assertTrue(baseline.newViolations(observed).isEmpty());
+        assertEquals(Collections.singleton(
+                        "DiskReadViolation @ DatabaseHelper.validateUser < LoginFragment.loginUser"),
+                baseline.resolved(observed));
+
+        StrictModeBaseline shrunk = StrictModeBaseline.parse(new StringReader(
+                BASELINE.replace("DiskReadViolation @ DatabaseHelper.validateUser < LoginFragment.loginUser\n", "")));
+        assertEquals(1, shrunk.size());
+        assertTrue(shrunk.newViolations(observed).isEmpty());
+        assertTrue(shrunk.resolved(observed).isEmpty());
+    }
+
+    @Test
+    public void growing_isReported() throws Exception {
+        StrictModeBaseline baseline = StrictModeBaseline.parse(new StringReader(BASELINE));
+        List<String> observed = Arrays.asList(
+                "DiskReadViolation @ MainActivity.clearAuthState < MainActivity.onCreate",
+                "DiskWriteViolation @ InventoryRepository.insertItem < InventoryViewModel.addItem");
+
+        assertEquals(Collections.singleton(
+                        "DiskWriteViolation @ InventoryRepository.insertItem < InventoryViewModel.addItem"),
+                baseline.newViolations(observed));
+    }
+
+    @Test
+    public void key_usesInnermostAppFramesOnly() {
+        Throwable violation = new IllegalStateException();
+        violation.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("android.database.sqlite.SQLiteConnection", "open", "x", 1),
+                new StackTraceElement("com.example.cs360projecttwo.DatabaseHelper", "validateUser", "x", 10),
+                new StackTraceElement("com.example.cs360projecttwo.LoginFragment", "loginUser", "x", 20),
+                new StackTraceElement("com.example.cs360projecttwo.LoginFragment", "lambda$init$0", "x", 30),
+        });
+
+        assertEquals("IllegalStateException @ DatabaseHelper.validateUser < LoginFragment.loginUser",
+                StrictModeGuard.keyFor(violation));
+    }
+
+    @Test
+    public void key_withoutAppFrames_isMarkedFramework() {
+        Throwable violation = new IllegalStateException();
+        violation.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("android.app.ActivityThread", "main", "x", 1)});
+        assertEquals("IllegalStateException @ <framework>", StrictModeGuard.keyFor(violation));
+    }
+}
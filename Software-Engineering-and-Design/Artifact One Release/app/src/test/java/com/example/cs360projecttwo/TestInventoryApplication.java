@@ -0,0 +1,21 @@
+package com.example.cs360projecttwo;
+
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+
+/**
+ * The application local tests run under (see robolectric.properties).
+ * Robolectric can't load SQLCipher's native library or reach the
+ * AndroidKeyStore, so inventory.db is opened with the platform's SQLite
+ * and file keys are wrapped in software. Everything above the helper is
+ * the production code; the encrypted path is covered by the instrumented
+ * DatabaseEncryptionTest.
+ */
+public class TestInventoryApplication extends InventoryApplication {
+
+    @Override
+    public void onCreate() {
+        DatabaseHelper.useFactoryForTesting(new FrameworkSQLiteOpenHelperFactory());
+        BackupCipher.useKeyWrapperForTesting(new SoftwareKeyWrapper());
+        super.onCreate();
+    }
+}
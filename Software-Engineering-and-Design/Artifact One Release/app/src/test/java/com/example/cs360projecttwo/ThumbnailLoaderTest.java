@@ -0,0 +1,269 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.ImageView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Local tests for the thumbnail pipeline: downsampled decode, the memory
+ * and disk tiers, cancellation, stale decodes, items without a photo, a
+ * memory tier bounded by bytes, and bounded caches while scrolling.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ThumbnailLoaderTest {
+
+    private static final int SIZE = 96;
+
+    private Context context;
+    private ThreadPoolExecutor decoder;
+    private ThumbnailLoader loader;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        decoder = ThumbnailLoader.newDecoder();
+        loader = newLoader(2 * 1024 * 1024, 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() {
+        decoder.shutdownNow();
+    }
+
+    @Test
+    public void sampleSize_keepsShorterSideAtLeastTarget() {
+        assertEquals(16, ThumbnailLoader.sampleSize(4000, 3000, SIZE));
+        assertEquals(4, ThumbnailLoader.sampleSize(800, 600, SIZE));
+        assertEquals(1, ThumbnailLoader.sampleSize(100, 100, SIZE));
+    }
+
+    @Test
+    public void largePhoto_isDecodedStraightToThumbnailSize() throws IOException {
+        loader.setImage(1, jpeg(3000, 2000, Color.RED));
+
+        Bitmap thumbnail = loader.loadBlocking(1, SIZE);
+
+        assertEquals(SIZE, thumbnail.getWidth());
+        assertEquals(SIZE, thumbnail.getHeight());
+        assertTrue(thumbnail.getAllocationByteCount() <= SIZE * SIZE * 4);
+    }
+
+    @Test
+    public void tiers_memoryThenDiskThenDecode() throws IOException {
+        loader.setImage(1, jpeg(800, 600, Color.BLUE));
+        assertNull(loader.loadBlocking(2, SIZE)); // no photo
+
+        loader.loadBlocking(1, SIZE);
+        assertEquals(1, loader.decodes());
+        loader.loadBlocking(1, SIZE);
+        assertEquals(1, loader.memoryHits());
+
+        loader.clearMemory();
+        loader.loadBlocking(1, SIZE);
+        assertEquals(1, loader.diskHits());
+        assertEquals(1, loader.decodes());
+    }
+
+    @Test
+    public void newPhoto_replacesCachedThumbnails() throws IOException {
+        loader.setImage(1, jpeg(800, 600, Color.RED));
+        assertTrue(Color.red(loader.loadBlocking(1, SIZE).getPixel(SIZE / 2, SIZE / 2)) > 200);
+
+        loader.setImage(1, jpeg(800, 600, Color.BLUE));
+        int pixel = loader.loadBlocking(1, SIZE).getPixel(SIZE / 2, SIZE / 2);
+        assertTrue(Color.blue(pixel) > 200 && Color.red(pixel) < 50);
+        assertEquals(2, loader.decodes());
+
+        loader.deleteImages(Collections.singletonList(1L));
+        assertNull(loader.loadBlocking(1, SIZE));
+    }
+
+    @Test
+    public void recycledRow_cancelsItsQueuedDecode() throws Exception {
+        loader.setImage(1, jpeg(800, 600, Color.RED));
+        CountDownLatch release = blockDecoder();
+        ImageView view = new ImageView(context);
+
+        loader.load(view, 1, SIZE);
+        assertEquals(1, decoder.getQueue().size());
+        loader.cancel(view);
+        assertEquals(0, decoder.getQueue().size());
+
+        release.countDown();
+        decoder.shutdown();
+        assertTrue(decoder.awaitTermination(5, TimeUnit.SECONDS));
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(0, loader.decodes());
+        assertNull(view.getDrawable());
+    }
+
+    @Test
+    public void decodeStartedBeforeNewPhoto_storesNothing() throws Exception {
+        loader.setImage(1, jpeg(800, 600, Color.RED));
+        CountDownLatch release = blockDecoder();
+        ImageView view = new ImageView(context);
+        loader.load(view, 1, SIZE); // queued against the red photo
+
+        loader.setImage(1, jpeg(800, 600, Color.BLUE));
+        release.countDown();
+        decoder.shutdown();
+        assertTrue(decoder.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, loader.decodes());
+
+        // Neither tier kept the stale load's result, so this decodes again
+        loader.clearMemory();
+        loader.loadBlocking(1, SIZE);
+        assertEquals(0, loader.diskHits());
+        assertEquals(2, loader.decodes());
+    }
+
+    @Test
+    public void itemWithoutPhoto_isRememberedUntilOneIsSet() throws Exception {
+        assertNull(loader.loadBlocking(2, SIZE));
+        long queued = decoder.getTaskCount();
+
+        ImageView view = new ImageView(context);
+        loader.load(view, 2, SIZE);
+        assertEquals(queued, decoder.getTaskCount()); // answered on the UI thread
+        assertEquals(1, loader.missingHits());
+        assertNull(view.getTag(R.id.thumbnail_request));
+
+        loader.setImage(2, jpeg(800, 600, Color.RED));
+        assertNotNull(loader.loadBlocking(2, SIZE));
+        assertEquals(1, loader.decodes());
+    }
+
+    @Test
+    public void boundView_showsThumbnailOnceDecoded() throws Exception {
+        loader.setImage(1, jpeg(800, 600, Color.RED));
+        ImageView view = new ImageView(context);
+
+        loader.load(view, 1, SIZE);
+        decoder.shutdown();
+        assertTrue(decoder.awaitTermination(5, TimeUnit.SECONDS));
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertNotNull(view.getDrawable());
+        assertNull(view.getTag(R.id.thumbnail_request));
+    }
+
+    @Test
+    public void memoryTier_neverHoldsMoreBytesThanItsBudget() throws IOException {
+        ThumbnailLoader small = newLoader(256 * 1024, 1024 * 1024);
+        File source = new File(context.getCacheDir(), "source.jpg");
+        try (OutputStream out = new FileOutputStream(source)) {
+            photo(800, 600, Color.RED).compress(Bitmap.CompressFormat.JPEG, 90, out);
+        }
+
+        long inserted = 0;
+        for (long id = 1; id <= 32; id++) {
+            link(source, small.imageFile(id));
+            inserted += small.loadBlocking(id, SIZE).getAllocationByteCount();
+            assertTrue("memory tier " + small.memoryBytes(), small.memoryBytes() <= small.maxMemoryBytes());
+        }
+
+        // Four times the budget went in; the oldest thumbnails were evicted, not kept
+        assertTrue(inserted > 4L * small.maxMemoryBytes());
+        small.loadBlocking(1, SIZE);
+        assertEquals(0, small.memoryHits());
+        assertEquals(1, small.diskHits());
+    }
+
+    @Test
+    public void scrollingThousandsOfItems_keepsBothTiersWithinBudget() throws IOException {
+        int items = 2_000;
+        File source = new File(context.getCacheDir(), "source.jpg");
+        try (OutputStream out = new FileOutputStream(source)) {
+            photo(800, 600, Color.GREEN).compress(Bitmap.CompressFormat.JPEG, 90, out);
+        }
+        for (long id = 1; id <= items; id++) {
+            link(source, loader.imageFile(id));
+        }
+
+        for (long id = 1; id <= items; id++) {
+            Bitmap thumbnail = loader.loadBlocking(id, SIZE);
+            assertEquals(SIZE, thumbnail.getWidth());
+            assertTrue(loader.memoryBytes() <= loader.maxMemoryBytes());
+        }
+
+        // Every photo decoded once, straight to thumbnail size, and the disk tier trimmed to budget
+        assertEquals(items, loader.decodes());
+        assertTrue("disk cache " + loader.diskBytes(), loader.diskBytes() <= 1024 * 1024);
+        assertTrue(loader.memoryBytes() > loader.maxMemoryBytes() / 2);
+    }
+
+    // ----------- Helpers -----------
+
+    // Occupies every decode thread until the latch opens, so new requests stay queued
+    private CountDownLatch blockDecoder() {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < decoder.getCorePoolSize(); i++) {
+            decoder.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        return release;
+    }
+
+    private ThumbnailLoader newLoader(int memoryBytes, long diskBytes) {
+        Handler main = new Handler(Looper.getMainLooper());
+        return new ThumbnailLoader(new File(context.getFilesDir(), ThumbnailLoader.IMAGES_DIR),
+                new File(context.getCacheDir(), ThumbnailLoader.THUMBNAILS_DIR),
+                memoryBytes, diskBytes, decoder, main::post);
+    }
+
+    private static ByteArrayInputStream jpeg(int width, int height, int color) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        photo(width, height, color).compress(Bitmap.CompressFormat.JPEG, 90, out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private static Bitmap photo(int width, int height, int color) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        new Canvas(bitmap).drawColor(color);
+        return bitmap;
+    }
+
+    // Hard links keep thousands of "photos" from costing as many copies; copy where links aren't supported
+    private static void link(File source, File target) throws IOException {
+        target.getParentFile().mkdirs();
+        try {
+            Files.createLink(target.toPath(), source.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source.toPath(), target.toPath());
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.cs360projecttwo;
+
+import android.app.Application;
+import android.database.Cursor;
+import android.os.Looper;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Local tests for fuzzy item lookup: trigram upkeep on insert, rename and
+ * delete, typo matching, the grid's fallback, and how much of the index a
+ * lookup touches on a large catalog.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TrigramIndexTest {
+
+    private Application application;
+    private InventoryRepository repository;
+    private TrigramIndex trigrams;
+
+    @Before
+    public void setUp() {
+        application = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(application);
+        trigrams = repository.getTrigrams();
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void trigramsAndDistance() {
+        assertEquals("nitrile gloves 7", TrigramIndex.normalize("  Nitrile-Gloves (7) "));
+        // " ab", "ab ", " a "
+        assertEquals(3, TrigramIndex.trigrams("Ab a").length);
+        assertEquals(0, TrigramIndex.trigrams(" -- ").length);
+
+        int[][] rows = new int[3][];
+        assertEquals(0, TrigramIndex.substringDistance("gloves", "nitrile gloves large", 2, rows));
+        assertEquals(1, TrigramIndex.substringDistance("glvoes", "nitrile gloves large", 2, rows)); // swap
+        assertEquals(1, TrigramIndex.substringDistance("gloes", "nitrile gloves", 2, rows));
+        assertEquals(2, TrigramIndex.substringDistance("glovbes", "nitrile glves", 2, rows));
+        assertEquals(3, TrigramIndex.substringDistance("bandage", "nitrile gloves", 2, rows)); // over the limit
+    }
+
+    @Test
+    public void typos_findTheItem() {
+        long gloves = repository.insertItem("Nitrile Gloves, Large", 4).getId();
+        repository.insertItem("Glass cleaner", 2);
+        repository.insertItem("Bandages", 9);
+
+        List<TrigramIndex.Match> found = trigrams.search("glvoes", 20);
+        assertEquals(1, found.size());
+        assertEquals(gloves, found.get(0).itemId);
+        assertEquals(1, found.get(0).distance);
+
+        assertEquals(gloves, trigrams.search("nitirle glove", 20).get(0).itemId);
+        assertTrue(trigrams.search("xylophone", 20).isEmpty());
+        assertTrue(trigrams.search("gl", 20).isEmpty());
+    }
+
+    @Test
+    public void index_followsInsertRenameAndDelete() {
+        long id = repository.insertItem("Paper towels", 3).getId();
+        List<InventoryItem> imported = repository.insertItemsAndGet(Arrays.asList(
+                new InventoryItem(0, "Hand soap", 5), new InventoryItem(0, "Dish soap", 6)));
+        assertEquals(2, trigrams.search("sopa", 20).size());
+
+        assertTrue(repository.renameItem(id, "Kitchen roll"));
+        assertTrue(trigrams.search("papr towels", 20).isEmpty());
+        assertEquals(id, trigrams.search("kitchen rol", 20).get(0).itemId);
+        assertEquals("Kitchen roll", repository.getItem(id).getName());
+
+        repository.deleteItem(imported.get(0).getId());
+        assertEquals(1, trigrams.search("sopa", 20).size());
+        assertEquals(0, trigramRows(imported.get(0).getId()));
+        assertFalse(repository.renameItem(imported.get(0).getId(), "Gone"));
+    }
+
+    @Test
+    public void search_fallsBackToFuzzyWhenNothingMatches() throws Exception {
+        repository.insertItem("Nitrile gloves", 4);
+        long masks = repository.insertItem("Face masks", 10).getId();
+        InventoryViewModel viewModel = new InventoryViewModel(application);
+        viewModel.getVisibleItems().observeForever(items -> { });
+        drainBackgroundWork();
+
+        viewModel.setSearchQuery("mask");
+        assertEquals(1, viewModel.getVisibleItems().getValue().size()); // plain substring match
+
+        viewModel.setSearchQuery("msaks");
+        drainBackgroundWork();
+        List<InventoryItem> shown = viewModel.getVisibleItems().getValue();
+        assertEquals(1, shown.size());
+        assertEquals(masks, shown.get(0).getId());
+    }
+
+    @Test
+    public void fuzzyMatches_surviveUnrelatedWrites() throws Exception {
+        long gloves = repository.insertItem("Nitrile gloves", 4).getId();
+        long masks = repository.insertItem("Face masks", 10).getId();
+        InventoryViewModel viewModel = new InventoryViewModel(application);
+        viewModel.getVisibleItems().observeForever(items -> { });
+        viewModel.setSearchQuery("msaks");
+        drainBackgroundWork();
+        long lookedUp = trigrams.postingsRead();
+        assertTrue(lookedUp > 0);
+
+        // Every write re-delivers the item list; the search text is unchanged, so no new lookup
+        repository.updateQuantity(gloves, 3);
+        drainBackgroundWork();
+        assertEquals(lookedUp, trigrams.postingsRead());
+        assertEquals(masks, viewModel.getVisibleItems().getValue().get(0).getId());
+
+        viewModel.setSearchQuery("glvoes");
+        drainBackgroundWork();
+        assertTrue(trigrams.postingsRead() > lookedUp);
+        assertEquals(gloves, viewModel.getVisibleItems().getValue().get(0).getId());
+    }
+
+    /**
+     * Catalog names built from a small shared vocabulary, the way real
+     * supply catalogs repeat brands, materials and pack sizes. A lookup has
+     * to find the typed item without grouping index rows for anything like
+     * the whole catalog; a LIKE scan reads every name.
+     */
+    @Test
+    public void catalog200k_typosFoundFromASmallShareOfTheIndex() {
+        int items = 200_000;
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        Random random = new Random(3);
+        String[] names = new String[items + 1];
+        db.beginTransaction();
+        try (SqlStatement insert = SqlStatement.compile(db,
+                "INSERT INTO inventory (item_name, item_quantity) VALUES (?, ?)")) {
+            for (int i = 1; i <= items; i++) {
+                names[i] = catalogName(random);
+                insert.bindString(1, names[i]);
+                insert.bindLong(2, random.nextInt(100));
+                insert.executeInsert();
+            }
+            // The same path an upgraded database takes
+            TrigramIndex.indexAll(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        int runs = 40;
+        int limit = 20;
+        int found = 0;
+        long postings = trigrams.postingsRead();
+        long checked = trigrams.namesChecked();
+        for (int run = 0; run < runs; run++) {
+            int target = 1 + random.nextInt(items);
+            for (TrigramIndex.Match match : trigrams.search(typo(names[target], random), limit)) {
+                if (match.name.equals(names[target])) { // or an identical name listed under another id
+                    found++;
+                    break;
+                }
+            }
+        }
+        postings = trigrams.postingsRead() - postings;
+        checked = trigrams.namesChecked() - checked;
+
+        assertTrue("found " + found + "/" + runs, found >= runs * 9 / 10);
+        assertTrue("grouped " + postings / runs + " index rows per lookup", postings < (long) runs * items / 2);
+        assertTrue("checked " + checked + " names", checked <= (long) runs * limit * 4);
+    }
+
+    // ----------- Helpers -----------
+
+    private static final String[] BRANDS = {"Medline", "Cardinal", "McKesson", "Dynarex", "Kimberly", "Halyard",
+            "Ansell", "Covidien", "Clorox", "Lysol", "Purell", "Scott", "Kleenex", "Rubbermaid", "Uline", "Duracell"};
+    private static final String[] QUALIFIERS = {"nitrile", "latex", "vinyl", "sterile", "disposable",
+            "reusable", "medical", "industrial", "heavy duty", "lightweight", "compact", "premium", "economy", "blue",
+            "white", "green", "clear", "scented", "unscented", "antibacterial", "absorbent", "elastic"};
+    private static final String[] PRODUCTS = {"gloves", "masks", "bandages", "gauze", "syringes", "swabs",
+            "towels", "soap", "sanitizer", "wipes", "gowns", "aprons", "bags", "tape", "scissors", "labels",
+            "batteries", "bulbs", "filters", "cartridges", "cleaner", "detergent", "bleach", "sponges"};
+    private static final String[] SIZES = {"small", "medium", "large", "xl", "mini", "jumbo", "travel"};
+    private static final String[] PACKS = {"single", "pack of 12", "box of 50", "box of 100", "case of 24", "refill"};
+
+    // e.g. "Halyard sterile gauze, medium, box of 100"; many names repeat, as in a real catalog (also TrigramLookupBenchmark)
+    static String catalogName(Random random) {
+        return BRANDS[random.nextInt(BRANDS.length)] + " "
+                + QUALIFIERS[random.nextInt(QUALIFIERS.length)] + " "
+                + PRODUCTS[random.nextInt(PRODUCTS.length)] + ", "
+                + SIZES[random.nextInt(SIZES.length)] + ", "
+                + PACKS[random.nextInt(PACKS.length)];
+    }
+
+    // One swap, drop or substitution in a random place
+    static String typo(String name, Random random) {
+        StringBuilder sb = new StringBuilder(name);
+        int at = 1 + random.nextInt(sb.length() - 2);
+        switch (random.nextInt(3)) {
+            case 0:
+                char c = sb.charAt(at);
+                sb.setCharAt(at, sb.charAt(at + 1));
+                sb.setCharAt(at + 1, c);
+                break;
+            case 1:
+                sb.deleteCharAt(at);
+                break;
+            default:
+                sb.setCharAt(at, (char) ('a' + random.nextInt(26)));
+                break;
+        }
+        return sb.toString();
+    }
+
+    private int trigramRows(long itemId) {
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getReadableDatabase();
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM item_trigrams WHERE item_id = ?",
+                new String[]{String.valueOf(itemId)})) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private void drainBackgroundWork() throws Exception {
+        for (int i = 0; i < 2; i++) { // the fuzzy lookup is queued by a publish that the first pass runs
+            AppExecutors.get().diskIO().submit(() -> { }).get();
+            repository.getInvalidationTracker().drainForTesting();
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): a fuzzy lookup of a
+ * mistyped name in a 200k-item catalog against the LIKE scan the plain
+ * search would run even with the typo fixed. Writes
+ * build/benchmarks/trigram-lookup.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TrigramLookupBenchmark {
+
+    private static final int ITEMS = 200_000;
+    private static final int QUERIES = 40;
+    private static final int LIMIT = 20;
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void catalog200k_fuzzyLookupVsLikeScan() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        TrigramIndex trigrams = repository.getTrigrams();
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        Random random = new Random(3);
+        String[] names = new String[ITEMS + 1];
+        db.beginTransaction();
+        try (SqlStatement insert = SqlStatement.compile(db,
+                "INSERT INTO inventory (item_name, item_quantity) VALUES (?, ?)")) {
+            for (int i = 1; i <= ITEMS; i++) {
+                names[i] = TrigramIndexTest.catalogName(random);
+                insert.bindString(1, names[i]);
+                insert.bindLong(2, random.nextInt(100));
+                insert.executeInsert();
+            }
+            TrigramIndex.indexAll(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        String[] targets = new String[QUERIES];
+        String[] typed = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            targets[i] = names[1 + random.nextInt(ITEMS)];
+            typed[i] = TrigramIndexTest.typo(targets[i], random);
+        }
+
+        int[] found = new int[1];
+        long fuzzyNanos = BenchmarkReport.medianNanos(1, 5, () -> {
+            found[0] = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                for (TrigramIndex.Match match : trigrams.search(typed[i], LIMIT)) {
+                    if (match.name.equals(targets[i])) {
+                        found[0]++;
+                        break;
+                    }
+                }
+            }
+        });
+        long likeNanos = BenchmarkReport.medianNanos(1, 5, () -> {
+            for (int i = 0; i < QUERIES; i++) {
+                try (Cursor cursor = db.query("SELECT item_id FROM inventory WHERE item_name LIKE ? LIMIT " + LIMIT,
+                        new String[]{"%" + targets[i] + "%"})) {
+                    while (cursor.moveToNext()) {
+                        cursor.getLong(0);
+                    }
+                }
+            }
+        });
+        // Same bar as TrigramIndexTest; the timings are only reported
+        assertTrue("found " + found[0] + "/" + QUERIES, found[0] >= QUERIES * 9 / 10);
+
+        new BenchmarkReport("trigram-lookup")
+                .line("%,d items, %d mistyped lookups, %d found", ITEMS, QUERIES, found[0])
+                .compare("per lookup", "LIKE (typo fixed)", likeNanos / QUERIES,
+                        "trigram (typo)", fuzzyNanos / QUERIES)
+                .write();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests that quantity decrements drive the stockout forecast and urgency order.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class UrgencyOrderTest {
+
+    private static final int ITEMS = 2_000;
+
+    private InventoryRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void decrement_setsRateAndStockout_restockKeepsRate() {
+        InventoryItem item = repository.insertItem("Gloves", 100);
+        assertEquals(ConsumptionForecast.NO_STOCKOUT, item.getStockoutAt());
+
+        repository.updateQuantity(item.getId(), 60);
+        InventoryItem afterUse = repository.getItem(item.getId());
+        assertTrue(afterUse.getConsumptionRate() > 0);
+        assertNotEquals(ConsumptionForecast.NO_STOCKOUT, afterUse.getStockoutAt());
+
+        repository.updateQuantity(item.getId(), 500);
+        InventoryItem afterRestock = repository.getItem(item.getId());
+        assertEquals(afterUse.getConsumptionRate(), afterRestock.getConsumptionRate(), 0);
+        assertTrue(afterRestock.getStockoutAt() > afterUse.getStockoutAt());
+    }
+
+    @Test
+    public void itemsByUrgency_putsEarliestStockoutFirst() {
+        List<InventoryItem> seed = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            seed.add(new InventoryItem(0, "Item " + i, 1_000));
+        }
+        repository.insertItems(seed);
+
+        List<InventoryItem> all = repository.getAllItems();
+        // Consume more from later items so they run out sooner
+        for (int i = 0; i < 50; i++) {
+            InventoryItem item = all.get(i * 40);
+            repository.updateQuantity(item.getId(), 1_000 - (i + 1) * 10);
+        }
+
+        List<InventoryItem> urgent = repository.getItemsByUrgency();
+        assertEquals(ITEMS, urgent.size());
+        assertEquals(all.get(49 * 40).getId(), urgent.get(0).getId());
+        for (int i = 1; i < urgent.size(); i++) {
+            assertTrue(urgent.get(i).getStockoutAt() >= urgent.get(i - 1).getStockoutAt());
+        }
+        assertEquals(ConsumptionForecast.NO_STOCKOUT, urgent.get(ITEMS - 1).getStockoutAt());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.Writer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Report-only benchmark (see {@link BenchmarkReport}): the valuation report
+ * over a million items, its run time and how far the heap grows while it
+ * streams. Writes build/benchmarks/valuation-report.txt.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ValuationReportBenchmark {
+
+    private static final int ITEMS = 1_000_000;
+    private static final int CATEGORIES = 25;
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void millionItems_streamInBoundedMemory() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        InventoryRepository repository = InventoryRepository.getInstance(context);
+        ValuationReport report = new ValuationReport(context, repository);
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        seed(db);
+        long expectedValue;
+        try (Cursor cursor = db.query("SELECT SUM(item_quantity * unit_cost_minor) FROM inventory")) {
+            cursor.moveToFirst();
+            expectedValue = cursor.getLong(0);
+        }
+
+        // Counts what would go to disk, discarding it
+        long[] chars = {0};
+        Writer sink = new Writer() {
+            @Override
+            public void write(char[] buf, int off, int len) {
+                chars[0] += len;
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        ValuationReport.Summary[] summary = new ValuationReport.Summary[1];
+        long nanos = BenchmarkReport.medianNanos(1, 3, () -> summary[0] = report.write(sink, new CancellationSignal()));
+        assertEquals(ITEMS, summary[0].items);
+        assertEquals(expectedValue, summary[0].valueMinor);
+
+        // One more run, sampling the heap every 50 pages
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        long[] peak = {0};
+        int[] pages = {0};
+        chars[0] = 0;
+        report.setPageListenerForTesting(rows -> {
+            if (++pages[0] % 50 == 0) {
+                System.gc();
+                peak[0] = Math.max(peak[0], runtime.totalMemory() - runtime.freeMemory() - baseline);
+            }
+        });
+        report.write(sink, new CancellationSignal());
+
+        new BenchmarkReport("valuation-report")
+                .line("%,d items in %,d pages of %,d rows: median %,d ms, %,d KB of CSV",
+                        ITEMS, pages[0], ValuationReport.PAGE_ROWS, nanos / 1_000_000, chars[0] / 1024)
+                .line("heap growth while streaming (sampled after GC): %,d KB", peak[0] / 1024)
+                .write();
+    }
+
+    private static void seed(SupportSQLiteDatabase db) {
+        Random random = new Random(11);
+        db.beginTransaction();
+        try (SqlStatement category = SqlStatement.compile(db, "INSERT INTO categories (name) VALUES (?)");
+             SqlStatement item = SqlStatement.compile(db, "INSERT INTO inventory "
+                     + "(item_name, item_quantity, unit_cost_minor, category_id) VALUES (?, ?, ?, ?)")) {
+            for (int c = 1; c <= CATEGORIES; c++) {
+                category.bindString(1, "Category " + c);
+                category.executeInsert();
+            }
+            for (int i = 1; i <= ITEMS; i++) {
+                item.bindString(1, "Item " + i);
+                item.bindLong(2, random.nextInt(500));
+                item.bindLong(3, random.nextInt(100_000));
+                if (i % 10 == 0) {
+                    item.bindNull(4);
+                } else {
+                    item.bindLong(4, 1 + random.nextInt(CATEGORIES));
+                }
+                item.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.cs360projecttwo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for the streaming valuation report: fixed-point money,
+ * category subtotals, formula escaping, cancellation, the sealed file, one
+ * consistent read with and without deferred read transactions, pages
+ * bounded by PAGE_ROWS, and paging over a large inventory.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ValuationReportTest {
+
+    private InventoryRepository repository;
+    private ValuationReport report;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = InventoryRepository.getInstance(context);
+        report = new ValuationReport(context, repository);
+    }
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void minorUnits_areExact() {
+        assertEquals(1234, MinorUnits.parse("12.34"));
+        assertEquals(1230, MinorUnits.parse(" 12.3 "));
+        assertEquals(1200, MinorUnits.parse("12"));
+        assertEquals(5, MinorUnits.parse(".05"));
+        assertEquals(-5, MinorUnits.parse("-0.05"));
+        assertEquals("12.34", MinorUnits.format(1234));
+        assertEquals("-0.05", MinorUnits.format(-5));
+        assertEquals("0.00", MinorUnits.format(0));
+        assertEquals("-92233720368547758.08", MinorUnits.format(Long.MIN_VALUE));
+
+        for (String bad : new String[]{"", ".", "1.234", "1,50", "abc", "99999999999999999999"}) {
+            try {
+                MinorUnits.parse(bad);
+                fail("parsed " + bad);
+            } catch (NumberFormatException expected) {
+                // rejected
+            }
+        }
+    }
+
+    @Test
+    public void report_listsItemsThenSubtotalsByCategory() throws Exception {
+        long gloves = repository.insertItem("Gloves, nitrile", 4).getId();
+        long masks = repository.insertItem("Masks", 10).getId();
+        long tape = repository.insertItem("Tape \"wide\"", 3).getId();
+        repository.setCategory(Arrays.asList(gloves, masks), "PPE");
+        repository.setUnitCost(Arrays.asList(gloves), MinorUnits.parse("2.50"));
+        repository.setUnitCost(Arrays.asList(masks), MinorUnits.parse("0.35"));
+        repository.setUnitCost(Arrays.asList(tape), MinorUnits.parse("1.99"));
+
+        StringWriter out = new StringWriter();
+        ValuationReport.Summary summary = report.write(out, new CancellationSignal());
+
+        assertEquals(3, summary.items);
+        assertEquals(17, summary.units);
+        assertEquals(1000 + 350 + 597, summary.valueMinor);
+        assertEquals("item_id,item_name,category,quantity,unit_cost,value\n"
+                + gloves + ",\"Gloves, nitrile\",PPE,4,2.50,10.00\n"
+                + masks + ",Masks,PPE,10,0.35,3.50\n"
+                + tape + ",\"Tape \"\"wide\"\"\",,3,1.99,5.97\n"
+                + "\n"
+                + "category,items,quantity,value\n"
+                + "PPE,2,14,13.50\n"
+                + "Uncategorised,1,3,5.97\n"
+                + "Total,3,17,19.47\n", out.toString());
+    }
+
+    @Test
+    public void cancelledReport_stopsAndLeavesNoFile() throws Exception {
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        insertItems(db, ValuationReport.PAGE_ROWS * 3, 1);
+
+        CancellationSignal signal = new CancellationSignal();
+        StringWriter out = new StringWriter();
+        Writer cancelling = new Writer() {
+            @Override
+            public void write(char[] buf, int off, int len) {
+                out.write(buf, off, len);
+                signal.cancel(); // as if the user pressed Cancel as soon as output began
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            report.write(cancelling, signal);
+            fail("expected the report to stop");
+        } catch (OperationCanceledException expected) {
+            // stopped
+        }
+        long lines = out.toString().chars().filter(c -> c == '\n').count();
+        assertTrue("read past the first page: " + lines, lines <= ValuationReport.PAGE_ROWS + 1);
+
+        CancellationSignal cancelled = new CancellationSignal();
+        cancelled.cancel();
+        try {
+            report.writeBlocking(cancelled);
+            fail("expected the report to stop");
+        } catch (OperationCanceledException expected) {
+            // stopped
+        }
+        File[] left = report.getReportDir().listFiles();
+        assertEquals(0, left == null ? 0 : left.length);
+
+        File written = report.writeBlocking(new CancellationSignal());
+        assertTrue(written.getName().endsWith(".csv.enc"));
+        assertEquals(1, report.getReportDir().listFiles().length);
+    }
+
+    @Test
+    public void writtenReport_isSealedAndReadsBack() throws Exception {
+        repository.insertItem("Secret widget", 3);
+        File written = report.writeBlocking(new CancellationSignal());
+
+        byte[] raw = Files.readAllBytes(written.toPath());
+        assertFalse(new String(raw, StandardCharsets.ISO_8859_1).contains("Secret widget"));
+
+        StringWriter expected = new StringWriter();
+        report.write(expected, new CancellationSignal());
+        String csv;
+        try (InputStream in = report.openReport(written)) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(expected.toString(), csv);
+
+        // One altered byte and the report no longer opens cleanly
+        raw[raw.length / 2] ^= 0x01;
+        Files.write(written.toPath(), raw);
+        assertThrows(IOException.class, () -> {
+            try (InputStream in = report.openReport(written)) {
+                in.readAllBytes();
+            }
+        });
+    }
+
+    @Test
+    public void formulaLikeNames_areNotRunBySpreadsheets() throws Exception {
+        String[] names = {"=HYPERLINK(\"http://x\")", "+1 spare", "-5 kit", "@SUM(A1)", "\tTabbed", "Plain"};
+        for (String name : names) {
+            repository.insertItem(name, 1);
+        }
+
+        StringWriter out = new StringWriter();
+        report.write(out, new CancellationSignal());
+
+        String csv = out.toString();
+        assertTrue(csv.contains(",\"'=HYPERLINK(\"\"http://x\"\")\","));
+        assertTrue(csv.contains(",\"'+1 spare\","));
+        assertTrue(csv.contains(",\"'-5 kit\","));
+        assertTrue(csv.contains(",\"'@SUM(A1)\","));
+        assertTrue(csv.contains(",\"'\tTabbed\","));
+        assertTrue(csv.contains(",Plain,"));
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.VANILLA_ICE_CREAM)
+    public void editDuringReport_isNotMixedIntoIt() throws Exception {
+        editDuringReport();
+    }
+
+    /** No deferred reads here, as on SQLCipher: the report still reads one snapshot, and the edit waits for it. */
+    @Test
+    @Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+    public void editDuringReport_waitsWithoutReadSnapshots() throws Exception {
+        assertFalse(repository.getDatabaseHelper().hasReadSnapshots());
+        assertFalse(editDuringReport());
+    }
+
+    // Saves an edit to the last item while the first page is written; returns whether it landed before the report ended
+    private boolean editDuringReport() throws Exception {
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        insertItems(db, ValuationReport.PAGE_ROWS * 2, 3);
+        long lastId;
+        int lastQuantity;
+        try (Cursor cursor = db.query("SELECT item_id, item_quantity FROM inventory ORDER BY item_id DESC LIMIT 1")) {
+            cursor.moveToFirst();
+            lastId = cursor.getLong(0);
+            lastQuantity = cursor.getInt(1);
+        }
+        long expectedUnits;
+        try (Cursor cursor = db.query("SELECT SUM(item_quantity) FROM inventory")) {
+            cursor.moveToFirst();
+            expectedUnits = cursor.getLong(0);
+        }
+
+        ExecutorService editor = Executors.newSingleThreadExecutor();
+        List<Future<?>> edit = new ArrayList<>();
+        boolean[] landed = new boolean[1];
+        StringWriter out = new StringWriter();
+        Writer editing = new Writer() {
+            @Override
+            public void write(char[] buf, int off, int len) throws IOException {
+                out.write(buf, off, len);
+                if (edit.isEmpty()) {
+                    // A save from the UI while the first page is being written; the last page is still unread
+                    edit.add(editor.submit(() -> repository.updateQuantity(lastId, lastQuantity + 1_000)));
+                    if (repository.getDatabaseHelper().hasReadSnapshots()) {
+                        try {
+                            edit.get(0).get(); // writers carry on alongside the snapshot
+                        } catch (Exception e) {
+                            throw new IOException(e);
+                        }
+                    }
+                }
+                landed[0] = edit.get(0).isDone();
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        ValuationReport.Summary summary = report.write(editing, new CancellationSignal());
+        edit.get(0).get(5, TimeUnit.SECONDS);
+        editor.shutdown();
+
+        // Lines and totals both come from before the edit
+        assertEquals(expectedUnits, summary.units);
+        String csv = out.toString();
+        int at = csv.indexOf("\n" + lastId + ",") + 1;
+        String[] fields = csv.substring(at, csv.indexOf('\n', at)).split(",");
+        assertEquals(String.valueOf(lastQuantity), fields[3]);
+        assertEquals(lastQuantity + 1_000, repository.getItem(lastId).getQuantity());
+        return landed[0];
+    }
+
+    @Test
+    public void largeInventory_pagesCoverEveryItemOnce() throws Exception {
+        int items = 200_000;
+        SupportSQLiteDatabase db = repository.getDatabaseHelper().getWritableDatabase();
+        insertItems(db, items, 25);
+
+        long expectedUnits;
+        long expectedValue;
+        try (Cursor cursor = db.query(
+                "SELECT SUM(item_quantity), SUM(item_quantity * unit_cost_minor) FROM inventory")) {
+            cursor.moveToFirst();
+            expectedUnits = cursor.getLong(0);
+            expectedValue = cursor.getLong(1);
+        }
+
+        // Checks the item lines as they stream past: ids strictly rising across page boundaries
+        long[] lastId = {0};
+        int[] lines = {0};
+        boolean[] ascending = {true};
+        Writer sink = new Writer() {
+            private final StringBuilder pending = new StringBuilder();
+
+            @Override
+            public void write(char[] buf, int off, int len) {
+                for (int i = off; i < off + len; i++) {
+                    if (buf[i] != '\n') {
+                        pending.append(buf[i]);
+                        continue;
+                    }
+                    int comma = pending.indexOf(",");
+                    if (lines[0] > 0 && lines[0] <= items && comma > 0) {
+                        long id = Long.parseLong(pending.substring(0, comma));
+                        ascending[0] &= id > lastId[0];
+                        lastId[0] = id;
+                    }
+                    lines[0]++;
+                    pending.setLength(0);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        ValuationReport.Summary summary = report.write(sink, new CancellationSignal());
+
+        assertEquals(items, summary.items);
+        assertEquals(expectedUnits, summary.units);
+        assertEquals(expectedValue, summary.valueMinor);
+        assertTrue(ascending[0]);
+        // Header, one line per item, blank line, totals header, 25 categories, Uncategorised, Total
+        assertEquals(1 + items + 1 + 1 + 25 + 1 + 1, lines[0]);
+    }
+
+    @Test
+    public void everyPage_holdsAtMostPageRows() throws Exception {
+        int items = ValuationReport.PAGE_ROWS * 2 + ValuationReport.PAGE_ROWS / 2;
+        insertItems(repository.getDatabaseHelper().getWritableDatabase(), items, 5);
+
+        List<Integer> pages = new ArrayList<>();
+        report.setPageListenerForTesting(pages::add);
+        ValuationReport.Summary summary = report.write(new StringWriter(), new CancellationSignal());
+
+        // Two full pages and a short one that ends the walk; never the whole table at once
+        assertEquals(Arrays.asList(ValuationReport.PAGE_ROWS, ValuationReport.PAGE_ROWS,
+                ValuationReport.PAGE_ROWS / 2), pages);
+        assertEquals(items, summary.items);
+    }
+
+    private static void insertItems(SupportSQLiteDatabase db, int items, int categories) {
+        Random random = new Random(11);
+        db.beginTransaction();
+        try (SqlStatement category = SqlStatement.compile(db, "INSERT INTO categories (name) VALUES (?)");
+             SqlStatement item = SqlStatement.compile(db, "INSERT INTO inventory "
+                     + "(item_name, item_quantity, unit_cost_minor, category_id) VALUES (?, ?, ?, ?)")) {
+            for (int c = 1; c <= categories; c++) {
+                category.bindString(1, "Category " + c);
+                category.executeInsert();
+            }
+            for (int i = 1; i <= items; i++) {
+                item.bindString(1, "Item " + i);
+                item.bindLong(2, random.nextInt(500));
+                item.bindLong(3, random.nextInt(100_000));
+                if (i % 10 == 0) {
+                    item.bindNull(4);
+                } else {
+                    item.bindLong(4, 1 + random.nextInt(categories));
+                }
+                item.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.cs360projecttwo;
+
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Headless load test. Replays a seeded workload through the app's login
+ * and grid code paths and reports throughput and p50/p99/p999 latency.
+ *
+ * Tune with -Dworkload.seed, -Dworkload.items, -Dworkload.users,
+ * -Dworkload.ops and -Dworkload.zipf. The report is written to
+ * build/workload/report-seed&lt;N&gt;.txt so runs on two branches can be diffed.
+ * Timings vary from machine to machine, so the test only asserts what a
+ * seed fixes: how many operations of each type ran and which logins failed.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class WorkloadBenchmarkTest {
+
+    @After
+    public void tearDown() {
+        InventoryRepository.resetForTesting();
+    }
+
+    @Test
+    public void generator_isDeterministicForASeed() {
+        WorkloadGenerator.Config config = new WorkloadGenerator.Config();
+        config.operations = 2_000;
+        WorkloadGenerator first = new WorkloadGenerator(config);
+        WorkloadGenerator second = new WorkloadGenerator(config);
+        assertEquals(first.operations(), second.operations());
+        assertEquals(first.seedItems().get(17).getQuantity(), second.seedItems().get(17).getQuantity());
+
+        WorkloadGenerator.Config other = new WorkloadGenerator.Config();
+        other.operations = 2_000;
+        other.seed = 7;
+        assertNotEquals(first.operations(), new WorkloadGenerator(other).operations());
+    }
+
+    @Test
+    public void zipf_concentratesAccessOnFewItems() {
+        WorkloadGenerator.Zipf zipf = new WorkloadGenerator.Zipf(10_000, 1.1);
+        Random random = new Random(1);
+        int hot = 0;
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            if (zipf.sample(random) < 100) {
+                hot++;
+            }
+        }
+        // Top 1% of items should draw well over half the traffic at s = 1.1
+        assertTrue("hot share " + hot, hot > samples / 2);
+    }
+
+    @Test
+    public void replay_runsEveryGeneratedOperation() throws Exception {
+        WorkloadGenerator.Config config = WorkloadGenerator.Config.fromSystemProperties();
+        if (System.getProperty("workload.ops") == null) {
+            // Keep the default CI run short; pass -Dworkload.ops for a real comparison
+            config.items = 1_000;
+            config.operations = 3_000;
+        }
+        WorkloadGenerator generator = new WorkloadGenerator(config);
+        List<WorkloadGenerator.Op> ops = generator.operations();
+
+        WorkloadRunner runner = new WorkloadRunner(ApplicationProvider.<Application>getApplicationContext(), generator);
+        runner.seed();
+        drainBackgroundWork();
+
+        WorkloadRunner.Report report = runner.run(ops);
+        writeReport(config, report.format(config));
+
+        Map<WorkloadGenerator.OpType, Integer> expected = new EnumMap<>(WorkloadGenerator.OpType.class);
+        int badPasswords = 0;
+        for (WorkloadGenerator.Op op : ops) {
+            expected.merge(op.type, 1, Integer::sum);
+            if (op.type == WorkloadGenerator.OpType.LOGIN && op.value != 0) {
+                badPasswords++;
+            }
+        }
+        for (WorkloadGenerator.OpType type : WorkloadGenerator.OpType.values()) {
+            assertEquals(type.name(), (int) expected.getOrDefault(type, 0), report.byType.get(type).count());
+        }
+        assertEquals(badPasswords, report.failedLogins);
+    }
+
+    private static void writeReport(WorkloadGenerator.Config config, String text) throws IOException {
+        File dir = new File("build/workload");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return;
+        }
+        try (Writer writer = new FileWriter(new File(dir, "report-seed" + config.seed + ".txt"))) {
+            writer.write(text);
+        }
+    }
+
+    /** Lets the grid's live query deliver its first snapshot to the ViewModel. */
+    private static void drainBackgroundWork() throws Exception {
+        InventoryRepository.getInstance(ApplicationProvider.getApplicationContext())
+                .getInvalidationTracker().drainForTesting();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
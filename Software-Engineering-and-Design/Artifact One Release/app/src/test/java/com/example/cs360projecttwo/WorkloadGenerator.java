@@ -0,0 +1,170 @@
+package com.example.cs360projecttwo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * WorkloadGenerator
+ *
+ * Builds a reproducible mix of user actions for load tests. The same seed
+ * and config always produce the same data set and the same operation
+ * sequence, so two branches can be compared on identical work.
+ *
+ * Items and users are picked with a Zipf distribution: a few hot items
+ * take most of the edits and searches, as they would in a real stockroom.
+ */
+final class WorkloadGenerator {
+
+    enum OpType {
+        LOGIN, LIST, SEARCH, ADD, UPDATE, DELETE
+    }
+
+    /** One generated action. Targets are popularity ranks, resolved to rows at replay time. */
+    static final class Op {
+        final OpType type;
+        final int rank;
+        final int value;
+
+        Op(OpType type, int rank, int value) {
+            this.type = type;
+            this.rank = rank;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Op)) {
+                return false;
+            }
+            Op other = (Op) o;
+            return type == other.type && rank == other.rank && value == other.value;
+        }
+
+        @Override
+        public int hashCode() {
+            return (type.ordinal() * 31 + rank) * 31 + value;
+        }
+    }
+
+    static final class Config {
+        long seed = 42;
+        int users = 50;
+        int items = 5_000;
+        int operations = 20_000;
+        double zipfExponent = 1.1;
+        // Relative weights in OpType order: login, list, search, add, update, delete
+        int[] mix = {5, 5, 20, 10, 55, 5};
+
+        /** Reads workload.* system properties so runs can be tuned from the command line. */
+        static Config fromSystemProperties() {
+            Config config = new Config();
+            config.seed = Long.getLong("workload.seed", config.seed);
+            config.users = Integer.getInteger("workload.users", config.users);
+            config.items = Integer.getInteger("workload.items", config.items);
+            config.operations = Integer.getInteger("workload.ops", config.operations);
+            String exponent = System.getProperty("workload.zipf");
+            if (exponent != null) {
+                config.zipfExponent = Double.parseDouble(exponent);
+            }
+            return config;
+        }
+    }
+
+    /** Samples ranks 0..n-1 with P(k) proportional to 1/(k+1)^s, via a precomputed CDF. */
+    static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double exponent) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cdf[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cdf[k] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+        }
+    }
+
+    private final Config config;
+
+    WorkloadGenerator(Config config) {
+        this.config = config;
+    }
+
+    Config getConfig() {
+        return config;
+    }
+
+    /** Initial catalog, in insertion order (rank 0 is the most popular item). */
+    List<InventoryItem> seedItems() {
+        Random random = new Random(config.seed);
+        List<InventoryItem> items = new ArrayList<>(config.items);
+        for (int i = 0; i < config.items; i++) {
+            items.add(new InventoryItem(0, itemName(i), 50 + random.nextInt(950)));
+        }
+        return items;
+    }
+
+    static String itemName(int index) {
+        return "Item " + index;
+    }
+
+    static String userName(int index) {
+        return "user" + index;
+    }
+
+    static String password(int index) {
+        return "pw-" + index;
+    }
+
+    List<Op> operations() {
+        Random random = new Random(config.seed ^ 0x5DEECE66DL);
+        Zipf itemPicker = new Zipf(config.items, config.zipfExponent);
+        Zipf userPicker = new Zipf(config.users, config.zipfExponent);
+        int totalWeight = 0;
+        for (int weight : config.mix) {
+            totalWeight += weight;
+        }
+
+        List<Op> ops = new ArrayList<>(config.operations);
+        for (int i = 0; i < config.operations; i++) {
+            OpType type = pickType(random.nextInt(totalWeight));
+            switch (type) {
+                case LOGIN:
+                    // One in ten attempts uses a wrong password
+                    ops.add(new Op(type, userPicker.sample(random), random.nextInt(10) == 0 ? 1 : 0));
+                    break;
+                case ADD:
+                    ops.add(new Op(type, 0, 1 + random.nextInt(500)));
+                    break;
+                case LIST:
+                    ops.add(new Op(type, 0, 0));
+                    break;
+                default:
+                    ops.add(new Op(type, itemPicker.sample(random), 1 + random.nextInt(999)));
+                    break;
+            }
+        }
+        return ops;
+    }
+
+    private OpType pickType(int roll) {
+        OpType[] types = OpType.values();
+        for (int i = 0; i < types.length; i++) {
+            roll -= config.mix[i];
+            if (roll < 0) {
+                return types[i];
+            }
+        }
+        return types[types.length - 1];
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.cs360projecttwo;
+
+import android.app.Application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * WorkloadRunner
+ *
+ * Replays a {@link WorkloadGenerator} sequence through the same code the
+ * screens use: DatabaseHelper's validateUser/getUserRole (login), the
+ * repository calls the grid's live query and ViewModel mutations run (list,
+ * add, update, delete), and InventoryViewModel's search filter (search).
+ * Each call is timed individually.
+ */
+final class WorkloadRunner {
+
+    /** Latency samples for one operation type. */
+    static final class Stats {
+        private long[] samples = new long[1024];
+        private int count;
+
+        void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        int count() {
+            return count;
+        }
+
+        /** Nearest-rank percentile in microseconds. */
+        double percentileMicros(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(rank, count - 1))] / 1_000.0;
+        }
+    }
+
+    static final class Report {
+        final Map<WorkloadGenerator.OpType, Stats> byType = new EnumMap<>(WorkloadGenerator.OpType.class);
+        final Stats overall = new Stats();
+        long wallNanos;
+        int failedLogins;
+
+        double throughputPerSecond() {
+            return wallNanos == 0 ? 0 : overall.count() * 1e9 / wallNanos;
+        }
+
+        String format(WorkloadGenerator.Config config) {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format(Locale.US,
+                    "workload seed=%d users=%d items=%d ops=%d zipf=%.2f%n",
+                    config.seed, config.users, config.items, config.operations, config.zipfExponent));
+            out.append(String.format(Locale.US, "throughput %.0f ops/s over %.1f ms%n",
+                    throughputPerSecond(), wallNanos / 1e6));
+            out.append(String.format(Locale.US, "%-8s %8s %10s %10s %10s%n",
+                    "op", "count", "p50 us", "p99 us", "p999 us"));
+            for (Map.Entry<WorkloadGenerator.OpType, Stats> entry : byType.entrySet()) {
+                appendRow(out, entry.getKey().name(), entry.getValue());
+            }
+            appendRow(out, "ALL", overall);
+            return out.toString();
+        }
+
+        private static void appendRow(StringBuilder out, String label, Stats stats) {
+            out.append(String.format(Locale.US, "%-8s %8d %10.1f %10.1f %10.1f%n", label, stats.count(),
+                    stats.percentileMicros(50), stats.percentileMicros(99), stats.percentileMicros(99.9)));
+        }
+    }
+
+    private final InventoryRepository repository;
+    private final DatabaseHelper dbHelper;
+    private final InventoryViewModel viewModel;
+    private final WorkloadGenerator generator;
+    private final List<Long> liveIds = new ArrayList<>();
+
+    WorkloadRunner(Application application, WorkloadGenerator generator) {
+        this.repository = InventoryRepository.getInstance(application);
+        this.dbHelper = repository.getDatabaseHelper();
+        this.viewModel = new InventoryViewModel(application);
+        this.generator = generator;
+    }
+
+    /** Registers users and imports the catalog; not timed. */
+    void seed() {
+        WorkloadGenerator.Config config = generator.getConfig();
+        for (int i = 0; i < config.users; i++) {
+            dbHelper.registerUser(WorkloadGenerator.userName(i), WorkloadGenerator.password(i), "user");
+        }
+        for (InventoryItem item : repository.insertItemsAndGet(generator.seedItems())) {
+            liveIds.add(item.getId());
+        }
+        // The grid's ViewModel filters this snapshot on search
+        viewModel.getVisibleItems().observeForever(items -> { });
+    }
+
+    /** Must be called on the main thread (the ViewModel's search runs there). */
+    Report run(List<WorkloadGenerator.Op> ops) {
+        Report report = new Report();
+        for (WorkloadGenerator.OpType type : WorkloadGenerator.OpType.values()) {
+            report.byType.put(type, new Stats());
+        }
+
+        long wallStart = System.nanoTime();
+        for (WorkloadGenerator.Op op : ops) {
+            long start = System.nanoTime();
+            execute(op, report);
+            long elapsed = System.nanoTime() - start;
+            report.byType.get(op.type).record(elapsed);
+            report.overall.record(elapsed);
+        }
+        report.wallNanos = System.nanoTime() - wallStart;
+        return report;
+    }
+
+    private void execute(WorkloadGenerator.Op op, Report report) {
+        switch (op.type) {
+            case LOGIN: {
+                String user = WorkloadGenerator.userName(op.rank);
+                String password = op.value == 0 ? WorkloadGenerator.password(op.rank) : "wrong";
+                if (dbHelper.validateUser(user, password)) {
+                    dbHelper.getUserRole(user);
+                } else {
+                    report.failedLogins++;
+                }
+                break;
+            }
+            case LIST:
+                repository.getAllItems();
+                break;
+            case SEARCH:
+                viewModel.setSearchQuery(WorkloadGenerator.itemName(op.rank));
+                viewModel.setSearchQuery("");
+                break;
+            case ADD: {
+                InventoryItem added = repository.insertItem("New " + liveIds.size(), op.value);
+                if (added != null) {
+                    liveIds.add(added.getId());
+                }
+                break;
+            }
+            case UPDATE:
+                if (!liveIds.isEmpty()) {
+                    repository.updateQuantity(liveIds.get(op.rank % liveIds.size()), op.value);
+                }
+                break;
+            case DELETE:
+                if (!liveIds.isEmpty()) {
+                    repository.deleteItem(liveIds.remove(op.rank % liveIds.size()));
+                }
+                break;
+        }
+    }
+}